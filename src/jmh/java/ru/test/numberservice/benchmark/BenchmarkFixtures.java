@@ -0,0 +1,50 @@
+package ru.test.numberservice.benchmark;
+
+import ru.test.numberservice.util.WorkbookGenerator;
+import ru.test.numberservice.util.WorkbookSpec;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+
+/**
+ * Воспроизводимые входные данные бенчмарков.
+ * Книги генерируются один раз в каталог {@code target/benchmark-fixtures} и переиспользуются между запусками.
+ */
+final class BenchmarkFixtures {
+
+    static final Path FIXTURES_DIR = Path.of(System.getProperty("benchmark.fixtures", "target/benchmark-fixtures"));
+    static final long SEED = 42;
+
+    private static final int MIN_COLUMNS = 1;
+    private static final int MAX_ROWS = 1_000_000;
+
+    private BenchmarkFixtures() {
+    }
+
+    /**
+     * Массив случайных чисел с фиксированным начальным значением генератора
+     */
+    static int[] randomNumbers(int count) {
+        SplittableRandom random = new SplittableRandom(SEED);
+        int[] numbers = new int[count];
+        for (int i = 0; i < count; i++) {
+            numbers[i] = random.nextInt();
+        }
+        return numbers;
+    }
+
+    /**
+     * Книга с заданным количеством ячеек; большие объемы распределяются по столбцам,
+     * чтобы не превысить ограничение Excel на количество строк листа
+     */
+    static Path workbook(long cells) throws IOException {
+        int columns = (int) Math.max(MIN_COLUMNS, (cells + MAX_ROWS - 1) / MAX_ROWS);
+        return WorkbookGenerator.getOrCreate(FIXTURES_DIR, WorkbookSpec.builder()
+                .cells(cells)
+                .columns(columns)
+                .seed(SEED)
+                .textRatio(0.1)
+                .build());
+    }
+}
@@ -0,0 +1,69 @@
+package ru.test.numberservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.test.numberservice.NumberServiceApp;
+import ru.test.numberservice.service.NumberService;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сквозной бенчмарк NumberService.findNthMinNumber: валидация, чтение книги и выбор.
+ * Сервис берется из контекста Spring без веб-сервера, с настройками приложения.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+public class FindNthMinBenchmark {
+
+    @Param({"10000", "1000000"})
+    private long cells;
+
+    @Param({"1", "1000"})
+    private int n;
+
+    @Param({"false", "true"})
+    private boolean cacheEnabled;
+
+    private ConfigurableApplicationContext context;
+    private NumberService numberService;
+    private String filePath;
+
+    @Setup
+    public void setUp() throws IOException {
+        filePath = BenchmarkFixtures.workbook(cells).toString();
+        context = new SpringApplicationBuilder(NumberServiceApp.class)
+                .web(WebApplicationType.NONE)
+                .run("--number-service.cache.enabled=" + cacheEnabled,
+                        "--number-service.large-file.enabled=true",
+                        "--logging.level.ru.test.numberservice=WARN");
+        numberService = context.getBean(NumberService.class);
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public int findNthMinNumber() {
+        return numberService.findNthMinNumber(filePath, n);
+    }
+}
@@ -0,0 +1,99 @@
+package ru.test.numberservice.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.test.numberservice.selection.HeapSelection;
+import ru.test.numberservice.selection.HistogramSelection;
+import ru.test.numberservice.selection.QuickSelectSelection;
+import ru.test.numberservice.selection.SelectionStrategy;
+
+import java.util.Collections;
+import java.util.PriorityQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение алгоритмов выбора N-го минимального числа из M чисел:
+ * куча на PriorityQueue&lt;Integer&gt; (исходная реализация processNumber),
+ * куча на примитивном массиве, introselect по буферу и подсчет по диапазону значений
+ * (на числах узкого диапазона, где он применим).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SelectionBenchmark {
+
+    @Param({"10", "1000", "100000"})
+    private int n;
+
+    @Param({"100000", "1000000", "10000000"})
+    private int m;
+
+    private int[] numbers;
+    private int[] codes;
+
+    @Setup
+    public void setUp() {
+        numbers = BenchmarkFixtures.randomNumbers(m);
+        codes = new int[m];
+        for (int i = 0; i < m; i++) {
+            codes[i] = Math.floorMod(numbers[i], 100_000);
+        }
+    }
+
+    @Benchmark
+    public int boxedPriorityQueue() {
+        PriorityQueue<Integer> maxHeap = new PriorityQueue<>(n, Collections.reverseOrder());
+        for (int number : numbers) {
+            if (maxHeap.size() < n) {
+                maxHeap.offer(number);
+            } else if (number < maxHeap.peek()) {
+                maxHeap.poll();
+                maxHeap.offer(number);
+            }
+        }
+        return maxHeap.peek();
+    }
+
+    @Benchmark
+    public int primitiveHeap() {
+        return select(new HeapSelection(n));
+    }
+
+    @Benchmark
+    public int quickSelect() {
+        return select(new QuickSelectSelection(n, m));
+    }
+
+    @Benchmark
+    public int primitiveHeapOnCodes() {
+        return select(new HeapSelection(n), codes);
+    }
+
+    @Benchmark
+    public int histogramOnCodes() {
+        return select(new HistogramSelection(n, 16, () -> new HeapSelection(n)), codes);
+    }
+
+    private int select(SelectionStrategy selection) {
+        return select(selection, numbers);
+    }
+
+    private int select(SelectionStrategy selection, int[] numbers) {
+        for (int number : numbers) {
+            selection.accept(number);
+        }
+        return selection.result();
+    }
+}
@@ -0,0 +1,73 @@
+package ru.test.numberservice.benchmark;
+
+import org.apache.poi.ss.usermodel.Cell;
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.usermodel.WorkbookFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import ru.test.numberservice.reader.XlsxStreamReader;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Сравнение чтения чисел из книги через объектную модель POI (WorkbookFactory)
+ * и через потоковый SAX разбор. Объектной модели на больших книгах нужен большой -Xmx.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class XlsxReadBenchmark {
+
+    @Param({"10000", "100000", "1000000", "10000000"})
+    private long cells;
+
+    private File file;
+    private final XlsxStreamReader streamReader = new XlsxStreamReader();
+
+    @Setup
+    public void setUp() throws IOException {
+        file = BenchmarkFixtures.workbook(cells).toFile();
+    }
+
+    @Benchmark
+    public long domRead() throws IOException {
+        long sum = 0;
+        try (FileInputStream in = new FileInputStream(file);
+             Workbook workbook = WorkbookFactory.create(in)) {
+            for (Row row : workbook.getSheetAt(0)) {
+                for (Cell cell : row) {
+                    if (cell.getCellType() == CellType.NUMERIC) {
+                        sum += (int) cell.getNumericCellValue();
+                    } else if (cell.getCellType() == CellType.STRING) {
+                        sum += Integer.parseInt(cell.getStringCellValue().trim());
+                    }
+                }
+            }
+        }
+        return sum;
+    }
+
+    @Benchmark
+    public long streamingRead() throws IOException {
+        long[] sum = new long[1];
+        streamReader.readFirstSheet(file, number -> sum[0] += number);
+        return sum[0];
+    }
+}
@@ -0,0 +1,66 @@
+package ru.test.numberservice.loadtest;
+
+/**
+ * Виды запросов нагрузки и их имена в параметре {@code mix}
+ */
+enum Endpoint {
+
+    /**
+     * N-е минимальное число первого листа: {@code /api/find-nth-min}
+     */
+    NTH_MIN("nth-min"),
+
+    /**
+     * N-е максимальное число в режиме long: {@code /api/find-nth-min?order=MAX&mode=LONG}
+     */
+    NTH_MAX("nth-max"),
+
+    /**
+     * N-е различное число: {@code /api/find-nth-min?distinct=true}
+     */
+    DISTINCT("distinct"),
+
+    /**
+     * N-е минимальное на всех листах: {@code /api/find-nth-min?sheets=*}
+     */
+    ALL_SHEETS("all-sheets"),
+
+    /**
+     * Три порядковые статистики за один запрос: {@code /api/find-nth-min/batch}
+     */
+    BATCH("batch"),
+
+    /**
+     * Приближенный поиск: {@code /api/find-nth-min/approx}
+     */
+    APPROX("approx"),
+
+    /**
+     * Поиск по всем книгам нагрузки: {@code /api/find-nth-min/directory}
+     */
+    DIRECTORY("directory"),
+
+    /**
+     * Книга в теле запроса: {@code /api/find-nth-min/upload}
+     */
+    UPLOAD("upload");
+
+    private final String id;
+
+    Endpoint(String id) {
+        this.id = id;
+    }
+
+    String id() {
+        return id;
+    }
+
+    static Endpoint of(String id) {
+        for (Endpoint endpoint : values()) {
+            if (endpoint.id.equals(id)) {
+                return endpoint;
+            }
+        }
+        throw new IllegalArgumentException("Unknown endpoint in mix: " + id);
+    }
+}
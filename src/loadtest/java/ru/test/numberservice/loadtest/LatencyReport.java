@@ -0,0 +1,142 @@
+package ru.test.numberservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.HistogramLogWriter;
+import org.HdrHistogram.Recorder;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Задержки запросов нагрузки по видам запросов в HdrHistogram, в микросекундах.
+ * Клиенты пишут задержки в {@link Recorder} без блокировок; раз в интервал накопленные гистограммы
+ * забираются, пишутся в журнал интервалов {@code latency.hlog} и добавляются к итоговым.
+ * Итоговые распределения сохраняются в {@code <вид запроса>.hgrm} в миллисекундах.
+ */
+@Slf4j
+final class LatencyReport implements AutoCloseable {
+
+    private static final long MAX_LATENCY_MICROS = TimeUnit.MINUTES.toMicros(10);
+    private static final int SIGNIFICANT_DIGITS = 3;
+    private static final double MICROS_PER_MILLI = 1000.0;
+
+    private final Map<Endpoint, Recorder> recorders = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, Histogram> totals = new EnumMap<>(Endpoint.class);
+    private final Map<Endpoint, LongAdder> errors = new EnumMap<>(Endpoint.class);
+    private final Path outputDir;
+    private final PrintStream intervalLog;
+    private final HistogramLogWriter logWriter;
+    private volatile boolean measuring;
+    private long measureStartMillis;
+    private long measureEndMillis;
+
+    LatencyReport(Iterable<Endpoint> endpoints, Path outputDir) throws IOException {
+        for (Endpoint endpoint : endpoints) {
+            recorders.put(endpoint, new Recorder(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS));
+            totals.put(endpoint, new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS));
+            errors.put(endpoint, new LongAdder());
+        }
+        this.outputDir = outputDir;
+        Files.createDirectories(outputDir);
+        this.intervalLog = new PrintStream(outputDir.resolve("latency.hlog").toFile());
+        this.logWriter = new HistogramLogWriter(intervalLog);
+    }
+
+    /**
+     * Запись задержки запроса; вызывается из потоков клиентов
+     *
+     * @param failed запрос завершился ошибкой или ответом не 2xx
+     */
+    void record(Endpoint endpoint, long nanos, boolean failed) {
+        recorders.get(endpoint).recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(nanos), MAX_LATENCY_MICROS));
+        if (failed && measuring) {
+            errors.get(endpoint).increment();
+        }
+    }
+
+    /**
+     * Окончание прогрева: накопленные задержки отбрасываются, начинается измерение
+     */
+    synchronized void startMeasurement() {
+        recorders.values().forEach(Recorder::reset);
+        measureStartMillis = System.currentTimeMillis();
+        measuring = true;
+        logWriter.outputLogFormatVersion();
+        logWriter.outputComment("Latency in microseconds, tagged by endpoint");
+        logWriter.outputStartTime(measureStartMillis);
+        logWriter.setBaseTime(measureStartMillis);
+        logWriter.outputLegend();
+    }
+
+    /**
+     * Перенос задержек интервала в журнал и итоговые гистограммы
+     */
+    synchronized void collectInterval() {
+        if (!measuring) {
+            return;
+        }
+        for (Map.Entry<Endpoint, Recorder> entry : recorders.entrySet()) {
+            Histogram interval = entry.getValue().getIntervalHistogram();
+            if (interval.getTotalCount() == 0) {
+                continue;
+            }
+            interval.setTag(entry.getKey().id());
+            logWriter.outputIntervalHistogram(interval);
+            totals.get(entry.getKey()).add(interval);
+        }
+        measureEndMillis = System.currentTimeMillis();
+    }
+
+    /**
+     * Итоги измерения: пропускная способность, p50, p99, p99.9 и максимум по каждому виду запросов
+     */
+    synchronized void writeSummary() throws FileNotFoundException {
+        collectInterval();
+        measuring = false;
+        double seconds = Math.max(1, measureEndMillis - measureStartMillis) / 1000.0;
+        Histogram all = new Histogram(MAX_LATENCY_MICROS, SIGNIFICANT_DIGITS);
+        long allErrors = 0;
+
+        log.info(String.format("%-11s %9s %7s %9s %9s %9s %9s %9s",
+                "endpoint", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms"));
+        for (Map.Entry<Endpoint, Histogram> entry : totals.entrySet()) {
+            Histogram total = entry.getValue();
+            long endpointErrors = errors.get(entry.getKey()).sum();
+            all.add(total);
+            allErrors += endpointErrors;
+            log.info(summaryLine(entry.getKey().id(), total, endpointErrors, seconds));
+            writeDistribution(entry.getKey().id(), total);
+        }
+        log.info(summaryLine("total", all, allErrors, seconds));
+        writeDistribution("total", all);
+        log.info("Latency distributions and interval log written to {}", outputDir.toAbsolutePath());
+    }
+
+    private static String summaryLine(String name, Histogram histogram, long errors, double seconds) {
+        return String.format("%-11s %9d %7d %9.1f %9.2f %9.2f %9.2f %9.2f", name, histogram.getTotalCount(),
+                errors, histogram.getTotalCount() / seconds,
+                histogram.getValueAtPercentile(50) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99) / MICROS_PER_MILLI,
+                histogram.getValueAtPercentile(99.9) / MICROS_PER_MILLI,
+                histogram.getMaxValue() / MICROS_PER_MILLI);
+    }
+
+    private void writeDistribution(String name, Histogram histogram) throws FileNotFoundException {
+        try (PrintStream out = new PrintStream(outputDir.resolve(name + ".hgrm").toFile())) {
+            histogram.outputPercentileDistribution(out, MICROS_PER_MILLI);
+        }
+    }
+
+    @Override
+    public void close() {
+        intervalLog.close();
+    }
+}
@@ -0,0 +1,148 @@
+package ru.test.numberservice.loadtest;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import ru.test.numberservice.NumberServiceApp;
+import ru.test.numberservice.util.WorkbookGenerator;
+import ru.test.numberservice.util.WorkbookSpec;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Нагрузочный тест REST API на встроенном сервере.
+ * Генерирует книги заданного размера и формы, запускает приложение на свободном порту и нагружает его
+ * запросами по долям {@code mix} из заданного числа клиентов по замкнутому циклу: клиент отправляет
+ * следующий запрос после ответа на предыдущий. Задержки пишутся в HdrHistogram.
+ *
+ * <p>Запуск: {@code mvn -P loadtest package -DskipTests exec:exec -Dloadtest.args="concurrency=32 duration=60s"}.
+ * Книги и начальные значения генераторов фиксированы, поэтому разные сборки сравниваются на одинаковой нагрузке.
+ */
+@Slf4j
+public final class LoadTest {
+
+    private static final long COLLECT_INTERVAL_MILLIS = 1000;
+
+    private LoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        Path workbookDir = workbookDir(options);
+        List<Path> workbooks = generateWorkbooks(options, workbookDir);
+
+        try (ConfigurableApplicationContext context = startServer(options);
+             LatencyReport report = new LatencyReport(options.mix().keySet(), options.outputDir())) {
+            int port = ((WebServerApplicationContext) context).getWebServer().getPort();
+            Workload workload = new Workload(URI.create("http://localhost:" + port), workbooks, workbookDir,
+                    options.n(), options.mix());
+            log.info("Load test: {} clients, warmup {}, duration {}, N {}, mix {}, workbooks {}",
+                    options.concurrency(), options.warmup(), options.duration(), options.n(), options.mix(),
+                    options.workbook());
+            run(options, workload, report);
+            report.writeSummary();
+        }
+    }
+
+    /**
+     * Каталог книг нагрузки: отдельный для каждого набора параметров, чтобы поиск по каталогу
+     * читал ровно книги этого набора
+     */
+    private static Path workbookDir(LoadTestOptions options) {
+        String name = options.workbook().fileName().replace(".xlsx", "") + "_x" + options.files();
+        return options.outputDir().resolve("workbooks").resolve(name);
+    }
+
+    private static List<Path> generateWorkbooks(LoadTestOptions options, Path workbookDir) throws IOException {
+        WorkbookSpec base = options.workbook();
+        List<Path> workbooks = new ArrayList<>(options.files());
+        for (int i = 0; i < options.files(); i++) {
+            workbooks.add(WorkbookGenerator.getOrCreate(workbookDir, WorkbookSpec.builder()
+                    .cells(base.getCells())
+                    .columns(base.getColumns())
+                    .sheets(base.getSheets())
+                    .seed(base.getSeed() + i)
+                    .minValue(base.getMinValue())
+                    .maxValue(base.getMaxValue())
+                    .textRatio(base.getTextRatio())
+                    .nonNumericRatio(base.getNonNumericRatio())
+                    .sharedStrings(base.isSharedStrings())
+                    .build()));
+        }
+        return workbooks;
+    }
+
+    private static ConfigurableApplicationContext startServer(LoadTestOptions options) {
+        List<String> args = new ArrayList<>();
+        args.add("--server.port=0");
+        args.add("--logging.level.ru.test.numberservice=WARN");
+        args.addAll(options.serverArgs());
+        return new SpringApplicationBuilder(NumberServiceApp.class).run(args.toArray(new String[0]));
+    }
+
+    /**
+     * Прогрев и измерение: клиенты работают до конца измерения, задержки интервалов собираются раз в секунду
+     */
+    private static void run(LoadTestOptions options, Workload workload, LatencyReport report) throws Exception {
+        HttpClient client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+        long warmupEnd = System.nanoTime() + options.warmup().toNanos();
+        long end = warmupEnd + options.duration().toNanos();
+
+        ExecutorService clients = Executors.newFixedThreadPool(options.concurrency());
+        try {
+            List<Future<?>> futures = new ArrayList<>(options.concurrency());
+            for (int i = 0; i < options.concurrency(); i++) {
+                SplittableRandom random = new SplittableRandom(options.workbook().getSeed() + i);
+                futures.add(clients.submit(() -> runClient(client, workload, report, random, end)));
+            }
+
+            boolean measuring = false;
+            while (System.nanoTime() < end) {
+                TimeUnit.MILLISECONDS.sleep(COLLECT_INTERVAL_MILLIS);
+                if (!measuring && System.nanoTime() >= warmupEnd) {
+                    log.info("Warmup finished, measuring for {}", options.duration());
+                    report.startMeasurement();
+                    measuring = true;
+                } else {
+                    report.collectInterval();
+                }
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            clients.shutdownNow();
+        }
+    }
+
+    private static void runClient(HttpClient client, Workload workload, LatencyReport report,
+                                  SplittableRandom random, long end) {
+        while (System.nanoTime() < end) {
+            Workload.Call call = workload.next(random);
+            long start = System.nanoTime();
+            boolean failed;
+            try {
+                HttpResponse<Void> response = client.send(call.request(), HttpResponse.BodyHandlers.discarding());
+                failed = response.statusCode() / 100 != 2;
+            } catch (IOException e) {
+                failed = true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            report.record(call.endpoint(), System.nanoTime() - start, failed);
+        }
+    }
+}
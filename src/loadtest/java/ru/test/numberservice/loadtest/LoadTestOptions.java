@@ -0,0 +1,117 @@
+package ru.test.numberservice.loadtest;
+
+import org.springframework.boot.convert.DurationStyle;
+import ru.test.numberservice.util.WorkbookSpec;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Параметры нагрузочного теста из аргументов вида {@code key=value}.
+ * Аргументы вида {@code --number-service.cache.enabled=false} передаются встроенному серверу как есть,
+ * поэтому разные настройки сервиса сравниваются на одной и той же нагрузке.
+ *
+ * @param workbook параметры генерируемых книг; книги отличаются только начальным значением генератора
+ * @param files количество книг
+ * @param concurrency количество одновременных клиентов
+ * @param warmup время прогрева, его задержки не учитываются
+ * @param duration время измерения
+ * @param n распределение N
+ * @param mix доли видов запросов
+ * @param outputDir каталог книг и результатов
+ * @param serverArgs аргументы встроенного сервера
+ */
+record LoadTestOptions(WorkbookSpec workbook, int files, int concurrency, Duration warmup, Duration duration,
+                       NDistribution n, Map<Endpoint, Integer> mix, Path outputDir, List<String> serverArgs) {
+
+    static LoadTestOptions parse(String[] args) {
+        long cells = 100_000;
+        int columns = 1;
+        int sheets = 1;
+        long seed = 42;
+        int minValue = -1_000_000;
+        int maxValue = 1_000_000;
+        double textRatio = 0.1;
+        boolean sharedStrings = false;
+        int files = 4;
+        int concurrency = 16;
+        Duration warmup = Duration.ofSeconds(10);
+        Duration duration = Duration.ofSeconds(30);
+        NDistribution n = NDistribution.parse("log:1:10000");
+        Map<Endpoint, Integer> mix = parseMix("nth-min:100");
+        Path outputDir = Path.of("target/loadtest");
+        List<String> serverArgs = new ArrayList<>();
+
+        for (String arg : args) {
+            if (arg.isBlank()) {
+                continue;
+            }
+            if (arg.startsWith("--")) {
+                serverArgs.add(arg);
+                continue;
+            }
+            int separator = arg.indexOf('=');
+            if (separator < 0) {
+                throw new IllegalArgumentException("Expected key=value, got: " + arg);
+            }
+            String value = arg.substring(separator + 1);
+            switch (arg.substring(0, separator)) {
+                case "cells" -> cells = Long.parseLong(value);
+                case "columns" -> columns = Integer.parseInt(value);
+                case "sheets" -> sheets = Integer.parseInt(value);
+                case "seed" -> seed = Long.parseLong(value);
+                case "min-value" -> minValue = Integer.parseInt(value);
+                case "max-value" -> maxValue = Integer.parseInt(value);
+                case "text-ratio" -> textRatio = Double.parseDouble(value);
+                case "shared-strings" -> sharedStrings = Boolean.parseBoolean(value);
+                case "files" -> files = Integer.parseInt(value);
+                case "concurrency" -> concurrency = Integer.parseInt(value);
+                case "warmup" -> warmup = DurationStyle.detectAndParse(value);
+                case "duration" -> duration = DurationStyle.detectAndParse(value);
+                case "n" -> n = NDistribution.parse(value);
+                case "mix" -> mix = parseMix(value);
+                case "output" -> outputDir = Path.of(value);
+                default -> throw new IllegalArgumentException("Unknown option: " + arg);
+            }
+        }
+        if (files < 1 || concurrency < 1) {
+            throw new IllegalArgumentException("files and concurrency should be positive");
+        }
+
+        WorkbookSpec workbook = WorkbookSpec.builder()
+                .cells(cells)
+                .columns(columns)
+                .sheets(sheets)
+                .seed(seed)
+                .minValue(minValue)
+                .maxValue(maxValue)
+                .textRatio(textRatio)
+                .sharedStrings(sharedStrings)
+                .build();
+        return new LoadTestOptions(workbook, files, concurrency, warmup, duration, n, mix, outputDir,
+                List.copyOf(serverArgs));
+    }
+
+    /**
+     * Разбор долей видов запросов: {@code nth-min:80,batch:10,approx:10}
+     */
+    static Map<Endpoint, Integer> parseMix(String spec) {
+        Map<Endpoint, Integer> mix = new EnumMap<>(Endpoint.class);
+        for (String part : spec.split(",")) {
+            String[] weight = part.trim().split(":");
+            int value = weight.length == 2 ? Integer.parseInt(weight[1]) : 1;
+            if (value < 0) {
+                throw new IllegalArgumentException("Negative weight in mix: " + part);
+            }
+            mix.merge(Endpoint.of(weight[0]), value, Integer::sum);
+        }
+        if (mix.values().stream().mapToInt(Integer::intValue).sum() == 0) {
+            throw new IllegalArgumentException("Mix has no requests: " + spec);
+        }
+        return mix;
+    }
+}
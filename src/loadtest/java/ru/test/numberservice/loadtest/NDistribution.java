@@ -0,0 +1,61 @@
+package ru.test.numberservice.loadtest;
+
+import java.util.SplittableRandom;
+
+/**
+ * Распределение N в запросах нагрузки.
+ * Задается строкой {@code fixed:10}, {@code uniform:1:1000} или {@code log:1:100000};
+ * в логарифмическом распределении каждый порядок величины N выпадает одинаково часто,
+ * поэтому малые N встречаются чаще, как в отчетах.
+ */
+record NDistribution(Kind kind, int min, int max) {
+
+    enum Kind {
+        FIXED, UNIFORM, LOG
+    }
+
+    static NDistribution parse(String spec) {
+        String[] parts = spec.split(":");
+        try {
+            Kind kind = Kind.valueOf(parts[0].toUpperCase());
+            if (kind == Kind.FIXED && parts.length == 2) {
+                int n = Integer.parseInt(parts[1]);
+                return validated(new NDistribution(kind, n, n), spec);
+            }
+            if (kind != Kind.FIXED && parts.length == 3) {
+                return validated(new NDistribution(kind, Integer.parseInt(parts[1]), Integer.parseInt(parts[2])), spec);
+            }
+        } catch (IllegalArgumentException e) {
+            // сообщение ниже
+        }
+        throw new IllegalArgumentException(
+                "Invalid N distribution: " + spec + ", expected fixed:N, uniform:MIN:MAX or log:MIN:MAX");
+    }
+
+    private static NDistribution validated(NDistribution distribution, String spec) {
+        if (distribution.min() < 1 || distribution.max() < distribution.min()) {
+            throw new IllegalArgumentException("Invalid N range: " + spec);
+        }
+        return distribution;
+    }
+
+    /**
+     * Следующее N
+     */
+    int next(SplittableRandom random) {
+        return switch (kind) {
+            case FIXED -> min;
+            case UNIFORM -> random.nextInt(min, max + 1);
+            case LOG -> {
+                double logMin = Math.log(min);
+                double logMax = Math.log(max + 1.0);
+                yield (int) Math.min(max, Math.exp(logMin + random.nextDouble() * (logMax - logMin)));
+            }
+        };
+    }
+
+    @Override
+    public String toString() {
+        return kind == Kind.FIXED ? "fixed:" + min : kind.name().toLowerCase() + ":" + min + ":" + max;
+    }
+}
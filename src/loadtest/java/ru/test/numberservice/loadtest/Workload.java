@@ -0,0 +1,111 @@
+package ru.test.numberservice.loadtest;
+
+import java.io.FileNotFoundException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpRequest;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+/**
+ * Генерация запросов нагрузки: вид запроса выбирается по долям {@code mix}, книга - равновероятно, N - по распределению.
+ * Каждый клиент использует свой генератор случайных чисел с начальным значением по номеру клиента,
+ * поэтому последовательность запросов повторяется от запуска к запуску.
+ */
+final class Workload {
+
+    private static final Duration REQUEST_TIMEOUT = Duration.ofMinutes(5);
+
+    private final URI baseUri;
+    private final List<Path> workbooks;
+    private final Path directory;
+    private final NDistribution n;
+    private final Endpoint[] endpoints;
+    private final int[] cumulativeWeights;
+
+    Workload(URI baseUri, List<Path> workbooks, Path directory, NDistribution n, Map<Endpoint, Integer> mix) {
+        this.baseUri = baseUri;
+        this.workbooks = workbooks;
+        this.directory = directory;
+        this.n = n;
+        this.endpoints = mix.keySet().toArray(new Endpoint[0]);
+        this.cumulativeWeights = new int[endpoints.length];
+        int total = 0;
+        for (int i = 0; i < endpoints.length; i++) {
+            total += mix.get(endpoints[i]);
+            cumulativeWeights[i] = total;
+        }
+    }
+
+    /**
+     * Запрос нагрузки и его вид
+     */
+    record Call(Endpoint endpoint, HttpRequest request) {
+    }
+
+    Call next(SplittableRandom random) {
+        Endpoint endpoint = nextEndpoint(random);
+        Path workbook = workbooks.get(random.nextInt(workbooks.size()));
+        String filePath = encode(workbook.toAbsolutePath().toString());
+        int nth = n.next(random);
+
+        HttpRequest request = switch (endpoint) {
+            case NTH_MIN -> post("/api/find-nth-min?filePath=" + filePath + "&n=" + nth);
+            case NTH_MAX -> post("/api/find-nth-min?filePath=" + filePath + "&n=" + nth + "&order=MAX&mode=LONG");
+            case DISTINCT -> post("/api/find-nth-min?filePath=" + filePath + "&n=" + nth + "&distinct=true");
+            case ALL_SHEETS -> post("/api/find-nth-min?filePath=" + filePath + "&n=" + nth + "&sheets=*");
+            case APPROX -> post("/api/find-nth-min/approx?filePath=" + filePath + "&n=" + nth);
+            case DIRECTORY -> post("/api/find-nth-min/directory?directory="
+                    + encode(directory.toAbsolutePath().toString()) + "&glob=*.xlsx&n=" + nth);
+            case BATCH -> request("/api/find-nth-min/batch")
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(String.format(
+                            "{\"filePath\": \"%s\", \"n\": [%d, %d, %d]}",
+                            json(workbook.toAbsolutePath().toString()), 1, nth, n.next(random))))
+                    .build();
+            case UPLOAD -> uploadRequest(workbook, nth);
+        };
+        return new Call(endpoint, request);
+    }
+
+    private HttpRequest uploadRequest(Path workbook, int nth) {
+        try {
+            return request("/api/find-nth-min/upload?n=" + nth)
+                    .header("Content-Type", "application/octet-stream")
+                    .POST(HttpRequest.BodyPublishers.ofFile(workbook))
+                    .build();
+        } catch (FileNotFoundException e) {
+            throw new IllegalStateException("Workbook disappeared: " + workbook, e);
+        }
+    }
+
+    private Endpoint nextEndpoint(SplittableRandom random) {
+        int point = random.nextInt(cumulativeWeights[cumulativeWeights.length - 1]);
+        for (int i = 0; i < cumulativeWeights.length; i++) {
+            if (point < cumulativeWeights[i]) {
+                return endpoints[i];
+            }
+        }
+        return endpoints[endpoints.length - 1];
+    }
+
+    private HttpRequest post(String pathAndQuery) {
+        return request(pathAndQuery).POST(HttpRequest.BodyPublishers.noBody()).build();
+    }
+
+    private HttpRequest.Builder request(String pathAndQuery) {
+        return HttpRequest.newBuilder(baseUri.resolve(pathAndQuery)).timeout(REQUEST_TIMEOUT);
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+
+    private static String json(String value) {
+        return value.replace("\\", "\\\\").replace("\"", "\\\"");
+    }
+}
@@ -2,8 +2,10 @@ package ru.test.numberservice;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 @SpringBootApplication
+@ConfigurationPropertiesScan
 public class NumberServiceApp {
     public static void main(String[] args) {
         SpringApplication.run(NumberServiceApp.class, args);
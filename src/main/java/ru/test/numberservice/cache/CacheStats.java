@@ -0,0 +1,23 @@
+package ru.test.numberservice.cache;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Снимок статистики кэша отсортированных чисел.
+ */
+@Schema(description = "Parsed file cache statistics")
+public record CacheStats(
+        @Schema(description = "Number of cache hits", example = "42")
+        long hits,
+        @Schema(description = "Number of cache misses", example = "3")
+        long misses,
+        @Schema(description = "Number of evicted entries", example = "1")
+        long evictions,
+        @Schema(description = "Number of cached files", example = "2")
+        int entries,
+        @Schema(description = "Bytes held by cached numbers", example = "4000000")
+        long residentBytes,
+        @Schema(description = "Cache capacity in bytes", example = "67108864")
+        long maxBytes
+) {
+}
@@ -0,0 +1,23 @@
+package ru.test.numberservice.cache;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.attribute.BasicFileAttributes;
+
+/**
+ * Идентификатор версии файла: канонический путь, время изменения и размер.
+ * Изменение файла дает новый ключ, поэтому устаревшие данные не используются.
+ */
+public record FileKey(String canonicalPath, long lastModified, long length) {
+
+    public static FileKey of(File file) throws IOException {
+        return new FileKey(file.getCanonicalPath(), file.lastModified(), file.length());
+    }
+
+    /**
+     * Ключ по атрибутам, уже прочитанным при валидации: время изменения и размер повторно не запрашиваются
+     */
+    public static FileKey of(File file, BasicFileAttributes attributes) throws IOException {
+        return new FileKey(file.getCanonicalPath(), attributes.lastModifiedTime().toMillis(), attributes.size());
+    }
+}
@@ -0,0 +1,112 @@
+package ru.test.numberservice.cache;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.test.numberservice.config.NumberServiceProperties;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Кэш чисел разобранных файлов в виде отсортированных массивов int[].
+ * После первого разбора файла N-ое минимальное число для любого N находится за O(1).
+ * Ключ - версия файла ({@link FileKey}), вытеснение - по давности использования
+ * при превышении суммарного объема в байтах.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SortedValuesCache {
+
+    private static final long ARRAY_OVERHEAD_BYTES = 16;
+
+    private final NumberServiceProperties properties;
+
+    private final LinkedHashMap<FileKey, int[]> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, FileKey> keysByPath = new HashMap<>();
+    private long residentBytes;
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public boolean isEnabled() {
+        return properties.getCache().isEnabled();
+    }
+
+    /**
+     * Поместится ли в кэш массив из указанного количества чисел
+     */
+    public boolean fits(long count) {
+        return sizeOf(count) <= maxBytes();
+    }
+
+    /**
+     * Получение отсортированных чисел файла
+     *
+     * @return отсортированный массив или null, если версии файла нет в кэше
+     */
+    public synchronized int[] get(FileKey key) {
+        int[] values = entries.get(key);
+        if (values == null) {
+            misses++;
+        } else {
+            hits++;
+        }
+        return values;
+    }
+
+    /**
+     * Сохранение отсортированных чисел файла.
+     * Предыдущая версия того же файла удаляется, при переполнении вытесняются давно использованные файлы.
+     */
+    public synchronized void put(FileKey key, int[] sortedValues) {
+        long size = sizeOf(sortedValues.length);
+        if (size > maxBytes()) {
+            log.debug("Skipping cache for {}: {} bytes exceeds capacity", key.canonicalPath(), size);
+            return;
+        }
+
+        FileKey previous = keysByPath.put(key.canonicalPath(), key);
+        if (previous != null) {
+            remove(previous);
+        }
+        entries.put(key, sortedValues);
+        residentBytes += size;
+        evictIfNeeded();
+        log.debug("Cached {} numbers of file {}", sortedValues.length, key.canonicalPath());
+    }
+
+    public synchronized CacheStats stats() {
+        return new CacheStats(hits, misses, evictions, entries.size(), residentBytes, maxBytes());
+    }
+
+    private void evictIfNeeded() {
+        Iterator<Map.Entry<FileKey, int[]>> iterator = entries.entrySet().iterator();
+        while (residentBytes > maxBytes() && iterator.hasNext()) {
+            Map.Entry<FileKey, int[]> eldest = iterator.next();
+            iterator.remove();
+            keysByPath.remove(eldest.getKey().canonicalPath(), eldest.getKey());
+            residentBytes -= sizeOf(eldest.getValue().length);
+            evictions++;
+            log.debug("Evicted file {} from cache", eldest.getKey().canonicalPath());
+        }
+    }
+
+    private void remove(FileKey key) {
+        int[] values = entries.remove(key);
+        if (values != null) {
+            residentBytes -= sizeOf(values.length);
+        }
+    }
+
+    private long maxBytes() {
+        return properties.getCache().getMaxSize().toBytes();
+    }
+
+    private static long sizeOf(long count) {
+        return ARRAY_OVERHEAD_BYTES + count * Integer.BYTES;
+    }
+}
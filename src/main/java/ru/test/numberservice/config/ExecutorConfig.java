@@ -0,0 +1,23 @@
+package ru.test.numberservice.config;
+
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Конфигурация пулов потоков для параллельного разбора файлов.
+ */
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Пул для параллельного разбора листов одной книги.
+     * Разбор листа нагружает процессор, поэтому размер пула ограничен количеством ядер.
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService sheetScanExecutor(NumberServiceProperties properties) {
+        return new ForkJoinPool(properties.getScan().getParallelism());
+    }
+}
@@ -0,0 +1,241 @@
+package ru.test.numberservice.config;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.DecimalMax;
+import jakarta.validation.constraints.DecimalMin;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+import org.springframework.validation.annotation.Validated;
+
+import java.time.Duration;
+
+/**
+ * Настройки сервиса (префикс {@code number-service} в application.properties).
+ * Ограничения настроек проверяются при запуске: неверное значение не дает приложению стартовать.
+ */
+@Getter
+@Setter
+@Validated
+@ConfigurationProperties(prefix = "number-service")
+public class NumberServiceProperties {
+
+    private Cache cache = new Cache();
+    private Scan scan = new Scan();
+    private LargeFile largeFile = new LargeFile();
+    private Admission admission = new Admission();
+    private Index index = new Index();
+    private Jobs jobs = new Jobs();
+    private Aggregation aggregation = new Aggregation();
+    @Valid
+    private Approximation approximation = new Approximation();
+    private Validation validation = new Validation();
+
+    /**
+     * Настройки кэша отсортированных чисел разобранных файлов
+     */
+    @Getter
+    @Setter
+    public static class Cache {
+
+        /**
+         * Включен ли кэш
+         */
+        private boolean enabled = true;
+
+        /**
+         * Максимальный суммарный объем чисел в кэше
+         */
+        private DataSize maxSize = DataSize.ofMegabytes(64);
+    }
+
+    /**
+     * Настройки параллельного разбора
+     */
+    @Getter
+    @Setter
+    public static class Scan {
+
+        /**
+         * Количество потоков для параллельного разбора листов
+         */
+        private int parallelism = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Размер файла, начиная с которого первый лист книги разбирается параллельно частями по строкам
+         */
+        private DataSize chunkedSheetThreshold = DataSize.ofMegabytes(16);
+
+        /**
+         * Размер части XML листа при параллельном разборе одного листа
+         */
+        private DataSize chunkSize = DataSize.ofMegabytes(1);
+
+        /**
+         * Размер файла, начиная с которого первый лист, не разбираемый частями, читается конвейером:
+         * распаковка, разбор XML и выбор чисел выполняются в разных потоках
+         */
+        private DataSize pipelineThreshold = DataSize.ofMegabytes(2);
+
+        /**
+         * Присоединять одновременные запросы к одной версии файла к уже идущему просмотру первого листа
+         */
+        private boolean coalesceRequests = true;
+
+        /**
+         * Максимальный объем индексов строковых ячеек, отложенных при разборе загруженной книги,
+         * в которой таблица общих строк идет после листа (4 байта на ячейку)
+         */
+        private DataSize maxPendingSharedStrings = DataSize.ofMegabytes(64);
+    }
+
+    /**
+     * Настройки режима больших файлов.
+     * В этом режиме размер файла не ограничивается: потоковое чтение не зависит от него по памяти.
+     * Вместо этого ограничивается память на запрос, которая зависит от N.
+     */
+    @Getter
+    @Setter
+    public static class LargeFile {
+
+        /**
+         * Включен ли режим больших файлов
+         */
+        private boolean enabled = false;
+
+        /**
+         * Память на структуры выбора одного запроса
+         */
+        private DataSize memoryBudget = DataSize.ofMegabytes(256);
+    }
+
+    /**
+     * Настройки допуска запросов к разбору файлов.
+     * Разбор выполняется в ограниченном пуле потоков с очередью; при переполнении запрос сразу отклоняется.
+     */
+    @Getter
+    @Setter
+    public static class Admission {
+
+        /**
+         * Максимальное количество одновременно разбираемых файлов
+         */
+        private int maxConcurrentScans = Runtime.getRuntime().availableProcessors();
+
+        /**
+         * Максимальное количество запросов, ожидающих разбора
+         */
+        private int queueCapacity = 64;
+
+        /**
+         * Максимальное время ожидания в очереди; запрос, ждавший дольше, отклоняется без разбора
+         */
+        private Duration queueTimeout = Duration.ofSeconds(30);
+
+        /**
+         * Через сколько клиенту предлагается повторить отклоненный запрос (заголовок Retry-After)
+         */
+        private Duration retryAfter = Duration.ofSeconds(1);
+    }
+
+    /**
+     * Настройки индексов-спутников: отсортированных чисел файла, сохраненных на диск
+     */
+    @Getter
+    @Setter
+    public static class Index {
+
+        /**
+         * Включены ли индексы
+         */
+        private boolean enabled = false;
+
+        /**
+         * Каталог индексов; если не задан, индекс пишется рядом с файлом
+         */
+        private String directory;
+
+        /**
+         * Максимальный объем чисел файла, для которого строится индекс: перед записью они сортируются в памяти
+         */
+        private DataSize maxBuildSize = DataSize.ofMegabytes(256);
+    }
+
+    /**
+     * Настройки асинхронных задач
+     */
+    @Getter
+    @Setter
+    public static class Jobs {
+
+        /**
+         * Количество одновременно выполняемых задач
+         */
+        private int maxConcurrent = 2;
+
+        /**
+         * Максимальное количество задач в очереди
+         */
+        private int queueCapacity = 32;
+
+        /**
+         * Время хранения завершенных задач и их результатов
+         */
+        private Duration retention = Duration.ofHours(1);
+    }
+
+    /**
+     * Настройки поиска по каталогу файлов
+     */
+    @Getter
+    @Setter
+    public static class Aggregation {
+
+        /**
+         * Количество одновременно разбираемых файлов каталога; ограничивает память запроса
+         */
+        private int maxConcurrentFiles = 4;
+
+        /**
+         * Максимальное количество файлов в одном запросе
+         */
+        private int maxFiles = 1000;
+    }
+
+    /**
+     * Настройки приближенного поиска
+     */
+    @Getter
+    @Setter
+    public static class Approximation {
+
+        /**
+         * Допустимая ошибка ранга как доля количества чисел: размер скетча подбирается так,
+         * чтобы гарантированная ошибка ее не превышала. Память скетча обратно пропорциональна ошибке,
+         * поэтому ошибка не меньше {@link ru.test.numberservice.selection.ApproximateSelection#MIN_RANK_ERROR}
+         */
+        @DecimalMin("0.0001")
+        @DecimalMax(value = "1", inclusive = false)
+        private double rankError = 0.01;
+    }
+
+    /**
+     * Настройки валидации файлов
+     */
+    @Getter
+    @Setter
+    public static class Validation {
+
+        /**
+         * Время, в течение которого успешная проверка файла с теми же временем изменения и размером
+         * не повторяется; 0 - проверять файл при каждом запросе
+         */
+        private Duration cacheTtl = Duration.ofSeconds(10);
+
+        /**
+         * Максимальное количество запомненных проверок файлов
+         */
+        private int cacheMaxEntries = 1024;
+    }
+}
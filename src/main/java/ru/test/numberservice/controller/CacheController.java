@@ -0,0 +1,28 @@
+package ru.test.numberservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.test.numberservice.cache.CacheStats;
+import ru.test.numberservice.cache.SortedValuesCache;
+
+/**
+ * REST контроллер для наблюдения за кэшем разобранных файлов.
+ */
+@RestController
+@RequestMapping("/api/cache")
+@RequiredArgsConstructor
+@Tag(name = "Cache")
+public class CacheController {
+
+    private final SortedValuesCache sortedValuesCache;
+
+    @Operation(summary = "Get parsed file cache statistics")
+    @GetMapping("/stats")
+    public CacheStats getStats() {
+        return sortedValuesCache.stats();
+    }
+}
@@ -0,0 +1,72 @@
+package ru.test.numberservice.controller;
+
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.responses.ApiResponses;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.*;
+import ru.test.numberservice.dto.NthMinResult;
+import ru.test.numberservice.job.JobService;
+import ru.test.numberservice.job.JobStatus;
+
+/**
+ * REST контроллер асинхронных задач поиска N-го минимального числа.
+ * Задача создается сразу, а ход выполнения и результат запрашиваются отдельно,
+ * поэтому долгий разбор большого файла не упирается в таймауты клиента и прокси.
+ */
+@RestController
+@RequestMapping("/api/jobs")
+@RequiredArgsConstructor
+@Tag(name = "Jobs")
+public class JobController {
+
+    private final JobService jobService;
+
+    @Operation(summary = "Submit an asynchronous search for the Nth minimum number in Excel file")
+    @ApiResponses({
+            @ApiResponse(responseCode = "202", description = "Job accepted"),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "503", description = "Too many jobs are queued")
+    })
+    @PostMapping
+    @ResponseStatus(HttpStatus.ACCEPTED)
+    public JobStatus submit(
+            @RequestParam @Parameter(example = "/data/numbers.xlsx") String filePath,
+            @RequestParam @Parameter(example = "3") int n) {
+        return jobService.submit(filePath, n);
+    }
+
+    @Operation(summary = "Get job state and progress")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @GetMapping("/{id}")
+    public JobStatus getStatus(@PathVariable String id) {
+        return jobService.getStatus(id);
+    }
+
+    @Operation(summary = "Get result of a completed job")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "404", description = "Job not found"),
+            @ApiResponse(responseCode = "409", description = "Job is not completed")
+    })
+    @GetMapping("/{id}/result")
+    public NthMinResult getResult(@PathVariable String id) {
+        return jobService.getResult(id);
+    }
+
+    @Operation(summary = "Cancel a job or remove a finished one")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success"),
+            @ApiResponse(responseCode = "404", description = "Job not found")
+    })
+    @DeleteMapping("/{id}")
+    public JobStatus cancel(@PathVariable String id) {
+        return jobService.cancel(id);
+    }
+}
@@ -7,14 +7,30 @@ import io.swagger.v3.oas.annotations.media.ExampleObject;
 import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.responses.ApiResponses;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.web.bind.annotation.*;
+import ru.test.numberservice.dto.NthApproximateResponse;
+import ru.test.numberservice.dto.NthMinBatchRequest;
+import ru.test.numberservice.dto.NthMinBatchResponse;
+import ru.test.numberservice.dto.NthMinDirectoryResponse;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.SelectionOrder;
 import ru.test.numberservice.service.NumberService;
+import ru.test.numberservice.service.ScanExecutor;
+
+import java.io.InputStream;
+import java.util.List;
 
 /**
  * REST контроллер для поиска N-го минимального числа в Excel файлах.
  * Предоставляет endpoint для загрузки пути к файлу и номера порядковой статистики.
+ * Разбор файлов выполняется через {@link ScanExecutor}: при перегрузке запрос отклоняется с кодом 503.
+ * Запросы N-го минимального числа занимают место в нем внутри {@link NumberService},
+ * чтобы запросы, присоединившиеся к общему просмотру файла, ждали его без места.
  */
 @Slf4j
 @RestController
@@ -23,15 +39,20 @@ import ru.test.numberservice.service.NumberService;
 @Tag(name = "Number Service")
 public class NumberController {
 
+    private static final String XLSX_MEDIA_TYPE = "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
+
     private final NumberService numberService;
+    private final ScanExecutor scanExecutor;
 
-    @Operation(summary = "Find Nth minimum number in Excel file")
+    @Operation(summary = "Find Nth minimum number in Excel file",
+            description = "Also finds the Nth maximum and the Nth distinct number, among int, long or double values")
     @ApiResponses({
             @ApiResponse(responseCode = "200", description = "Success", content = @Content(
                     mediaType = "application/json",
                     examples = {
                             @ExampleObject(name = "third_min", value = "11"),
-                            @ExampleObject(name = "first_min", value = "5")
+                            @ExampleObject(name = "first_min", value = "5"),
+                            @ExampleObject(name = "second_max_double", value = "1234.56")
                     }
             )),
             @ApiResponse(responseCode = "400", description = "Validation error", content = @Content(
@@ -57,13 +78,168 @@ public class NumberController {
                   "timestamp": "2025-11-10:00:06:27"
                 }
                 """)
+            )),
+            @ApiResponse(responseCode = "429", description = "Scan queue is full, see Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Scan did not start within the queue timeout", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = """
+                {
+                  "status": "SERVICE_UNAVAILABLE",
+                  "reason": "Service overloaded",
+                  "message": "Request waited too long for a free scan slot, try again later",
+                  "errors": ["Service overloaded"],
+                  "timestamp": "2025-11-10:00:06:28"
+                }
+                """)
             ))
     })
     @PostMapping("/find-nth-min")
-    public int findNthMinNumber(
+    public Number findNthMinNumber(
+            @RequestParam @Parameter(example = "/data/numbers.xlsx") String filePath,
+            @RequestParam @Parameter(example = "3") int n,
+            @RequestParam(required = false)
+            @Parameter(description = "Sheet names to scan in parallel, #N for the N-th sheet, * for all sheets. "
+                    + "First sheet by default", example = "*") List<String> sheets,
+            @RequestParam(required = false)
+            @Parameter(description = "A1-style cell range to scan: B2:B1000, C:D, 5:100. Whole sheet by default",
+                    example = "B:B") String range,
+            @RequestParam(defaultValue = "INT")
+            @Parameter(description = "Numeric mode: INT skips fractions and values out of int range, "
+                    + "LONG and DOUBLE keep them") NumberMode mode,
+            @RequestParam(defaultValue = "MIN")
+            @Parameter(description = "MIN for the Nth minimum, MAX for the Nth maximum") SelectionOrder order,
+            @RequestParam(defaultValue = "false")
+            @Parameter(description = "Count repeated numbers once") boolean distinct) {
+
+        if (mode != NumberMode.INT || order != SelectionOrder.MIN || distinct) {
+            return scanExecutor.execute(
+                    () -> numberService.findNthNumber(filePath, n, mode, order, distinct, sheets, range));
+        }
+        if (sheets == null && range == null) {
+            return numberService.findNthMinNumber(filePath, n);
+        }
+        return numberService.findNthMinNumber(filePath, n, sheets, range);
+    }
+
+    @Operation(summary = "Find approximate Nth minimum or maximum number with a guaranteed rank range",
+            description = "Numbers are collected into a fixed-size quantile sketch, so memory does not grow with N. "
+                    + "The value is guaranteed to be the k-th number in the order for some k from minRank to maxRank")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = """
+                {
+                  "n": 1000000,
+                  "order": "MIN",
+                  "value": 48213,
+                  "minRank": 997120,
+                  "maxRank": 1002880,
+                  "numbersProcessed": 50000000
+                }
+                """)
+            )),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "500", description = "Server error"),
+            @ApiResponse(responseCode = "429", description = "Scan queue is full, see Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Scan did not start within the queue timeout")
+    })
+    @PostMapping("/find-nth-min/approx")
+    public NthApproximateResponse findNthNumberApproximately(
             @RequestParam @Parameter(example = "/data/numbers.xlsx") String filePath,
+            @RequestParam @Parameter(example = "1000000") int n,
+            @RequestParam(required = false)
+            @Parameter(description = "Sheet names to scan in parallel, #N for the N-th sheet, * for all sheets. "
+                    + "First sheet by default", example = "*") List<String> sheets,
+            @RequestParam(required = false)
+            @Parameter(description = "A1-style cell range to scan: B2:B1000, C:D, 5:100. Whole sheet by default",
+                    example = "B:B") String range,
+            @RequestParam(defaultValue = "INT")
+            @Parameter(description = "Numeric mode: INT skips fractions and values out of int range, "
+                    + "LONG and DOUBLE keep them") NumberMode mode,
+            @RequestParam(defaultValue = "MIN")
+            @Parameter(description = "MIN for the Nth minimum, MAX for the Nth maximum") SelectionOrder order) {
+
+        return scanExecutor.execute(
+                () -> numberService.findNthNumberApproximately(filePath, n, mode, order, sheets, range));
+    }
+
+    @Operation(summary = "Find Nth minimum number in Excel file uploaded as request body",
+            description = "The body is parsed while it is being received: nothing is written to a temp file "
+                    + "and the upload is never buffered in memory as a whole")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(name = "third_min", value = "11")
+            )),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "500", description = "Server error"),
+            @ApiResponse(responseCode = "429", description = "Scan queue is full, see Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Scan did not start within the queue timeout")
+    })
+    @PostMapping(value = "/find-nth-min/upload", consumes = {MediaType.APPLICATION_OCTET_STREAM_VALUE, XLSX_MEDIA_TYPE})
+    public int findNthMinNumberInUpload(
+            @RequestParam @Parameter(example = "3") int n,
+            @RequestHeader(value = HttpHeaders.CONTENT_LENGTH, required = false, defaultValue = "-1") long contentLength,
+            InputStream content) {
+
+        return scanExecutor.execute(() -> numberService.findNthMinNumber(content, contentLength, n));
+    }
+
+    @Operation(summary = "Find several Nth minimum numbers in Excel file in a single pass")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = """
+                {
+                  "filePath": "/data/numbers.xlsx",
+                  "results": [
+                    {"n": 1, "value": 1},
+                    {"n": 3, "value": 11}
+                  ]
+                }
+                """)
+            )),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "500", description = "Server error"),
+            @ApiResponse(responseCode = "429", description = "Scan queue is full, see Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Scan did not start within the queue timeout")
+    })
+    @PostMapping("/find-nth-min/batch")
+    public NthMinBatchResponse findNthMinNumbers(@Valid @RequestBody NthMinBatchRequest request) {
+        return scanExecutor.execute(
+                () -> numberService.findNthMinNumbers(
+                        request.filePath(), request.n(), request.sheets(), request.range()));
+    }
+
+    @Operation(summary = "Find Nth minimum number across the files of a directory",
+            description = "Files matching the glob are validated and scanned in parallel, "
+                    + "each into its own bounded structure; partial results are merged into the global answer")
+    @ApiResponses({
+            @ApiResponse(responseCode = "200", description = "Success", content = @Content(
+                    mediaType = "application/json",
+                    examples = @ExampleObject(value = """
+                {
+                  "directory": "/data/exports",
+                  "glob": "*.xlsx",
+                  "filesScanned": 30,
+                  "numbersProcessed": 120000,
+                  "value": 11
+                }
+                """)
+            )),
+            @ApiResponse(responseCode = "400", description = "Validation error"),
+            @ApiResponse(responseCode = "500", description = "Server error"),
+            @ApiResponse(responseCode = "429", description = "Scan queue is full, see Retry-After"),
+            @ApiResponse(responseCode = "503", description = "Scan did not start within the queue timeout")
+    })
+    @PostMapping("/find-nth-min/directory")
+    public NthMinDirectoryResponse findNthMinNumberInDirectory(
+            @RequestParam @Parameter(example = "/data/exports") String directory,
+            @RequestParam(required = false)
+            @Parameter(description = "Glob pattern of file paths relative to the directory, *.xlsx by default. "
+                    + "Use **/*.xlsx to include subdirectories", example = "2025-*.xlsx") String glob,
             @RequestParam @Parameter(example = "3") int n) {
 
-        return numberService.findNthMinNumber(filePath, n);
+        return scanExecutor.execute(() -> numberService.findNthMinNumberInDirectory(directory, glob, n));
     }
-}
\ No newline at end of file
+}
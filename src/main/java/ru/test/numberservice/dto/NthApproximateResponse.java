@@ -0,0 +1,30 @@
+package ru.test.numberservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import ru.test.numberservice.selection.SelectionOrder;
+
+/**
+ * Приближенное N-е число и гарантированный диапазон его рангов.
+ */
+@Schema(description = "Approximate Nth number with the guaranteed range of its rank")
+public record NthApproximateResponse(
+        @Schema(description = "Requested rank", example = "1000000")
+        int n,
+
+        @Schema(description = "MIN for the Nth minimum, MAX for the Nth maximum", example = "MIN")
+        SelectionOrder order,
+
+        @Schema(description = "Approximate Nth number", example = "48213")
+        Number value,
+
+        @Schema(description = "The value is guaranteed to be the k-th number in the order for some k "
+                + "from minRank to maxRank", example = "997120")
+        long minRank,
+
+        @Schema(description = "Upper bound of the rank of the value", example = "1002880")
+        long maxRank,
+
+        @Schema(description = "Numbers found in the file", example = "50000000")
+        long numbersProcessed
+) {
+}
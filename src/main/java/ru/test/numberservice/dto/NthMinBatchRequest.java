@@ -0,0 +1,30 @@
+package ru.test.numberservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.List;
+
+/**
+ * Запрос нескольких порядковых статистик одного файла.
+ */
+@Schema(description = "Batch request for several order statistics of one file")
+public record NthMinBatchRequest(
+        @NotBlank
+        @Schema(description = "Path to Excel file", example = "/data/numbers.xlsx")
+        String filePath,
+
+        @NotEmpty
+        @Schema(description = "Requested order statistics", example = "[1, 10, 100, 1000]")
+        List<@NotNull Integer> n,
+
+        @Schema(description = "Sheet names to scan in parallel, #N for the N-th sheet, * for all sheets. "
+                + "First sheet by default", example = "[\"*\"]")
+        List<String> sheets,
+
+        @Schema(description = "A1-style cell range to scan. Whole sheet by default", example = "B:B")
+        String range
+) {
+}
@@ -0,0 +1,18 @@
+package ru.test.numberservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.util.List;
+
+/**
+ * Ответ на пакетный запрос: порядковые статистики в порядке запроса.
+ */
+@Schema(description = "Batch response with order statistics in request order")
+public record NthMinBatchResponse(
+        @Schema(description = "Path to Excel file", example = "/data/numbers.xlsx")
+        String filePath,
+
+        @Schema(description = "Found order statistics")
+        List<NthMinResult> results
+) {
+}
@@ -0,0 +1,25 @@
+package ru.test.numberservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * N-ое минимальное число среди всех файлов каталога.
+ */
+@Schema(description = "Nth minimum number across the files of a directory")
+public record NthMinDirectoryResponse(
+        @Schema(description = "Scanned directory", example = "/data/exports")
+        String directory,
+
+        @Schema(description = "Glob pattern of file paths relative to the directory", example = "*.xlsx")
+        String glob,
+
+        @Schema(description = "Number of scanned files", example = "30")
+        int filesScanned,
+
+        @Schema(description = "Numbers found in all files", example = "120000")
+        long numbersProcessed,
+
+        @Schema(description = "Nth minimum number", example = "11")
+        int value
+) {
+}
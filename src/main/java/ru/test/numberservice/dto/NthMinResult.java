@@ -0,0 +1,16 @@
+package ru.test.numberservice.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * N-ое минимальное число файла.
+ */
+@Schema(description = "Nth minimum number")
+public record NthMinResult(
+        @Schema(description = "Order statistic", example = "3")
+        int n,
+
+        @Schema(description = "Nth minimum number", example = "11")
+        int value
+) {
+}
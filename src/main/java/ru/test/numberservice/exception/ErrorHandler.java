@@ -1,12 +1,15 @@
 package ru.test.numberservice.exception;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.MissingServletRequestParameterException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.MethodArgumentTypeMismatchException;
 
 import java.io.PrintWriter;
 import java.io.StringWriter;
@@ -58,6 +61,44 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler(NotFoundException.class)
+    @ResponseStatus(HttpStatus.NOT_FOUND)
+    public ApiError handleNotFoundException(final NotFoundException e) {
+        log.warn("404 Not found: {}", e.getMessage());
+        String stackTrace = getStackTrace(e);
+        return new ApiError(
+                HttpStatus.NOT_FOUND,
+                "Not found",
+                e.getMessage(),
+                stackTrace
+        );
+    }
+
+    @ExceptionHandler(JobStateException.class)
+    @ResponseStatus(HttpStatus.CONFLICT)
+    public ApiError handleJobStateException(final JobStateException e) {
+        log.warn("409 Job state conflict: {}", e.getMessage());
+        String stackTrace = getStackTrace(e);
+        return new ApiError(
+                HttpStatus.CONFLICT,
+                "Job state conflict",
+                e.getMessage(),
+                stackTrace
+        );
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity<ApiError> handleServiceOverloadedException(final ServiceOverloadedException e) {
+        log.warn("503 Service overloaded: {}", e.getMessage());
+        return overloaded(HttpStatus.SERVICE_UNAVAILABLE, "Service overloaded", e);
+    }
+
+    @ExceptionHandler(ScanQueueFullException.class)
+    public ResponseEntity<ApiError> handleScanQueueFullException(final ScanQueueFullException e) {
+        log.warn("429 Too many requests: {}", e.getMessage());
+        return overloaded(HttpStatus.TOO_MANY_REQUESTS, "Too many requests", e);
+    }
+
     @ExceptionHandler(MethodArgumentNotValidException.class)
     @ResponseStatus(HttpStatus.BAD_REQUEST)
     public ApiError handleMethodArgumentNotValid(final MethodArgumentNotValidException e) {
@@ -97,10 +138,34 @@ public class ErrorHandler {
         );
     }
 
+    @ExceptionHandler(MethodArgumentTypeMismatchException.class)
+    @ResponseStatus(HttpStatus.BAD_REQUEST)
+    public ApiError handleTypeMismatch(final MethodArgumentTypeMismatchException e) {
+        log.error("400 Invalid parameter: {}", e.getMessage(), e);
+        String stackTrace = getStackTrace(e);
+        return new ApiError(
+                HttpStatus.BAD_REQUEST,
+                "Invalid parameter",
+                "Invalid value of parameter: " + e.getName(),
+                stackTrace
+        );
+    }
+
     private String getStackTrace(Exception e) {
         StringWriter stringWriter = new StringWriter();
         PrintWriter printWriter = new PrintWriter(stringWriter);
         e.printStackTrace(printWriter);
         return stringWriter.toString();
     }
+
+    /**
+     * Ответ на перегрузку с заголовком Retry-After, если известно, когда повторить запрос
+     */
+    private ResponseEntity<ApiError> overloaded(HttpStatus status, String reason, ServiceOverloadedException e) {
+        ResponseEntity.BodyBuilder response = ResponseEntity.status(status);
+        if (e.getRetryAfter() != null) {
+            response.header(HttpHeaders.RETRY_AFTER, Long.toString(Math.max(1, e.getRetryAfter().toSeconds())));
+        }
+        return response.body(new ApiError(status, reason, e.getMessage(), getStackTrace(e)));
+    }
 }
@@ -0,0 +1,7 @@
+package ru.test.numberservice.exception;
+
+public class JobStateException extends RuntimeException {
+    public JobStateException(String message) {
+        super(message);
+    }
+}
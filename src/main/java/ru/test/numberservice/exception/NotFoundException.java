@@ -0,0 +1,7 @@
+package ru.test.numberservice.exception;
+
+public class NotFoundException extends RuntimeException {
+    public NotFoundException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,7 @@
+package ru.test.numberservice.exception;
+
+public class ScanCancelledException extends RuntimeException {
+    public ScanCancelledException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,12 @@
+package ru.test.numberservice.exception;
+
+import java.time.Duration;
+
+/**
+ * Очередь на разбор заполнена: запрос отклоняется сразу, клиенту стоит повторить его позже
+ */
+public class ScanQueueFullException extends ServiceOverloadedException {
+    public ScanQueueFullException(String message, Duration retryAfter) {
+        super(message, retryAfter);
+    }
+}
@@ -0,0 +1,24 @@
+package ru.test.numberservice.exception;
+
+import java.time.Duration;
+
+public class ServiceOverloadedException extends RuntimeException {
+
+    private final Duration retryAfter;
+
+    public ServiceOverloadedException(String message) {
+        this(message, null);
+    }
+
+    /**
+     * @param retryAfter через сколько стоит повторить запрос, null - не сообщается
+     */
+    public ServiceOverloadedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,264 @@
+package ru.test.numberservice.index;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.test.numberservice.cache.FileKey;
+import ru.test.numberservice.config.NumberServiceProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Индекс-спутник файла: отсортированные числа, сохраненные на диск после первого разбора.
+ * Переживает перезапуск сервиса: повторные запросы отображают файл индекса в память
+ * и получают N-ое минимальное число прямым обращением по индексу, без разбора Excel.
+ *
+ * <p>Формат (little-endian): заголовок {@value #HEADER_SIZE} байт и массив int.
+ * <pre>
+ * int  magic            "NSIX"
+ * int  version
+ * long sourceLength     размер исходного файла
+ * long sourceModified   время изменения исходного файла
+ * long sourceHash       CRC32C содержимого исходного файла
+ * int  count            количество чисел
+ * int  reserved
+ * int[count] values     числа по возрастанию
+ * </pre>
+ * Индекс действителен, пока совпадают размер и время изменения исходного файла.
+ * Если совпадает только размер (файл скопирован или "тронут"), индекс перепроверяется по хэшу содержимого.
+ * Хэш считается до разбора, а индекс не записывается, если версия файла изменилась за время разбора:
+ * иначе хэш нового содержимого подтверждал бы числа старого.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class SidecarIndex {
+
+    static final int MAGIC = 0x5849534E;
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 40;
+    static final String EXTENSION = ".nsidx";
+
+    /**
+     * Хэш не посчитан: индекс с ним не записывается
+     */
+    public static final long NO_HASH = -1;
+
+    private static final int VERSION_OFFSET = 4;
+    private static final int LENGTH_OFFSET = 8;
+    private static final int MODIFIED_OFFSET = 16;
+    private static final int HASH_OFFSET = 24;
+    private static final int COUNT_OFFSET = 32;
+    private static final int WRITE_CHUNK_INTS = 16 * 1024;
+    private static final int HASH_BUFFER_SIZE = 64 * 1024;
+
+    private final NumberServiceProperties properties;
+
+    public boolean isEnabled() {
+        return properties.getIndex().isEnabled();
+    }
+
+    /**
+     * Можно ли построить индекс файла с указанным количеством чисел: перед записью они сортируются в памяти
+     */
+    public boolean canBuild(long count) {
+        return count * Integer.BYTES <= properties.getIndex().getMaxBuildSize().toBytes();
+    }
+
+    /**
+     * Поиск действительного индекса для версии файла
+     *
+     * @param source исходный файл
+     * @param key версия исходного файла
+     * @return отображенные в память числа по возрастанию или null, если индекса нет или он устарел
+     */
+    public IntBuffer find(File source, FileKey key) {
+        Path indexPath = indexPath(key);
+        if (!Files.isRegularFile(indexPath)) {
+            return null;
+        }
+
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ)) {
+            long indexSize = channel.size();
+            if (indexSize < HEADER_SIZE) {
+                log.warn("Ignoring truncated index {}", indexPath);
+                return null;
+            }
+            MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, indexSize);
+            mapped.order(ByteOrder.LITTLE_ENDIAN);
+
+            int count = mapped.getInt(COUNT_OFFSET);
+            if (mapped.getInt(0) != MAGIC || mapped.getInt(VERSION_OFFSET) != VERSION
+                    || indexSize != HEADER_SIZE + (long) count * Integer.BYTES) {
+                log.warn("Ignoring index {} of unknown format", indexPath);
+                return null;
+            }
+            if (mapped.getLong(LENGTH_OFFSET) != key.length()) {
+                log.debug("Index {} is stale: source size changed", indexPath);
+                return null;
+            }
+            if (mapped.getLong(MODIFIED_OFFSET) != key.lastModified()) {
+                if (mapped.getLong(HASH_OFFSET) != hash(source.toPath())) {
+                    log.debug("Index {} is stale: source content changed", indexPath);
+                    return null;
+                }
+                log.debug("Source of index {} was touched but not changed", indexPath);
+                updateModified(indexPath, key.lastModified());
+            }
+
+            log.debug("Index hit for file {}: {} numbers", key.canonicalPath(), count);
+            return mapped.position(HEADER_SIZE).slice().order(ByteOrder.LITTLE_ENDIAN).asIntBuffer();
+        } catch (IOException e) {
+            log.warn("Failed to read index {}: {}", indexPath, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Хэш содержимого исходного файла для его будущего индекса; считается до разбора файла
+     *
+     * @param source исходный файл
+     * @return CRC32C содержимого или {@link #NO_HASH}, если файл не прочитан
+     */
+    public long sourceHash(File source) {
+        try {
+            return hash(source.toPath());
+        } catch (IOException e) {
+            log.warn("Failed to hash {}, index will not be written: {}", source, e.getMessage());
+            return NO_HASH;
+        }
+    }
+
+    /**
+     * Запись индекса версии файла.
+     * Файл индекса пишется во временный файл и атомарно переименовывается, поэтому читатели
+     * не видят недописанный индекс. Ошибка записи не прерывает запрос: индекс просто не создается.
+     * Если версия исходного файла уже не совпадает с той, что была до разбора, индекс не записывается.
+     *
+     * @param source исходный файл
+     * @param key версия исходного файла до разбора
+     * @param sourceHash хэш содержимого, посчитанный до разбора через {@link #sourceHash(File)}
+     * @param sortedValues числа по возрастанию
+     */
+    public void write(File source, FileKey key, long sourceHash, int[] sortedValues) {
+        if (sourceHash == NO_HASH) {
+            return;
+        }
+        Path indexPath = indexPath(key);
+        Path tempFile = null;
+        try {
+            Files.createDirectories(indexPath.getParent());
+            tempFile = Files.createTempFile(indexPath.getParent(), indexPath.getFileName().toString(), ".tmp");
+
+            try (FileChannel channel = FileChannel.open(tempFile, StandardOpenOption.WRITE)) {
+                ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+                header.putInt(MAGIC)
+                        .putInt(VERSION)
+                        .putLong(key.length())
+                        .putLong(key.lastModified())
+                        .putLong(sourceHash)
+                        .putInt(sortedValues.length)
+                        .putInt(0)
+                        .flip();
+                writeFully(channel, header);
+
+                ByteBuffer chunk = ByteBuffer.allocateDirect(WRITE_CHUNK_INTS * Integer.BYTES)
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                for (int from = 0; from < sortedValues.length; from += WRITE_CHUNK_INTS) {
+                    int to = Math.min(from + WRITE_CHUNK_INTS, sortedValues.length);
+                    chunk.clear();
+                    chunk.asIntBuffer().put(sortedValues, from, to - from);
+                    chunk.limit((to - from) * Integer.BYTES);
+                    writeFully(channel, chunk);
+                }
+            }
+
+            if (!key.equals(FileKey.of(source))) {
+                log.debug("Skipping index {}: source changed while it was scanned", indexPath);
+                Files.deleteIfExists(tempFile);
+                return;
+            }
+            move(tempFile, indexPath);
+            log.debug("Wrote index {} with {} numbers", indexPath, sortedValues.length);
+        } catch (IOException e) {
+            log.warn("Failed to write index {}: {}", indexPath, e.getMessage());
+            if (tempFile != null) {
+                try {
+                    Files.deleteIfExists(tempFile);
+                } catch (IOException ignored) {
+                    // временный файл будет перезаписан при следующей попытке
+                }
+            }
+        }
+    }
+
+    /**
+     * Путь к файлу индекса: рядом с исходным файлом или в каталоге индексов.
+     * В общем каталоге к имени добавляется хэш пути, чтобы одноименные файлы из разных каталогов не смешивались.
+     */
+    Path indexPath(FileKey key) {
+        Path sourcePath = Path.of(key.canonicalPath());
+        String directory = properties.getIndex().getDirectory();
+        if (directory == null || directory.isBlank()) {
+            return sourcePath.resolveSibling(sourcePath.getFileName() + EXTENSION);
+        }
+
+        CRC32C pathHash = new CRC32C();
+        pathHash.update(key.canonicalPath().getBytes(StandardCharsets.UTF_8));
+        String fileName = sourcePath.getFileName() + "-" + Long.toHexString(pathHash.getValue()) + EXTENSION;
+        return Path.of(directory).resolve(fileName);
+    }
+
+    /**
+     * CRC32C содержимого файла
+     */
+    static long hash(Path source) throws IOException {
+        CRC32C crc = new CRC32C();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(HASH_BUFFER_SIZE);
+        try (FileChannel channel = FileChannel.open(source, StandardOpenOption.READ)) {
+            while (channel.read(buffer) != -1) {
+                buffer.flip();
+                crc.update(buffer);
+                buffer.clear();
+            }
+        }
+        return crc.getValue();
+    }
+
+    private void updateModified(Path indexPath, long lastModified) throws IOException {
+        ByteBuffer modified = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        modified.putLong(lastModified).flip();
+        try (FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.WRITE)) {
+            while (modified.hasRemaining()) {
+                channel.write(modified, MODIFIED_OFFSET + modified.position());
+            }
+        }
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+}
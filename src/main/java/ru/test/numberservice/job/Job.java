@@ -0,0 +1,134 @@
+package ru.test.numberservice.job;
+
+import lombok.Getter;
+import ru.test.numberservice.reader.ScanProgress;
+
+import java.util.concurrent.Future;
+
+/**
+ * Асинхронная задача поиска N-го минимального числа.
+ * Переходы состояний синхронизированы: задача, отмененная до запуска или во время разбора,
+ * не может стать выполненной.
+ */
+class Job {
+
+    @Getter
+    private final String id;
+    @Getter
+    private final String filePath;
+    @Getter
+    private final int n;
+    @Getter
+    private final ScanProgress progress = new ScanProgress();
+
+    private JobState state = JobState.QUEUED;
+    private long startedNanos;
+    private long finishedNanos;
+    private Integer result;
+    private String error;
+    private Future<?> future;
+
+    Job(String id, String filePath, int n) {
+        this.id = id;
+        this.filePath = filePath;
+        this.n = n;
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+    }
+
+    /**
+     * Запуск задачи рабочим потоком
+     *
+     * @return false, если задача уже отменена
+     */
+    synchronized boolean start() {
+        if (state != JobState.QUEUED) {
+            return false;
+        }
+        state = JobState.RUNNING;
+        startedNanos = System.nanoTime();
+        return true;
+    }
+
+    synchronized void complete(int result) {
+        if (state == JobState.RUNNING) {
+            this.result = result;
+            finish(JobState.COMPLETED);
+        }
+    }
+
+    synchronized void fail(String error) {
+        if (state == JobState.RUNNING) {
+            this.error = error;
+            finish(JobState.FAILED);
+        }
+    }
+
+    /**
+     * Отмена задачи: ожидающая задача не будет запущена, выполняющаяся остановит разбор на границе строки
+     *
+     * @return false, если задача уже завершена
+     */
+    synchronized boolean cancel() {
+        if (state.isFinished()) {
+            return false;
+        }
+        progress.cancel();
+        if (future != null) {
+            future.cancel(false);
+        }
+        finish(JobState.CANCELLED);
+        return true;
+    }
+
+    synchronized JobState getState() {
+        return state;
+    }
+
+    synchronized Integer getResult() {
+        return result;
+    }
+
+    synchronized String getError() {
+        return error;
+    }
+
+    synchronized JobStatus status() {
+        long rowsScanned = progress.getRowsScanned();
+        long totalRows = progress.getTotalRows();
+        long elapsedNanos = switch (state) {
+            case QUEUED -> 0;
+            case RUNNING -> System.nanoTime() - startedNanos;
+            default -> startedNanos == 0 ? 0 : finishedNanos - startedNanos;
+        };
+
+        Double percent = null;
+        Long etaMillis = null;
+        if (state == JobState.COMPLETED) {
+            percent = 100.0;
+        } else if (totalRows > 0) {
+            long scanned = Math.min(rowsScanned, totalRows);
+            percent = scanned * 100.0 / totalRows;
+            if (state == JobState.RUNNING && scanned > 0) {
+                etaMillis = elapsedNanos * (totalRows - scanned) / scanned / 1_000_000;
+            }
+        }
+
+        return new JobStatus(id, state, filePath, n, rowsScanned, totalRows > 0 ? totalRows : null,
+                percent, elapsedNanos / 1_000_000, etaMillis, result, error);
+    }
+
+    /**
+     * Завершена ли задача раньше указанного момента времени
+     */
+    synchronized boolean finishedBefore(long nanos) {
+        return state.isFinished() && finishedNanos - nanos < 0;
+    }
+
+    private void finish(JobState finalState) {
+        state = finalState;
+        finishedNanos = System.nanoTime();
+    }
+}
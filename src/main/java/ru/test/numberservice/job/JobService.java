@@ -0,0 +1,149 @@
+package ru.test.numberservice.job;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.dto.NthMinResult;
+import ru.test.numberservice.exception.JobStateException;
+import ru.test.numberservice.exception.NotFoundException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.exception.ServiceOverloadedException;
+import ru.test.numberservice.service.NumberService;
+import ru.test.numberservice.validator.FileValidator;
+
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Асинхронные задачи поиска N-го минимального числа для больших файлов.
+ * Задача принимается сразу, разбор выполняется в ограниченном пуле рабочих потоков,
+ * ход и результат запрашиваются отдельно. Завершенные задачи хранятся заданное время.
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    private final NumberService numberService;
+    private final FileValidator fileValidator;
+    private final NumberServiceProperties properties;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public JobService(NumberService numberService, FileValidator fileValidator,
+                      NumberServiceProperties properties) {
+        this.numberService = numberService;
+        this.fileValidator = fileValidator;
+        this.properties = properties;
+        NumberServiceProperties.Jobs jobsProperties = properties.getJobs();
+        this.executor = new ThreadPoolExecutor(
+                jobsProperties.getMaxConcurrent(), jobsProperties.getMaxConcurrent(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(jobsProperties.getQueueCapacity()),
+                Thread.ofPlatform().name("job-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Постановка задачи в очередь.
+     * Параметры и файл проверяются сразу, поэтому ошибки валидации возвращаются без создания задачи.
+     *
+     * @param filePath путь к Excel файлу (.xlsx)
+     * @param n номер минимального элемента
+     * @return состояние созданной задачи
+     * @throws ServiceOverloadedException если очередь задач заполнена
+     */
+    public JobStatus submit(String filePath, int n) {
+        purgeExpired();
+        fileValidator.validateInput(filePath, n);
+
+        Job job = new Job(UUID.randomUUID().toString(), filePath, n);
+        jobs.put(job.getId(), job);
+        try {
+            job.setFuture(executor.submit(() -> run(job)));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            throw new ServiceOverloadedException("Too many jobs are queued, try again later");
+        }
+        log.info("Job {} submitted: {}-th min in file {}", job.getId(), n, filePath);
+        return job.status();
+    }
+
+    public JobStatus getStatus(String id) {
+        return getJob(id).status();
+    }
+
+    /**
+     * Результат выполненной задачи
+     *
+     * @throws JobStateException если задача еще выполняется, завершилась ошибкой или отменена
+     */
+    public NthMinResult getResult(String id) {
+        Job job = getJob(id);
+        JobState state = job.getState();
+        if (state == JobState.COMPLETED) {
+            return new NthMinResult(job.getN(), job.getResult());
+        }
+        if (state == JobState.FAILED) {
+            throw new JobStateException("Job " + id + " failed: " + job.getError());
+        }
+        throw new JobStateException("Job " + id + " is " + state);
+    }
+
+    /**
+     * Отмена задачи. Выполняющийся разбор останавливается посреди листа, на ближайшей границе строки.
+     * Уже завершенная задача удаляется вместе с результатом.
+     *
+     * @return состояние задачи после отмены
+     */
+    public JobStatus cancel(String id) {
+        Job job = getJob(id);
+        if (job.cancel()) {
+            log.info("Job {} cancelled", id);
+        } else {
+            jobs.remove(id);
+            log.debug("Finished job {} removed", id);
+        }
+        return job.status();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        jobs.values().forEach(Job::cancel);
+        executor.shutdownNow();
+    }
+
+    private void run(Job job) {
+        if (!job.start()) {
+            return;
+        }
+        try {
+            int result = numberService.findNthMinNumber(job.getFilePath(), job.getN(), job.getProgress());
+            job.complete(result);
+            log.info("Job {} completed", job.getId());
+        } catch (ScanCancelledException e) {
+            log.debug("Job {} stopped after {} rows", job.getId(), job.getProgress().getRowsScanned());
+        } catch (RuntimeException e) {
+            job.fail(e.getMessage());
+            log.warn("Job {} failed: {}", job.getId(), e.getMessage());
+        }
+    }
+
+    private Job getJob(String id) {
+        Job job = jobs.get(id);
+        if (job == null) {
+            throw new NotFoundException("Job not found: " + id);
+        }
+        return job;
+    }
+
+    private void purgeExpired() {
+        long expiredBefore = System.nanoTime() - properties.getJobs().getRetention().toNanos();
+        jobs.values().removeIf(job -> job.finishedBefore(expiredBefore));
+    }
+}
@@ -0,0 +1,16 @@
+package ru.test.numberservice.job;
+
+/**
+ * Состояние асинхронной задачи поиска.
+ */
+public enum JobState {
+    QUEUED,
+    RUNNING,
+    COMPLETED,
+    FAILED,
+    CANCELLED;
+
+    public boolean isFinished() {
+        return this == COMPLETED || this == FAILED || this == CANCELLED;
+    }
+}
@@ -0,0 +1,33 @@
+package ru.test.numberservice.job;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Состояние и ход выполнения асинхронной задачи.
+ */
+@Schema(description = "Asynchronous job status")
+public record JobStatus(
+        @Schema(description = "Job id", example = "3f1c7a52-5d0e-4a3b-9a0c-6b9d3b8e2f11")
+        String id,
+        @Schema(description = "Job state", example = "RUNNING")
+        JobState state,
+        @Schema(description = "Path to the Excel file", example = "/data/numbers.xlsx")
+        String filePath,
+        @Schema(description = "Order statistic", example = "3")
+        int n,
+        @Schema(description = "Rows of the sheet scanned so far", example = "250000")
+        long rowsScanned,
+        @Schema(description = "Total rows of the sheet, if the sheet declares its dimension", example = "1000000")
+        Long totalRows,
+        @Schema(description = "Progress in percent, if total rows are known", example = "25.0")
+        Double progressPercent,
+        @Schema(description = "Time spent scanning in milliseconds", example = "1500")
+        long elapsedMillis,
+        @Schema(description = "Estimated time to completion in milliseconds", example = "4500")
+        Long etaMillis,
+        @Schema(description = "Nth minimum number, when the job is completed", example = "11")
+        Integer result,
+        @Schema(description = "Error message, when the job failed", example = "File does not exist")
+        String error
+) {
+}
@@ -0,0 +1,125 @@
+package ru.test.numberservice.metrics;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+import ru.test.numberservice.reader.ScanStats;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Метрики поиска N-го минимального числа (Micrometer).
+ * Время этапов запроса (валидация, открытие книги, разбор ячеек, выбор) пишется в таймер
+ * {@code numberservice.phase} с тегами этапа, размера файла и N, чтобы видеть, где тратится время под нагрузкой.
+ * Дополнительно считаются обработанные и пропущенные ячейки и размер структур выбора.
+ */
+@Component
+public class ScanMetrics {
+
+    public static final String PHASE_VALIDATION = "validation";
+    public static final String PHASE_OPEN = "open";
+    public static final String PHASE_SCAN = "scan";
+    public static final String PHASE_SELECTION = "selection";
+
+    private static final long MB = 1024 * 1024;
+
+    private final MeterRegistry registry;
+    private final AtomicLong selectionHighWaterMark = new AtomicLong();
+
+    public ScanMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        registry.gauge("numberservice.selection.size.high.water", selectionHighWaterMark);
+    }
+
+    /**
+     * Запись времени этапа запроса
+     */
+    public void recordPhase(String phase, long nanos, long fileSize, int n) {
+        Timer.builder("numberservice.phase")
+                .description("Time spent in a phase of a find-nth-min request")
+                .tags(requestTags(fileSize, n).and("phase", phase))
+                .register(registry)
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Запись времени чтения и счетчиков ячеек по статистике просмотра
+     */
+    public void recordScan(ScanStats stats, long fileSize, int n) {
+        if (stats.getOpenNanos() > 0) {
+            recordPhase(PHASE_OPEN, stats.getOpenNanos(), fileSize, n);
+        }
+        recordPhase(PHASE_SCAN, stats.getScanNanos(), fileSize, n);
+
+        registry.counter("numberservice.cells.processed").increment(stats.getNumbersProcessed());
+        registry.counter("numberservice.cells.skipped", "reason", "non_integer")
+                .increment(stats.getNonIntegerSkipped());
+        registry.counter("numberservice.cells.skipped", "reason", "non_numeric")
+                .increment(stats.getNonNumericSkipped());
+    }
+
+    /**
+     * Запись количества чисел, которое хранила структура выбора
+     */
+    public void recordSelectionSize(long size, long fileSize, int n) {
+        DistributionSummary.builder("numberservice.selection.size")
+                .description("Numbers held by the selection structure of a request")
+                .baseUnit("numbers")
+                .tags(requestTags(fileSize, n))
+                .register(registry)
+                .record(size);
+        selectionHighWaterMark.accumulateAndGet(size, Math::max);
+    }
+
+    /**
+     * Учет запроса, который получил ответ из идущего просмотра того же файла, не разбирая файл сам
+     */
+    public void recordCoalescedRequest() {
+        registry.counter("numberservice.requests.coalesced").increment();
+    }
+
+    private Tags requestTags(long fileSize, int n) {
+        return Tags.of("file.size", fileSizeBucket(fileSize), "n", nBucket(n));
+    }
+
+    static String fileSizeBucket(long fileSize) {
+        if (fileSize < 0) {
+            return "unknown";
+        }
+        if (fileSize < MB) {
+            return "<1MB";
+        }
+        if (fileSize < 10 * MB) {
+            return "1-10MB";
+        }
+        if (fileSize < 100 * MB) {
+            return "10-100MB";
+        }
+        if (fileSize < 1024 * MB) {
+            return "100MB-1GB";
+        }
+        return ">1GB";
+    }
+
+    static String nBucket(int n) {
+        if (n <= 10) {
+            return "1-10";
+        }
+        if (n <= 100) {
+            return "11-100";
+        }
+        if (n <= 1_000) {
+            return "101-1K";
+        }
+        if (n <= 10_000) {
+            return "1K-10K";
+        }
+        if (n <= 100_000) {
+            return "10K-100K";
+        }
+        return ">100K";
+    }
+}
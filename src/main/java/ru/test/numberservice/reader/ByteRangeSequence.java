@@ -0,0 +1,49 @@
+package ru.test.numberservice.reader;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Представление диапазона байтов буфера как {@link CharSequence} без копирования.
+ * Каждый байт - один символ Latin-1, поэтому разборщики чисел работают прямо с байтами отображенного файла.
+ * Объект переиспользуется для всех полей части файла через {@link #reset(int, int)}.
+ */
+final class ByteRangeSequence implements CharSequence {
+
+    private final ByteBuffer buffer;
+    private int from;
+    private int length;
+
+    ByteRangeSequence(ByteBuffer buffer) {
+        this.buffer = buffer;
+    }
+
+    ByteRangeSequence reset(int from, int to) {
+        this.from = from;
+        this.length = to - from;
+        return this;
+    }
+
+    @Override
+    public int length() {
+        return length;
+    }
+
+    @Override
+    public char charAt(int index) {
+        return (char) (buffer.get(from + index) & 0xFF);
+    }
+
+    @Override
+    public CharSequence subSequence(int start, int end) {
+        return new ByteRangeSequence(buffer).reset(from + start, from + end);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder text = new StringBuilder(length);
+        for (int i = 0; i < length; i++) {
+            text.append(charAt(i));
+        }
+        return text.toString();
+    }
+}
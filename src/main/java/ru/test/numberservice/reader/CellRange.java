@@ -0,0 +1,108 @@
+package ru.test.numberservice.reader;
+
+import ru.test.numberservice.exception.ValidationException;
+
+import java.util.Locale;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Диапазон просматриваемых ячеек листа в стиле A1.
+ * Номера столбцов и строк начинаются с 1, границы включаются.
+ * Ячейки вне диапазона пропускаются на уровне событий XML, их значения не собираются и не разбираются.
+ */
+public record CellRange(int firstColumn, int lastColumn, int firstRow, int lastRow) {
+
+    public static final CellRange ALL = new CellRange(1, Integer.MAX_VALUE, 1, Integer.MAX_VALUE);
+
+    private static final Pattern CELL_REF = Pattern.compile("([A-Z]{0,3})([0-9]{0,7})");
+
+    /**
+     * Разбор диапазона из параметра запроса:
+     * {@code B2:D100} - прямоугольник, {@code B:D} или {@code B} - столбцы, {@code 2:100} - строки,
+     * {@code C5} - одна ячейка. Пустое значение - весь лист.
+     *
+     * @throws ValidationException если диапазон записан неверно
+     */
+    public static CellRange parse(String range) {
+        if (range == null || range.isBlank()) {
+            return ALL;
+        }
+
+        String value = range.trim().replace("$", "").toUpperCase(Locale.ROOT);
+        int separator = value.indexOf(':');
+        Matcher first = CELL_REF.matcher(separator < 0 ? value : value.substring(0, separator));
+        Matcher last = CELL_REF.matcher(separator < 0 ? value : value.substring(separator + 1));
+        if (!first.matches() || !last.matches()
+                || first.group(1).isEmpty() != last.group(1).isEmpty()
+                || first.group(2).isEmpty() != last.group(2).isEmpty()
+                || first.group(1).isEmpty() && first.group(2).isEmpty()) {
+            throw new ValidationException("Invalid range: " + range);
+        }
+
+        boolean hasColumns = !first.group(1).isEmpty();
+        boolean hasRows = !first.group(2).isEmpty();
+        CellRange cellRange = new CellRange(
+                hasColumns ? columnOf(first.group(1)) : ALL.firstColumn,
+                hasColumns ? columnOf(last.group(1)) : ALL.lastColumn,
+                hasRows ? rowOf(first.group(2)) : ALL.firstRow,
+                hasRows ? rowOf(last.group(2)) : ALL.lastRow);
+        if (cellRange.firstColumn > cellRange.lastColumn || cellRange.firstRow > cellRange.lastRow
+                || cellRange.firstRow < 1) {
+            throw new ValidationException("Invalid range: " + range);
+        }
+        return cellRange;
+    }
+
+    public boolean isAll() {
+        return equals(ALL);
+    }
+
+    /**
+     * Ограничивает ли диапазон строки
+     */
+    public boolean hasRowBounds() {
+        return firstRow != ALL.firstRow || lastRow != ALL.lastRow;
+    }
+
+    public boolean containsColumn(int column) {
+        return column >= firstColumn && column <= lastColumn;
+    }
+
+    public boolean containsRow(int row) {
+        return row >= firstRow && row <= lastRow;
+    }
+
+    /**
+     * Номер столбца по ссылке на ячейку, например 2 для {@code B12}
+     *
+     * @return номер столбца или 0, если в ссылке нет букв
+     */
+    static int columnOf(String cellRef) {
+        int column = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char ch = cellRef.charAt(i);
+            if (ch < 'A' || ch > 'Z') {
+                break;
+            }
+            column = column * 26 + (ch - 'A' + 1);
+        }
+        return column;
+    }
+
+    /**
+     * Номер строки по ссылке на ячейку, например 12 для {@code B12}
+     *
+     * @return номер строки или 0, если в ссылке нет цифр
+     */
+    static int rowOf(String cellRef) {
+        int row = 0;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char ch = cellRef.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                row = row * 10 + (ch - '0');
+            }
+        }
+        return row;
+    }
+}
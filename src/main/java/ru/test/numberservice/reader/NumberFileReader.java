@@ -0,0 +1,65 @@
+package ru.test.numberservice.reader;
+
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.selection.NumberSink;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Формат входных файлов с числами.
+ * Реализации регистрируются как компоненты Spring и выбираются по имени файла через {@link NumberFileReaders}.
+ * Для книги Excel читается первый лист, для текстовых форматов - весь файл;
+ * строки и столбцы {@link CellRange} соответствуют строкам и столбцам листа или полям текста.
+ */
+public interface NumberFileReader {
+
+    /**
+     * Поддерживает ли формат файл с таким именем
+     */
+    boolean supports(String fileName);
+
+    /**
+     * Последовательное чтение целых чисел из диапазона ячеек
+     *
+     * @param file файл
+     * @param range диапазон ячеек
+     * @param consumer получатель найденных чисел
+     * @param progress ход просмотра, заполняется по мере разбора
+     * @return статистика просмотренных ячеек
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws FileProcessingException если содержимое не соответствует формату
+     * @throws ScanCancelledException если просмотр отменен через {@link ScanProgress#cancel()}
+     */
+    ScanStats read(File file, CellRange range, IntConsumer consumer, ScanProgress progress) throws IOException;
+
+    /**
+     * Последовательное чтение чисел в режиме получателя (int, long или double) из диапазона ячеек
+     */
+    ScanStats read(File file, CellRange range, NumberSink sink, ScanProgress progress) throws IOException;
+
+    /**
+     * Чтение целых чисел частями, каждая часть в своего получателя.
+     * Форматы, допускающие параллельный разбор одного файла, делят его на части и разбирают их в пуле;
+     * по умолчанию весь файл читается одной частью.
+     *
+     * @param fileSize размер файла, уже известный вызывающему коду: по нему выбирается способ разбора
+     * @param consumerFactory создание получателя чисел для части по количеству частей просмотра:
+     *                        получатели всех частей существуют одновременно и делят между собой память запроса
+     * @return результаты по частям
+     */
+    default <T extends IntConsumer> List<SheetScanResult<T>> readParts(File file, long fileSize,
+                                                                      CellRange range,
+                                                                      IntFunction<T> consumerFactory,
+                                                                      ExecutorService executor,
+                                                                      ScanProgress progress) throws IOException {
+        T consumer = consumerFactory.apply(1);
+        ScanStats stats = read(file, range, consumer, progress);
+        return List.of(new SheetScanResult<>(file.getName(), consumer, stats));
+    }
+}
@@ -0,0 +1,36 @@
+package ru.test.numberservice.reader;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import ru.test.numberservice.exception.ValidationException;
+
+import java.util.List;
+
+/**
+ * Реестр форматов входных файлов: выбор {@link NumberFileReader} по имени файла.
+ */
+@Component
+@RequiredArgsConstructor
+public class NumberFileReaders {
+
+    private final List<NumberFileReader> readers;
+
+    /**
+     * @throws ValidationException если ни один формат не поддерживает файл
+     */
+    public NumberFileReader forFile(String filePath) {
+        for (NumberFileReader reader : readers) {
+            if (reader.supports(filePath)) {
+                return reader;
+            }
+        }
+        throw new ValidationException("Unsupported file format: " + filePath);
+    }
+
+    /**
+     * Является ли файл книгой Excel: только в ней можно выбирать листы
+     */
+    public boolean isWorkbook(String filePath) {
+        return forFile(filePath) instanceof XlsxStreamReader;
+    }
+}
@@ -0,0 +1,250 @@
+package ru.test.numberservice.reader;
+
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackagePart;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.usermodel.XSSFRelation;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.util.FastDecimalParser;
+import ru.test.numberservice.util.FastIntParser;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.List;
+
+/**
+ * Таблица общих строк, заранее разобранная в числа.
+ * Каждая строка из sharedStrings.xml разбирается один раз при чтении таблицы:
+ * значение хранится в массиве int[], признаки числа и пустой строки - в битовых наборах.
+ * Ячейка с общей строкой обходится одним обращением к массиву, сами строки в памяти не хранятся.
+ * В режимах {@link NumberMode#LONG} и {@link NumberMode#DOUBLE} значения хранятся в массиве long[] или double[].
+ */
+class NumericSharedStrings {
+
+    static final NumericSharedStrings EMPTY = new NumericSharedStrings(new TableHandler(NumberMode.INT));
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_PRESIZED_CAPACITY = 1 << 20;
+
+    private final int[] values;
+    private final long[] longValues;
+    private final double[] doubleValues;
+    private final BitSet numeric;
+    private final BitSet blank;
+    private final int size;
+
+    private NumericSharedStrings(TableHandler handler) {
+        this.values = handler.values;
+        this.longValues = handler.longValues;
+        this.doubleValues = handler.doubleValues;
+        this.numeric = handler.numeric;
+        this.blank = handler.blank;
+        this.size = handler.size;
+    }
+
+    /**
+     * Чтение таблицы общих строк книги
+     *
+     * @return таблица или пустая таблица, если в книге нет общих строк
+     */
+    static NumericSharedStrings read(OPCPackage pkg)
+            throws IOException, SAXException, ParserConfigurationException {
+        return read(pkg, NumberMode.INT);
+    }
+
+    /**
+     * Чтение таблицы общих строк книги с разбором строк в числа заданного режима
+     *
+     * @return таблица или пустая таблица, если в книге нет общих строк
+     */
+    static NumericSharedStrings read(OPCPackage pkg, NumberMode mode)
+            throws IOException, SAXException, ParserConfigurationException {
+        List<PackagePart> parts = pkg.getPartsByContentType(XSSFRelation.SHARED_STRINGS.getContentType());
+        if (parts.isEmpty()) {
+            return EMPTY;
+        }
+        try (InputStream content = parts.get(0).getInputStream()) {
+            return read(content, mode);
+        }
+    }
+
+    /**
+     * Чтение таблицы общих строк из содержимого sharedStrings.xml
+     */
+    static NumericSharedStrings read(InputStream content)
+            throws IOException, SAXException, ParserConfigurationException {
+        return read(content, NumberMode.INT);
+    }
+
+    static NumericSharedStrings read(InputStream content, NumberMode mode)
+            throws IOException, SAXException, ParserConfigurationException {
+        TableHandler handler = new TableHandler(mode);
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(handler);
+        parser.parse(new InputSource(content));
+        return new NumericSharedStrings(handler);
+    }
+
+    int size() {
+        return size;
+    }
+
+    boolean isNumeric(int index) {
+        return numeric.get(index);
+    }
+
+    boolean isBlank(int index) {
+        return blank.get(index);
+    }
+
+    /**
+     * Число общей строки; имеет смысл, только если {@link #isNumeric(int)}
+     */
+    int value(int index) {
+        return values[index];
+    }
+
+    /**
+     * Число общей строки в режиме {@link NumberMode#LONG}
+     */
+    long longValue(int index) {
+        return longValues[index];
+    }
+
+    /**
+     * Число общей строки в режиме {@link NumberMode#DOUBLE}
+     */
+    double doubleValue(int index) {
+        return doubleValues[index];
+    }
+
+    /**
+     * SAX обработчик sharedStrings.xml: текст элемента {@code <si>} собирается из всех его {@code <t>},
+     * кроме фонетических подсказок {@code <rPh>}, и сразу разбирается в число
+     */
+    private static class TableHandler extends DefaultHandler {
+
+        private final StringBuilder text = new StringBuilder(32);
+        private final NumberMode mode;
+        private int[] values;
+        private long[] longValues;
+        private double[] doubleValues;
+        private final BitSet numeric = new BitSet();
+        private final BitSet blank = new BitSet();
+        private int size;
+        private boolean inItem;
+        private boolean collecting;
+        private int phoneticDepth;
+
+        TableHandler(NumberMode mode) {
+            this.mode = mode;
+            allocate(MIN_CAPACITY);
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "sst" -> presize(attributes.getValue("uniqueCount"));
+                case "si" -> {
+                    inItem = true;
+                    text.setLength(0);
+                }
+                case "rPh" -> phoneticDepth++;
+                case "t" -> collecting = inItem && phoneticDepth == 0;
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "t" -> collecting = false;
+                case "rPh" -> phoneticDepth--;
+                case "si" -> {
+                    addItem();
+                    inItem = false;
+                }
+                default -> {
+                }
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (collecting) {
+                text.append(ch, start, length);
+            }
+        }
+
+        private void addItem() {
+            boolean parsed = switch (mode) {
+                case INT -> addInt();
+                case LONG -> addLong();
+                case DOUBLE -> addDouble();
+            };
+            if (parsed) {
+                numeric.set(size);
+            } else if (FastIntParser.isBlank(text)) {
+                blank.set(size);
+            }
+            size++;
+        }
+
+        private boolean addInt() {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            long parsed = FastIntParser.DEFAULT.parse(text);
+            values[size] = (int) parsed;
+            return parsed != FastIntParser.NOT_A_NUMBER;
+        }
+
+        private boolean addLong() {
+            if (size == longValues.length) {
+                longValues = Arrays.copyOf(longValues, longValues.length * 2);
+            }
+            long parsed = FastIntParser.DEFAULT.parseLong(text);
+            longValues[size] = parsed;
+            return parsed != FastIntParser.NOT_A_NUMBER;
+        }
+
+        private boolean addDouble() {
+            if (size == doubleValues.length) {
+                doubleValues = Arrays.copyOf(doubleValues, doubleValues.length * 2);
+            }
+            double parsed = FastDecimalParser.DEFAULT.parse(text);
+            doubleValues[size] = parsed;
+            return !Double.isNaN(parsed);
+        }
+
+        private void allocate(int capacity) {
+            switch (mode) {
+                case INT -> values = new int[capacity];
+                case LONG -> longValues = new long[capacity];
+                case DOUBLE -> doubleValues = new double[capacity];
+            }
+        }
+
+        /**
+         * Выделение массива по количеству строк из заголовка таблицы, с ограничением на случай неверного заголовка
+         */
+        private void presize(String uniqueCount) {
+            if (uniqueCount == null) {
+                return;
+            }
+            long count = FastIntParser.DEFAULT.parse(uniqueCount);
+            if (count > MIN_CAPACITY) {
+                allocate((int) Math.min(count, MAX_PRESIZED_CAPACITY));
+            }
+        }
+    }
+}
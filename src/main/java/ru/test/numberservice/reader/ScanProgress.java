@@ -0,0 +1,52 @@
+package ru.test.numberservice.reader;
+
+/**
+ * Ход просмотра листа: количество просмотренных строк, общее количество строк
+ * из элемента {@code <dimension>} листа и флаг отмены.
+ * Счетчики пишет поток разбора (или потоки частей файла, пачками строк),
+ * читать их и отменять просмотр можно из любого потока.
+ */
+public class ScanProgress {
+
+    private volatile long rowsScanned;
+    private volatile long totalRows = -1;
+    private volatile boolean cancelled;
+
+    public long getRowsScanned() {
+        return rowsScanned;
+    }
+
+    /**
+     * Общее количество строк листа или -1, если лист его не указывает
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Отмена просмотра: разбор остановится на ближайшей границе строки
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    @SuppressWarnings("NonAtomicOperationOnVolatileField")
+    void rowScanned() {
+        rowsScanned++;
+    }
+
+    /**
+     * Учет пачки строк; используется, когда части файла разбирают несколько потоков
+     */
+    synchronized void rowsScanned(long rows) {
+        rowsScanned += rows;
+    }
+
+    void totalRows(long rows) {
+        totalRows = rows;
+    }
+}
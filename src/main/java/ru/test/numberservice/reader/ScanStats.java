@@ -0,0 +1,52 @@
+package ru.test.numberservice.reader;
+
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * Статистика просмотра листа Excel файла.
+ * Содержит количество переданных чисел, пропущенных ячеек по причинам и время этапов чтения.
+ */
+@Getter
+@ToString
+public class ScanStats {
+
+    private long numbersProcessed;
+    private long nonIntegerSkipped;
+    private long nonNumericSkipped;
+    private long openNanos;
+    private long scanNanos;
+
+    /**
+     * Количество пропущенных ячеек по всем причинам
+     */
+    public long getCellsSkipped() {
+        return nonIntegerSkipped + nonNumericSkipped;
+    }
+
+    void numberProcessed() {
+        numbersProcessed++;
+    }
+
+    void nonIntegerSkipped() {
+        nonIntegerSkipped++;
+    }
+
+    void nonNumericSkipped() {
+        nonNumericSkipped++;
+    }
+
+    /**
+     * Время открытия книги: чтение структуры архива и таблицы общих строк
+     */
+    void openTime(long nanos) {
+        openNanos = nanos;
+    }
+
+    /**
+     * Время разбора ячеек листа
+     */
+    void scanTime(long nanos) {
+        scanNanos = nanos;
+    }
+}
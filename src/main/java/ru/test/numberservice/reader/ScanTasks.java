@@ -0,0 +1,68 @@
+package ru.test.numberservice.reader;
+
+import ru.test.numberservice.exception.FileProcessingException;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+
+/**
+ * Ожидание параллельных задач разбора листов и частей файла
+ */
+final class ScanTasks {
+
+    private ScanTasks() {
+    }
+
+    /**
+     * Результаты всех задач в порядке списка. Ошибка первой упавшей задачи пробрасывается как есть,
+     * остальные задачи при этом отменяются
+     */
+    static <R> List<R> awaitAll(List<Future<R>> futures) throws IOException {
+        List<R> results = new ArrayList<>(futures.size());
+        try {
+            for (Future<R> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("File scan interrupted", e);
+        } catch (ExecutionException e) {
+            throw failure(e);
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+    }
+
+    /**
+     * Проброс ошибки уже завершившейся задачи, не дожидаясь остальных
+     */
+    static void rethrowFailure(List<? extends Future<?>> futures) throws IOException {
+        for (Future<?> future : futures) {
+            if (future.isDone() && !future.isCancelled()) {
+                try {
+                    future.get();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new FileProcessingException("File scan interrupted", e);
+                } catch (ExecutionException e) {
+                    throw failure(e);
+                }
+            }
+        }
+    }
+
+    private static IOException failure(ExecutionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof IOException ioException) {
+            return ioException;
+        }
+        if (cause instanceof RuntimeException runtimeException) {
+            throw runtimeException;
+        }
+        throw new FileProcessingException("File processing error", cause);
+    }
+}
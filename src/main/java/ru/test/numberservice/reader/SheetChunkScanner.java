@@ -0,0 +1,378 @@
+package ru.test.numberservice.reader;
+
+import org.apache.poi.util.XMLHelper;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.SequenceInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Параллельный разбор одного листа частями по границам строк.
+ * Вызывающий поток распаковывает XML листа блоками и режет их после закрывающего тега {@code </row>}.
+ * Каждая часть дополняется началом документа до {@code <sheetData>} включительно и закрывающими тегами,
+ * поэтому разбирается отдельным SAX парсером тем же {@link SheetXmlHandler}, что и весь лист.
+ *
+ * <p>Рабочие потоки забирают части из ограниченной очереди, и каждый заполняет свою структуру выбора;
+ * в памяти одновременно находится не больше двух частей на поток. Номера строк частей заранее неизвестны,
+ * поэтому диапазон с ограничением по строкам так не разбирается.
+ *
+ * <p>Рабочие потоки выполняются в общем пуле разбора и ждут части, пока вызывающий поток распаковывает лист.
+ * Ожидание сообщается пулу через {@link ForkJoinPool.ManagedBlocker}: на время ожидания пул добавляет
+ * потоки, и ожидающие рабочие потоки одного запроса не занимают пул целиком.
+ */
+final class SheetChunkScanner {
+
+    private static final byte[] END_OF_SHEET = new byte[0];
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    private final int chunkSize;
+    private final int workers;
+
+    SheetChunkScanner(int chunkSize, int workers) {
+        this.chunkSize = chunkSize;
+        this.workers = workers;
+    }
+
+    /**
+     * Разбор листа частями
+     *
+     * @param sheetName имя листа для результатов частей
+     * @param sheet распаковываемый XML листа
+     * @param range диапазон ячеек без ограничения по строкам
+     * @param consumerFactory создание получателя чисел рабочего потока по количеству рабочих потоков
+     * @return результаты рабочих потоков
+     */
+    <T extends IntConsumer> List<SheetScanResult<T>> scan(String sheetName, InputStream sheet,
+                                                          NumericSharedStrings sharedStrings, CellRange range,
+                                                          IntFunction<T> consumerFactory, ExecutorService executor,
+                                                          ScanProgress progress)
+            throws IOException, SAXException, ParserConfigurationException {
+        ChunkReader reader = new ChunkReader(sheet);
+        SheetDocument document = reader.readHeader();
+        IntConsumer noRows = value -> { };
+        parseChunk(XMLHelper.newXMLReader(), document, new byte[0],
+                new SheetXmlHandler(sharedStrings, noRows, new ScanStats(), range, progress));
+
+        BlockingQueue<byte[]> chunks = new ArrayBlockingQueue<>(workers * 2);
+        List<Future<SheetScanResult<T>>> futures = new ArrayList<>(workers);
+        for (int i = 0; i < workers; i++) {
+            String partName = sheetName + "#" + (i + 1);
+            T consumer = consumerFactory.apply(workers);
+            futures.add(executor.submit(
+                    () -> parseChunks(partName, document, chunks, sharedStrings, range, consumer, progress)));
+        }
+
+        boolean produced = false;
+        try {
+            for (byte[] rows = reader.nextRows(document); rows != null; rows = reader.nextRows(document)) {
+                if (progress.isCancelled()) {
+                    throw new ScanCancelledException("Sheet scan cancelled");
+                }
+                put(chunks, rows, futures);
+            }
+            for (int i = 0; i < workers; i++) {
+                put(chunks, END_OF_SHEET, futures);
+            }
+            produced = true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("Sheet scan interrupted", e);
+        } finally {
+            if (!produced) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+        return ScanTasks.awaitAll(futures);
+    }
+
+    /**
+     * Передача части в очередь. Пока очередь заполнена, проверяется, не завершился ли рабочий поток с ошибкой:
+     * иначе производитель ждал бы места в очереди бесконечно
+     */
+    private void put(BlockingQueue<byte[]> chunks, byte[] rows, List<? extends Future<?>> futures)
+            throws IOException, InterruptedException {
+        while (!chunks.offer(rows, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+            ScanTasks.rethrowFailure(futures);
+        }
+    }
+
+    /**
+     * Рабочий поток: разбор частей из очереди в свою структуру выбора до конца листа
+     */
+    private <T extends IntConsumer> SheetScanResult<T> parseChunks(String partName, SheetDocument document,
+                                                                   BlockingQueue<byte[]> chunks,
+                                                                   NumericSharedStrings sharedStrings,
+                                                                   CellRange range, T consumer,
+                                                                   ScanProgress progress) throws Exception {
+        ScanStats stats = new ScanStats();
+        XMLReader parser = XMLHelper.newXMLReader();
+        long scanNanos = 0;
+        for (byte[] rows = take(chunks); rows != END_OF_SHEET; rows = take(chunks)) {
+            long chunkStart = System.nanoTime();
+            ScanProgress chunkProgress = new ScanProgress();
+            parseChunk(parser, document, rows,
+                    new SheetXmlHandler(sharedStrings, consumer, stats, range, chunkProgress));
+            progress.rowsScanned(chunkProgress.getRowsScanned());
+            scanNanos += System.nanoTime() - chunkStart;
+            if (progress.isCancelled()) {
+                throw new ScanCancelledException("Sheet scan cancelled");
+            }
+        }
+        stats.scanTime(scanNanos);
+        return new SheetScanResult<>(partName, consumer, stats);
+    }
+
+    /**
+     * Ожидание следующей части, о котором знает пул разбора
+     */
+    private static byte[] take(BlockingQueue<byte[]> chunks) throws InterruptedException {
+        ChunkBlocker blocker = new ChunkBlocker(chunks);
+        ForkJoinPool.managedBlock(blocker);
+        return blocker.rows;
+    }
+
+    private void parseChunk(XMLReader parser, SheetDocument document, byte[] rows, SheetXmlHandler handler)
+            throws IOException, SAXException {
+        parser.setContentHandler(handler);
+        parser.parse(new InputSource(new SequenceInputStream(Collections.enumeration(List.of(
+                new ByteArrayInputStream(document.header()),
+                new ByteArrayInputStream(rows),
+                new ByteArrayInputStream(document.footer()))))));
+    }
+
+    private static final class ChunkBlocker implements ForkJoinPool.ManagedBlocker {
+
+        private final BlockingQueue<byte[]> chunks;
+        private byte[] rows;
+
+        ChunkBlocker(BlockingQueue<byte[]> chunks) {
+            this.chunks = chunks;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            if (rows == null) {
+                rows = chunks.take();
+            }
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            if (rows == null) {
+                rows = chunks.poll();
+            }
+            return rows != null;
+        }
+    }
+
+    /**
+     * Начало документа листа до {@code <sheetData>} включительно и теги, которыми документ части закрывается
+     *
+     * @param rowEnd закрывающий тег строки с префиксом пространства имен листа
+     * @param sheetDataEnd начало закрывающего тега {@code </sheetData>}
+     */
+    private record SheetDocument(byte[] header, byte[] footer, byte[] rowEnd, byte[] sheetDataEnd,
+                                 boolean empty) {
+    }
+
+    /**
+     * Чтение XML листа блоками не меньше размера части, с переносом неполной строки в следующую часть
+     */
+    private final class ChunkReader {
+
+        private final InputStream in;
+        private byte[] buffer = new byte[Math.max(chunkSize, 8192) * 2];
+        private int start;
+        private int length;
+        private boolean eof;
+        private boolean done;
+
+        ChunkReader(InputStream in) {
+            this.in = in;
+        }
+
+        /**
+         * Чтение начала документа: корневой элемент задает префикс пространства имен тегов листа
+         */
+        SheetDocument readHeader() throws IOException {
+            int root = -1;
+            while (root < 0) {
+                root = findRoot();
+                if (root < 0 && !fill()) {
+                    throw new FileProcessingException("Sheet XML has no root element");
+                }
+            }
+            int nameEnd = root + 1;
+            while (nameEnd < length && isNameChar(buffer[nameEnd])) {
+                nameEnd++;
+            }
+            String rootName = new String(buffer, root + 1, nameEnd - root - 1, StandardCharsets.UTF_8);
+            String prefix = rootName.substring(0, rootName.indexOf(':') + 1);
+
+            byte[] sheetDataStart = ("<" + prefix + "sheetData").getBytes(StandardCharsets.UTF_8);
+            int sheetData = -1;
+            int from = nameEnd;
+            while (sheetData < 0) {
+                sheetData = findTag(sheetDataStart, from);
+                if (sheetData < 0) {
+                    from = Math.max(nameEnd, length - sheetDataStart.length);
+                    if (!fill()) {
+                        throw new FileProcessingException("Sheet XML has no sheetData element");
+                    }
+                }
+            }
+            int tagEnd = sheetData + sheetDataStart.length;
+            while (tagEnd >= length || buffer[tagEnd] != '>') {
+                if (tagEnd < length) {
+                    tagEnd++;
+                } else if (!fill()) {
+                    throw new FileProcessingException("Sheet XML is truncated");
+                }
+            }
+            boolean empty = buffer[tagEnd - 1] == '/';
+            start = tagEnd + 1;
+
+            byte[] header = Arrays.copyOf(buffer, start);
+            if (empty) {
+                header[tagEnd - 1] = ' ';
+            }
+            return new SheetDocument(header,
+                    ("</" + prefix + "sheetData></" + rootName + ">").getBytes(StandardCharsets.UTF_8),
+                    ("</" + prefix + "row>").getBytes(StandardCharsets.UTF_8),
+                    ("</" + prefix + "sheetData").getBytes(StandardCharsets.UTF_8),
+                    empty);
+        }
+
+        /**
+         * Следующая часть: целые строки листа общим размером не меньше размера части
+         *
+         * @return строки части или null, если строки листа закончились
+         */
+        byte[] nextRows(SheetDocument document) throws IOException {
+            if (done || document.empty()) {
+                return null;
+            }
+            int searched = 0;
+            while (true) {
+                while (!eof && length - start < chunkSize) {
+                    fill();
+                }
+                int rowEnd = lastIndexOf(document.rowEnd(), start + searched);
+                if (rowEnd >= 0) {
+                    int end = rowEnd + document.rowEnd().length;
+                    byte[] rows = Arrays.copyOfRange(buffer, start, end);
+                    start = end;
+                    return rows;
+                }
+                if (eof) {
+                    done = true;
+                    int sheetDataEnd = indexOf(document.sheetDataEnd(), start);
+                    int end = sheetDataEnd >= 0 ? sheetDataEnd : length;
+                    return end > start ? Arrays.copyOfRange(buffer, start, end) : null;
+                }
+                searched = Math.max(0, length - start - document.rowEnd().length);
+                fill();
+            }
+        }
+
+        /**
+         * Дочитывание данных в буфер; прочитанные части сдвигаются в начало, при нехватке места буфер растет
+         *
+         * @return false, если данные закончились
+         */
+        private boolean fill() throws IOException {
+            if (eof) {
+                return false;
+            }
+            if (start > 0 && length == buffer.length) {
+                System.arraycopy(buffer, start, buffer, 0, length - start);
+                length -= start;
+                start = 0;
+            }
+            if (length == buffer.length) {
+                buffer = Arrays.copyOf(buffer, buffer.length * 2);
+            }
+            int read = in.read(buffer, length, buffer.length - length);
+            if (read < 0) {
+                eof = true;
+                return false;
+            }
+            length += read;
+            return true;
+        }
+
+        private int findRoot() {
+            for (int i = 0; i + 1 < length; i++) {
+                if (buffer[i] == '<' && buffer[i + 1] != '?' && buffer[i + 1] != '!') {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        /**
+         * Начало тега с таким именем, но не другого тега с тем же началом имени
+         */
+        private int findTag(byte[] tag, int from) {
+            for (int i = indexOf(tag, from); i >= 0; i = indexOf(tag, i + 1)) {
+                int next = i + tag.length;
+                if (next < length && !isNameChar(buffer[next])) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int indexOf(byte[] pattern, int from) {
+            for (int i = from; i <= length - pattern.length; i++) {
+                if (matches(pattern, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private int lastIndexOf(byte[] pattern, int from) {
+            for (int i = length - pattern.length; i >= from; i--) {
+                if (matches(pattern, i)) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+
+        private boolean matches(byte[] pattern, int at) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (buffer[at + j] != pattern[j]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean isNameChar(byte b) {
+            return b != '>' && b != '/' && (b & 0xFF) > ' ';
+        }
+    }
+}
@@ -0,0 +1,267 @@
+package ru.test.numberservice.reader;
+
+import ru.test.numberservice.exception.FileProcessingException;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.function.IntConsumer;
+
+/**
+ * Конвейер разбора листа из трех стадий, связанных ограниченными очередями:
+ * распаковка XML листа блоками байтов в отдельном потоке, разбор XML в вызывающем потоке
+ * и передача чисел получателю пачками {@code int[]} в третьем потоке.
+ * Блоки и пачки переиспользуются, поэтому объем памяти конвейера постоянен,
+ * а заполненная очередь останавливает предыдущую стадию.
+ *
+ * <p>Стадии работают на виртуальных потоках, а не в пуле разбора: стадии ждут друг друга,
+ * и в ограниченном пуле ожидающие стадии разных запросов могли бы занять все его потоки.
+ */
+final class SheetPipeline implements AutoCloseable {
+
+    private static final int BLOCK_SIZE = 64 * 1024;
+    private static final int BLOCK_COUNT = 4;
+    private static final int BATCH_SIZE = 4096;
+    private static final int BATCH_COUNT = 4;
+    private static final ByteBuffer END_OF_SHEET = ByteBuffer.allocate(0);
+    private static final IntBuffer END_OF_NUMBERS = IntBuffer.allocate(0);
+
+    private final BlockingQueue<ByteBuffer> freeBlocks = new ArrayBlockingQueue<>(BLOCK_COUNT);
+    private final BlockingQueue<ByteBuffer> filledBlocks = new ArrayBlockingQueue<>(BLOCK_COUNT + 1);
+    private final BlockingQueue<IntBuffer> freeBatches = new ArrayBlockingQueue<>(BATCH_COUNT);
+    private final BlockingQueue<IntBuffer> filledBatches = new ArrayBlockingQueue<>(BATCH_COUNT + 1);
+    private final InflatedStream inflated = new InflatedStream();
+    private final Batcher batcher = new Batcher();
+    private final Thread inflater;
+    private final Thread selector;
+
+    private volatile Exception inflateFailure;
+    private volatile RuntimeException selectFailure;
+
+    private SheetPipeline(InputStream sheet, IntConsumer consumer) {
+        for (int i = 0; i < BLOCK_COUNT; i++) {
+            freeBlocks.add(ByteBuffer.allocate(BLOCK_SIZE));
+        }
+        for (int i = 0; i < BATCH_COUNT; i++) {
+            freeBatches.add(IntBuffer.allocate(BATCH_SIZE));
+        }
+        batcher.batch = freeBatches.remove();
+        inflater = Thread.ofVirtual().name("sheet-inflate").start(() -> inflate(sheet));
+        selector = Thread.ofVirtual().name("sheet-select").start(() -> select(consumer));
+    }
+
+    /**
+     * Запуск стадий распаковки и передачи чисел
+     *
+     * @param sheet распаковываемый XML листа
+     * @param consumer получатель чисел, вызывается только из потока передачи
+     */
+    static SheetPipeline start(InputStream sheet, IntConsumer consumer) {
+        return new SheetPipeline(sheet, consumer);
+    }
+
+    /**
+     * Распакованный XML листа для SAX парсера
+     */
+    InputStream inflated() {
+        return inflated;
+    }
+
+    /**
+     * Получатель чисел для обработчика листа: числа копятся в пачку и передаются получателю целыми пачками
+     */
+    IntConsumer batcher() {
+        return batcher;
+    }
+
+    /**
+     * Передача последней пачки и ожидание, пока получатель обработает все числа
+     */
+    void finish() {
+        batcher.handOff(false);
+        put(filledBatches, END_OF_NUMBERS);
+        try {
+            selector.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("Sheet scan interrupted", e);
+        }
+        if (selectFailure != null) {
+            throw selectFailure;
+        }
+    }
+
+    /**
+     * Остановка стадий, в том числе после ошибки разбора или окончания диапазона посреди листа
+     */
+    @Override
+    public void close() {
+        inflater.interrupt();
+        selector.interrupt();
+        try {
+            inflater.join();
+            selector.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Стадия распаковки: чтение XML листа в свободные блоки
+     */
+    private void inflate(InputStream sheet) {
+        try {
+            while (true) {
+                ByteBuffer block = freeBlocks.take();
+                int read = sheet.readNBytes(block.array(), 0, block.capacity());
+                if (read == 0) {
+                    break;
+                }
+                block.position(0).limit(read);
+                filledBlocks.put(block);
+            }
+        } catch (InterruptedException e) {
+            return;
+        } catch (IOException | RuntimeException e) {
+            inflateFailure = e;
+        }
+        filledBlocks.offer(END_OF_SHEET);
+    }
+
+    /**
+     * Стадия передачи чисел: получатель заполняется пачками; после его ошибки пачки только возвращаются,
+     * чтобы разбор не остановился на заполненной очереди, а ошибка пробрасывается в {@link #finish()}
+     */
+    private void select(IntConsumer consumer) {
+        try {
+            for (IntBuffer batch = filledBatches.take(); batch != END_OF_NUMBERS; batch = filledBatches.take()) {
+                if (selectFailure == null) {
+                    try {
+                        int[] values = batch.array();
+                        for (int i = 0, size = batch.limit(); i < size; i++) {
+                            consumer.accept(values[i]);
+                        }
+                    } catch (RuntimeException e) {
+                        selectFailure = e;
+                    }
+                }
+                batch.clear();
+                freeBatches.add(batch);
+            }
+        } catch (InterruptedException e) {
+            // конвейер закрыт
+        }
+    }
+
+    private static <E> E take(BlockingQueue<E> queue) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("Sheet scan interrupted", e);
+        }
+    }
+
+    private static <E> void put(BlockingQueue<E> queue, E element) {
+        try {
+            queue.put(element);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("Sheet scan interrupted", e);
+        }
+    }
+
+    /**
+     * Поток байтов из заполненных блоков; прочитанный блок возвращается стадии распаковки
+     */
+    private final class InflatedStream extends InputStream {
+
+        private ByteBuffer block;
+        private boolean ended;
+
+        @Override
+        public int read() throws IOException {
+            return nextBlock() ? block.get() & 0xFF : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) throws IOException {
+            if (length == 0) {
+                return 0;
+            }
+            if (!nextBlock()) {
+                return -1;
+            }
+            int count = Math.min(length, block.remaining());
+            block.get(bytes, offset, count);
+            return count;
+        }
+
+        /**
+         * @return false, если XML листа закончился
+         */
+        private boolean nextBlock() throws IOException {
+            if (block != null && block.hasRemaining()) {
+                return true;
+            }
+            if (ended) {
+                return false;
+            }
+            if (block != null) {
+                freeBlocks.add(block);
+            }
+            try {
+                block = filledBlocks.take();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Sheet scan interrupted");
+            }
+            if (block == END_OF_SHEET) {
+                ended = true;
+                block = null;
+                Exception failure = inflateFailure;
+                if (failure instanceof IOException ioException) {
+                    throw ioException;
+                }
+                if (failure instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                return false;
+            }
+            return true;
+        }
+    }
+
+    /**
+     * Накопление чисел в пачку в потоке разбора XML
+     */
+    private final class Batcher implements IntConsumer {
+
+        private IntBuffer batch;
+
+        @Override
+        public void accept(int value) {
+            batch.put(value);
+            if (!batch.hasRemaining()) {
+                handOff(true);
+            }
+        }
+
+        /**
+         * Передача накопленной пачки стадии передачи чисел
+         *
+         * @param next взять свободную пачку для следующих чисел
+         */
+        void handOff(boolean next) {
+            if (batch.position() > 0) {
+                batch.flip();
+                put(filledBatches, batch);
+                batch = next ? take(freeBatches) : null;
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package ru.test.numberservice.reader;
+
+/**
+ * Результат просмотра одного листа: получатель чисел листа и статистика ячеек.
+ */
+public record SheetScanResult<T>(String sheetName, T consumer, ScanStats stats) {
+}
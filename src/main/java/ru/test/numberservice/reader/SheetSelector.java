@@ -0,0 +1,95 @@
+package ru.test.numberservice.reader;
+
+import ru.test.numberservice.exception.ValidationException;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Выбор листов книги для просмотра: первый лист, все листы или листы с указанными именами и номерами.
+ */
+public record SheetSelector(boolean allSheets, Set<String> names, Set<Integer> indexes) {
+
+    public static final String ALL_SHEETS = "*";
+    public static final String INDEX_PREFIX = "#";
+    public static final SheetSelector FIRST_SHEET = new SheetSelector(false, Set.of(), Set.of());
+
+    /**
+     * Создание селектора из параметра запроса.
+     * Пустой список - первый лист, {@code *} - все листы, {@code #2} - второй лист по порядку,
+     * иначе - листы с перечисленными именами.
+     *
+     * @throws ValidationException если номер листа записан неверно
+     */
+    public static SheetSelector of(List<String> sheets) {
+        if (sheets == null || sheets.isEmpty()) {
+            return FIRST_SHEET;
+        }
+        if (sheets.contains(ALL_SHEETS)) {
+            return new SheetSelector(true, Set.of(), Set.of());
+        }
+
+        Set<String> names = new HashSet<>();
+        Set<Integer> indexes = new HashSet<>();
+        for (String sheet : sheets) {
+            if (sheet.startsWith(INDEX_PREFIX)) {
+                indexes.add(parseIndex(sheet));
+            } else {
+                names.add(sheet);
+            }
+        }
+        return new SheetSelector(false, Set.copyOf(names), Set.copyOf(indexes));
+    }
+
+    public boolean isFirstSheetOnly() {
+        return !allSheets && names.isEmpty() && indexes.isEmpty();
+    }
+
+    /**
+     * Подходит ли лист под селектор
+     *
+     * @param index порядковый номер листа в книге, начиная с 0
+     * @param name имя листа
+     */
+    public boolean matches(int index, String name) {
+        if (allSheets) {
+            return true;
+        }
+        if (isFirstSheetOnly()) {
+            return index == 0;
+        }
+        return names.contains(name) || indexes.contains(index);
+    }
+
+    @Override
+    public String toString() {
+        if (allSheets) {
+            return ALL_SHEETS;
+        }
+        if (isFirstSheetOnly()) {
+            return "<first sheet>";
+        }
+        List<String> parts = new ArrayList<>(names);
+        indexes.stream().sorted().forEach(index -> parts.add(INDEX_PREFIX + (index + 1)));
+        return String.join(", ", parts);
+    }
+
+    /**
+     * Номер листа из записи {@code #N}, где N начинается с 1
+     *
+     * @return порядковый номер листа, начиная с 0
+     */
+    private static int parseIndex(String sheet) {
+        try {
+            int number = Integer.parseInt(sheet.substring(INDEX_PREFIX.length()));
+            if (number < 1) {
+                throw new ValidationException("Sheet number should be positive: " + sheet);
+            }
+            return number - 1;
+        } catch (NumberFormatException e) {
+            throw new ValidationException("Invalid sheet number: " + sheet);
+        }
+    }
+}
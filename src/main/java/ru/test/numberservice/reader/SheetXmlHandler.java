@@ -0,0 +1,403 @@
+package ru.test.numberservice.reader;
+
+import org.xml.sax.Attributes;
+import org.xml.sax.SAXException;
+import org.xml.sax.helpers.DefaultHandler;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.selection.GrowableIntArray;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.NumberSink;
+import ru.test.numberservice.util.FastDecimalParser;
+import ru.test.numberservice.util.FastIntParser;
+import ru.test.numberservice.util.NumberUtils;
+
+import java.util.function.IntConsumer;
+
+/**
+ * SAX обработчик XML листа (xl/worksheets/sheetN.xml).
+ * Разбирает элементы {@code <c>} и передает целые числа потребителю,
+ * не создавая объектов Row/Cell.
+ * Ход просмотра отмечается по строкам, на границе строки проверяется отмена.
+ * Ячейки вне {@link CellRange} пропускаются по ссылке {@code r}, не дожидаясь их значений;
+ * после последней строки диапазона разбор листа прекращается.
+ * В режимах {@link NumberMode#LONG} и {@link NumberMode#DOUBLE} числа передаются в {@link NumberSink},
+ * разбор в режиме int остается прежним.
+ */
+class SheetXmlHandler extends DefaultHandler {
+
+    private static final FastIntParser INT_PARSER = new FastIntParser("");
+    private static final FastIntParser STRING_PARSER = FastIntParser.DEFAULT;
+    private static final FastDecimalParser DECIMAL_PARSER = new FastDecimalParser("");
+    private static final FastDecimalParser DECIMAL_STRING_PARSER = FastDecimalParser.DEFAULT;
+
+    private final NumericSharedStrings sharedStrings;
+    private final IntConsumer consumer;
+    private final NumberSink sink;
+    private final NumberMode mode;
+    private final ScanStats stats;
+    private final GrowableIntArray pendingSharedStrings;
+    private final int maxPendingSharedStrings;
+    private final ScanProgress progress;
+    private final CellRange range;
+    private final boolean targeted;
+
+    private final StringBuilder value = new StringBuilder(32);
+    private String cellType;
+    private boolean inCell;
+    private boolean hasFormula;
+    private boolean inInlineString;
+    private boolean collecting;
+    private int phoneticDepth;
+    private int rowNumber;
+    private int columnNumber;
+    private boolean rowInRange = true;
+
+    SheetXmlHandler(NumericSharedStrings sharedStrings, IntConsumer consumer, ScanStats stats) {
+        this(sharedStrings, consumer, stats, CellRange.ALL, new ScanProgress());
+    }
+
+    SheetXmlHandler(NumericSharedStrings sharedStrings, IntConsumer consumer, ScanStats stats,
+                    CellRange range, ScanProgress progress) {
+        this.sharedStrings = sharedStrings;
+        this.consumer = consumer;
+        this.sink = null;
+        this.mode = NumberMode.INT;
+        this.stats = stats;
+        this.pendingSharedStrings = null;
+        this.maxPendingSharedStrings = 0;
+        this.progress = progress;
+        this.range = range;
+        this.targeted = !range.isAll();
+    }
+
+    /**
+     * Обработчик, передающий числа в {@link NumberSink} в его режиме.
+     * Таблица общих строк должна быть разобрана в том же режиме.
+     */
+    SheetXmlHandler(NumericSharedStrings sharedStrings, NumberSink sink, ScanStats stats,
+                    CellRange range, ScanProgress progress) {
+        this.sharedStrings = sharedStrings;
+        this.consumer = sink::acceptLong;
+        this.sink = sink;
+        this.mode = sink.mode();
+        this.stats = stats;
+        this.pendingSharedStrings = null;
+        this.maxPendingSharedStrings = 0;
+        this.progress = progress;
+        this.range = range;
+        this.targeted = !range.isAll();
+    }
+
+    /**
+     * Обработчик для случая, когда таблица общих строк еще не прочитана.
+     * Индексы общих строк откладываются и разбираются в {@link #resolvePendingSharedStrings(NumericSharedStrings)}.
+     *
+     * @param maxPendingSharedStrings наибольшее количество отложенных ячеек; при большем разбор прекращается
+     */
+    SheetXmlHandler(IntConsumer consumer, ScanStats stats, int maxPendingSharedStrings) {
+        this.sharedStrings = null;
+        this.consumer = consumer;
+        this.sink = null;
+        this.mode = NumberMode.INT;
+        this.stats = stats;
+        this.pendingSharedStrings = new GrowableIntArray(0);
+        this.maxPendingSharedStrings = maxPendingSharedStrings;
+        this.progress = new ScanProgress();
+        this.range = CellRange.ALL;
+        this.targeted = false;
+    }
+
+    /**
+     * Разбор отложенных ячеек с общими строками после чтения таблицы общих строк
+     */
+    void resolvePendingSharedStrings(NumericSharedStrings sharedStrings) {
+        int[] indexes = pendingSharedStrings.array();
+        for (int i = 0; i < pendingSharedStrings.size(); i++) {
+            handleSharedString(sharedStrings, indexes[i]);
+        }
+    }
+
+    boolean hasPendingSharedStrings() {
+        return pendingSharedStrings != null && pendingSharedStrings.size() > 0;
+    }
+
+    @Override
+    public void startElement(String uri, String localName, String qName, Attributes attributes)
+            throws SAXException {
+        switch (localName) {
+            case "row" -> {
+                if (targeted) {
+                    startRow(attributes.getValue("r"));
+                }
+            }
+            case "c" -> {
+                inCell = !targeted || isTargetCell(attributes.getValue("r"));
+                if (inCell) {
+                    hasFormula = false;
+                    cellType = attributes.getValue("t");
+                    value.setLength(0);
+                }
+            }
+            case "f" -> hasFormula = inCell;
+            case "v" -> collecting = inCell;
+            case "is" -> inInlineString = inCell;
+            case "rPh" -> phoneticDepth++;
+            case "t" -> collecting = inInlineString && phoneticDepth == 0;
+            case "dimension" -> progress.totalRows(rowCount(attributes.getValue("ref")));
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void endElement(String uri, String localName, String qName) {
+        switch (localName) {
+            case "v", "t" -> collecting = false;
+            case "is" -> inInlineString = false;
+            case "rPh" -> phoneticDepth--;
+            case "c" -> {
+                if (inCell) {
+                    handleCell();
+                }
+                inCell = false;
+            }
+            case "row" -> {
+                progress.rowScanned();
+                if (progress.isCancelled()) {
+                    throw new ScanCancelledException("Sheet scan cancelled");
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    @Override
+    public void characters(char[] ch, int start, int length) {
+        if (collecting) {
+            value.append(ch, start, length);
+        }
+    }
+
+    /**
+     * Начало строки: номер берется из ссылки {@code r} или следует за предыдущим
+     *
+     * @throws RangeEndReachedException если строка находится после последней строки диапазона
+     */
+    private void startRow(String rowRef) throws RangeEndReachedException {
+        rowNumber = rowRef != null ? CellRange.rowOf(rowRef) : rowNumber + 1;
+        columnNumber = 0;
+        if (rowNumber > range.lastRow()) {
+            throw new RangeEndReachedException();
+        }
+        rowInRange = range.containsRow(rowNumber);
+    }
+
+    /**
+     * Попадает ли ячейка в диапазон: столбец берется из ссылки {@code r} или следует за предыдущим
+     */
+    private boolean isTargetCell(String cellRef) {
+        columnNumber = cellRef != null ? CellRange.columnOf(cellRef) : columnNumber + 1;
+        return rowInRange && range.containsColumn(columnNumber);
+    }
+
+    /**
+     * Обработка завершенной ячейки в соответствии с ее типом.
+     * Формулы, логические значения и ошибки пропускаются, как и в объектной модели.
+     */
+    private void handleCell() {
+        if (hasFormula || value.isEmpty()) {
+            return;
+        }
+
+        if (cellType == null || "n".equals(cellType)) {
+            handleNumeric();
+        } else if ("s".equals(cellType)) {
+            long index = INT_PARSER.parse(value);
+            if (index < 0) {
+                stats.nonNumericSkipped();
+            } else if (sharedStrings == null) {
+                deferSharedString((int) index);
+            } else {
+                handleSharedString(sharedStrings, (int) index);
+            }
+        } else if ("inlineStr".equals(cellType)) {
+            handleString(value);
+        }
+    }
+
+    /**
+     * Откладывание ячейки с общей строкой до чтения таблицы общих строк.
+     * Индексы занимают по 4 байта на ячейку, поэтому их количество ограничено.
+     */
+    private void deferSharedString(int index) {
+        if (pendingSharedStrings.size() >= maxPendingSharedStrings) {
+            throw new FileProcessingException(String.format(
+                    "Shared strings table follows the sheet and more than %d string cells are pending",
+                    maxPendingSharedStrings));
+        }
+        pendingSharedStrings.accept(index);
+    }
+
+    /**
+     * Числовая ячейка: целые числа в записи без точки и экспоненты разбираются без создания строки,
+     * остальные - через {@link Double#parseDouble(String)}. Целые числа вне диапазона int пропускаются
+     * как нецелые, а не усекаются приведением типа.
+     */
+    private void handleNumeric() {
+        if (mode == NumberMode.LONG) {
+            handleLongNumeric();
+            return;
+        }
+        if (mode == NumberMode.DOUBLE) {
+            handleDoubleNumeric();
+            return;
+        }
+
+        long parsed = INT_PARSER.parse(value);
+        if (parsed != FastIntParser.NOT_A_NUMBER) {
+            consumer.accept((int) parsed);
+            stats.numberProcessed();
+            return;
+        }
+
+        double number = Double.parseDouble(value.toString());
+        if (NumberUtils.isInt(number)) {
+            consumer.accept((int) number);
+            stats.numberProcessed();
+        } else {
+            stats.nonIntegerSkipped();
+        }
+    }
+
+    /**
+     * Числовая ячейка в режиме long: дробные числа и числа вне диапазона long пропускаются
+     */
+    private void handleLongNumeric() {
+        long parsed = INT_PARSER.parseLong(value);
+        if (parsed != FastIntParser.NOT_A_NUMBER) {
+            sink.acceptLong(parsed);
+            stats.numberProcessed();
+            return;
+        }
+
+        double number = Double.parseDouble(value.toString());
+        if (NumberUtils.isLong(number)) {
+            sink.acceptLong((long) number);
+            stats.numberProcessed();
+        } else {
+            stats.nonIntegerSkipped();
+        }
+    }
+
+    /**
+     * Числовая ячейка в режиме double: принимается любое конечное число
+     */
+    private void handleDoubleNumeric() {
+        double number = DECIMAL_PARSER.parse(value);
+        if (Double.isNaN(number)) {
+            stats.nonNumericSkipped();
+        } else {
+            sink.acceptDouble(number);
+            stats.numberProcessed();
+        }
+    }
+
+    /**
+     * Ячейка с общей строкой: строка уже разобрана при чтении таблицы, остается обращение к массиву
+     */
+    private void handleSharedString(NumericSharedStrings sharedStrings, int index) {
+        if (index < sharedStrings.size() && sharedStrings.isNumeric(index)) {
+            switch (mode) {
+                case INT -> consumer.accept(sharedStrings.value(index));
+                case LONG -> sink.acceptLong(sharedStrings.longValue(index));
+                case DOUBLE -> sink.acceptDouble(sharedStrings.doubleValue(index));
+            }
+            stats.numberProcessed();
+        } else if (index >= sharedStrings.size() || !sharedStrings.isBlank(index)) {
+            stats.nonNumericSkipped();
+        }
+    }
+
+    /**
+     * Строковая ячейка: разбор без исключений, нечисловые строки только подсчитываются
+     */
+    private void handleString(CharSequence text) {
+        boolean parsed = switch (mode) {
+            case INT -> acceptInt(STRING_PARSER.parse(text));
+            case LONG -> acceptLong(STRING_PARSER.parseLong(text));
+            case DOUBLE -> acceptDouble(DECIMAL_STRING_PARSER.parse(text));
+        };
+        if (parsed) {
+            stats.numberProcessed();
+        } else if (!FastIntParser.isBlank(text)) {
+            stats.nonNumericSkipped();
+        }
+    }
+
+    private boolean acceptInt(long parsed) {
+        if (parsed == FastIntParser.NOT_A_NUMBER) {
+            return false;
+        }
+        consumer.accept((int) parsed);
+        return true;
+    }
+
+    private boolean acceptLong(long parsed) {
+        if (parsed == FastIntParser.NOT_A_NUMBER) {
+            return false;
+        }
+        sink.acceptLong(parsed);
+        return true;
+    }
+
+    private boolean acceptDouble(double parsed) {
+        if (Double.isNaN(parsed)) {
+            return false;
+        }
+        sink.acceptDouble(parsed);
+        return true;
+    }
+
+    /**
+     * Количество строк по диапазону листа, например {@code A1:C1000}
+     *
+     * @return количество строк или -1, если диапазон не указан
+     */
+    static long rowCount(String ref) {
+        if (ref == null || ref.isEmpty()) {
+            return -1;
+        }
+        int separator = ref.indexOf(':');
+        long firstRow = rowNumber(separator < 0 ? ref : ref.substring(0, separator));
+        long lastRow = separator < 0 ? firstRow : rowNumber(ref.substring(separator + 1));
+        if (firstRow < 0 || lastRow < firstRow) {
+            return -1;
+        }
+        return lastRow - firstRow + 1;
+    }
+
+    private static long rowNumber(String cellRef) {
+        long row = 0;
+        boolean hasDigits = false;
+        for (int i = 0; i < cellRef.length(); i++) {
+            char ch = cellRef.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                row = row * 10 + (ch - '0');
+                hasDigits = true;
+            }
+        }
+        return hasDigits ? row : -1;
+    }
+
+    /**
+     * Строки листа идут по возрастанию, поэтому после последней строки диапазона разбор прекращается
+     */
+    static final class RangeEndReachedException extends SAXException {
+
+        RangeEndReachedException() {
+            super("Cell range end reached");
+        }
+    }
+}
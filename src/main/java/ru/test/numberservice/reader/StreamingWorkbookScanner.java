@@ -0,0 +1,165 @@
+package ru.test.numberservice.reader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.commons.compress.archivers.ArchiveEntry;
+import org.apache.commons.compress.archivers.zip.ZipArchiveInputStream;
+import org.apache.poi.util.XMLHelper;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
+import ru.test.numberservice.exception.FileProcessingException;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntConsumer;
+
+/**
+ * Разбор первого листа .xlsx из непозиционируемого потока (например, тела HTTP запроса).
+ * ZIP архив читается за один проход по записям, без временного файла и без буферизации архива в памяти.
+ * Если таблица общих строк идет в архиве после листа (так сохраняет Excel),
+ * откладываются только индексы строковых ячеек, по 4 байта на ячейку, но не больше заданного количества.
+ */
+@Slf4j
+class StreamingWorkbookScanner {
+
+    private static final String WORKBOOK = "xl/workbook.xml";
+    private static final String WORKBOOK_RELATIONSHIPS = "xl/_rels/workbook.xml.rels";
+    private static final String SHARED_STRINGS = "xl/sharedStrings.xml";
+    private static final String DEFAULT_FIRST_SHEET = "xl/worksheets/sheet1.xml";
+    private static final String RELATIONSHIPS_NAMESPACE =
+            "http://schemas.openxmlformats.org/officeDocument/2006/relationships";
+
+    private final IntConsumer consumer;
+    private final int maxPendingSharedStrings;
+    private final ScanStats stats = new ScanStats();
+
+    private String firstSheetRelationId;
+    private Map<String, String> relationTargets;
+    private NumericSharedStrings sharedStrings;
+    private SheetXmlHandler sheetHandler;
+
+    /**
+     * @param maxPendingSharedStrings наибольшее количество отложенных ячеек с общими строками
+     */
+    StreamingWorkbookScanner(IntConsumer consumer, int maxPendingSharedStrings) {
+        this.consumer = consumer;
+        this.maxPendingSharedStrings = maxPendingSharedStrings;
+    }
+
+    ScanStats scan(InputStream content) throws IOException, SAXException, ParserConfigurationException {
+        try (ZipArchiveInputStream zip = new ZipArchiveInputStream(
+                content, StandardCharsets.UTF_8.name(), true, true)) {
+            ArchiveEntry entry;
+            while ((entry = zip.getNextEntry()) != null && !isComplete()) {
+                InputStream entryContent = new NonClosingInputStream(zip);
+                String name = entry.getName();
+                if (WORKBOOK.equals(name)) {
+                    parse(entryContent, new FirstSheetHandler());
+                } else if (WORKBOOK_RELATIONSHIPS.equals(name)) {
+                    relationTargets = new HashMap<>();
+                    parse(entryContent, new RelationshipsHandler(relationTargets));
+                } else if (SHARED_STRINGS.equals(name)) {
+                    sharedStrings = NumericSharedStrings.read(entryContent);
+                } else if (sheetHandler == null && name.equals(firstSheetEntry())) {
+                    sheetHandler = sharedStrings == null
+                            ? new SheetXmlHandler(consumer, stats, maxPendingSharedStrings)
+                            : new SheetXmlHandler(sharedStrings, consumer, stats);
+                    parse(entryContent, sheetHandler);
+                }
+            }
+        }
+
+        if (sheetHandler == null) {
+            throw new FileProcessingException("Workbook has no sheets");
+        }
+        if (sheetHandler.hasPendingSharedStrings()) {
+            if (sharedStrings == null) {
+                throw new FileProcessingException("Workbook has no shared strings table");
+            }
+            sheetHandler.resolvePendingSharedStrings(sharedStrings);
+        }
+        return stats;
+    }
+
+    /**
+     * Лист прочитан, и отложенных общих строк нет или таблица общих строк уже прочитана
+     */
+    private boolean isComplete() {
+        return sheetHandler != null && (sharedStrings != null || !sheetHandler.hasPendingSharedStrings());
+    }
+
+    /**
+     * Имя записи архива с первым листом.
+     * Определяется по workbook.xml и его связям; если они идут в архиве позже листов, берется стандартное имя.
+     */
+    private String firstSheetEntry() {
+        if (firstSheetRelationId == null || relationTargets == null) {
+            return DEFAULT_FIRST_SHEET;
+        }
+        String target = relationTargets.get(firstSheetRelationId);
+        if (target == null) {
+            return DEFAULT_FIRST_SHEET;
+        }
+        return target.startsWith("/") ? target.substring(1) : "xl/" + target;
+    }
+
+    private void parse(InputStream content, DefaultHandler handler)
+            throws IOException, SAXException, ParserConfigurationException {
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(handler);
+        parser.parse(new InputSource(content));
+    }
+
+    /**
+     * Поиск идентификатора связи первого листа в xl/workbook.xml
+     */
+    private class FirstSheetHandler extends DefaultHandler {
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if (firstSheetRelationId == null && "sheet".equals(localName)) {
+                firstSheetRelationId = attributes.getValue(RELATIONSHIPS_NAMESPACE, "id");
+            }
+        }
+    }
+
+    /**
+     * Чтение связей книги (идентификатор - путь к части) из xl/_rels/workbook.xml.rels
+     */
+    private static class RelationshipsHandler extends DefaultHandler {
+
+        private final Map<String, String> targets;
+
+        RelationshipsHandler(Map<String, String> targets) {
+            this.targets = targets;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            if ("Relationship".equals(localName)) {
+                targets.put(attributes.getValue("Id"), attributes.getValue("Target"));
+            }
+        }
+    }
+
+    /**
+     * Поток записи архива, который не закрывает сам архив: XML парсер закрывает поток после разбора
+     */
+    private static class NonClosingInputStream extends FilterInputStream {
+
+        NonClosingInputStream(InputStream in) {
+            super(in);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package ru.test.numberservice.reader;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.NumberSink;
+import ru.test.numberservice.util.FastDecimalParser;
+import ru.test.numberservice.util.FastIntParser;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Чтение чисел из текстовых файлов: CSV, TSV и чисел по одному в строке (.txt).
+ * Файл отображается в память через {@link FileChannel#map}, поля разбираются прямо из байтов
+ * {@link MappedByteBuffer} теми же разборщиками, что и ячейки Excel, без создания строк.
+ * Строка файла соответствует строке листа, поле - столбцу, поэтому {@link CellRange} применим и к тексту.
+ *
+ * <p>Разделитель полей: табуляция для .tsv; для .csv - точка с запятой, если она есть в первой строке,
+ * иначе запятая; в .txt каждая строка - одно поле. Кавычки защищают разделители внутри поля, но не перевод строки.
+ * Текст читается побайтно, поэтому разделители разрядов - только пробел и апостроф.
+ *
+ * <p>Файл без ограничения диапазона по строкам делится на части по границам строк, по одной на поток разбора,
+ * и части разбираются параллельно, каждая в своего получателя.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class TextNumberReader implements NumberFileReader {
+
+    private static final List<String> EXTENSIONS = List.of(".csv", ".tsv", ".txt");
+    private static final long MIN_PART_SIZE = 4L * 1024 * 1024;
+    private static final long MAX_PART_SIZE = 1L << 30;
+    private static final int PROBE_SIZE = 64 * 1024;
+    private static final int PROGRESS_BATCH_ROWS = 1 << 14;
+
+    private final NumberServiceProperties properties;
+
+    @Override
+    public boolean supports(String fileName) {
+        String name = fileName.toLowerCase(Locale.ROOT);
+        for (String extension : EXTENSIONS) {
+            if (name.endsWith(extension)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public ScanStats read(File file, CellRange range, IntConsumer consumer, ScanProgress progress)
+            throws IOException {
+        return readSequentially(file, range, consumer, null, progress);
+    }
+
+    @Override
+    public ScanStats read(File file, CellRange range, NumberSink sink, ScanProgress progress) throws IOException {
+        return readSequentially(file, range, sink::acceptLong, sink, progress);
+    }
+
+    /**
+     * Параллельное чтение частей файла. Номера строк частей заранее неизвестны,
+     * поэтому при ограничении диапазона по строкам файл читается одной частью.
+     */
+    @Override
+    public <T extends IntConsumer> List<SheetScanResult<T>> readParts(File file, long fileSize,
+                                                                      CellRange range,
+                                                                      IntFunction<T> consumerFactory,
+                                                                      ExecutorService executor,
+                                                                      ScanProgress progress) throws IOException {
+        int partCount = parallelPartCount(fileSize);
+        if (range.hasRowBounds() || partCount == 1) {
+            return NumberFileReader.super.readParts(file, fileSize, range, consumerFactory, executor, progress);
+        }
+
+        List<Future<SheetScanResult<T>>> futures = new ArrayList<>(partCount);
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            int delimiter = delimiter(file, channel);
+            long[] bounds = split(channel, channel.size(), partCount);
+            for (int i = 0; i < partCount; i++) {
+                if (bounds[i] == bounds[i + 1]) {
+                    continue;
+                }
+                MappedByteBuffer part = map(channel, bounds[i], bounds[i + 1]);
+                boolean fileStart = bounds[i] == 0;
+                String partName = file.getName() + "#" + (i + 1);
+                T consumer = consumerFactory.apply(partCount);
+                futures.add(executor.submit(() -> {
+                    long scanStart = System.nanoTime();
+                    ScanStats stats = new ScanStats();
+                    PartParser parser = new PartParser(consumer, null, stats, range, delimiter, progress);
+                    parser.parse(part, fileStart);
+                    parser.flushProgress();
+                    stats.scanTime(System.nanoTime() - scanStart);
+                    return new SheetScanResult<>(partName, consumer, stats);
+                }));
+            }
+        }
+        log.debug("Text file '{}' of {} bytes split into {} parts", file.getName(), fileSize, futures.size());
+        return ScanTasks.awaitAll(futures);
+    }
+
+    private ScanStats readSequentially(File file, CellRange range, IntConsumer consumer, NumberSink sink,
+                                       ScanProgress progress) throws IOException {
+        long scanStart = System.nanoTime();
+        ScanStats stats = new ScanStats();
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            long size = channel.size();
+            int delimiter = delimiter(file, channel);
+            long[] bounds = split(channel, size, (int) Math.max(1, ceilDiv(size, MAX_PART_SIZE)));
+            PartParser parser = new PartParser(consumer, sink, stats, range, delimiter, progress);
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                if (bounds[i] < bounds[i + 1] && !parser.parse(map(channel, bounds[i], bounds[i + 1]), i == 0)) {
+                    log.debug("Stopped text scan after the last row of range {}", range);
+                    break;
+                }
+            }
+            parser.flushProgress();
+        }
+        stats.scanTime(System.nanoTime() - scanStart);
+        log.debug("Text file '{}' scanned: {}", file.getName(), stats);
+        return stats;
+    }
+
+    /**
+     * Количество частей для параллельного разбора: не больше числа потоков и не меньше
+     * {@link #MIN_PART_SIZE} на часть; каждая часть отображается одним буфером, не больше {@link #MAX_PART_SIZE}
+     */
+    private int parallelPartCount(long size) {
+        long parts = Math.min(properties.getScan().getParallelism(), size / MIN_PART_SIZE);
+        return (int) Math.max(Math.max(parts, 1), ceilDiv(size, MAX_PART_SIZE));
+    }
+
+    /**
+     * Границы частей файла, выровненные на начало строки
+     */
+    private long[] split(FileChannel channel, long size, int partCount) throws IOException {
+        long[] bounds = new long[partCount + 1];
+        bounds[partCount] = size;
+        for (int i = 1; i < partCount; i++) {
+            bounds[i] = Math.max(bounds[i - 1], lineStart(channel, size / partCount * i, size));
+        }
+        return bounds;
+    }
+
+    /**
+     * Начало строки, содержащей позицию, или следующей за ней: позиция сразу после ближайшего перевода строки
+     */
+    private long lineStart(FileChannel channel, long position, long size) throws IOException {
+        if (position == 0) {
+            return 0;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate(8192);
+        long offset = position - 1;
+        while (offset < size) {
+            buffer.clear();
+            int read = channel.read(buffer, offset);
+            if (read <= 0) {
+                break;
+            }
+            for (int i = 0; i < read; i++) {
+                if (buffer.get(i) == '\n') {
+                    return offset + i + 1;
+                }
+            }
+            offset += read;
+        }
+        return size;
+    }
+
+    private MappedByteBuffer map(FileChannel channel, long from, long to) throws IOException {
+        if (to - from > Integer.MAX_VALUE) {
+            throw new FileProcessingException("Text line is too long at offset " + from);
+        }
+        return channel.map(FileChannel.MapMode.READ_ONLY, from, to - from);
+    }
+
+    /**
+     * Разделитель полей по расширению; для CSV - по первой строке файла
+     */
+    private int delimiter(File file, FileChannel channel) throws IOException {
+        String name = file.getName().toLowerCase(Locale.ROOT);
+        if (name.endsWith(".tsv")) {
+            return '\t';
+        }
+        if (!name.endsWith(".csv")) {
+            return '\n';
+        }
+        ByteBuffer probe = ByteBuffer.allocate((int) Math.min(PROBE_SIZE, channel.size()));
+        channel.read(probe, 0);
+        for (int i = 0; i < probe.position(); i++) {
+            byte b = probe.get(i);
+            if (b == '\n') {
+                break;
+            }
+            if (b == ';') {
+                return ';';
+            }
+        }
+        return ',';
+    }
+
+    private static long ceilDiv(long x, long y) {
+        return (x + y - 1) / y;
+    }
+
+    /**
+     * Разбор полей одной или нескольких последовательных частей файла.
+     * Номер строки переходит из части в часть, ход просмотра учитывается пачками строк.
+     */
+    private static final class PartParser {
+
+        private static final FastIntParser INT_PARSER = FastIntParser.DEFAULT;
+        private static final FastDecimalParser DECIMAL_PARSER = FastDecimalParser.DEFAULT;
+
+        private final IntConsumer consumer;
+        private final NumberSink sink;
+        private final NumberMode mode;
+        private final ScanStats stats;
+        private final CellRange range;
+        private final int delimiter;
+        private final ScanProgress progress;
+        private long row = 1;
+        private int pendingRows;
+
+        PartParser(IntConsumer consumer, NumberSink sink, ScanStats stats, CellRange range, int delimiter,
+                   ScanProgress progress) {
+            this.consumer = consumer;
+            this.sink = sink;
+            this.mode = sink != null ? sink.mode() : NumberMode.INT;
+            this.stats = stats;
+            this.range = range;
+            this.delimiter = delimiter;
+            this.progress = progress;
+        }
+
+        /**
+         * Разбор части, начинающейся с начала строки
+         *
+         * @param fileStart часть начинается с начала файла и может содержать метку порядка байтов UTF-8
+         * @return false, если строки диапазона закончились и читать дальше не нужно
+         */
+        boolean parse(ByteBuffer part, boolean fileStart) {
+            if (row > range.lastRow()) {
+                return false;
+            }
+            ByteRangeSequence text = new ByteRangeSequence(part);
+            int limit = part.limit();
+            int fieldStart = fileStart && hasByteOrderMark(part) ? 3 : 0;
+            int column = 1;
+            boolean inQuotes = false;
+            boolean rowInRange = row >= range.firstRow();
+
+            for (int i = fieldStart; i < limit; i++) {
+                byte b = part.get(i);
+                if (b == '\n') {
+                    if (rowInRange) {
+                        field(part, text, fieldStart, i, column);
+                    }
+                    if (!endRow()) {
+                        return false;
+                    }
+                    rowInRange = row >= range.firstRow();
+                    column = 1;
+                    fieldStart = i + 1;
+                    inQuotes = false;
+                } else if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == delimiter && !inQuotes) {
+                    if (rowInRange) {
+                        field(part, text, fieldStart, i, column);
+                    }
+                    column++;
+                    fieldStart = i + 1;
+                }
+            }
+            if (fieldStart < limit) {
+                if (rowInRange) {
+                    field(part, text, fieldStart, limit, column);
+                }
+                return endRow();
+            }
+            return true;
+        }
+
+        void flushProgress() {
+            progress.rowsScanned(pendingRows);
+            pendingRows = 0;
+            if (progress.isCancelled()) {
+                throw new ScanCancelledException("Text file scan cancelled");
+            }
+        }
+
+        /**
+         * Завершение строки
+         *
+         * @return false, если это была последняя строка диапазона
+         */
+        private boolean endRow() {
+            row++;
+            if (++pendingRows == PROGRESS_BATCH_ROWS) {
+                flushProgress();
+            }
+            return row <= range.lastRow();
+        }
+
+        /**
+         * Разбор поля: пробелы по краям и обрамляющие кавычки отбрасываются, пустое поле - пустая ячейка
+         */
+        private void field(ByteBuffer part, ByteRangeSequence text, int from, int to, int column) {
+            if (!range.containsColumn(column)) {
+                return;
+            }
+            while (from < to && (part.get(from) & 0xFF) <= ' ') {
+                from++;
+            }
+            while (to > from && (part.get(to - 1) & 0xFF) <= ' ') {
+                to--;
+            }
+            if (to - from >= 2 && part.get(from) == '"' && part.get(to - 1) == '"') {
+                from++;
+                to--;
+            }
+            if (from == to) {
+                return;
+            }
+
+            text.reset(from, to);
+            boolean parsed = switch (mode) {
+                case INT -> acceptInt(INT_PARSER.parse(text));
+                case LONG -> acceptLong(INT_PARSER.parseLong(text));
+                case DOUBLE -> acceptDouble(DECIMAL_PARSER.parse(text));
+            };
+            if (parsed) {
+                stats.numberProcessed();
+            } else if (!FastIntParser.isBlank(text)) {
+                stats.nonNumericSkipped();
+            }
+        }
+
+        private boolean acceptInt(long parsed) {
+            if (parsed == FastIntParser.NOT_A_NUMBER) {
+                return false;
+            }
+            consumer.accept((int) parsed);
+            return true;
+        }
+
+        private boolean acceptLong(long parsed) {
+            if (parsed == FastIntParser.NOT_A_NUMBER) {
+                return false;
+            }
+            sink.acceptLong(parsed);
+            return true;
+        }
+
+        private boolean acceptDouble(double parsed) {
+            if (Double.isNaN(parsed)) {
+                return false;
+            }
+            sink.acceptDouble(parsed);
+            return true;
+        }
+
+        private static boolean hasByteOrderMark(ByteBuffer part) {
+            return part.limit() >= 3
+                    && (part.get(0) & 0xFF) == 0xEF && (part.get(1) & 0xFF) == 0xBB && (part.get(2) & 0xFF) == 0xBF;
+        }
+    }
+}
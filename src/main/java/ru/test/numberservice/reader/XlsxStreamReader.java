@@ -0,0 +1,446 @@
+package ru.test.numberservice.reader;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.util.XMLHelper;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.exception.ValidationException;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.NumberSink;
+
+import javax.xml.parsers.ParserConfigurationException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.BiFunction;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+
+/**
+ * Потоковое чтение чисел из Excel файлов (.xlsx) через событийный API Apache POI.
+ * XML листа разбирается SAX парсером, и значения ячеек сразу передаются потребителю.
+ * Объектная модель книги не строится, поэтому объем памяти не зависит от размера листа.
+ * Как {@link NumberFileReader} читает первый лист книги.
+ */
+@Slf4j
+@Component
+public class XlsxStreamReader implements NumberFileReader {
+
+    private final NumberServiceProperties.Scan scanProperties;
+
+    public XlsxStreamReader() {
+        this(new NumberServiceProperties());
+    }
+
+    @Autowired
+    public XlsxStreamReader(NumberServiceProperties properties) {
+        this.scanProperties = properties.getScan();
+    }
+
+    @Override
+    public boolean supports(String fileName) {
+        return fileName.toLowerCase(Locale.ROOT).endsWith(".xlsx");
+    }
+
+    @Override
+    public ScanStats read(File file, CellRange range, IntConsumer consumer, ScanProgress progress)
+            throws IOException {
+        return readFirstSheet(file, range, consumer, progress);
+    }
+
+    @Override
+    public ScanStats read(File file, CellRange range, NumberSink sink, ScanProgress progress) throws IOException {
+        return readFirstSheet(file, range, sink, progress);
+    }
+
+    /**
+     * Чтение целых чисел с первого листа книги
+     *
+     * @param file Excel файл (.xlsx)
+     * @param consumer получатель найденных чисел
+     * @return статистика просмотренных ячеек
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     */
+    public ScanStats readFirstSheet(File file, IntConsumer consumer) throws IOException {
+        return readFirstSheet(file, consumer, new ScanProgress());
+    }
+
+    /**
+     * Чтение целых чисел с первого листа книги с отслеживанием хода и возможностью отмены
+     *
+     * @param file Excel файл (.xlsx)
+     * @param consumer получатель найденных чисел
+     * @param progress ход просмотра, заполняется по мере разбора
+     * @return статистика просмотренных ячеек
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     * @throws ScanCancelledException если просмотр отменен через {@link ScanProgress#cancel()}
+     */
+    public ScanStats readFirstSheet(File file, IntConsumer consumer, ScanProgress progress) throws IOException {
+        return readFirstSheet(file, CellRange.ALL, consumer, progress);
+    }
+
+    /**
+     * Чтение целых чисел из диапазона ячеек первого листа книги.
+     * Ячейки вне диапазона пропускаются без разбора, после последней строки диапазона чтение прекращается.
+     *
+     * @param file Excel файл (.xlsx)
+     * @param range диапазон ячеек
+     * @param consumer получатель найденных чисел
+     * @param progress ход просмотра, заполняется по мере разбора
+     * @return статистика просмотренных ячеек
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     * @throws ScanCancelledException если просмотр отменен через {@link ScanProgress#cancel()}
+     */
+    public ScanStats readFirstSheet(File file, CellRange range, IntConsumer consumer, ScanProgress progress)
+            throws IOException {
+        return scanFirstSheet(file, NumberMode.INT, (sheet, sharedStrings) -> parseSheet(sheet, sharedStrings, range,
+                (strings, stats) -> new SheetXmlHandler(strings, consumer, stats, range, progress)));
+    }
+
+    /**
+     * Чтение чисел в режиме получателя (int, long или double) из диапазона ячеек первого листа книги
+     *
+     * @param file Excel файл (.xlsx)
+     * @param range диапазон ячеек
+     * @param sink получатель найденных чисел, определяет режим разбора
+     * @param progress ход просмотра, заполняется по мере разбора
+     * @return статистика просмотренных ячеек
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     * @throws ScanCancelledException если просмотр отменен через {@link ScanProgress#cancel()}
+     */
+    public ScanStats readFirstSheet(File file, CellRange range, NumberSink sink, ScanProgress progress)
+            throws IOException {
+        return scanFirstSheet(file, sink.mode(), (sheet, sharedStrings) -> parseSheet(sheet, sharedStrings, range,
+                (strings, stats) -> new SheetXmlHandler(strings, sink, stats, range, progress)));
+    }
+
+    private ScanStats scanFirstSheet(File file, NumberMode mode, SheetParser sheetParser) throws IOException {
+        long openStart = System.nanoTime();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            NumericSharedStrings sharedStrings = NumericSharedStrings.read(pkg, mode);
+
+            Iterator<InputStream> sheets = xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new FileProcessingException("Workbook has no sheets: " + file);
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                long openNanos = System.nanoTime() - openStart;
+                ScanStats stats = sheetParser.parse(sheet, sharedStrings);
+                stats.openTime(openNanos);
+                logScanned("<first sheet>", stats);
+                return stats;
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new FileProcessingException("Excel file processing error", e);
+        }
+    }
+
+    /**
+     * Чтение целых чисел с первого листа книги частями. Лист большого файла без ограничения диапазона по строкам
+     * разбирается параллельно частями по границам строк, каждый рабочий поток - в своего получателя;
+     * иначе лист читается одной частью, для файлов среднего размера - конвейером из трех потоков.
+     * Последовательные {@link #read} и {@link #readFirstSheet} не используют ни части, ни конвейер.
+     *
+     * @see SheetChunkScanner
+     * @see SheetPipeline
+     */
+    @Override
+    public <T extends IntConsumer> List<SheetScanResult<T>> readParts(File file, long fileSize,
+                                                                      CellRange range,
+                                                                      IntFunction<T> consumerFactory,
+                                                                      ExecutorService executor,
+                                                                      ScanProgress progress) throws IOException {
+        int workers = scanProperties.getParallelism();
+        if (range.hasRowBounds() || workers < 2
+                || fileSize < scanProperties.getChunkedSheetThreshold().toBytes()) {
+            if (fileSize < scanProperties.getPipelineThreshold().toBytes()) {
+                return NumberFileReader.super.readParts(file, fileSize, range, consumerFactory, executor, progress);
+            }
+            T consumer = consumerFactory.apply(1);
+            ScanStats stats = scanFirstSheet(file, NumberMode.INT,
+                    (sheet, sharedStrings) -> parsePipelined(sheet, sharedStrings, range, consumer, progress));
+            return List.of(new SheetScanResult<>(file.getName(), consumer, stats));
+        }
+
+        long openStart = System.nanoTime();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            NumericSharedStrings sharedStrings = NumericSharedStrings.read(pkg, NumberMode.INT);
+
+            XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+            if (!sheets.hasNext()) {
+                throw new FileProcessingException("Workbook has no sheets: " + file);
+            }
+
+            try (InputStream sheet = sheets.next()) {
+                long openNanos = System.nanoTime() - openStart;
+                SheetChunkScanner scanner = new SheetChunkScanner(
+                        (int) scanProperties.getChunkSize().toBytes(), workers);
+                List<SheetScanResult<T>> results = scanner.scan(
+                        sheets.getSheetName(), sheet, sharedStrings, range, consumerFactory, executor, progress);
+                results.get(0).stats().openTime(openNanos);
+                results.forEach(result -> logScanned(result.sheetName(), result.stats()));
+                return results;
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new FileProcessingException("Excel file processing error", e);
+        }
+    }
+
+    /**
+     * Чтение целых чисел с первого листа книги из потока, например из тела HTTP запроса.
+     * Архив читается за один проход, поток не сохраняется во временный файл и не буферизуется целиком.
+     *
+     * @param content содержимое .xlsx файла
+     * @param consumer получатель найденных чисел
+     * @return статистика просмотренных ячеек
+     * @throws IOException если возникла ошибка чтения потока
+     * @throws FileProcessingException если содержимое не является корректной книгой Excel
+     *                                 или до таблицы общих строк отложено слишком много строковых ячеек
+     */
+    public ScanStats readFirstSheet(InputStream content, IntConsumer consumer) throws IOException {
+        try {
+            long scanStart = System.nanoTime();
+            int maxPendingSharedStrings = (int) Math.min(Integer.MAX_VALUE - 8,
+                    scanProperties.getMaxPendingSharedStrings().toBytes() / Integer.BYTES);
+            ScanStats stats = new StreamingWorkbookScanner(consumer, maxPendingSharedStrings).scan(content);
+            stats.scanTime(System.nanoTime() - scanStart);
+            logScanned("<uploaded sheet>", stats);
+            return stats;
+        } catch (SAXException | ParserConfigurationException e) {
+            throw new FileProcessingException("Excel file processing error", e);
+        }
+    }
+
+    /**
+     * Параллельное чтение целых чисел с нескольких листов книги.
+     * Каждый подходящий лист разбирается отдельной задачей в своего получателя,
+     * таблица общих строк читается один раз и используется всеми задачами.
+     *
+     * @param file Excel файл (.xlsx)
+     * @param selector выбор листов
+     * @param consumerFactory создание получателя чисел для очередного листа по количеству выбранных листов
+     * @param executor пул потоков для разбора листов
+     * @return результаты по листам в порядке их следования в книге
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws ValidationException если в книге нет подходящих листов
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     */
+    public <T extends IntConsumer> List<SheetScanResult<T>> readSheets(File file, SheetSelector selector,
+                                                                       IntFunction<T> consumerFactory,
+                                                                       ExecutorService executor) throws IOException {
+        return readSheets(file, selector, CellRange.ALL, consumerFactory, executor);
+    }
+
+    /**
+     * Параллельное чтение целых чисел из одного и того же диапазона ячеек нескольких листов книги
+     *
+     * @param file Excel файл (.xlsx)
+     * @param selector выбор листов
+     * @param range диапазон ячеек каждого листа
+     * @param consumerFactory создание получателя чисел для очередного листа по количеству выбранных листов
+     * @param executor пул потоков для разбора листов
+     * @return результаты по листам в порядке их следования в книге
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws ValidationException если в книге нет подходящих листов
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     */
+    public <T extends IntConsumer> List<SheetScanResult<T>> readSheets(File file, SheetSelector selector,
+                                                                       CellRange range,
+                                                                       IntFunction<T> consumerFactory,
+                                                                       ExecutorService executor) throws IOException {
+        return scanSheets(file, selector, NumberMode.INT, range, consumerFactory, executor,
+                (sharedStrings, stats, consumer) -> new SheetXmlHandler(
+                        sharedStrings, consumer, stats, range, new ScanProgress()));
+    }
+
+    /**
+     * Параллельное чтение чисел в режиме получателей (int, long или double)
+     * из одного и того же диапазона ячеек нескольких листов книги
+     *
+     * @param file Excel файл (.xlsx)
+     * @param selector выбор листов
+     * @param mode режим разбора, общий для всех получателей
+     * @param range диапазон ячеек каждого листа
+     * @param sinkFactory создание получателя чисел для очередного листа по количеству выбранных листов
+     * @param executor пул потоков для разбора листов
+     * @return результаты по листам в порядке их следования в книге
+     * @throws IOException если возникла ошибка чтения файла
+     * @throws ValidationException если в книге нет подходящих листов
+     * @throws FileProcessingException если файл не является корректной книгой Excel
+     */
+    public <T extends NumberSink> List<SheetScanResult<T>> readSheetNumbers(File file, SheetSelector selector,
+                                                                            NumberMode mode, CellRange range,
+                                                                            IntFunction<T> sinkFactory,
+                                                                            ExecutorService executor)
+            throws IOException {
+        return scanSheets(file, selector, mode, range, sinkFactory, executor,
+                (sharedStrings, stats, sink) -> new SheetXmlHandler(
+                        sharedStrings, sink, stats, range, new ScanProgress()));
+    }
+
+    private <T> List<SheetScanResult<T>> scanSheets(File file, SheetSelector selector, NumberMode mode,
+                                                    CellRange range, IntFunction<T> consumerFactory,
+                                                    ExecutorService executor, HandlerFactory<T> handlerFactory)
+            throws IOException {
+        long openStart = System.nanoTime();
+        try (OPCPackage pkg = OPCPackage.open(file, PackageAccess.READ)) {
+            XSSFReader xssfReader = new XSSFReader(pkg);
+            NumericSharedStrings sharedStrings = NumericSharedStrings.read(pkg, mode);
+            long openNanos = System.nanoTime() - openStart;
+
+            List<SelectedSheet> selected = new ArrayList<>();
+            List<Future<SheetScanResult<T>>> futures = new ArrayList<>();
+            boolean scanned = false;
+            try {
+                XSSFReader.SheetIterator sheets = (XSSFReader.SheetIterator) xssfReader.getSheetsData();
+                for (int index = 0; sheets.hasNext(); index++) {
+                    InputStream sheet = sheets.next();
+                    String sheetName = sheets.getSheetName();
+                    if (!selector.matches(index, sheetName)) {
+                        sheet.close();
+                        continue;
+                    }
+                    selected.add(new SelectedSheet(sheetName, sheet));
+                }
+
+                if (selected.isEmpty()) {
+                    throw new ValidationException("No sheets matching: " + selector);
+                }
+                for (SelectedSheet sheet : selected) {
+                    T consumer = consumerFactory.apply(selected.size());
+                    futures.add(executor.submit(() -> {
+                        try (InputStream content = sheet.content()) {
+                            ScanStats stats = parseSheet(content, sharedStrings, range,
+                                    (strings, sheetStats) -> handlerFactory.create(strings, sheetStats, consumer));
+                            logScanned(sheet.name(), stats);
+                            return new SheetScanResult<>(sheet.name(), consumer, stats);
+                        }
+                    }));
+                }
+                List<SheetScanResult<T>> results = ScanTasks.awaitAll(futures);
+                scanned = true;
+                results.get(0).stats().openTime(openNanos);
+                return results;
+            } finally {
+                if (!scanned) {
+                    futures.forEach(future -> future.cancel(true));
+                    closeSheets(selected);
+                }
+            }
+        } catch (OpenXML4JException | SAXException | ParserConfigurationException e) {
+            throw new FileProcessingException("Excel file processing error", e);
+        }
+    }
+
+    /**
+     * Закрытие потоков листов после неудачного запуска или разбора. Отмененная до старта задача
+     * свой поток не закрывает, а повторное закрытие уже закрытого потока ничего не делает
+     */
+    private void closeSheets(List<SelectedSheet> sheets) {
+        for (SelectedSheet sheet : sheets) {
+            try {
+                sheet.content().close();
+            } catch (IOException e) {
+                log.debug("Failed to close sheet '{}' stream", sheet.name(), e);
+            }
+        }
+    }
+
+    /**
+     * Итог просмотра листа. Пропущенные ячейки не логируются по одной, а выводятся одной сводкой
+     */
+    private void logScanned(String sheetName, ScanStats stats) {
+        log.debug("Sheet '{}' scanned: {}", sheetName, stats);
+        if (stats.getCellsSkipped() > 0) {
+            log.info("Sheet '{}': skipped {} non-integer and {} non-numeric cells",
+                    sheetName, stats.getNonIntegerSkipped(), stats.getNonNumericSkipped());
+        }
+    }
+
+    private ScanStats parseSheet(InputStream sheet, NumericSharedStrings sharedStrings, CellRange range,
+                                 BiFunction<NumericSharedStrings, ScanStats, SheetXmlHandler> handlerFactory)
+            throws IOException, SAXException, ParserConfigurationException {
+        long scanStart = System.nanoTime();
+        ScanStats stats = new ScanStats();
+        XMLReader parser = XMLHelper.newXMLReader();
+        parser.setContentHandler(handlerFactory.apply(sharedStrings, stats));
+        try {
+            parser.parse(new InputSource(sheet));
+        } catch (SheetXmlHandler.RangeEndReachedException e) {
+            log.debug("Stopped sheet scan after the last row of range {}", range);
+        }
+        stats.scanTime(System.nanoTime() - scanStart);
+        return stats;
+    }
+
+    /**
+     * Разбор листа конвейером: распаковка, разбор XML и передача чисел получателю идут в разных потоках
+     *
+     * @see SheetPipeline
+     */
+    private ScanStats parsePipelined(InputStream sheet, NumericSharedStrings sharedStrings, CellRange range,
+                                     IntConsumer consumer, ScanProgress progress)
+            throws IOException, SAXException, ParserConfigurationException {
+        long scanStart = System.nanoTime();
+        ScanStats stats = new ScanStats();
+        XMLReader parser = XMLHelper.newXMLReader();
+        try (SheetPipeline pipeline = SheetPipeline.start(sheet, consumer)) {
+            parser.setContentHandler(new SheetXmlHandler(sharedStrings, pipeline.batcher(), stats, range, progress));
+            try {
+                parser.parse(new InputSource(pipeline.inflated()));
+            } catch (SheetXmlHandler.RangeEndReachedException e) {
+                log.debug("Stopped sheet scan after the last row of range {}", range);
+            }
+            pipeline.finish();
+        }
+        stats.scanTime(System.nanoTime() - scanStart);
+        return stats;
+    }
+
+    /**
+     * Разбор XML первого листа с таблицей общих строк книги
+     */
+    @FunctionalInterface
+    private interface SheetParser {
+        ScanStats parse(InputStream sheet, NumericSharedStrings sharedStrings)
+                throws IOException, SAXException, ParserConfigurationException;
+    }
+
+    /**
+     * Создание обработчика листа для получателя чисел этого листа
+     */
+    @FunctionalInterface
+    private interface HandlerFactory<T> {
+        SheetXmlHandler create(NumericSharedStrings sharedStrings, ScanStats stats, T consumer);
+    }
+
+    /**
+     * Выбранный лист: количество листов известно до создания получателей, поэтому потоки листов собираются заранее.
+     * Поток закрывает задача разбора листа, а при сбое до ее завершения - {@link #closeSheets(List)}
+     */
+    private record SelectedSheet(String name, InputStream content) {
+    }
+}
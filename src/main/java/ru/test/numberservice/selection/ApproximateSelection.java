@@ -0,0 +1,128 @@
+package ru.test.numberservice.selection;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Приближенный поиск N-го минимального или максимального числа в режимах int, long и double
+ * по скетчу {@link QuantileSketch} фиксированного размера.
+ * Память не зависит от N, скетчи листов, частей файла и файлов объединяются без потери гарантии:
+ * найденное число - k-е в заданном порядке для некоторого k из диапазона рангов результата.
+ *
+ * <p>Числа хранятся ключами, сохраняющими порядок, как в {@link NumberSelection};
+ * N-е максимальное ищется как число с рангом {@code count - N + 1} по возрастанию.
+ */
+public class ApproximateSelection implements NumberSink, IntConsumer {
+
+    /**
+     * Оценка количества уровней скетча с запасом: граница ошибки выполняется до 10^12 чисел
+     */
+    private static final int MAX_LEVELS = 30;
+
+    /**
+     * Наименьшая допустимая ошибка ранга: уровень скетча - 300 000 чисел, весь скетч - до 72 МБ
+     */
+    public static final double MIN_RANK_ERROR = 0.0001;
+
+    private final NumberMode mode;
+    private final QuantileSketch sketch;
+
+    /**
+     * @param mode режим чисел
+     * @param rankError допустимая ошибка ранга как доля количества чисел, например 0.01
+     */
+    public ApproximateSelection(NumberMode mode, double rankError) {
+        this.mode = mode;
+        this.sketch = new QuantileSketch(capacityFor(rankError));
+    }
+
+    /**
+     * Емкость уровня скетча, при которой гарантированная ошибка ранга не превышает заданной доли
+     */
+    static int capacityFor(double rankError) {
+        if (!(rankError >= MIN_RANK_ERROR && rankError < 1)) {
+            throw new IllegalArgumentException(
+                    "Rank error should be at least " + MIN_RANK_ERROR + " and less than 1, got: " + rankError);
+        }
+        int capacity = (int) Math.ceil(MAX_LEVELS / rankError);
+        return capacity + (capacity & 1);
+    }
+
+    /**
+     * Память одного скетча с заданной ошибкой ранга: все уровни заполнены.
+     * Скетчи листов и частей файла существуют одновременно, каждый занимает столько же.
+     */
+    public static long requiredMemory(double rankError) {
+        return (long) MAX_LEVELS * capacityFor(rankError) * Long.BYTES;
+    }
+
+    @Override
+    public NumberMode mode() {
+        return mode;
+    }
+
+    @Override
+    public void accept(int value) {
+        sketch.update(value);
+    }
+
+    @Override
+    public void acceptLong(long value) {
+        sketch.update(value);
+    }
+
+    @Override
+    public void acceptDouble(double value) {
+        if (!Double.isNaN(value)) {
+            sketch.update(NumberSelection.doubleKey(value));
+        }
+    }
+
+    /**
+     * Объединение с результатом другого источника с теми же параметрами
+     */
+    public void merge(ApproximateSelection other) {
+        sketch.merge(other.sketch);
+    }
+
+    /**
+     * Количество принятых чисел
+     */
+    public long count() {
+        return sketch.count();
+    }
+
+    /**
+     * Количество хранимых в скетче чисел
+     */
+    public int size() {
+        return sketch.size();
+    }
+
+    /**
+     * Приближенное N-е число в заданном порядке и гарантированный диапазон его рангов.
+     * Вызывается только если {@link #count()} не меньше N.
+     */
+    public Estimate estimate(int n, SelectionOrder order) {
+        long count = sketch.count();
+        long rank = order == SelectionOrder.MIN ? n : count - n + 1;
+        long key = sketch.select(rank);
+        Number value = switch (mode) {
+            case INT -> (int) key;
+            case LONG -> key;
+            case DOUBLE -> NumberSelection.keyToDouble(key);
+        };
+        long error = sketch.rankError();
+        return new Estimate(value, Math.max(1, n - error), Math.min(count, n + error), error);
+    }
+
+    /**
+     * Приближенное N-е число
+     *
+     * @param value найденное число: {@link Integer}, {@link Long} или {@link Double} по режиму
+     * @param minRank наименьший возможный ранг числа в заданном порядке
+     * @param maxRank наибольший возможный ранг числа в заданном порядке
+     * @param rankError гарантированная граница ошибки ранга, 0 - результат точный
+     */
+    public record Estimate(Number value, long minRank, long maxRank, long rankError) {
+    }
+}
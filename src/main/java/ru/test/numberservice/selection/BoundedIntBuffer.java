@@ -0,0 +1,136 @@
+package ru.test.numberservice.selection;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Буфер всех чисел части источника с общим для всех частей пределом количества чисел.
+ * Используется для заполнения кэша: числа частей потом склеиваются и сортируются.
+ * Место под числа резервируется в общем пределе при каждом росте буфера.
+ *
+ * <p>Когда предел исчерпан, буферизация прекращается во всех частях: числа части передаются
+ * ограниченной стратегии выбора, буфер освобождается, и дальше числа принимает стратегия.
+ * Части, которые к концу просмотра не переполнились, переводятся на стратегию через {@link #toSelection()}.
+ */
+public class BoundedIntBuffer implements IntConsumer {
+
+    private static final int MIN_GROWTH = 1024;
+
+    private final Limit limit;
+    private final Supplier<SelectionStrategy> fallbackFactory;
+    private int[] values = new int[0];
+    private int size;
+    private SelectionStrategy fallback;
+
+    /**
+     * @param limit общий предел количества чисел всех частей
+     * @param fallbackFactory стратегия выбора на случай, если числа не помещаются в предел
+     */
+    public BoundedIntBuffer(Limit limit, Supplier<SelectionStrategy> fallbackFactory) {
+        this.limit = limit;
+        this.fallbackFactory = fallbackFactory;
+    }
+
+    @Override
+    public void accept(int value) {
+        if (fallback == null && size == values.length && !grow()) {
+            switchToFallback();
+        }
+        if (fallback != null) {
+            fallback.accept(value);
+            return;
+        }
+        values[size++] = value;
+    }
+
+    /**
+     * Количество чисел в буфере
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Перенос чисел буфера в массив; буфер освобождается
+     *
+     * @return позиция после перенесенных чисел
+     */
+    public int drainTo(int[] target, int offset) {
+        System.arraycopy(values, 0, target, offset, size);
+        int end = offset + size;
+        values = new int[0];
+        size = 0;
+        return end;
+    }
+
+    /**
+     * Стратегия выбора с числами части; числа буфера передаются ей, если это еще не сделано
+     */
+    public SelectionStrategy toSelection() {
+        if (fallback == null) {
+            switchToFallback();
+        }
+        return fallback;
+    }
+
+    /**
+     * Рост буфера в пределах общего предела
+     *
+     * @return false, если предел исчерпан этой или другой частью
+     */
+    private boolean grow() {
+        int growth = Math.max(MIN_GROWTH, values.length >> 1);
+        if (!limit.reserve(growth)) {
+            return false;
+        }
+        values = Arrays.copyOf(values, values.length + growth);
+        return true;
+    }
+
+    private void switchToFallback() {
+        limit.exhaust();
+        fallback = fallbackFactory.get();
+        for (int i = 0; i < size; i++) {
+            fallback.accept(values[i]);
+        }
+        values = null;
+        size = 0;
+    }
+
+    /**
+     * Общий предел количества чисел в буферах всех частей одного просмотра
+     */
+    public static final class Limit {
+
+        private final AtomicLong remaining;
+        private volatile boolean exhausted;
+
+        /**
+         * @param maxCount наибольшее количество чисел во всех буферах вместе
+         */
+        public Limit(long maxCount) {
+            this.remaining = new AtomicLong(maxCount);
+        }
+
+        /**
+         * Исчерпан ли предел: тогда все части переходят на стратегию выбора
+         */
+        public boolean isExhausted() {
+            return exhausted;
+        }
+
+        boolean reserve(int count) {
+            if (exhausted || remaining.addAndGet(-count) < 0) {
+                exhausted = true;
+                return false;
+            }
+            return true;
+        }
+
+        void exhaust() {
+            exhausted = true;
+        }
+    }
+}
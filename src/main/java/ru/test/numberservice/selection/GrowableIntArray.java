@@ -0,0 +1,75 @@
+package ru.test.numberservice.selection;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Растущий массив примитивных int.
+ * Используется для буферизации всех чисел источника без упаковки в Integer.
+ */
+public class GrowableIntArray implements IntConsumer {
+
+    private static final int MIN_CAPACITY = 1024;
+    private static final int MAX_CAPACITY = Integer.MAX_VALUE - 8;
+
+    private final int maxCapacity;
+    private int[] values;
+    private int size;
+
+    public GrowableIntArray(long expectedSize) {
+        this(expectedSize, MAX_CAPACITY);
+    }
+
+    /**
+     * @param expectedSize ожидаемое количество чисел
+     * @param maxCapacity наибольший размер массива: дальше массив не растет
+     */
+    public GrowableIntArray(long expectedSize, long maxCapacity) {
+        this.maxCapacity = (int) Math.max(1, Math.min(maxCapacity, MAX_CAPACITY));
+        this.values = new int[(int) Math.min(this.maxCapacity, Math.max(MIN_CAPACITY, expectedSize))];
+    }
+
+    @Override
+    public void accept(int value) {
+        if (size == values.length) {
+            grow();
+        }
+        values[size++] = value;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Заполнен ли массив до наибольшего размера
+     */
+    public boolean isFull() {
+        return size == maxCapacity;
+    }
+
+    /**
+     * Внутренний массив; значимы только первые {@link #size()} элементов
+     */
+    public int[] array() {
+        return values;
+    }
+
+    /**
+     * Копия заполненной части массива
+     */
+    public int[] toArray() {
+        int[] result = new int[size];
+        System.arraycopy(values, 0, result, 0, size);
+        return result;
+    }
+
+    private void grow() {
+        if (values.length == maxCapacity) {
+            throw new IllegalStateException("Too many numbers to buffer: " + size);
+        }
+        int capacity = (int) Math.min(maxCapacity, values.length + (values.length >> 1) + 1L);
+        int[] grown = new int[capacity];
+        System.arraycopy(values, 0, grown, 0, size);
+        values = grown;
+    }
+}
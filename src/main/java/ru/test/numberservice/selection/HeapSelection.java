@@ -0,0 +1,116 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Поиск N-го минимального числа с помощью ограниченной Max Heap на массиве int[].
+ * В куче хранятся N минимальных чисел, на вершине - наибольшее из них.
+ * Временная сложность: O(M log N), память: O(N). Упаковки чисел в Integer нет.
+ */
+public class HeapSelection implements SelectionStrategy {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int n;
+    private int[] heap;
+    private int size;
+    private long count;
+    private int[] sorted;
+
+    public HeapSelection(int n) {
+        this.n = n;
+        this.heap = new int[Math.min(n, INITIAL_CAPACITY)];
+    }
+
+    @Override
+    public void accept(int value) {
+        count++;
+        sorted = null;
+        if (size < n) {
+            if (size == heap.length) {
+                grow();
+            }
+            heap[size] = value;
+            siftUp(size++);
+        } else if (value < heap[0]) {
+            heap[0] = value;
+            siftDown(0);
+        }
+    }
+
+    @Override
+    public long count() {
+        return count;
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public int result() {
+        if (size < n) {
+            throw new IllegalStateException("Heap holds " + size + " numbers, expected " + n);
+        }
+        return heap[0];
+    }
+
+    @Override
+    public int nthSmallest(int k) {
+        if (k == n) {
+            return result();
+        }
+        if (k > size) {
+            throw new IllegalStateException("Heap holds " + size + " numbers, expected " + k);
+        }
+        if (sorted == null) {
+            sorted = sortedSmallest();
+        }
+        return sorted[k - 1];
+    }
+
+    @Override
+    public int[] sortedSmallest() {
+        int[] result = new int[size];
+        System.arraycopy(heap, 0, result, 0, size);
+        IntArrays.heapSort(result, 0, size);
+        return result;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(n, heap.length * 2L);
+        int[] grown = new int[capacity];
+        System.arraycopy(heap, 0, grown, 0, size);
+        heap = grown;
+    }
+
+    private void siftUp(int index) {
+        int value = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= value) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = value;
+    }
+
+    private void siftDown(int index) {
+        int value = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right] > heap[child]) {
+                child = right;
+            }
+            if (value >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = value;
+    }
+}
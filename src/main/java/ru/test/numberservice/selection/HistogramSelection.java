@@ -0,0 +1,226 @@
+package ru.test.numberservice.selection;
+
+import java.util.function.Supplier;
+
+/**
+ * Точный поиск N-го минимального числа поразрядным подсчетом, для чисел узкого диапазона:
+ * идентификаторов, количеств, кодов.
+ * Число попадает в корзину по старшим 16 битам: у каждой корзины есть счетчик чисел и страница
+ * из 2^16 счетчиков младших битов, которая создается при первом числе корзины.
+ * N-е число находится в два шага: накопленной суммой счетчиков корзин выбирается корзина с рангом N,
+ * затем накопленной суммой ее страницы - число внутри корзины.
+ * Временная сложность: O(M + 2^16) на поиск, память: счетчики корзин и по странице на занятую корзину,
+ * то есть определяется диапазоном значений, а не N.
+ *
+ * <p>Корзины выше той, в которой находится N-е число, уже не могут его содержать: когда страниц не хватает,
+ * их страницы освобождаются, а следующие числа этих корзин только подсчитываются.
+ * Если диапазон все равно не помещается в заданное количество страниц, подсчитанные числа передаются
+ * по возрастанию запасной стратегии, и дальше числа принимает она. Так для широкого диапазона результат
+ * остается точным.
+ */
+public class HistogramSelection implements SelectionStrategy {
+
+    static final int PAGE_BITS = 16;
+    static final int PAGE_SIZE = 1 << PAGE_BITS;
+    static final int BUCKETS = 1 << (Integer.SIZE - PAGE_BITS);
+
+    private static final int SIGN_BUCKET = BUCKETS >>> 1;
+    private static final int PAGE_MASK = PAGE_SIZE - 1;
+
+    private final int n;
+    private final int maxPages;
+    private final Supplier<SelectionStrategy> fallbackFactory;
+    private int[] bucketCounts = new int[BUCKETS];
+    private int[][] pages = new int[BUCKETS][];
+    private int pageCount;
+    private int lowBucket = BUCKETS;
+    private int highBucket = -1;
+    private int cutoffBucket = BUCKETS - 1;
+    private long count;
+    private long dropped;
+    private SelectionStrategy fallback;
+
+    /**
+     * @param n номер минимального элемента
+     * @param maxPages наибольшее количество страниц счетчиков
+     * @param fallbackFactory стратегия для чисел, диапазон которых не помещается в страницы
+     */
+    public HistogramSelection(int n, int maxPages, Supplier<SelectionStrategy> fallbackFactory) {
+        this.n = n;
+        this.maxPages = maxPages;
+        this.fallbackFactory = fallbackFactory;
+    }
+
+    /**
+     * Память подсчета с заданным количеством страниц: счетчики и ссылки корзин и сами страницы
+     */
+    public static long requiredMemory(int pages) {
+        return (long) BUCKETS * (Integer.BYTES + Long.BYTES) + (long) pages * PAGE_SIZE * Integer.BYTES;
+    }
+
+    @Override
+    public void accept(int value) {
+        if (fallback != null) {
+            fallback.accept(value);
+            return;
+        }
+        int bucket = bucket(value);
+        if (bucket > cutoffBucket) {
+            count++;
+            dropped++;
+            return;
+        }
+        int[] page = pages[bucket];
+        if (page == null) {
+            if (pageCount == maxPages) {
+                dropPagesAboveRank();
+                if (bucket > cutoffBucket) {
+                    count++;
+                    dropped++;
+                    return;
+                }
+                if (pageCount == maxPages) {
+                    switchToFallback();
+                    fallback.accept(value);
+                    return;
+                }
+            }
+            page = new int[PAGE_SIZE];
+            pages[bucket] = page;
+            pageCount++;
+        }
+        page[value & PAGE_MASK]++;
+        bucketCounts[bucket]++;
+        count++;
+        lowBucket = Math.min(lowBucket, bucket);
+        highBucket = Math.max(highBucket, bucket);
+    }
+
+    @Override
+    public long count() {
+        return fallback != null ? fallback.count() + dropped : count;
+    }
+
+    /**
+     * Количество подсчитанных в страницах чисел или, после перехода, количество чисел запасной стратегии
+     */
+    @Override
+    public int size() {
+        return fallback != null ? fallback.size() : (int) Math.min(count - dropped, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Количество созданных страниц счетчиков; после перехода на запасную стратегию - 0
+     */
+    int pageCount() {
+        return pageCount;
+    }
+
+    @Override
+    public int result() {
+        return nthSmallest(n);
+    }
+
+    @Override
+    public int nthSmallest(int k) {
+        if (fallback != null) {
+            return fallback.nthSmallest(k);
+        }
+        if (count - dropped < k) {
+            throw new IllegalStateException("Histogram holds " + (count - dropped) + " numbers, expected " + k);
+        }
+        long remaining = k;
+        int bucket = lowBucket;
+        while (remaining > bucketCounts[bucket]) {
+            remaining -= bucketCounts[bucket];
+            bucket++;
+        }
+        int[] page = pages[bucket];
+        int offset = 0;
+        while (remaining > page[offset]) {
+            remaining -= page[offset];
+            offset++;
+        }
+        return value(bucket, offset);
+    }
+
+    @Override
+    public int[] sortedSmallest() {
+        if (fallback != null) {
+            return fallback.sortedSmallest();
+        }
+        int[] result = new int[(int) Math.min(n, count - dropped)];
+        int filled = 0;
+        for (int bucket = lowBucket; filled < result.length; bucket++) {
+            int[] page = pages[bucket];
+            if (page == null || bucketCounts[bucket] == 0) {
+                continue;
+            }
+            for (int offset = 0; offset < PAGE_SIZE && filled < result.length; offset++) {
+                for (int c = page[offset]; c > 0 && filled < result.length; c--) {
+                    result[filled++] = value(bucket, offset);
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Освобождение страниц корзин выше корзины, в которой находится N-е число.
+     * С новыми числами N-е число только уменьшается, поэтому эти корзины больше не понадобятся
+     */
+    private void dropPagesAboveRank() {
+        if (count - dropped < n) {
+            return;
+        }
+        long remaining = n;
+        int bucket = lowBucket;
+        while (remaining > bucketCounts[bucket]) {
+            remaining -= bucketCounts[bucket];
+            bucket++;
+        }
+        for (int above = bucket + 1; above <= highBucket; above++) {
+            if (pages[above] != null) {
+                dropped += bucketCounts[above];
+                bucketCounts[above] = 0;
+                pages[above] = null;
+                pageCount--;
+            }
+        }
+        cutoffBucket = bucket;
+        highBucket = bucket;
+    }
+
+    /**
+     * Передача подсчитанных чисел запасной стратегии по возрастанию; счетчики освобождаются
+     */
+    private void switchToFallback() {
+        fallback = fallbackFactory.get();
+        for (int bucket = lowBucket; bucket <= highBucket; bucket++) {
+            int[] page = pages[bucket];
+            if (page == null) {
+                continue;
+            }
+            for (int offset = 0; offset < PAGE_SIZE; offset++) {
+                int value = value(bucket, offset);
+                for (int c = page[offset]; c > 0; c--) {
+                    fallback.accept(value);
+                }
+            }
+        }
+        bucketCounts = null;
+        pages = null;
+        pageCount = 0;
+    }
+
+    /**
+     * Корзина числа: старшие биты со смещенным знаком, чтобы порядок корзин совпадал с порядком чисел
+     */
+    private static int bucket(int value) {
+        return (value >>> PAGE_BITS) ^ SIGN_BUCKET;
+    }
+
+    private static int value(int bucket, int offset) {
+        return ((bucket ^ SIGN_BUCKET) << PAGE_BITS) | offset;
+    }
+}
@@ -0,0 +1,184 @@
+package ru.test.numberservice.selection;
+
+import java.util.Arrays;
+
+/**
+ * Алгоритмы над массивами примитивных int без упаковки и встроенных сортировок.
+ */
+public final class IntArrays {
+
+    private static final int RADIX = 256;
+    private static final int INSERTION_SORT_THRESHOLD = 32;
+
+    private IntArrays() {
+    }
+
+    /**
+     * Introselect: quickselect с трехсторонним разбиением и медианой трех,
+     * при слишком глубокой рекурсии диапазон досортировывается пирамидальной сортировкой.
+     * Переставляет элементы диапазона.
+     *
+     * @param a массив
+     * @param from начало диапазона (включительно)
+     * @param to конец диапазона (не включительно)
+     * @param k индекс искомого элемента в отсортированном порядке, from <= k < to
+     * @return k-ый по возрастанию элемент диапазона
+     */
+    public static int select(int[] a, int from, int to, int k) {
+        int lo = from;
+        int hi = to - 1;
+        int depthLimit = 2 * (32 - Integer.numberOfLeadingZeros(to - from));
+
+        while (lo < hi) {
+            if (depthLimit-- == 0) {
+                heapSort(a, lo, hi + 1);
+                return a[k];
+            }
+
+            int pivot = medianOfThree(a[lo], a[lo + ((hi - lo) >>> 1)], a[hi]);
+            int lt = lo;
+            int gt = hi;
+            int i = lo;
+            while (i <= gt) {
+                int value = a[i];
+                if (value < pivot) {
+                    swap(a, lt++, i++);
+                } else if (value > pivot) {
+                    swap(a, i, gt--);
+                } else {
+                    i++;
+                }
+            }
+
+            if (k < lt) {
+                hi = lt - 1;
+            } else if (k > gt) {
+                lo = gt + 1;
+            } else {
+                return pivot;
+            }
+        }
+        return a[k];
+    }
+
+    /**
+     * Пирамидальная сортировка диапазона [from, to) по возрастанию
+     */
+    public static void heapSort(int[] a, int from, int to) {
+        int length = to - from;
+        for (int i = (length >>> 1) - 1; i >= 0; i--) {
+            siftDown(a, from, i, length);
+        }
+        for (int end = length - 1; end > 0; end--) {
+            swap(a, from, from + end);
+            siftDown(a, from, 0, end);
+        }
+    }
+
+    /**
+     * Поразрядная (MSD) сортировка диапазона [0, length) по возрастанию на месте.
+     * Числа раскладываются по корзинам старшего байта ключа перестановкой по циклам, затем каждая корзина
+     * сортируется по следующему байту; знаковый бит инвертирован для учета отрицательных чисел.
+     * Небольшие корзины досортировываются вставками.
+     * Время O(M), дополнительная память O(1): второй массив размера M не нужен.
+     */
+    public static void radixSort(int[] a, int length) {
+        if (length < 2) {
+            return;
+        }
+        radixSort(a, 0, length, Integer.BYTES - 1, new int[Integer.BYTES][RADIX + 1], new int[RADIX]);
+    }
+
+    /**
+     * @param level номер байта ключа, от старшего (3) к младшему (0)
+     * @param bounds границы корзин для каждого уровня
+     * @param next позиции записи в корзины, общие для всех уровней
+     */
+    private static void radixSort(int[] a, int from, int to, int level, int[][] bounds, int[] next) {
+        if (to - from <= INSERTION_SORT_THRESHOLD) {
+            insertionSort(a, from, to);
+            return;
+        }
+        int shift = level * 8;
+        int[] bucketBounds = bounds[level];
+        Arrays.fill(bucketBounds, 0);
+        for (int i = from; i < to; i++) {
+            bucketBounds[digit(a[i], shift) + 1]++;
+        }
+        bucketBounds[0] = from;
+        for (int d = 0; d < RADIX; d++) {
+            bucketBounds[d + 1] += bucketBounds[d];
+        }
+
+        System.arraycopy(bucketBounds, 0, next, 0, RADIX);
+        for (int d = 0; d < RADIX; d++) {
+            int end = bucketBounds[d + 1];
+            while (next[d] < end) {
+                int value = a[next[d]];
+                int valueDigit = digit(value, shift);
+                while (valueDigit != d) {
+                    int displaced = a[next[valueDigit]];
+                    a[next[valueDigit]++] = value;
+                    value = displaced;
+                    valueDigit = digit(value, shift);
+                }
+                a[next[d]++] = value;
+            }
+        }
+
+        if (level > 0) {
+            for (int d = 0; d < RADIX; d++) {
+                if (bucketBounds[d + 1] - bucketBounds[d] > 1) {
+                    radixSort(a, bucketBounds[d], bucketBounds[d + 1], level - 1, bounds, next);
+                }
+            }
+        }
+    }
+
+    private static void insertionSort(int[] a, int from, int to) {
+        for (int i = from + 1; i < to; i++) {
+            int value = a[i];
+            int j = i - 1;
+            while (j >= from && a[j] > value) {
+                a[j + 1] = a[j];
+                j--;
+            }
+            a[j + 1] = value;
+        }
+    }
+
+    private static int digit(int value, int shift) {
+        return ((value ^ Integer.MIN_VALUE) >>> shift) & (RADIX - 1);
+    }
+
+    private static void siftDown(int[] a, int base, int index, int length) {
+        int value = a[base + index];
+        int half = length >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < length && a[base + right] > a[base + child]) {
+                child = right;
+            }
+            if (value >= a[base + child]) {
+                break;
+            }
+            a[base + index] = a[base + child];
+            index = child;
+        }
+        a[base + index] = value;
+    }
+
+    private static int medianOfThree(int a, int b, int c) {
+        if (a < b) {
+            return b < c ? b : Math.max(a, c);
+        }
+        return a < c ? a : Math.max(b, c);
+    }
+
+    private static void swap(int[] a, int i, int j) {
+        int tmp = a[i];
+        a[i] = a[j];
+        a[j] = tmp;
+    }
+}
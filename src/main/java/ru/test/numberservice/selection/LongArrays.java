@@ -0,0 +1,44 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Алгоритмы над массивами примитивных long без упаковки и встроенных сортировок.
+ */
+public final class LongArrays {
+
+    private LongArrays() {
+    }
+
+    /**
+     * Пирамидальная сортировка диапазона [from, to) по возрастанию
+     */
+    public static void heapSort(long[] a, int from, int to) {
+        int length = to - from;
+        for (int i = (length >>> 1) - 1; i >= 0; i--) {
+            siftDown(a, from, i, length);
+        }
+        for (int end = length - 1; end > 0; end--) {
+            long tmp = a[from];
+            a[from] = a[from + end];
+            a[from + end] = tmp;
+            siftDown(a, from, 0, end);
+        }
+    }
+
+    private static void siftDown(long[] a, int base, int index, int length) {
+        long value = a[base + index];
+        int half = length >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < length && a[base + right] > a[base + child]) {
+                child = right;
+            }
+            if (value >= a[base + child]) {
+                break;
+            }
+            a[base + index] = a[base + child];
+            index = child;
+        }
+        a[base + index] = value;
+    }
+}
@@ -0,0 +1,121 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Множество примитивных long с открытой адресацией и линейным пробированием.
+ * Удаление сдвигает следующие элементы цепочки назад, поэтому надгробия не накапливаются
+ * и множество, в котором постоянно добавляются и удаляются элементы, не деградирует.
+ * Нулевой ключ хранится отдельным признаком, ноль в таблице означает пустую ячейку.
+ */
+class LongHashSet {
+
+    private static final long GOLDEN_RATIO = 0x9E3779B97F4A7C15L;
+    private static final int MIN_CAPACITY = 16;
+
+    private long[] keys;
+    private int mask;
+    private int shift;
+    private int size;
+    private boolean containsZero;
+
+    LongHashSet() {
+        allocate(MIN_CAPACITY);
+    }
+
+    /**
+     * Память таблицы после добавления заданного количества ключей
+     */
+    static long requiredMemory(int size) {
+        long capacity = Math.max(MIN_CAPACITY, Long.highestOneBit(Math.max(1, 2L * size - 1)) << 1);
+        return capacity * Long.BYTES;
+    }
+
+    int size() {
+        return containsZero ? size + 1 : size;
+    }
+
+    boolean contains(long key) {
+        if (key == 0) {
+            return containsZero;
+        }
+        for (int slot = slot(key); keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @return true, если ключа еще не было в множестве
+     */
+    boolean add(long key) {
+        if (key == 0) {
+            boolean added = !containsZero;
+            containsZero = true;
+            return added;
+        }
+        int slot = slot(key);
+        for (; keys[slot] != 0; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return false;
+            }
+        }
+        keys[slot] = key;
+        if (++size * 2 > keys.length) {
+            rehash(keys.length * 2);
+        }
+        return true;
+    }
+
+    /**
+     * @return true, если ключ был в множестве
+     */
+    boolean remove(long key) {
+        if (key == 0) {
+            boolean removed = containsZero;
+            containsZero = false;
+            return removed;
+        }
+        int gap = slot(key);
+        for (; keys[gap] != key; gap = (gap + 1) & mask) {
+            if (keys[gap] == 0) {
+                return false;
+            }
+        }
+
+        for (int slot = (gap + 1) & mask; keys[slot] != 0; slot = (slot + 1) & mask) {
+            int home = slot(keys[slot]);
+            if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+                keys[gap] = keys[slot];
+                gap = slot;
+            }
+        }
+        keys[gap] = 0;
+        size--;
+        return true;
+    }
+
+    private int slot(long key) {
+        return (int) ((key * GOLDEN_RATIO) >>> shift);
+    }
+
+    private void rehash(int capacity) {
+        long[] old = keys;
+        allocate(capacity);
+        for (long key : old) {
+            if (key != 0) {
+                int slot = slot(key);
+                while (keys[slot] != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = key;
+            }
+        }
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mask = capacity - 1;
+        shift = Long.numberOfLeadingZeros(mask);
+    }
+}
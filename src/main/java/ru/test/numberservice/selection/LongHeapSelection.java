@@ -0,0 +1,135 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Ограниченная Max Heap на массиве long[]: хранит N минимальных ключей, на вершине - наибольший из них.
+ * В режиме различных значений рядом с кучей хранится множество ее ключей,
+ * и повторы уже попавших в кучу значений отбрасываются за O(1), так что куча хранит N минимальных различных ключей.
+ * Временная сложность: O(M log N), память: O(N). Упаковки чисел в Long нет.
+ */
+public class LongHeapSelection {
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    private final int n;
+    private final LongHashSet members;
+    private long[] heap;
+    private int size;
+    private long count;
+
+    /**
+     * @param n количество хранимых минимальных ключей
+     * @param distinct хранить только различные ключи
+     */
+    public LongHeapSelection(int n, boolean distinct) {
+        this.n = n;
+        this.members = distinct ? new LongHashSet() : null;
+        this.heap = new long[Math.min(n, INITIAL_CAPACITY)];
+    }
+
+    /**
+     * Добавление очередного ключа
+     */
+    public void accept(long key) {
+        count++;
+        if (size == n && key >= heap[0]) {
+            return;
+        }
+        if (members != null && !members.add(key)) {
+            return;
+        }
+        if (size < n) {
+            if (size == heap.length) {
+                grow();
+            }
+            heap[size] = key;
+            siftUp(size++);
+        } else {
+            if (members != null) {
+                members.remove(heap[0]);
+            }
+            heap[0] = key;
+            siftDown(0);
+        }
+    }
+
+    /**
+     * Добавление всех ключей другой кучи, например при слиянии результатов нескольких листов
+     */
+    public void acceptAll(LongHeapSelection other) {
+        for (int i = 0; i < other.size; i++) {
+            accept(other.heap[i]);
+        }
+    }
+
+    /**
+     * Количество принятых ключей, включая повторы
+     */
+    public long count() {
+        return count;
+    }
+
+    /**
+     * Количество ключей в куче; в режиме различных значений - количество найденных различных ключей, но не больше N
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * N-й минимальный ключ. Вызывается только если в куче N ключей.
+     */
+    public long result() {
+        if (size < n) {
+            throw new IllegalStateException("Heap holds " + size + " numbers, expected " + n);
+        }
+        return heap[0];
+    }
+
+    /**
+     * Ключи кучи по возрастанию
+     */
+    public long[] sortedKeys() {
+        long[] result = new long[size];
+        System.arraycopy(heap, 0, result, 0, size);
+        LongArrays.heapSort(result, 0, size);
+        return result;
+    }
+
+    private void grow() {
+        int capacity = (int) Math.min(n, heap.length * 2L);
+        long[] grown = new long[capacity];
+        System.arraycopy(heap, 0, grown, 0, size);
+        heap = grown;
+    }
+
+    private void siftUp(int index) {
+        long key = heap[index];
+        while (index > 0) {
+            int parent = (index - 1) >>> 1;
+            if (heap[parent] >= key) {
+                break;
+            }
+            heap[index] = heap[parent];
+            index = parent;
+        }
+        heap[index] = key;
+    }
+
+    private void siftDown(int index) {
+        long key = heap[index];
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && heap[right] > heap[child]) {
+                child = right;
+            }
+            if (key >= heap[child]) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = key;
+    }
+}
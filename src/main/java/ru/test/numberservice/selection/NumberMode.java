@@ -0,0 +1,22 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Тип чисел, среди которых ищется порядковая статистика
+ */
+public enum NumberMode {
+
+    /**
+     * Целые числа в диапазоне int, дробные и выходящие за диапазон значения пропускаются
+     */
+    INT,
+
+    /**
+     * Целые числа в диапазоне long
+     */
+    LONG,
+
+    /**
+     * Десятичные числа двойной точности
+     */
+    DOUBLE
+}
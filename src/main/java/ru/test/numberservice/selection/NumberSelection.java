@@ -0,0 +1,110 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Поиск N-го минимального или максимального, в том числе N-го различного, числа в режимах int, long и double
+ * за один проход.
+ *
+ * <p>Все режимы сводятся к одной куче {@link LongHeapSelection} через ключи, сохраняющие порядок:
+ * целые числа служат ключами сами, у double знаковый бит переносится в порядок остальных битов,
+ * так что знаковое сравнение ключей совпадает со сравнением чисел. N-е максимальное ищется как
+ * N-е минимальное по ключу {@code ~key}, который обращает порядок без переполнения.
+ * NaN пропускаются, {@code -0.0} и {@code 0.0} считаются одним числом.
+ */
+public class NumberSelection implements NumberSink {
+
+    private final NumberMode mode;
+    private final SelectionOrder order;
+    private final boolean distinct;
+    private final LongHeapSelection heap;
+
+    public NumberSelection(NumberMode mode, SelectionOrder order, boolean distinct, int n) {
+        this.mode = mode;
+        this.order = order;
+        this.distinct = distinct;
+        this.heap = new LongHeapSelection(n, distinct);
+    }
+
+    /**
+     * Память, которую занимает структура выбора при N хранимых числах: куча ключей long
+     * и, в режиме различных значений, множество ключей кучи
+     */
+    public static long requiredMemory(int n, boolean distinct) {
+        long heap = (long) n * Long.BYTES;
+        return distinct ? heap + LongHashSet.requiredMemory(n) : heap;
+    }
+
+    @Override
+    public NumberMode mode() {
+        return mode;
+    }
+
+    @Override
+    public void acceptLong(long value) {
+        heap.accept(order == SelectionOrder.MAX ? ~value : value);
+    }
+
+    @Override
+    public void acceptDouble(double value) {
+        if (Double.isNaN(value)) {
+            return;
+        }
+        long key = doubleKey(value);
+        heap.accept(order == SelectionOrder.MAX ? ~key : key);
+    }
+
+    /**
+     * Объединение с результатом другого источника с теми же параметрами
+     */
+    public void merge(NumberSelection other) {
+        heap.acceptAll(other.heap);
+    }
+
+    public SelectionOrder order() {
+        return order;
+    }
+
+    public boolean isDistinct() {
+        return distinct;
+    }
+
+    /**
+     * Количество принятых чисел
+     */
+    public long count() {
+        return heap.count();
+    }
+
+    /**
+     * Количество хранимых чисел; в режиме различных значений - найденных различных чисел, но не больше N
+     */
+    public int size() {
+        return heap.size();
+    }
+
+    /**
+     * N-е число в заданном порядке: {@link Integer}, {@link Long} или {@link Double} по режиму.
+     * Вызывается только если {@link #size()} равен N.
+     */
+    public Number result() {
+        long key = heap.result();
+        long value = order == SelectionOrder.MAX ? ~key : key;
+        return switch (mode) {
+            case INT -> (int) value;
+            case LONG -> value;
+            case DOUBLE -> keyToDouble(value);
+        };
+    }
+
+    /**
+     * Ключ double, знаковое сравнение которого совпадает со сравнением чисел.
+     * У отрицательных чисел инвертируются все биты, кроме знакового: чем больше модуль, тем меньше ключ.
+     */
+    static long doubleKey(double value) {
+        long bits = Double.doubleToRawLongBits(value + 0.0);
+        return bits ^ ((bits >> 63) & Long.MAX_VALUE);
+    }
+
+    static double keyToDouble(long key) {
+        return Double.longBitsToDouble(key ^ ((key >> 63) & Long.MAX_VALUE));
+    }
+}
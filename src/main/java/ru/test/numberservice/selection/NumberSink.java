@@ -0,0 +1,18 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Получатель чисел ячеек в заданном режиме {@link NumberMode}.
+ * Целые числа режимов INT и LONG передаются через {@link #acceptLong(long)},
+ * числа режима DOUBLE - через {@link #acceptDouble(double)}. Упаковки чисел нет.
+ */
+public interface NumberSink {
+
+    /**
+     * Режим, определяющий, какие ячейки считаются числами и как они разбираются
+     */
+    NumberMode mode();
+
+    void acceptLong(long value);
+
+    void acceptDouble(double value);
+}
@@ -0,0 +1,166 @@
+package ru.test.numberservice.selection;
+
+import java.util.Arrays;
+
+/**
+ * Объединяемый скетч порядковых статистик на иерархии компакторов в стиле KLL.
+ * Уровень h хранит числа с весом 2^h. Заполненный уровень сортируется, и каждое второе число
+ * переносится на следующий уровень, попеременно с четных и нечетных позиций; суммарный вес не меняется.
+ *
+ * <p>Емкость всех уровней одинакова, поэтому ошибка ранга ограничена детерминированно:
+ * сжатие уровня h меняет оценку ранга любого значения не больше чем на 2^h.
+ * Сумма весов всех сжатий хранится как гарантированная граница ошибки {@link #rankError()};
+ * она не превышает {@code count * levels / capacity}. Пока сжатий не было, скетч точен.
+ * Память - {@code O(capacity * log(count / capacity))} чисел long и не зависит от N.
+ */
+final class QuantileSketch {
+
+    private final int capacity;
+    private long[][] levels;
+    private int[] sizes;
+    private int[] compactions;
+    private long count;
+    private long rankError;
+
+    /**
+     * @param capacity емкость уровня, четное число не меньше 2
+     */
+    QuantileSketch(int capacity) {
+        if (capacity < 2 || capacity % 2 != 0) {
+            throw new IllegalArgumentException("Sketch capacity should be an even number of at least 2");
+        }
+        this.capacity = capacity;
+        this.levels = new long[][]{new long[capacity]};
+        this.sizes = new int[1];
+        this.compactions = new int[1];
+    }
+
+    void update(long value) {
+        push(0, value);
+        count++;
+        if (sizes[0] >= capacity) {
+            compress();
+        }
+    }
+
+    /**
+     * Объединение со скетчем той же емкости: уровни складываются, ошибки ранга суммируются
+     */
+    void merge(QuantileSketch other) {
+        if (other.capacity != capacity) {
+            throw new IllegalArgumentException("Sketches of different capacity cannot be merged");
+        }
+        for (int level = 0; level < other.levels.length; level++) {
+            for (int i = 0; i < other.sizes[level]; i++) {
+                push(level, other.levels[level][i]);
+            }
+        }
+        count += other.count;
+        rankError += other.rankError;
+        compress();
+    }
+
+    long count() {
+        return count;
+    }
+
+    /**
+     * Гарантированная граница ошибки ранга: для любого значения оценка количества чисел, не больших его,
+     * отличается от точного не больше чем на эту величину
+     */
+    long rankError() {
+        return rankError;
+    }
+
+    /**
+     * Количество хранимых чисел
+     */
+    int size() {
+        int size = 0;
+        for (int levelSize : sizes) {
+            size += levelSize;
+        }
+        return size;
+    }
+
+    /**
+     * Оценка числа с заданным рангом по возрастанию: наименьшее хранимое число, суммарный вес чисел
+     * не больше которого достигает ранга. Точный ранг результата отличается от заданного
+     * не больше чем на {@link #rankError()}.
+     *
+     * @param rank ранг от 1 до {@link #count()}
+     */
+    long select(long rank) {
+        for (int level = 0; level < levels.length; level++) {
+            LongArrays.heapSort(levels[level], 0, sizes[level]);
+        }
+
+        int[] positions = new int[levels.length];
+        long weight = 0;
+        while (true) {
+            int minLevel = -1;
+            long min = 0;
+            for (int level = 0; level < levels.length; level++) {
+                if (positions[level] < sizes[level] && (minLevel < 0 || levels[level][positions[level]] < min)) {
+                    min = levels[level][positions[level]];
+                    minLevel = level;
+                }
+            }
+            if (minLevel < 0) {
+                throw new IllegalArgumentException("Rank " + rank + " is out of range, count: " + count);
+            }
+            positions[minLevel]++;
+            weight += 1L << minLevel;
+            if (weight >= rank) {
+                return min;
+            }
+        }
+    }
+
+    /**
+     * Сжатие переполненных уровней снизу вверх: сжатие уровня может переполнить только следующий
+     */
+    private void compress() {
+        for (int level = 0; level < levels.length; level++) {
+            if (sizes[level] >= capacity) {
+                compact(level);
+            }
+        }
+    }
+
+    /**
+     * Сжатие уровня: пары соседних чисел после сортировки заменяются одним числом двойного веса.
+     * При нечетном количестве наибольшее число остается на уровне.
+     */
+    private void compact(int level) {
+        long[] items = levels[level];
+        int size = sizes[level];
+        LongArrays.heapSort(items, 0, size);
+
+        int paired = size & ~1;
+        int offset = compactions[level]++ & 1;
+        for (int i = offset; i < paired; i += 2) {
+            push(level + 1, items[i]);
+        }
+        if (paired < size) {
+            items[0] = items[size - 1];
+        }
+        sizes[level] = size - paired;
+        rankError += 1L << level;
+    }
+
+    private void push(int level, long value) {
+        if (level == levels.length) {
+            levels = Arrays.copyOf(levels, level + 1);
+            levels[level] = new long[capacity];
+            sizes = Arrays.copyOf(sizes, level + 1);
+            compactions = Arrays.copyOf(compactions, level + 1);
+        }
+        long[] items = levels[level];
+        if (sizes[level] == items.length) {
+            items = Arrays.copyOf(items, items.length + capacity);
+            levels[level] = items;
+        }
+        items[sizes[level]++] = value;
+    }
+}
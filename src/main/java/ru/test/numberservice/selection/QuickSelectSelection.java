@@ -0,0 +1,103 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Поиск N-го минимального числа через буферизацию всех чисел и introselect.
+ * Выгоднее кучи, когда N сопоставимо с количеством чисел M: время O(M) вместо O(M log N).
+ * Память: O(M), буфер - растущий массив int[].
+ *
+ * <p>Буфер ограничен наибольшим количеством чисел: количество чисел выбирающий стратегию знает только по оценке,
+ * а она бывает занижена. Когда буфер заполнен, его числа передаются куче из N чисел, буфер освобождается,
+ * и дальше числа принимает куча.
+ */
+public class QuickSelectSelection implements SelectionStrategy {
+
+    private static final int MAX_INITIAL_CAPACITY = 1 << 20;
+
+    private final int n;
+    private GrowableIntArray buffer;
+    private SelectionStrategy fallback;
+
+    public QuickSelectSelection(int n, long expectedCount) {
+        this(n, expectedCount, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param n номер минимального элемента
+     * @param expectedCount оценка количества чисел
+     * @param maxCount наибольшее количество чисел в буфере, после которого числа принимает куча
+     */
+    public QuickSelectSelection(int n, long expectedCount, long maxCount) {
+        this.n = n;
+        this.buffer = new GrowableIntArray(Math.min(expectedCount, MAX_INITIAL_CAPACITY), maxCount);
+    }
+
+    @Override
+    public void accept(int value) {
+        if (fallback == null && buffer.isFull()) {
+            switchToHeap();
+        }
+        if (fallback != null) {
+            fallback.accept(value);
+            return;
+        }
+        buffer.accept(value);
+    }
+
+    @Override
+    public long count() {
+        return fallback != null ? fallback.count() : buffer.size();
+    }
+
+    @Override
+    public int size() {
+        return fallback != null ? fallback.size() : buffer.size();
+    }
+
+    @Override
+    public int result() {
+        return nthSmallest(n);
+    }
+
+    @Override
+    public int nthSmallest(int k) {
+        if (fallback != null) {
+            return fallback.nthSmallest(k);
+        }
+        if (buffer.size() < k) {
+            throw new IllegalStateException("Buffer holds " + buffer.size() + " numbers, expected " + k);
+        }
+        return IntArrays.select(buffer.array(), 0, buffer.size(), k - 1);
+    }
+
+    @Override
+    public int[] sortedSmallest() {
+        if (fallback != null) {
+            return fallback.sortedSmallest();
+        }
+        int size = Math.min(n, buffer.size());
+        int[] values = buffer.array();
+        if (size > 0 && size < buffer.size()) {
+            IntArrays.select(values, 0, buffer.size(), size - 1);
+        }
+        int[] result = new int[size];
+        System.arraycopy(values, 0, result, 0, size);
+        IntArrays.heapSort(result, 0, size);
+        return result;
+    }
+
+    /**
+     * Используется ли куча вместо буфера
+     */
+    boolean isFallback() {
+        return fallback != null;
+    }
+
+    private void switchToHeap() {
+        fallback = new HeapSelection(n);
+        int[] values = buffer.array();
+        for (int i = 0; i < buffer.size(); i++) {
+            fallback.accept(values[i]);
+        }
+        buffer = null;
+    }
+}
@@ -0,0 +1,9 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Направление порядковой статистики: N-е минимальное или N-е максимальное число
+ */
+public enum SelectionOrder {
+    MIN,
+    MAX
+}
@@ -0,0 +1,70 @@
+package ru.test.numberservice.selection;
+
+/**
+ * Выбор стратегии поиска N-го минимального числа по N и оценке количества чисел M.
+ * Пока N мало относительно M, выгоднее ограниченная куча (память O(N)).
+ * Когда куча заняла бы заметную долю от M, дешевле буферизовать все числа и применить introselect.
+ * Начиная с небольших N сначала используется поразрядный подсчет: если диапазон значений узкий, выбор занимает O(M)
+ * при памяти, которая зависит от диапазона, а не от N; иначе подсчитанные числа передаются куче или introselect.
+ * Для совсем малых N куча отбрасывает почти каждое число одним сравнением с вершиной, и подсчет
+ * со своими счетчиками корзин в сотни килобайт ее не обгоняет.
+ */
+public final class SelectionStrategies {
+
+    static final int QUICKSELECT_MIN_N = 1 << 12;
+    static final int QUICKSELECT_RATIO = 4;
+    static final int HISTOGRAM_MIN_N = 1 << 6;
+    static final int HISTOGRAM_MAX_PAGES = 16;
+
+    private SelectionStrategies() {
+    }
+
+    /**
+     * Память, которую стратегия занимает при любом количестве чисел: куча из N чисел int
+     */
+    public static long requiredMemory(int n) {
+        return (long) n * Integer.BYTES;
+    }
+
+    /**
+     * @param n номер минимального элемента
+     * @param estimatedCount оценка количества чисел в источнике
+     * @return стратегия для одного прохода по источнику
+     */
+    public static SelectionStrategy forRequest(int n, long estimatedCount) {
+        return forRequest(n, estimatedCount, Long.MAX_VALUE);
+    }
+
+    /**
+     * @param n номер минимального элемента
+     * @param estimatedCount оценка количества чисел в источнике
+     * @param memoryBudget память на запрос в байтах; буфер всех чисел и счетчики подсчета
+     *                     выбираются, только если помещаются в нее вместе с кучей на случай перехода
+     * @return стратегия для одного прохода по источнику
+     */
+    public static SelectionStrategy forRequest(int n, long estimatedCount, long memoryBudget) {
+        long pageBytes = HistogramSelection.requiredMemory(1) - HistogramSelection.requiredMemory(0);
+        long histogramPages = Math.min(HISTOGRAM_MAX_PAGES,
+                (memoryBudget - requiredMemory(n) - HistogramSelection.requiredMemory(0)) / pageBytes);
+        if (n >= HISTOGRAM_MIN_N && histogramPages >= 1) {
+            long fallbackBudget = memoryBudget - HistogramSelection.requiredMemory((int) histogramPages);
+            return new HistogramSelection(n, (int) histogramPages,
+                    () -> comparisonStrategy(n, estimatedCount, fallbackBudget));
+        }
+        return comparisonStrategy(n, estimatedCount, memoryBudget);
+    }
+
+    /**
+     * Стратегия на сравнениях чисел: куча или introselect.
+     * Оценка количества чисел бывает занижена, поэтому буфер introselect ограничен бюджетом памяти
+     * за вычетом кучи, на которую он переходит при заполнении.
+     */
+    static SelectionStrategy comparisonStrategy(int n, long estimatedCount, long memoryBudget) {
+        long maxBuffered = memoryBudget / Integer.BYTES - n;
+        if (n >= QUICKSELECT_MIN_N && (long) n * QUICKSELECT_RATIO >= estimatedCount
+                && estimatedCount <= maxBuffered) {
+            return new QuickSelectSelection(n, estimatedCount, maxBuffered);
+        }
+        return new HeapSelection(n);
+    }
+}
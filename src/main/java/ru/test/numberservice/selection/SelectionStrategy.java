@@ -0,0 +1,44 @@
+package ru.test.numberservice.selection;
+
+import java.util.function.IntConsumer;
+
+/**
+ * Стратегия поиска N-го минимального числа в потоке целых чисел.
+ * Числа передаются по одному через {@link #accept(int)}, результат запрашивается после окончания потока.
+ */
+public interface SelectionStrategy extends IntConsumer {
+
+    /**
+     * Добавление очередного числа
+     */
+    @Override
+    void accept(int value);
+
+    /**
+     * Количество принятых чисел
+     */
+    long count();
+
+    /**
+     * Количество чисел, которые стратегия хранит в памяти
+     */
+    int size();
+
+    /**
+     * N-ое минимальное число среди принятых.
+     * Вызывается только если принято не меньше N чисел.
+     */
+    int result();
+
+    /**
+     * K-ое минимальное число среди принятых, где K не больше N, с которым создана стратегия.
+     * Позволяет ответить на несколько порядковых статистик за один проход.
+     */
+    int nthSmallest(int k);
+
+    /**
+     * Не более N минимальных чисел среди принятых, по возрастанию.
+     * Используется для слияния частичных результатов нескольких источников.
+     */
+    int[] sortedSmallest();
+}
@@ -0,0 +1,76 @@
+package ru.test.numberservice.selection;
+
+import java.util.List;
+
+/**
+ * K-путевое слияние отсортированных частичных результатов.
+ * Используется для объединения N минимальных чисел нескольких листов или файлов в общий результат.
+ */
+public final class SortedMerge {
+
+    private SortedMerge() {
+    }
+
+    /**
+     * Слияние отсортированных массивов с остановкой после limit чисел.
+     * Время O(limit log K), где K - количество массивов.
+     *
+     * @param parts массивы, каждый отсортирован по возрастанию
+     * @param limit максимальное количество чисел в результате
+     * @return не более limit минимальных чисел всех массивов по возрастанию
+     */
+    public static int[] mergeSmallest(List<int[]> parts, int limit) {
+        long total = 0;
+        for (int[] part : parts) {
+            total += part.length;
+        }
+        int[] result = new int[(int) Math.min(limit, total)];
+
+        int[] positions = new int[parts.size()];
+        int[] heap = new int[parts.size()];
+        int heapSize = 0;
+        for (int i = 0; i < parts.size(); i++) {
+            if (parts.get(i).length > 0) {
+                heap[heapSize++] = i;
+            }
+        }
+        for (int i = (heapSize >>> 1) - 1; i >= 0; i--) {
+            siftDown(heap, i, heapSize, parts, positions);
+        }
+
+        for (int count = 0; count < result.length; count++) {
+            int part = heap[0];
+            result[count] = parts.get(part)[positions[part]++];
+            if (positions[part] == parts.get(part).length) {
+                heap[0] = heap[--heapSize];
+            }
+            if (heapSize > 0) {
+                siftDown(heap, 0, heapSize, parts, positions);
+            }
+        }
+        return result;
+    }
+
+    private static void siftDown(int[] heap, int index, int size, List<int[]> parts, int[] positions) {
+        int part = heap[index];
+        int value = head(part, parts, positions);
+        int half = size >>> 1;
+        while (index < half) {
+            int child = 2 * index + 1;
+            int right = child + 1;
+            if (right < size && head(heap[right], parts, positions) < head(heap[child], parts, positions)) {
+                child = right;
+            }
+            if (value <= head(heap[child], parts, positions)) {
+                break;
+            }
+            heap[index] = heap[child];
+            index = child;
+        }
+        heap[index] = part;
+    }
+
+    private static int head(int part, List<int[]> parts, int[] positions) {
+        return parts.get(part)[positions[part]];
+    }
+}
@@ -2,134 +2,1073 @@ package ru.test.numberservice.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.poi.ss.usermodel.*;
 import org.springframework.stereotype.Service;
+import ru.test.numberservice.cache.FileKey;
+import ru.test.numberservice.cache.SortedValuesCache;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.dto.NthApproximateResponse;
+import ru.test.numberservice.dto.NthMinBatchResponse;
+import ru.test.numberservice.dto.NthMinDirectoryResponse;
+import ru.test.numberservice.dto.NthMinResult;
 import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.exception.ServiceOverloadedException;
 import ru.test.numberservice.exception.ValidationException;
+import ru.test.numberservice.index.SidecarIndex;
+import ru.test.numberservice.metrics.ScanMetrics;
+import ru.test.numberservice.reader.CellRange;
+import ru.test.numberservice.reader.NumberFileReader;
+import ru.test.numberservice.reader.NumberFileReaders;
+import ru.test.numberservice.reader.ScanProgress;
+import ru.test.numberservice.reader.ScanStats;
+import ru.test.numberservice.reader.SheetScanResult;
+import ru.test.numberservice.reader.SheetSelector;
+import ru.test.numberservice.reader.XlsxStreamReader;
+import ru.test.numberservice.selection.ApproximateSelection;
+import ru.test.numberservice.selection.BoundedIntBuffer;
+import ru.test.numberservice.selection.IntArrays;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.NumberSelection;
+import ru.test.numberservice.selection.NumberSink;
+import ru.test.numberservice.selection.SelectionOrder;
+import ru.test.numberservice.selection.SelectionStrategies;
+import ru.test.numberservice.selection.SelectionStrategy;
+import ru.test.numberservice.selection.SortedMerge;
 import ru.test.numberservice.validator.FileValidator;
 
-import java.io.FileInputStream;
+import java.io.File;
 import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
 import java.util.Collections;
-import java.util.PriorityQueue;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.function.IntConsumer;
+import java.util.function.IntUnaryOperator;
+import java.util.stream.Stream;
 
 /**
- * Сервис для поиска N-го минимального числа в Excel файлах.
- * Использует алгоритм Max Heap для эффективного поиска без полной сортировки.
+ * Сервис для поиска N-го минимального числа в Excel файлах и текстовых файлах (CSV, TSV, TXT).
+ * Файл читается потоково, без загрузки книги в память целиком; формат выбирается через {@link NumberFileReaders}.
+ * Использует Max Heap на примитивном массиве, introselect или подсчет по диапазону значений,
+ * в зависимости от N, размера файла и разброса чисел.
  */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class NumberService {
 
+    private static final int COMPRESSED_BYTES_PER_CELL = 4;
+    private static final String DEFAULT_GLOB = "*.xlsx";
+
     private final FileValidator fileValidator;
+    private final XlsxStreamReader xlsxStreamReader;
+    private final NumberFileReaders numberFileReaders;
+    private final SortedValuesCache sortedValuesCache;
+    private final SidecarIndex sidecarIndex;
+    private final ExecutorService sheetScanExecutor;
+    private final ScanExecutor scanExecutor;
+    private final NumberServiceProperties properties;
+    private final ScanMetrics scanMetrics;
+    private final ConcurrentMap<FileKey, SharedScan> sharedScans = new ConcurrentHashMap<>();
 
     /**
      * Поиск N-го минимального числа в Excel файле.
-     * Используется алгоритм с Max Heap для оптимизации памяти и времени выполнения.
+     * Если кэш или индексы включены и файл в них помещается, все числа файла сортируются и сохраняются,
+     * повторные запросы к той же версии файла отвечаются без разбора, в том числе после перезапуска.
+     * Иначе стратегия выбора подбирается автоматически по N и оценке количества ячеек.
+     * Одновременные запросы к одной версии файла присоединяются к уже идущему просмотру,
+     * если он ведется для N не меньше их собственного.
+     * Разбор выполняется через {@link ScanExecutor}; присоединившийся запрос ждет общий просмотр, не занимая места в нем.
      *
      * @param filePath путь к Excel файлу (.xlsx)
      * @param n номер минимального элемента
      * @return N-й минимальный элемент из файла
      * @throws ValidationException если параметры некорректны или файл не прошел валидацию
      * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     * @throws ServiceOverloadedException если нет места для разбора
      */
     public int findNthMinNumber(String filePath, int n) {
+        if (properties.getScan().isCoalesceRequests()) {
+            return findNthMinNumber(filePath, n, new ScanProgress(), true);
+        }
+        return scanExecutor.execute(() -> findNthMinNumber(filePath, n, new ScanProgress(), false));
+    }
+
+    /**
+     * Поиск N-го минимального числа в Excel файле с отслеживанием хода просмотра и возможностью отмены.
+     * Используется асинхронными задачами: ход просмотра доступен из другого потока во время разбора.
+     *
+     * @param filePath путь к Excel файлу (.xlsx)
+     * @param n номер минимального элемента
+     * @param progress ход просмотра первого листа
+     * @return N-й минимальный элемент из файла
+     * @throws ValidationException если параметры некорректны или файл не прошел валидацию
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     * @throws ScanCancelledException если просмотр отменен через {@link ScanProgress#cancel()}
+     */
+    public int findNthMinNumber(String filePath, int n, ScanProgress progress) {
+        return findNthMinNumber(filePath, n, progress, false);
+    }
+
+    private int findNthMinNumber(String filePath, int n, ScanProgress progress, boolean coalesce) {
         log.debug("Starting search for {}-th min number in file: {}", n, filePath);
 
-        fileValidator.validateInput(filePath, n);
+        long validationStart = System.nanoTime();
+        BasicFileAttributes attributes = fileValidator.validateInput(filePath, n);
+        File file = new File(filePath);
+        long fileSize = attributes.size();
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, fileSize, n);
+
+        FirstSheetNumbers numbers = coalesce
+                ? readFirstSheetNumbersShared(file, filePath, attributes, n)
+                : readFirstSheetNumbers(file, filePath, attributes, n, progress);
+        int result = selectNthMin(numbers, n, fileSize);
+        log.debug("Successfully found {}-th min number: {}", n, result);
+        return result;
+    }
+
+    /**
+     * Поиск N-го минимального числа на нескольких листах Excel файла.
+     * Листы разбираются параллельно, каждый в свою структуру выбора, результаты объединяются слиянием.
+     *
+     * @param filePath путь к Excel файлу (.xlsx)
+     * @param n номер минимального элемента
+     * @param sheets имена листов, {@code *} - все листы, пустой список - первый лист
+     * @return N-й минимальный элемент среди выбранных листов
+     * @throws ValidationException если параметры некорректны, файл не прошел валидацию или листы не найдены
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     */
+    public int findNthMinNumber(String filePath, int n, List<String> sheets) {
+        return findNthMinNumber(filePath, n, sheets, null);
+    }
+
+    /**
+     * Поиск N-го минимального числа в диапазоне ячеек выбранных листов Excel файла.
+     * Ячейки вне диапазона пропускаются без разбора, поэтому на широких листах просматриваются только нужные столбцы.
+     * Кэш и индексы хранят числа всего первого листа и для диапазонов не используются.
+     * Разбор выполняется через {@link ScanExecutor}.
+     *
+     * @param filePath путь к Excel файлу (.xlsx)
+     * @param n номер минимального элемента
+     * @param sheets имена листов, {@code #N} - лист по номеру, {@code *} - все листы, пустой список - первый лист
+     * @param range диапазон ячеек в стиле A1, например {@code B2:B1000} или {@code C:D}; пустой - весь лист
+     * @return N-й минимальный элемент в диапазоне выбранных листов
+     * @throws ValidationException если параметры некорректны, файл не прошел валидацию или листы не найдены
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     * @throws ServiceOverloadedException если нет места для разбора
+     */
+    public int findNthMinNumber(String filePath, int n, List<String> sheets, String range) {
+        SheetSelector selector = SheetSelector.of(sheets);
+        CellRange cellRange = CellRange.parse(range);
+        if (selector.isFirstSheetOnly() && cellRange.isAll()) {
+            return findNthMinNumber(filePath, n);
+        }
+        return scanExecutor.execute(() -> findNthMinNumber(filePath, n, selector, cellRange));
+    }
+
+    private int findNthMinNumber(String filePath, int n, SheetSelector selector, CellRange cellRange) {
+        log.debug("Starting search for {}-th min number in range {} of sheets [{}] of file: {}",
+                n, cellRange, selector, filePath);
+
+        long validationStart = System.nanoTime();
+        long fileSize = fileValidator.validateInput(filePath, n).size();
+        File file = new File(filePath);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, fileSize, n);
+
+        if (selector.isFirstSheetOnly()) {
+            return selectNthMin(readSmallest(file, filePath, fileSize, cellRange, n, new ScanProgress()), n, fileSize);
+        }
 
-        try (FileInputStream file = new FileInputStream(filePath);
-             Workbook workbook = WorkbookFactory.create(file)) {
+        int[] smallest = readSmallestFromSheets(file, filePath, fileSize, selector, cellRange, n);
+        requireEnoughNumbers(smallest.length, n);
+        int result = smallest[n - 1];
+        log.debug("Successfully found {}-th min number: {}", n, result);
+        return result;
+    }
+
+    /**
+     * Поиск N-го минимального или максимального, в том числе N-го различного, числа в режиме int, long или double.
+     * Все варианты находятся за один проход кучей на примитивном массиве long[] без упаковки чисел.
+     * Запрос N-го минимального в режиме int выполняется прежним путем, с кэшем и индексами.
+     *
+     * @param filePath путь к Excel файлу (.xlsx)
+     * @param n номер искомого элемента
+     * @param mode тип чисел: в режиме int дробные и большие числа пропускаются, long и double их учитывают
+     * @param order N-е минимальное или N-е максимальное
+     * @param distinct считать повторяющиеся числа одним
+     * @param sheets имена листов, {@code #N} - лист по номеру, {@code *} - все листы, пустой список - первый лист
+     * @param range диапазон ячеек в стиле A1; пустой - весь лист
+     * @return найденное число: {@link Integer}, {@link Long} или {@link Double} по режиму
+     * @throws ValidationException если параметры некорректны, файл не прошел валидацию или чисел меньше N
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     */
+    public Number findNthNumber(String filePath, int n, NumberMode mode, SelectionOrder order, boolean distinct,
+                                List<String> sheets, String range) {
+        if (mode == NumberMode.INT && order == SelectionOrder.MIN && !distinct) {
+            return findNthMinNumber(filePath, n, sheets, range);
+        }
+        SheetSelector selector = SheetSelector.of(sheets);
+        CellRange cellRange = CellRange.parse(range);
+        log.debug("Starting search for {}-th {} {} number (distinct: {}) in range {} of sheets [{}] of file: {}",
+                n, order, mode, distinct, cellRange, selector, filePath);
 
-            Sheet sheet = workbook.getSheetAt(0);
-            int result = findNthMinFromSheet(sheet, n);
-            log.debug("Successfully found {}-th min number: {}", n, result);
-            return result;
+        long validationStart = System.nanoTime();
+        long fileSize = fileValidator.validateInput(filePath, n, NumberSelection.requiredMemory(n, distinct)).size();
+        File file = new File(filePath);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, fileSize, n);
+
+        NumberSelection selection = new NumberSelection(mode, order, distinct, n);
+        long numbersProcessed = selector.isFirstSheetOnly()
+                ? readNumbers(file, filePath, fileSize, cellRange, selection, n)
+                : readNumbersFromSheets(file, filePath, fileSize, selector, cellRange, selection, n);
+
+        long found = distinct ? selection.size() : numbersProcessed;
+        if (found < n) {
+            throw new ValidationException(String.format("The file has %d %s, but asked for %d-th %s",
+                    found, distinct ? "distinct numbers" : "numbers", n, order.name().toLowerCase()));
+        }
+
+        long selectionStart = System.nanoTime();
+        Number result = selection.result();
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - selectionStart, fileSize, n);
+        scanMetrics.recordSelectionSize(selection.size(), fileSize, n);
+        log.debug("Successfully found {}-th {} number: {}", n, order, result);
+        return result;
+    }
+
+    /**
+     * Приближенный поиск N-го минимального или максимального числа с гарантированной ошибкой ранга.
+     * Числа собираются в скетч фиксированного размера: память не зависит от N,
+     * скетчи листов и частей файла объединяются.
+     *
+     * @param filePath путь к файлу (.xlsx, .csv, .tsv, .txt)
+     * @param n номер искомого элемента
+     * @param mode тип чисел
+     * @param order N-е минимальное или N-е максимальное
+     * @param sheets имена листов, {@code #N} - лист по номеру, {@code *} - все листы, пустой список - первый лист
+     * @param range диапазон ячеек в стиле A1; пустой - весь лист
+     * @return приближенное число и гарантированный диапазон его рангов
+     * @throws ValidationException если параметры некорректны, файл не прошел валидацию или чисел меньше N
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     */
+    public NthApproximateResponse findNthNumberApproximately(String filePath, int n, NumberMode mode,
+                                                             SelectionOrder order, List<String> sheets,
+                                                             String range) {
+        SheetSelector selector = SheetSelector.of(sheets);
+        CellRange cellRange = CellRange.parse(range);
+        log.debug("Starting approximate search for {}-th {} {} number in range {} of sheets [{}] of file: {}",
+                n, order, mode, cellRange, selector, filePath);
+
+        long validationStart = System.nanoTime();
+        long sketchMemory = ApproximateSelection.requiredMemory(properties.getApproximation().getRankError());
+        long fileSize = fileValidator.validateApproximateInput(filePath, n, sketchMemory).size();
+        File file = new File(filePath);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, fileSize, n);
+
+        ApproximateSelection selection = selector.isFirstSheetOnly()
+                ? readApproximately(file, filePath, fileSize, mode, cellRange, n)
+                : readApproximatelyFromSheets(file, filePath, fileSize, selector, mode, cellRange, n);
+
+        if (selection.count() < n) {
+            throw new ValidationException(String.format("The file has %d numbers, but asked for %d-th %s",
+                    selection.count(), n, order.name().toLowerCase()));
+        }
+
+        long selectionStart = System.nanoTime();
+        ApproximateSelection.Estimate estimate = selection.estimate(n, order);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - selectionStart, fileSize, n);
+        scanMetrics.recordSelectionSize(selection.size(), fileSize, n);
+        log.debug("Found approximate {}-th {} number: {}, rank range [{}, {}]",
+                n, order, estimate.value(), estimate.minRank(), estimate.maxRank());
+        return new NthApproximateResponse(n, order, estimate.value(), estimate.minRank(), estimate.maxRank(),
+                selection.count());
+    }
+
+    /**
+     * Поиск N-го минимального числа в Excel файле, переданном в теле запроса.
+     * Содержимое разбирается по мере поступления, без временного файла и без буферизации в памяти.
+     *
+     * @param content содержимое .xlsx файла
+     * @param contentLength размер содержимого или -1, если он неизвестен
+     * @param n номер минимального элемента
+     * @return N-й минимальный элемент первого листа
+     * @throws ValidationException если параметры некорректны
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке содержимого
+     */
+    public int findNthMinNumber(InputStream content, long contentLength, int n) {
+        log.debug("Starting search for {}-th min number in uploaded file of {} bytes", n, contentLength);
+
+        long validationStart = System.nanoTime();
+        fileValidator.validateUpload(contentLength, n);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, contentLength, n);
+
+        SelectionStrategy selection = newSelection(n, contentLength, 1);
+        InputStream limitedContent = fileValidator.limitUpload(content);
+        ScanStats stats = scan("<upload>", () -> xlsxStreamReader.readFirstSheet(limitedContent, selection));
+        scanMetrics.recordScan(stats, contentLength, n);
+
+        int result = selectResult(selection, stats, n, contentLength);
+        log.debug("Successfully found {}-th min number: {}", n, result);
+        return result;
+    }
 
+    /**
+     * Поиск нескольких порядковых статистик файла за один проход.
+     * Используется одна структура выбора, рассчитанная на максимальное из запрошенных N.
+     *
+     * @param filePath путь к Excel файлу (.xlsx)
+     * @param ns номера минимальных элементов
+     * @param sheets имена листов, {@code #N} - лист по номеру, {@code *} - все листы, пустой список - первый лист
+     * @param range диапазон ячеек в стиле A1; пустой - весь лист
+     * @return найденные числа в порядке запроса
+     * @throws ValidationException если параметры некорректны или файл не прошел валидацию
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке файла
+     */
+    public NthMinBatchResponse findNthMinNumbers(String filePath, List<Integer> ns, List<String> sheets,
+                                                 String range) {
+        log.debug("Starting batch search for {}-th min numbers in file: {}", ns, filePath);
+
+        long validationStart = System.nanoTime();
+        BasicFileAttributes attributes = fileValidator.validateInput(filePath, ns);
+        int maxN = Collections.max(ns);
+        File file = new File(filePath);
+        long fileSize = attributes.size();
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, fileSize, maxN);
+
+        SheetSelector selector = SheetSelector.of(sheets);
+        CellRange cellRange = CellRange.parse(range);
+        IntUnaryOperator nthMin;
+        if (!selector.isFirstSheetOnly()) {
+            int[] smallest = readSmallestFromSheets(file, filePath, fileSize, selector, cellRange, maxN);
+            requireEnoughNumbers(smallest.length, maxN);
+            nthMin = k -> smallest[k - 1];
+        } else {
+            FirstSheetNumbers numbers = cellRange.isAll()
+                    ? readFirstSheetNumbers(file, filePath, attributes, maxN, new ScanProgress())
+                    : readSmallest(file, filePath, fileSize, cellRange, maxN, new ScanProgress());
+            requireEnoughNumbers(numbers.numbersProcessed(), maxN);
+            nthMin = numbers.nthMin();
+        }
+
+        long selectionStart = System.nanoTime();
+        List<NthMinResult> results = new ArrayList<>(ns.size());
+        for (int n : ns) {
+            results.add(new NthMinResult(n, nthMin.applyAsInt(n)));
+        }
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - selectionStart, fileSize, maxN);
+        log.debug("Successfully found batch of {} order statistics", results.size());
+        return new NthMinBatchResponse(filePath, results);
+    }
+
+    /**
+     * Поиск N-го минимального числа среди первых листов всех файлов каталога, подходящих под шаблон.
+     * Каждый файл проходит валидацию и разбирается в свою ограниченную структуру выбора.
+     * Одновременно разбирается не больше {@code number-service.aggregation.max-concurrent-files} файлов,
+     * а N минимальных чисел разобранного файла сразу сливаются с общим результатом,
+     * поэтому память запроса - O(N) на каждый одновременно разбираемый файл.
+     *
+     * @param directory путь к каталогу
+     * @param glob шаблон путей файлов относительно каталога, например {@code *.xlsx} или {@code 2025/**.xlsx};
+     *             пустой - {@code *.xlsx}
+     * @param n номер минимального элемента
+     * @return N-й минимальный элемент среди всех файлов
+     * @throws ValidationException если параметры некорректны, файлы не найдены или один из файлов не прошел валидацию
+     * @throws FileProcessingException если возникла ошибка при чтении или обработке одного из файлов
+     */
+    public NthMinDirectoryResponse findNthMinNumberInDirectory(String directory, String glob, int n) {
+        String pattern = glob == null || glob.isBlank() ? DEFAULT_GLOB : glob;
+        log.debug("Starting search for {}-th min number in files {} of directory: {}", n, pattern, directory);
+
+        long validationStart = System.nanoTime();
+        fileValidator.validateDirectory(directory, n);
+        List<Path> files = listFiles(Path.of(directory), pattern);
+        long[] fileSizes = new long[files.size()];
+        long totalSize = 0;
+        for (int i = 0; i < files.size(); i++) {
+            fileSizes[i] = fileValidator.validateInput(files.get(i).toString(), n).size();
+            totalSize += fileSizes[i];
+        }
+        scanMetrics.recordPhase(ScanMetrics.PHASE_VALIDATION, System.nanoTime() - validationStart, totalSize, n);
+
+        int maxConcurrentFiles = properties.getAggregation().getMaxConcurrentFiles();
+        CompletionService<FileScanResult> completion = new ExecutorCompletionService<>(sheetScanExecutor);
+        List<Future<FileScanResult>> futures = new ArrayList<>(files.size());
+        int submitted = 0;
+        int[] smallest = new int[0];
+        long numbersProcessed = 0;
+        long selectionNanos = 0;
+        try {
+            while (submitted < files.size() && submitted < maxConcurrentFiles) {
+                futures.add(completion.submit(fileScan(files.get(submitted), fileSizes[submitted++], n)));
+            }
+            for (int completed = 0; completed < files.size(); completed++) {
+                FileScanResult result = completion.take().get();
+                if (submitted < files.size()) {
+                    futures.add(completion.submit(fileScan(files.get(submitted), fileSizes[submitted++], n)));
+                }
+
+                long mergeStart = System.nanoTime();
+                numbersProcessed += result.numbersProcessed();
+                smallest = SortedMerge.mergeSmallest(List.of(smallest, result.smallest()), n);
+                selectionNanos += System.nanoTime() - mergeStart;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("Directory scan interrupted", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new FileProcessingException("Excel file processing error", e.getCause());
+        } finally {
+            futures.forEach(future -> future.cancel(true));
+        }
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, selectionNanos, totalSize, n);
+
+        requireEnoughNumbers(numbersProcessed, n);
+        int result = smallest[n - 1];
+        log.debug("Successfully found {}-th min number in {} files: {}", n, files.size(), result);
+        return new NthMinDirectoryResponse(directory, pattern, files.size(), numbersProcessed, result);
+    }
+
+    /**
+     * Файлы каталога, путь которых относительно каталога подходит под шаблон.
+     * Вложенные каталоги просматриваются, только если шаблон может их затронуть.
+     */
+    private List<Path> listFiles(Path directory, String pattern) {
+        PathMatcher matcher;
+        try {
+            matcher = directory.getFileSystem().getPathMatcher("glob:" + pattern);
+        } catch (IllegalArgumentException e) {
+            throw new ValidationException("Invalid glob pattern: " + pattern);
+        }
+        int maxDepth = pattern.contains("/") || pattern.contains("**") ? Integer.MAX_VALUE : 1;
+        int maxFiles = properties.getAggregation().getMaxFiles();
+
+        List<Path> files;
+        try (Stream<Path> paths = Files.walk(directory, maxDepth)) {
+            files = paths.filter(Files::isRegularFile)
+                    .filter(path -> matcher.matches(directory.relativize(path)))
+                    .limit(maxFiles + 1L)
+                    .toList();
+        } catch (IOException | UncheckedIOException e) {
+            throw new FileProcessingException("Directory reading error: " + directory, e);
+        }
+
+        if (files.isEmpty()) {
+            throw new ValidationException("No files matching " + pattern + " in directory: " + directory);
+        }
+        if (files.size() > maxFiles) {
+            throw new ValidationException(String.format(
+                    "Too many files matching %s in directory %s, maximum: %d", pattern, directory, maxFiles));
+        }
+        return files;
+    }
+
+    /**
+     * Разбор первого листа одного файла каталога в его собственную структуру выбора.
+     * Задача уже выполняется в пуле разбора, поэтому файл читается последовательно, а не частями:
+     * части, ожидаемые из того же пула, могли бы занять все его потоки.
+     */
+    private Callable<FileScanResult> fileScan(Path path, long fileSize, int n) {
+        return () -> {
+            SelectionStrategy selection = newSelection(n, fileSize, 1);
+            ScanStats stats = readFirstSheet(path.toFile(), path.toString(), fileSize, CellRange.ALL, selection, n,
+                    new ScanProgress());
+            scanMetrics.recordSelectionSize(selection.size(), fileSize, n);
+            return new FileScanResult(stats.getNumbersProcessed(), selection.sortedSmallest());
+        };
+    }
+
+    /**
+     * Отсортированные числа первого листа: из кэша, из индекса-спутника или после нового разбора.
+     * Новый разбор сортирует все числа, если они помещаются в кэш или в лимит построения индекса,
+     * и сохраняет результат в обоих.
+     *
+     * @return числа первого листа или null, если кэш и индексы выключены или файл для них слишком велик
+     */
+    private FirstSheetNumbers findSortedValues(File file, String filePath, BasicFileAttributes attributes, int n,
+                                               ScanProgress progress) {
+        boolean cacheEnabled = sortedValuesCache.isEnabled();
+        boolean indexEnabled = sidecarIndex.isEnabled();
+        if (!cacheEnabled && !indexEnabled) {
+            return null;
+        }
+
+        FileKey key = fileKey(file, filePath, attributes);
+        if (cacheEnabled) {
+            int[] cached = sortedValuesCache.get(key);
+            if (cached != null) {
+                log.debug("Cache hit for file: {}", filePath);
+                return sortedNumbers(IntBuffer.wrap(cached));
+            }
+        }
+        if (indexEnabled) {
+            IntBuffer indexed = sidecarIndex.find(file, key);
+            if (indexed != null) {
+                return sortedNumbers(indexed);
+            }
+        }
+
+        long estimatedCount = estimateCellCount(key.length());
+        boolean cacheable = cacheEnabled && sortedValuesCache.fits(estimatedCount);
+        boolean indexable = indexEnabled && sidecarIndex.canBuild(estimatedCount);
+        if (!cacheable && !indexable) {
+            return null;
+        }
+        return readSortedValues(file, filePath, key, cacheable, indexable, n, progress);
+    }
+
+    /**
+     * Чтение всех чисел файла в отсортированный массив для кэша и индекса.
+     * Файл читается частями, как при поиске без кэша: большой лист разбирается параллельно,
+     * каждая часть - в свой буфер. Буферы частей вместе ограничены наименьшим из объемов кэша,
+     * лимита построения индекса и, в режиме больших файлов, бюджета памяти запроса:
+     * оценка количества чисел по размеру файла занижена для хорошо сжатых листов.
+     * Если числа в предел не помещаются, файл не кэшируется, а ответ дают ограниченные структуры выбора частей.
+     * Иначе буферы частей склеиваются и сортируются поразрядно на месте: O(M) без сравнений и без второго массива.
+     * Хэш файла для индекса считается до разбора, чтобы он относился к той же версии файла, что и ключ.
+     */
+    private FirstSheetNumbers readSortedValues(File file, String filePath, FileKey key, boolean cacheable,
+                                               boolean indexable, int n, ScanProgress progress) {
+        long fileSize = key.length();
+        long sourceHash = indexable ? sidecarIndex.sourceHash(file) : SidecarIndex.NO_HASH;
+        BoundedIntBuffer.Limit limit = new BoundedIntBuffer.Limit(maxSortedCount(cacheable, indexable));
+        NumberFileReader reader = numberFileReaders.forFile(filePath);
+        List<SheetScanResult<BoundedIntBuffer>> partResults = scan(filePath, () -> reader.readParts(
+                file, fileSize, CellRange.ALL,
+                parts -> new BoundedIntBuffer(limit, () -> newSelection(n, fileSize, parts)),
+                sheetScanExecutor, progress));
+
+        if (limit.isExhausted()) {
+            log.debug("Numbers of file {} exceed the sorted values limit, answering without cache", filePath);
+            List<SheetScanResult<SelectionStrategy>> selections = new ArrayList<>(partResults.size());
+            for (SheetScanResult<BoundedIntBuffer> partResult : partResults) {
+                selections.add(new SheetScanResult<>(partResult.sheetName(), partResult.consumer().toSelection(),
+                        partResult.stats()));
+            }
+            return smallestOf(selections, fileSize, n);
+        }
+
+        long sortStart = System.nanoTime();
+        int count = 0;
+        for (SheetScanResult<BoundedIntBuffer> partResult : partResults) {
+            scanMetrics.recordScan(partResult.stats(), fileSize, n);
+            count += partResult.consumer().size();
+        }
+        int[] sortedValues = new int[count];
+        int filled = 0;
+        for (SheetScanResult<BoundedIntBuffer> partResult : partResults) {
+            filled = partResult.consumer().drainTo(sortedValues, filled);
+        }
+        IntArrays.radixSort(sortedValues, sortedValues.length);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - sortStart, fileSize, n);
+        scanMetrics.recordSelectionSize(sortedValues.length, fileSize, n);
+
+        if (cacheable) {
+            sortedValuesCache.put(key, sortedValues);
+        }
+        if (indexable) {
+            sidecarIndex.write(file, key, sourceHash, sortedValues);
+        }
+        return sortedNumbers(IntBuffer.wrap(sortedValues));
+    }
+
+    /**
+     * Наибольшее количество чисел, которое сортируется в памяти для кэша и индекса
+     */
+    private long maxSortedCount(boolean cacheable, boolean indexable) {
+        long maxBytes = Long.MAX_VALUE;
+        if (cacheable) {
+            maxBytes = Math.min(maxBytes, properties.getCache().getMaxSize().toBytes());
+        }
+        if (indexable) {
+            maxBytes = Math.min(maxBytes, properties.getIndex().getMaxBuildSize().toBytes());
+        }
+        if (properties.getLargeFile().isEnabled()) {
+            maxBytes = Math.min(maxBytes, properties.getLargeFile().getMemoryBudget().toBytes());
+        }
+        return Math.min(maxBytes / Integer.BYTES, Integer.MAX_VALUE - 8);
+    }
+
+    private ScanStats readFirstSheet(File file, String filePath, long fileSize, CellRange range, IntConsumer consumer,
+                                     int n, ScanProgress progress) {
+        NumberFileReader reader = numberFileReaders.forFile(filePath);
+        ScanStats stats = scan(filePath, () -> reader.read(file, range, consumer, progress));
+        scanMetrics.recordScan(stats, fileSize, n);
+        return stats;
+    }
+
+    /**
+     * Числа первого листа: из кэша, из индекса-спутника или после просмотра структурой выбора для N
+     */
+    private FirstSheetNumbers readFirstSheetNumbers(File file, String filePath, BasicFileAttributes attributes, int n,
+                                                    ScanProgress progress) {
+        FirstSheetNumbers sortedValues = findSortedValues(file, filePath, attributes, n, progress);
+        if (sortedValues != null) {
+            return sortedValues;
+        }
+        return readSmallest(file, filePath, attributes.size(), CellRange.ALL, n, progress);
+    }
+
+    /**
+     * Просмотр первого листа, общий для одновременных запросов к одной версии файла.
+     * Запрос присоединяется к идущему просмотру, если тот ведется для N не меньше его собственного,
+     * и получает ответ из его структуры выбора. Запросы с большим N не начинают по просмотру каждый:
+     * после идущего просмотра выполняется один расширяющий просмотр для наибольшего из их N,
+     * а идущий просмотр остается доступным для запросов с меньшим N.
+     */
+    private FirstSheetNumbers readFirstSheetNumbersShared(File file, String filePath, BasicFileAttributes attributes,
+                                                          int n) {
+        FileKey key = fileKey(file, filePath, attributes);
+        SharedScan own = new SharedScan(n);
+        SharedScan running = sharedScans.putIfAbsent(key, own);
+        SharedScan shared = running == null ? own : running.join(n, own);
+        if (shared != own) {
+            log.debug("Joining shared scan for {}-th min of file: {}", n, filePath);
+            scanMetrics.recordCoalescedRequest();
+            return shared.await();
+        }
+
+        if (running != null) {
+            log.debug("Queued widening scan for {}-th min of file: {}", n, filePath);
+        }
+        return runSharedScan(key, own, file, filePath, attributes);
+    }
+
+    /**
+     * Выполнение общего просмотра для наибольшего N присоединившихся к нему до начала запросов.
+     * Расширяющий просмотр сначала дожидается предыдущего и занимает его место среди общих.
+     * Место в {@link ScanExecutor} занимается только на время самого разбора.
+     * Просмотр убирается из общих до публикации результата, чтобы следующий просмотр мог занять его место.
+     * Любая ошибка, включая {@link Error}, завершает общий результат, иначе присоединившиеся запросы ждали бы вечно.
+     */
+    private FirstSheetNumbers runSharedScan(FileKey key, SharedScan scan, File file, String filePath,
+                                            BasicFileAttributes attributes) {
+        FirstSheetNumbers numbers = null;
+        Throwable failure = null;
+        try {
+            if (scan.awaitPrevious()) {
+                sharedScans.putIfAbsent(key, scan);
+            }
+            numbers = scanExecutor.execute(
+                    () -> readFirstSheetNumbers(file, filePath, attributes, scan.start(), new ScanProgress()));
+            return numbers;
+        } catch (Throwable e) {
+            failure = e;
+            throw e;
+        } finally {
+            sharedScans.remove(key, scan);
+            if (failure == null) {
+                scan.numbers().complete(numbers);
+            } else {
+                scan.numbers().completeExceptionally(failure);
+            }
+        }
+    }
+
+    /**
+     * Просмотр первого листа книги или текстового файла частями, каждая в свою структуру выбора.
+     * Одна часть отвечает напрямую, результаты нескольких частей сливаются.
+     * Через {@link NumberFileReader#readParts} идут все запросы N-го минимального числа первого листа
+     * и заполнение кэша, поэтому большой лист разбирается частями, а средний - конвейером.
+     *
+     * @return количество чисел и доступ к K-му минимальному числу для K не больше N
+     */
+    private FirstSheetNumbers readSmallest(File file, String filePath, long fileSize, CellRange range, int n,
+                                           ScanProgress progress) {
+        NumberFileReader reader = numberFileReaders.forFile(filePath);
+        List<SheetScanResult<SelectionStrategy>> partResults = scan(filePath, () -> reader.readParts(
+                file, fileSize, range, parts -> newSelection(n, fileSize, parts), sheetScanExecutor, progress));
+        return smallestOf(partResults, fileSize, n);
+    }
+
+    /**
+     * Числа первого листа по структурам выбора его частей
+     */
+    private FirstSheetNumbers smallestOf(List<SheetScanResult<SelectionStrategy>> partResults, long fileSize,
+                                         int n) {
+        if (partResults.size() == 1) {
+            SheetScanResult<SelectionStrategy> partResult = partResults.get(0);
+            SelectionStrategy selection = partResult.consumer();
+            scanMetrics.recordScan(partResult.stats(), fileSize, n);
+            scanMetrics.recordSelectionSize(selection.size(), fileSize, n);
+            return new FirstSheetNumbers(partResult.stats().getNumbersProcessed(), k -> {
+                synchronized (selection) {
+                    return selection.nthSmallest(k);
+                }
+            });
+        }
+        int[] smallest = mergeSmallest(partResults, fileSize, n);
+        long numbersProcessed = 0;
+        for (SheetScanResult<SelectionStrategy> partResult : partResults) {
+            numbersProcessed += partResult.stats().getNumbersProcessed();
+        }
+        return new FirstSheetNumbers(numbersProcessed, k -> smallest[k - 1]);
+    }
+
+    /**
+     * Просмотр первого листа книги или текстового файла в структуру выбора режима long или double
+     *
+     * @return количество найденных чисел
+     */
+    private long readNumbers(File file, String filePath, long fileSize, CellRange range, NumberSink sink, int n) {
+        NumberFileReader reader = numberFileReaders.forFile(filePath);
+        ScanStats stats = scan(filePath, () -> reader.read(file, range, sink, new ScanProgress()));
+        scanMetrics.recordScan(stats, fileSize, n);
+        return stats.getNumbersProcessed();
+    }
+
+    /**
+     * Параллельный просмотр нескольких листов, каждого в свою структуру выбора, и объединение их в общую.
+     * Каждый лист хранит не больше N чисел, поэтому объединение занимает O(S N log N) для S листов.
+     *
+     * @return количество найденных чисел
+     */
+    private long readNumbersFromSheets(File file, String filePath, long fileSize, SheetSelector selector,
+                                       CellRange range, NumberSelection selection, int n) {
+        requireWorkbook(filePath);
+        List<SheetScanResult<NumberSelection>> sheetResults = scan(filePath, () -> xlsxStreamReader.readSheetNumbers(
+                file, selector, selection.mode(), range,
+                parts -> newNumberSelection(selection, n, parts),
+                sheetScanExecutor));
+
+        long numbersProcessed = 0;
+        for (SheetScanResult<NumberSelection> sheetResult : sheetResults) {
+            numbersProcessed += sheetResult.stats().getNumbersProcessed();
+            scanMetrics.recordScan(sheetResult.stats(), fileSize, n);
+            selection.merge(sheetResult.consumer());
+        }
+        return numbersProcessed;
+    }
+
+    /**
+     * Просмотр первого листа книги или текстового файла в скетч.
+     * В режиме int файл просматривается частями, как при точном поиске, и скетчи частей объединяются.
+     */
+    private ApproximateSelection readApproximately(File file, String filePath, long fileSize, NumberMode mode,
+                                                   CellRange range, int n) {
+        double rankError = properties.getApproximation().getRankError();
+        ApproximateSelection selection = new ApproximateSelection(mode, rankError);
+        if (mode != NumberMode.INT) {
+            readNumbers(file, filePath, fileSize, range, selection, n);
+            return selection;
+        }
+        NumberFileReader reader = numberFileReaders.forFile(filePath);
+        List<SheetScanResult<ApproximateSelection>> partResults = scan(filePath, () -> reader.readParts(
+                file, fileSize, range, parts -> newApproximateSelection(mode, rankError, parts), sheetScanExecutor,
+                new ScanProgress()));
+        for (SheetScanResult<ApproximateSelection> partResult : partResults) {
+            scanMetrics.recordScan(partResult.stats(), fileSize, n);
+            selection.merge(partResult.consumer());
+        }
+        return selection;
+    }
+
+    /**
+     * Параллельный просмотр нескольких листов, каждого в свой скетч, и объединение скетчей
+     */
+    private ApproximateSelection readApproximatelyFromSheets(File file, String filePath, long fileSize,
+                                                             SheetSelector selector, NumberMode mode,
+                                                             CellRange range, int n) {
+        requireWorkbook(filePath);
+        double rankError = properties.getApproximation().getRankError();
+        List<SheetScanResult<ApproximateSelection>> sheetResults = scan(filePath,
+                () -> xlsxStreamReader.readSheetNumbers(file, selector, mode, range,
+                        parts -> newApproximateSelection(mode, rankError, parts), sheetScanExecutor));
+
+        ApproximateSelection selection = new ApproximateSelection(mode, rankError);
+        for (SheetScanResult<ApproximateSelection> sheetResult : sheetResults) {
+            scanMetrics.recordScan(sheetResult.stats(), fileSize, n);
+            selection.merge(sheetResult.consumer());
+        }
+        return selection;
+    }
+
+    /**
+     * Параллельный просмотр нескольких листов и слияние их частичных результатов.
+     * Каждый лист заполняет свою структуру выбора, затем N минимальных чисел листов сливаются.
+     *
+     * @return не более N минимальных чисел выбранных листов по возрастанию
+     */
+    private int[] readSmallestFromSheets(File file, String filePath, long fileSize, SheetSelector selector,
+                                         CellRange range, int n) {
+        requireWorkbook(filePath);
+        List<SheetScanResult<SelectionStrategy>> sheetResults = scan(filePath, () -> xlsxStreamReader.readSheets(
+                file, selector, range, parts -> newSelection(n, fileSize, parts), sheetScanExecutor));
+        return mergeSmallest(sheetResults, fileSize, n);
+    }
+
+    /**
+     * Слияние частичных результатов листов или частей файла: N минимальных чисел каждой части сливаются
+     *
+     * @return не более N минимальных чисел всех частей по возрастанию
+     */
+    private int[] mergeSmallest(List<SheetScanResult<SelectionStrategy>> sheetResults, long fileSize, int n) {
+        long numbersProcessed = 0;
+        long selectionSize = 0;
+        for (SheetScanResult<SelectionStrategy> sheetResult : sheetResults) {
+            numbersProcessed += sheetResult.stats().getNumbersProcessed();
+            selectionSize += sheetResult.consumer().size();
+            scanMetrics.recordScan(sheetResult.stats(), fileSize, n);
+        }
+        scanMetrics.recordSelectionSize(selectionSize, fileSize, n);
+
+        log.debug("Merging results of {} parts", sheetResults.size());
+        long selectionStart = System.nanoTime();
+        List<int[]> parts = new ArrayList<>(sheetResults.size());
+        for (SheetScanResult<SelectionStrategy> sheetResult : sheetResults) {
+            parts.add(sheetResult.consumer().sortedSmallest());
+        }
+        int[] smallest = SortedMerge.mergeSmallest(parts, n);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - selectionStart, fileSize, n);
+        return smallest;
+    }
+
+    private void requireWorkbook(String filePath) {
+        if (!numberFileReaders.isWorkbook(filePath)) {
+            throw new ValidationException("Sheets can only be selected in .xlsx files: " + filePath);
+        }
+    }
+
+    private <T> T scan(String filePath, ScanCall<T> call) {
+        try {
+            return call.call();
         } catch (IOException e) {
             throw new FileProcessingException("File reading error: " + filePath, e);
+        } catch (FileProcessingException | ValidationException | ScanCancelledException e) {
+            throw e;
         } catch (Exception e) {
             throw new FileProcessingException("Excel file processing error", e);
         }
     }
 
     /**
-     * Алгоритм поиска N-ного минимального числа с использованием Max Heap
-     * Временная сложность: O(M log N), где M - количество чисел, N - параметр
-     * Память: O(N)
+     * Получение N-ного минимального числа из чисел первого листа: из отсортированного массива за O(1)
+     * или из заполненной структуры выбора
      */
-    private int findNthMinFromSheet(Sheet sheet, int n) {
-        PriorityQueue<Integer> maxHeap = new PriorityQueue<>(n, Collections.reverseOrder());
-        int numbersProcessed = 0;
-
-        for (Row row : sheet) {
-            if (row == null) {
-                log.trace("Skipping null row");
-                continue;
-            }
+    private int selectNthMin(FirstSheetNumbers numbers, int n, long fileSize) {
+        requireEnoughNumbers(numbers.numbersProcessed(), n);
 
-            for (Cell cell : row) {
-                if (cell == null) {
-                    log.trace("Skipping null cell");
-                    continue;
-                }
+        long selectionStart = System.nanoTime();
+        int result = numbers.nthMin().applyAsInt(n);
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - selectionStart, fileSize, n);
+        return result;
+    }
 
-                if (cell.getCellType() == CellType.NUMERIC) {
-                    double value = cell.getNumericCellValue();
-
-                    if (isInteger(value)) {
-                        int number = (int) value;
-                        processNumber(number, maxHeap, n);
-                        numbersProcessed++;
-                        log.trace("Processed number: {}, heap size: {}, heap: {}", number, maxHeap.size(), maxHeap);
-                    } else {
-                        log.warn("Skipping non-integer number: {}", value);
-                    }
-
-                } else if (cell.getCellType() == CellType.STRING) {
-                    try {
-                        String cellValue = cell.getStringCellValue().trim();
-                        if (!cellValue.isEmpty()) {
-                            int number = Integer.parseInt(cellValue);
-                            processNumber(number, maxHeap, n);
-                            numbersProcessed++;
-                            log.trace("Processed number from string: {}, heap size: {}", number, maxHeap.size());
-                        }
-                    } catch (NumberFormatException e) {
-                        log.warn("Skipping non-numeric string: {}", cell.getStringCellValue());
-                    }
-                }
-            }
+    /**
+     * Ключ версии файла по атрибутам, прочитанным при валидации
+     */
+    private FileKey fileKey(File file, String filePath, BasicFileAttributes attributes) {
+        try {
+            return FileKey.of(file, attributes);
+        } catch (IOException e) {
+            throw new FileProcessingException("File reading error: " + filePath, e);
         }
+    }
+
+    /**
+     * Получение N-ного минимального числа из заполненной стратегии выбора.
+     * Для малых N используется Max Heap на массиве int[]: время O(M log N), память O(N).
+     * Для N, сопоставимых с M, используется introselect по буферу всех чисел: время O(M), память O(M).
+     * Для чисел узкого диапазона R используется подсчет: время O(M + R), память O(R).
+     */
+    private int selectResult(SelectionStrategy selection, ScanStats stats, int n, long fileSize) {
+        requireEnoughNumbers(stats.getNumbersProcessed(), n);
+
+        long selectionStart = System.nanoTime();
+        int result = selection.result();
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SELECTION, System.nanoTime() - selectionStart, fileSize, n);
+        scanMetrics.recordSelectionSize(selection.size(), fileSize, n);
+        log.debug("Found {}-th min number: {}", n, result);
+        return result;
+    }
+
+    /**
+     * Создание структуры выбора одной из частей просмотра по N и размеру файла.
+     * В режиме больших файлов бюджет памяти запроса делится между частями: буфер всех чисел части
+     * используется, только если помещается в ее долю бюджета.
+     *
+     * @param parts количество частей просмотра, каждая со своей структурой выбора
+     */
+    private SelectionStrategy newSelection(int n, long fileSize, int parts) {
+        fileValidator.validateMemoryBudget(n, SelectionStrategies.requiredMemory(n), parts);
+        NumberServiceProperties.LargeFile largeFile = properties.getLargeFile();
+        long memoryBudget = largeFile.isEnabled() ? largeFile.getMemoryBudget().toBytes() / parts : Long.MAX_VALUE;
+        return SelectionStrategies.forRequest(n, estimateCellCount(fileSize) / parts, memoryBudget);
+    }
+
+    /**
+     * Создание структуры выбора листа с параметрами общей структуры выбора запроса
+     *
+     * @param parts количество просматриваемых листов
+     */
+    private NumberSelection newNumberSelection(NumberSelection selection, int n, int parts) {
+        fileValidator.validateMemoryBudget(n, NumberSelection.requiredMemory(n, selection.isDistinct()), parts);
+        return new NumberSelection(selection.mode(), selection.order(), selection.isDistinct(), n);
+    }
+
+    /**
+     * Создание скетча листа или части файла. Скетчи всех частей и общий скетч, с которым они объединяются,
+     * существуют одновременно и вместе должны помещаться в бюджет памяти запроса.
+     *
+     * @param parts количество частей просмотра
+     */
+    private ApproximateSelection newApproximateSelection(NumberMode mode, double rankError, int parts) {
+        fileValidator.validateSketchBudget(ApproximateSelection.requiredMemory(rankError), parts + 1);
+        return new ApproximateSelection(mode, rankError);
+    }
 
+    private void requireEnoughNumbers(long numbersProcessed, int n) {
         if (numbersProcessed < n) {
             throw new ValidationException(
                     String.format("The file has %d numbers, but asked for %d-th min", numbersProcessed, n)
             );
         }
+    }
 
-        int result = maxHeap.peek();
-        log.debug("Found {}-th min number: {}", n, result);
-        return result;
+    /**
+     * Оценка количества ячеек по размеру сжатого файла.
+     * Числовая ячейка в сжатом XML листа занимает в среднем несколько байт. Оценка приблизительна и бывает занижена:
+     * хорошо сжатый лист или строка текста вида {@code 1\n} занимают меньше байт на число.
+     * Поэтому структуры, выбранные по оценке, ограничены в памяти сами, а не только через нее.
+     */
+    private long estimateCellCount(long fileSize) {
+        return fileSize / COMPRESSED_BYTES_PER_CELL;
+    }
+
+    /**
+     * Числа первого листа: их количество и K-е минимальное число для K не больше N, с которым лист просмотрен.
+     * Доступ к K-му числу потокобезопасен, по одному результату отвечают все присоединившиеся запросы.
+     */
+    private record FirstSheetNumbers(long numbersProcessed, IntUnaryOperator nthMin) {
     }
 
     /**
-     * Обработка очередного числа, обновляя Max Heap
+     * Числа первого листа по их отсортированному массиву
      */
-    private void processNumber(int number, PriorityQueue<Integer> maxHeap, int n) {
-        if (maxHeap.size() < n) {
-            maxHeap.offer(number);
-        } else if (number < maxHeap.peek()) {
-            maxHeap.poll();
-            maxHeap.offer(number);
+    private static FirstSheetNumbers sortedNumbers(IntBuffer sortedValues) {
+        return new FirstSheetNumbers(sortedValues.limit(), k -> sortedValues.get(k - 1));
+    }
+
+    /**
+     * Общий просмотр первого листа файла для N и его будущий результат.
+     * Пока просмотр не начат, его N растет до наибольшего N присоединившихся запросов;
+     * запросы с большим N после начала просмотра присоединяются к следующему, расширяющему просмотру.
+     */
+    private static final class SharedScan {
+
+        private final CompletableFuture<FirstSheetNumbers> numbers = new CompletableFuture<>();
+        private int n;
+        private boolean started;
+        private SharedScan previous;
+        private SharedScan widening;
+
+        SharedScan(int n) {
+            this.n = n;
+        }
+
+        CompletableFuture<FirstSheetNumbers> numbers() {
+            return numbers;
+        }
+
+        /**
+         * Присоединение запроса к этому просмотру или к расширяющему просмотру после него
+         *
+         * @param candidate просмотр запроса; становится расширяющим, если такого еще нет
+         * @return просмотр, результат которого отвечает на запрос
+         */
+        synchronized SharedScan join(int requestN, SharedScan candidate) {
+            if (requestN <= n) {
+                return this;
+            }
+            if (!started) {
+                n = requestN;
+                return this;
+            }
+            if (widening == null) {
+                candidate.previous = this;
+                widening = candidate;
+                return candidate;
+            }
+            return widening.join(requestN, candidate);
+        }
+
+        /**
+         * Начало просмотра: дальше его N не меняется
+         *
+         * @return N, для которого ведется просмотр
+         */
+        synchronized int start() {
+            started = true;
+            return n;
+        }
+
+        /**
+         * Ожидание просмотра, после которого начинается этот расширяющий просмотр; его ошибка не важна
+         *
+         * @return false, если просмотр не расширяющий
+         */
+        boolean awaitPrevious() {
+            if (previous == null) {
+                return false;
+            }
+            try {
+                previous.numbers.get();
+                return true;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileProcessingException("Sheet scan interrupted", e);
+            } catch (ExecutionException e) {
+                log.debug("Previous shared scan failed, widening scan reads the file itself", e.getCause());
+                return true;
+            }
+        }
+
+        /**
+         * Ожидание результата просмотра; ошибка просмотра пробрасывается каждому присоединившемуся запросу
+         */
+        FirstSheetNumbers await() {
+            try {
+                return numbers.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new FileProcessingException("Sheet scan interrupted", e);
+            } catch (ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException runtimeException) {
+                    throw runtimeException;
+                }
+                throw new FileProcessingException("Excel file processing error", e.getCause());
+            }
         }
     }
 
     /**
-     * Проверка на целое число
+     * Частичный результат файла каталога: количество его чисел и не более N минимальных из них по возрастанию
+     */
+    private record FileScanResult(long numbersProcessed, int[] smallest) {
+    }
+
+    /**
+     * Чтение файла, которое может завершиться ошибкой ввода-вывода
      */
-    private boolean isInteger(double value) {
-        return value == Math.floor(value) && !Double.isInfinite(value);
+    @FunctionalInterface
+    private interface ScanCall<T> {
+        T call() throws IOException;
     }
 }
@@ -0,0 +1,142 @@
+package ru.test.numberservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanQueueFullException;
+import ru.test.numberservice.exception.ServiceOverloadedException;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Ограниченный пул потоков для разбора файлов с контролем допуска.
+ * Запросы обрабатываются на виртуальных потоках, а разбор, нагружающий процессор, выполняется здесь:
+ * не более заданного количества разборов одновременно и ограниченная очередь ожидающих.
+ * Если очередь заполнена, запрос сразу отклоняется с {@link ScanQueueFullException} (429),
+ * а если разбор не начался за время ожидания в очереди - с {@link ServiceOverloadedException} (503),
+ * вместо того чтобы копиться и увеличивать время ответа остальных.
+ * Разбор, запущенный изнутри другого разбора, выполняется сразу в его потоке и второго места не занимает.
+ */
+@Slf4j
+@Component
+public class ScanExecutor {
+
+    private static final ThreadLocal<Boolean> SCAN_THREAD = ThreadLocal.withInitial(() -> false);
+
+    private static final int QUEUED = 0;
+    private static final int STARTED = 1;
+    private static final int ABANDONED = 2;
+
+    private final ThreadPoolExecutor executor;
+    private final long queueTimeoutNanos;
+    private final Duration retryAfter;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedQueueTimeout;
+
+    public ScanExecutor(NumberServiceProperties properties, MeterRegistry registry) {
+        NumberServiceProperties.Admission admission = properties.getAdmission();
+        this.executor = new ThreadPoolExecutor(
+                admission.getMaxConcurrentScans(), admission.getMaxConcurrentScans(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(admission.getQueueCapacity()),
+                Thread.ofPlatform().name("scan-", 0).factory(),
+                new ThreadPoolExecutor.AbortPolicy());
+        this.queueTimeoutNanos = admission.getQueueTimeout().toNanos();
+        this.retryAfter = admission.getRetryAfter();
+
+        new ExecutorServiceMetrics(executor, "scan", Tags.empty()).bindTo(registry);
+        this.rejectedQueueFull = registry.counter("numberservice.admission.rejected", "reason", "queue_full");
+        this.rejectedQueueTimeout = registry.counter("numberservice.admission.rejected", "reason", "queue_timeout");
+    }
+
+    /**
+     * Выполнение разбора в пуле с ожиданием результата.
+     * Начала разбора запрос ждет не дольше времени ожидания в очереди: по его истечении задача
+     * снимается с очереди, а запрос отклоняется, не дожидаясь, пока очередь дойдет до него.
+     *
+     * @param task разбор файла
+     * @return результат разбора
+     * @throws ScanQueueFullException если очередь заполнена
+     * @throws ServiceOverloadedException если разбор не начался за время ожидания в очереди
+     */
+    public <T> T execute(Supplier<T> task) {
+        if (SCAN_THREAD.get()) {
+            return task.get();
+        }
+        AtomicInteger state = new AtomicInteger(QUEUED);
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                if (!state.compareAndSet(QUEUED, STARTED)) {
+                    return null;
+                }
+                SCAN_THREAD.set(true);
+                try {
+                    return task.get();
+                } finally {
+                    SCAN_THREAD.set(false);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedQueueFull.increment();
+            throw new ScanQueueFullException("Too many files are being processed, try again later", retryAfter);
+        }
+
+        try {
+            return awaitStarted(future, state);
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new FileProcessingException("Request interrupted", e);
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (cause instanceof Error error) {
+                throw error;
+            }
+            throw new FileProcessingException("Excel file processing error", cause);
+        }
+    }
+
+    /**
+     * Ожидание результата; если разбор не начался за время ожидания в очереди, задача отменяется.
+     * Начавшийся разбор дожидается без ограничения времени
+     */
+    private <T> T awaitStarted(Future<T> future, AtomicInteger state)
+            throws InterruptedException, ExecutionException {
+        try {
+            return future.get(queueTimeoutNanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            if (state.compareAndSet(QUEUED, ABANDONED)) {
+                future.cancel(false);
+                executor.purge();
+                rejectedQueueTimeout.increment();
+                throw new ServiceOverloadedException(
+                        "Request waited too long for a free scan slot, try again later", retryAfter);
+            }
+            return future.get();
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,192 @@
+package ru.test.numberservice.util;
+
+/**
+ * Разбор десятичных чисел из текста ячеек без исключений и, в большинстве случаев, без создания строк.
+ * Допускает те же знак, пробелы и разделители разрядов целой части, что и {@link FastIntParser},
+ * дробную часть после точки или запятой и экспоненту: {@code -1 234,56}, {@code 1.5e3}.
+ * Разделители дробной части те же, что у {@link FastIntParser}: {@link FastIntParser#DECIMAL_SEPARATORS}.
+ * Неподходящий текст дает {@link Double#NaN}.
+ *
+ * <p>Мантисса до 2^53 с десятичным порядком до 22 переводится в double одним точным умножением или делением;
+ * остальные числа, уже проверенные по синтаксису, разбираются через {@link Double#parseDouble(String)}.
+ */
+public final class FastDecimalParser {
+
+    public static final FastDecimalParser DEFAULT =
+            new FastDecimalParser(FastIntParser.DEFAULT_GROUPING_SEPARATORS);
+
+    private static final int GROUP_SIZE = 3;
+    private static final char NO_BREAK_SPACE = '\u00A0';
+    private static final char NARROW_NO_BREAK_SPACE = '\u202F';
+    private static final char MINUS_SIGN = '\u2212';
+    private static final long MAX_EXACT_MANTISSA = 1L << 53;
+    private static final int MAX_MANTISSA_DIGITS = 18;
+    private static final int MAX_EXPONENT = 100_000;
+    private static final double[] POWERS_OF_TEN = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11,
+            1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    private final String groupingSeparators;
+
+    /**
+     * @param groupingSeparators допустимые разделители групп разрядов, пустая строка - без разделителей
+     * @throws IllegalArgumentException если среди разделителей разрядов есть разделитель дробной части
+     */
+    public FastDecimalParser(String groupingSeparators) {
+        this.groupingSeparators = FastIntParser.requireGroupingSeparators(groupingSeparators);
+    }
+
+    public double parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Разбор десятичного числа из диапазона символов
+     *
+     * @param text текст
+     * @param from начало диапазона, включительно
+     * @param to конец диапазона, не включительно
+     * @return конечное число или {@link Double#NaN}
+     */
+    public double parse(CharSequence text, int from, int to) {
+        while (from < to && isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        if (from == to) {
+            return Double.NaN;
+        }
+
+        int start = from;
+        boolean negative = false;
+        char sign = text.charAt(from);
+        if (sign == '-' || sign == MINUS_SIGN) {
+            negative = true;
+            from++;
+        } else if (sign == '+') {
+            from++;
+        }
+
+        long mantissa = 0;
+        int mantissaDigits = 0;
+        int scale = 0;
+        boolean hasDigits = false;
+        boolean grouped = false;
+        int groupDigits = 0;
+        int i = from;
+
+        for (; i < to; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (ch - '0');
+                    if (mantissa > 0) {
+                        mantissaDigits++;
+                    }
+                } else {
+                    scale++;
+                }
+                hasDigits = true;
+                groupDigits++;
+                if (grouped && groupDigits > GROUP_SIZE) {
+                    return Double.NaN;
+                }
+            } else if (isGroupingSeparator(ch)) {
+                if (groupDigits == 0 || groupDigits > GROUP_SIZE || grouped && groupDigits != GROUP_SIZE) {
+                    return Double.NaN;
+                }
+                grouped = true;
+                groupDigits = 0;
+            } else {
+                break;
+            }
+        }
+        if (grouped && groupDigits != GROUP_SIZE) {
+            return Double.NaN;
+        }
+
+        if (i < to && FastIntParser.isDecimalSeparator(text.charAt(i))) {
+            for (i++; i < to; i++) {
+                char ch = text.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    break;
+                }
+                if (mantissaDigits < MAX_MANTISSA_DIGITS) {
+                    mantissa = mantissa * 10 + (ch - '0');
+                    if (mantissa > 0) {
+                        mantissaDigits++;
+                    }
+                    scale--;
+                }
+                hasDigits = true;
+            }
+        }
+        if (!hasDigits) {
+            return Double.NaN;
+        }
+
+        boolean truncated = mantissaDigits >= MAX_MANTISSA_DIGITS;
+        if (i < to && (text.charAt(i) == 'e' || text.charAt(i) == 'E')) {
+            i++;
+            boolean negativeExponent = false;
+            if (i < to && (text.charAt(i) == '-' || text.charAt(i) == '+')) {
+                negativeExponent = text.charAt(i) == '-';
+                i++;
+            }
+            int exponent = 0;
+            int exponentDigitsStart = i;
+            for (; i < to; i++) {
+                char ch = text.charAt(i);
+                if (ch < '0' || ch > '9') {
+                    return Double.NaN;
+                }
+                exponent = Math.min(exponent * 10 + (ch - '0'), MAX_EXPONENT);
+            }
+            if (i == exponentDigitsStart) {
+                return Double.NaN;
+            }
+            scale += negativeExponent ? -exponent : exponent;
+        }
+        if (i != to) {
+            return Double.NaN;
+        }
+
+        double result;
+        if (!truncated && mantissa <= MAX_EXACT_MANTISSA && Math.abs(scale) < POWERS_OF_TEN.length) {
+            result = scale >= 0 ? mantissa * POWERS_OF_TEN[scale] : mantissa / POWERS_OF_TEN[-scale];
+            result = negative ? -result : result;
+        } else {
+            result = Double.parseDouble(normalize(text, start, to));
+        }
+        return Double.isInfinite(result) ? Double.NaN : result;
+    }
+
+    /**
+     * Запись числа без разделителей разрядов, с точкой и ASCII минусом для {@link Double#parseDouble(String)}
+     */
+    private String normalize(CharSequence text, int from, int to) {
+        StringBuilder normalized = new StringBuilder(to - from);
+        for (int i = from; i < to; i++) {
+            char ch = text.charAt(i);
+            if (ch == MINUS_SIGN) {
+                normalized.append('-');
+            } else if (FastIntParser.isDecimalSeparator(ch)) {
+                normalized.append('.');
+            } else if (!isGroupingSeparator(ch)) {
+                normalized.append(ch);
+            }
+        }
+        return normalized.toString();
+    }
+
+    private boolean isGroupingSeparator(char ch) {
+        return groupingSeparators.indexOf(ch) >= 0;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return ch <= ' ' || ch == NO_BREAK_SPACE || ch == NARROW_NO_BREAK_SPACE || Character.isWhitespace(ch);
+    }
+}
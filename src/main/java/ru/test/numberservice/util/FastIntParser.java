@@ -0,0 +1,196 @@
+package ru.test.numberservice.util;
+
+/**
+ * Разбор целых чисел из текста ячеек без исключений и без создания объектов.
+ * Работает с диапазоном символов {@link CharSequence} (строкой общей таблицы, буфером SAX парсера),
+ * не вызывая {@code trim()} и {@code Integer.parseInt}: неподходящий текст дает {@link #NOT_A_NUMBER}.
+ *
+ * <p>Поддерживаются знак ({@code +}, {@code -}, {@code U+2212}), пробелы по краям
+ * и разделители групп разрядов по три цифры: {@code 1 234 567}, {@code 1'234'567}.
+ * Числа вне диапазона int не разбираются, для диапазона long есть {@link #parseLong(CharSequence)}.
+ *
+ * <p>Правило записи общее с {@link FastDecimalParser}: точка и запятая всегда отделяют дробную часть
+ * и никогда не разделяют разряды, поэтому один и тот же текст дает одно и то же число в любом режиме.
+ * Целым считается и число с дробной частью из одних нулей: {@code 1 234,00}; {@code 1,234} - не целое.
+ */
+public final class FastIntParser {
+
+    /**
+     * Признак текста, не являющегося целым числом в допустимом диапазоне
+     */
+    public static final long NOT_A_NUMBER = Long.MIN_VALUE;
+
+    /**
+     * Разделители групп разрядов по умолчанию: пробел, неразрывный пробел, узкий неразрывный пробел, апостроф
+     */
+    public static final String DEFAULT_GROUPING_SEPARATORS = " \u00A0\u202F'";
+
+    /**
+     * Разделители дробной части; разделителями разрядов они быть не могут
+     */
+    public static final String DECIMAL_SEPARATORS = ".,";
+
+    public static final FastIntParser DEFAULT = new FastIntParser(DEFAULT_GROUPING_SEPARATORS);
+
+    private static final int GROUP_SIZE = 3;
+    private static final char NO_BREAK_SPACE = '\u00A0';
+    private static final char NARROW_NO_BREAK_SPACE = '\u202F';
+    private static final char MINUS_SIGN = '\u2212';
+
+    private final String groupingSeparators;
+
+    /**
+     * @param groupingSeparators допустимые разделители групп разрядов, пустая строка - без разделителей
+     * @throws IllegalArgumentException если среди разделителей разрядов есть разделитель дробной части
+     */
+    public FastIntParser(String groupingSeparators) {
+        this.groupingSeparators = requireGroupingSeparators(groupingSeparators);
+    }
+
+    public long parse(CharSequence text) {
+        return parse(text, 0, text.length());
+    }
+
+    /**
+     * Разбор целого числа из диапазона символов
+     *
+     * @param text текст
+     * @param from начало диапазона, включительно
+     * @param to конец диапазона, не включительно
+     * @return число или {@link #NOT_A_NUMBER}
+     */
+    public long parse(CharSequence text, int from, int to) {
+        return parse(text, from, to, Integer.MIN_VALUE, Integer.MAX_VALUE);
+    }
+
+    public long parseLong(CharSequence text) {
+        return parseLong(text, 0, text.length());
+    }
+
+    /**
+     * Разбор целого числа в диапазоне long из диапазона символов.
+     * Значение {@code Long.MIN_VALUE} совпадает с {@link #NOT_A_NUMBER} и не разбирается.
+     *
+     * @param text текст
+     * @param from начало диапазона, включительно
+     * @param to конец диапазона, не включительно
+     * @return число или {@link #NOT_A_NUMBER}
+     */
+    public long parseLong(CharSequence text, int from, int to) {
+        return parse(text, from, to, Long.MIN_VALUE, Long.MAX_VALUE);
+    }
+
+    /**
+     * Число накапливается с отрицательным знаком, как в {@link Long#parseLong(String)},
+     * чтобы минимальное значение диапазона не переполняло накопитель
+     */
+    private long parse(CharSequence text, int from, int to, long minValue, long maxValue) {
+        while (from < to && isWhitespace(text.charAt(from))) {
+            from++;
+        }
+        while (to > from && isWhitespace(text.charAt(to - 1))) {
+            to--;
+        }
+        if (from == to) {
+            return NOT_A_NUMBER;
+        }
+
+        boolean negative = false;
+        char sign = text.charAt(from);
+        if (sign == '-' || sign == MINUS_SIGN) {
+            negative = true;
+            from++;
+        } else if (sign == '+') {
+            from++;
+        }
+
+        long limit = negative ? minValue : -maxValue;
+        long multiplyLimit = limit / 10;
+        long result = 0;
+        int groupDigits = 0;
+        boolean grouped = false;
+        int fractionDigits = 0;
+        for (int i = from; i < to; i++) {
+            char ch = text.charAt(i);
+            if (ch >= '0' && ch <= '9') {
+                int digit = ch - '0';
+                if (result < multiplyLimit || result * 10 < limit + digit) {
+                    return NOT_A_NUMBER;
+                }
+                result = result * 10 - digit;
+                groupDigits++;
+                if (grouped && groupDigits > GROUP_SIZE) {
+                    return NOT_A_NUMBER;
+                }
+            } else if (isGroupingSeparator(ch)) {
+                if (groupDigits == 0 || groupDigits > GROUP_SIZE || grouped && groupDigits != GROUP_SIZE) {
+                    return NOT_A_NUMBER;
+                }
+                grouped = true;
+                groupDigits = 0;
+            } else if (isDecimalSeparator(ch) && isZeroFraction(text, i + 1, to)) {
+                fractionDigits = to - i - 1;
+                break;
+            } else {
+                return NOT_A_NUMBER;
+            }
+        }
+
+        if (groupDigits == 0 && (grouped || fractionDigits == 0) || grouped && groupDigits != GROUP_SIZE) {
+            return NOT_A_NUMBER;
+        }
+        return negative ? result : -result;
+    }
+
+    /**
+     * Состоит ли текст только из пробелов
+     */
+    public static boolean isBlank(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            if (!isWhitespace(text.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Отделяет ли символ дробную часть числа
+     */
+    public static boolean isDecimalSeparator(char ch) {
+        return DECIMAL_SEPARATORS.indexOf(ch) >= 0;
+    }
+
+    /**
+     * Проверка разделителей разрядов на пересечение с разделителями дробной части
+     *
+     * @return те же разделители
+     * @throws IllegalArgumentException если среди них есть разделитель дробной части
+     */
+    static String requireGroupingSeparators(String groupingSeparators) {
+        for (int i = 0; i < groupingSeparators.length(); i++) {
+            if (isDecimalSeparator(groupingSeparators.charAt(i))) {
+                throw new IllegalArgumentException(
+                        "Decimal separator cannot group digits: '" + groupingSeparators.charAt(i) + "'");
+            }
+        }
+        return groupingSeparators;
+    }
+
+    private static boolean isZeroFraction(CharSequence text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (text.charAt(i) != '0') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isGroupingSeparator(char ch) {
+        return groupingSeparators.indexOf(ch) >= 0;
+    }
+
+    private static boolean isWhitespace(char ch) {
+        return ch <= ' ' || ch == NO_BREAK_SPACE || ch == NARROW_NO_BREAK_SPACE || Character.isWhitespace(ch);
+    }
+}
@@ -0,0 +1,31 @@
+package ru.test.numberservice.util;
+
+/**
+ * Вспомогательные методы для работы с числовыми значениями ячеек.
+ */
+public final class NumberUtils {
+
+    private NumberUtils() {
+    }
+
+    /**
+     * Проверка на целое число
+     */
+    public static boolean isInteger(double value) {
+        return value == Math.floor(value) && !Double.isInfinite(value);
+    }
+
+    /**
+     * Проверка на целое число, представимое в int без потери точности
+     */
+    public static boolean isInt(double value) {
+        return isInteger(value) && value >= Integer.MIN_VALUE && value <= Integer.MAX_VALUE;
+    }
+
+    /**
+     * Проверка на целое число, представимое в long без потери точности
+     */
+    public static boolean isLong(double value) {
+        return isInteger(value) && value >= -0x1p63 && value < 0x1p63;
+    }
+}
@@ -3,13 +3,32 @@ package ru.test.numberservice.validator;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
+import ru.test.numberservice.config.NumberServiceProperties;
 import ru.test.numberservice.exception.ValidationException;
+import ru.test.numberservice.selection.SelectionStrategies;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.AccessDeniedException;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
 /**
- * Валидатор файлов и входных параметров для сервиса обработки Excel файлов.
+ * Валидатор файлов и входных параметров для сервиса обработки Excel и текстовых файлов.
  * Проверяет корректность пути к файлу, его существование, права доступа и формат.
+ * Атрибуты файла читаются одним системным вызовом и возвращаются вызывающему коду,
+ * чтобы размер и время изменения файла не запрашивались повторно. Успешная проверка файла запоминается
+ * на {@code number-service.validation.cache-ttl}: пока время изменения и размер файла те же,
+ * права доступа и содержимое повторно не проверяются.
  */
 @Slf4j
 @Component
@@ -17,15 +36,123 @@ import java.io.File;
 public class FileValidator {
 
     private static final long MAX_FILE_SIZE = 10 * 1024 * 1024;
-    private static final String[] ALLOWED_EXTENSIONS = {".xlsx"};
+    private static final String[] ALLOWED_EXTENSIONS = {".xlsx", ".csv", ".tsv", ".txt"};
+
+    private final NumberServiceProperties properties;
+    private final ConcurrentMap<String, ValidatedFile> validatedFiles = new ConcurrentHashMap<>();
 
     /**
      * Валидация входных параметров и файла
+     *
+     * @return атрибуты файла, прочитанные при проверке
+     */
+    public BasicFileAttributes validateInput(String filePath, int n) {
+        return validateInput(filePath, n, SelectionStrategies.requiredMemory(n));
+    }
+
+    /**
+     * Валидация входных параметров и файла для структуры выбора, которая при N числах занимает
+     * {@code requiredMemory} байт: память зависит от типа чисел и поиска различных значений
+     *
+     * @return атрибуты файла, прочитанные при проверке
      */
-    public void validateInput(String filePath, int n) {
+    public BasicFileAttributes validateInput(String filePath, int n, long requiredMemory) {
         validateParameters(filePath, n);
-        validateFile(filePath);
+        BasicFileAttributes attributes = validateFile(filePath);
+        validateMemoryBudget(n, requiredMemory, 1);
         log.debug("Input validation passed - file: {}, n: {}", filePath, n);
+        return attributes;
+    }
+
+    /**
+     * Валидация входных параметров и файла для приближенного поиска.
+     * Память приближенного поиска не зависит от N: бюджет памяти запроса проверяется по памяти скетча.
+     *
+     * @param sketchMemory память одного скетча
+     * @return атрибуты файла, прочитанные при проверке
+     */
+    public BasicFileAttributes validateApproximateInput(String filePath, int n, long sketchMemory) {
+        validateParameters(filePath, n);
+        BasicFileAttributes attributes = validateFile(filePath);
+        validateSketchBudget(sketchMemory, 1);
+        log.debug("Approximate input validation passed - file: {}, n: {}", filePath, n);
+        return attributes;
+    }
+
+    /**
+     * Валидация пакета параметров и файла.
+     * Файл проверяется один раз на весь пакет.
+     *
+     * @return атрибуты файла, прочитанные при проверке
+     */
+    public BasicFileAttributes validateInput(String filePath, List<Integer> ns) {
+        if (ns == null || ns.isEmpty()) {
+            throw new ValidationException("At least one number N should be specified");
+        }
+        int maxN = 0;
+        for (Integer n : ns) {
+            validateParameters(filePath, n == null ? 0 : n);
+            maxN = Math.max(maxN, n);
+        }
+        BasicFileAttributes attributes = validateFile(filePath);
+        validateMemoryBudget(maxN, SelectionStrategies.requiredMemory(maxN), 1);
+        log.debug("Batch input validation passed - file: {}, n: {}", filePath, ns);
+        return attributes;
+    }
+
+    /**
+     * Валидация каталога и параметров поиска по файлам каталога.
+     * Сами файлы проверяются по одному через {@link #validateInput(String, int)}.
+     */
+    public void validateDirectory(String directory, int n) {
+        if (directory == null || directory.trim().isEmpty()) {
+            throw new ValidationException("Path to directory cannot be empty");
+        }
+        validateNumber(n);
+
+        File dir = new File(directory);
+        if (!dir.isDirectory()) {
+            throw new ValidationException("Directory does not exist: " + directory);
+        }
+        if (!dir.canRead()) {
+            throw new ValidationException("No read permissions for directory: " + directory);
+        }
+        validateMemoryBudget(n, SelectionStrategies.requiredMemory(n), 1);
+        log.debug("Directory validation passed - directory: {}, n: {}", directory, n);
+    }
+
+    /**
+     * Валидация параметров загрузки файла в теле запроса
+     *
+     * @param contentLength размер тела запроса или -1, если он неизвестен
+     */
+    public void validateUpload(long contentLength, int n) {
+        validateNumber(n);
+
+        if (contentLength == 0) {
+            throw new ValidationException("Uploaded file is empty");
+        }
+
+        if (contentLength > MAX_FILE_SIZE && !isLargeFileMode()) {
+            throw new ValidationException(
+                    String.format("File too large. Maximum size: %d MB, actual: %d MB",
+                            MAX_FILE_SIZE / (1024 * 1024), contentLength / (1024 * 1024))
+            );
+        }
+        validateMemoryBudget(n, SelectionStrategies.requiredMemory(n), 1);
+        log.debug("Upload validation passed - size: {}, n: {}", contentLength, n);
+    }
+
+    /**
+     * Ограничение размера тела запроса при чтении: заголовок Content-Length может отсутствовать
+     * (chunked передача) или быть неверным. Вне режима больших файлов чтение больше
+     * {@link #MAX_FILE_SIZE} байт прерывается ошибкой валидации.
+     */
+    public InputStream limitUpload(InputStream content) {
+        if (isLargeFileMode()) {
+            return content;
+        }
+        return new SizeLimitedInputStream(content, MAX_FILE_SIZE);
     }
 
     /**
@@ -36,6 +163,13 @@ public class FileValidator {
             throw new ValidationException("Path to file cannot be empty");
         }
 
+        validateNumber(n);
+    }
+
+    /**
+     * Валидация номера минимального элемента
+     */
+    private void validateNumber(int n) {
         if (n <= 0) {
             throw new ValidationException("Number N should be positive");
         }
@@ -44,13 +178,19 @@ public class FileValidator {
     /**
      * Валидация файла
      */
-    private void validateFile(String filePath) {
+    private BasicFileAttributes validateFile(String filePath) {
         validateFileExtension(filePath);
 
-        File file = new File(filePath);
-        validateFileExistence(file, filePath);
-        validateFilePermissions(file, filePath);
-        validateFileSize(file, filePath);
+        Path path = toPath(filePath);
+        BasicFileAttributes attributes = readAttributes(path, filePath);
+        validateFileSize(attributes.size(), filePath);
+        if (isValidated(filePath, attributes)) {
+            return attributes;
+        }
+
+        validateFileContent(path, filePath, attributes.size());
+        rememberValidated(filePath, attributes);
+        return attributes;
     }
 
     /**
@@ -75,40 +215,157 @@ public class FileValidator {
         }
     }
 
-    /**
-     * Валидация существования файла
-     */
-    private void validateFileExistence(File file, String filePath) {
-        if (!file.exists()) {
-            throw new ValidationException("File does not exist: " + filePath);
+    private Path toPath(String filePath) {
+        try {
+            return Path.of(filePath);
+        } catch (InvalidPathException e) {
+            throw new ValidationException("Invalid path to file: " + filePath);
         }
     }
 
     /**
-     * Валидация прав доступа
+     * Валидация существования файла: атрибуты читаются одним системным вызовом
      */
-    private void validateFilePermissions(File file, String filePath) {
-        if (!file.canRead()) {
+    private BasicFileAttributes readAttributes(Path path, String filePath) {
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            throw new ValidationException("File does not exist: " + filePath);
+        } catch (AccessDeniedException e) {
             throw new ValidationException("No read permissions for file: " + filePath);
+        } catch (IOException e) {
+            throw new ValidationException("File cannot be accessed: " + filePath);
+        }
+        if (!attributes.isRegularFile()) {
+            throw new ValidationException("Not a regular file: " + filePath);
         }
+        return attributes;
     }
 
     /**
      * Валидация размера файла
      */
-    private void validateFileSize(File file, String filePath) {
-        if (file.length() > MAX_FILE_SIZE) {
+    private void validateFileSize(long size, String filePath) {
+        if (size > MAX_FILE_SIZE && !isLargeFileMode()) {
             throw new ValidationException(
                     String.format("File too large. Maximum size: %d MB, actual: %d MB",
-                            MAX_FILE_SIZE / (1024 * 1024), file.length() / (1024 * 1024))
+                            MAX_FILE_SIZE / (1024 * 1024), size / (1024 * 1024))
             );
         }
 
-        if (file.length() == 0) {
+        if (size == 0) {
             throw new ValidationException("File is empty: " + filePath);
         }
     }
 
+    /**
+     * Валидация прав доступа и содержимого: файл открывается на чтение,
+     * у книги .xlsx проверяются сигнатура ZIP и наличие листа. Текстовые файлы проверяются при разборе.
+     */
+    private void validateFileContent(Path path, String filePath, long size) {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            if (".xlsx".equalsIgnoreCase(getFileExtension(filePath))) {
+                WorkbookSignature.check(channel, size, filePath);
+            }
+        } catch (AccessDeniedException e) {
+            throw new ValidationException("No read permissions for file: " + filePath);
+        } catch (IOException e) {
+            throw new ValidationException("File cannot be read: " + filePath);
+        }
+    }
+
+    /**
+     * Проверялся ли файл с теми же временем изменения и размером недавно
+     */
+    private boolean isValidated(String filePath, BasicFileAttributes attributes) {
+        ValidatedFile validated = validatedFiles.get(filePath);
+        if (validated == null) {
+            return false;
+        }
+        if (System.nanoTime() - validated.validatedAt() > properties.getValidation().getCacheTtl().toNanos()) {
+            validatedFiles.remove(filePath, validated);
+            return false;
+        }
+        return validated.lastModified() == attributes.lastModifiedTime().toMillis()
+                && validated.size() == attributes.size();
+    }
+
+    /**
+     * Запоминание успешной проверки. При переполнении устаревшие записи удаляются,
+     * а если их нет - все записи, чтобы объем оставался ограниченным.
+     */
+    private void rememberValidated(String filePath, BasicFileAttributes attributes) {
+        NumberServiceProperties.Validation validation = properties.getValidation();
+        if (validation.getCacheTtl().isZero() || validation.getCacheMaxEntries() <= 0) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (validatedFiles.size() >= validation.getCacheMaxEntries()) {
+            long ttl = validation.getCacheTtl().toNanos();
+            validatedFiles.values().removeIf(validated -> now - validated.validatedAt() > ttl);
+            if (validatedFiles.size() >= validation.getCacheMaxEntries()) {
+                validatedFiles.clear();
+            }
+        }
+        validatedFiles.put(filePath, new ValidatedFile(attributes.lastModifiedTime().toMillis(),
+                attributes.size(), now));
+    }
+
+    /**
+     * Валидация памяти на запрос в режиме больших файлов.
+     * Куча для поиска N-го минимального числа занимает N чисел независимо от размера файла,
+     * поэтому запрос отклоняется, только если в бюджет не помещаются кучи всех частей просмотра.
+     * Части файла или листы книги разбираются одновременно, каждая в свою структуру выбора.
+     *
+     * @param requiredMemory память структуры выбора одной части при N числах
+     * @param parts количество частей просмотра
+     * @throws ValidationException если структуры выбора всех частей не помещаются в бюджет
+     */
+    public void validateMemoryBudget(int n, long requiredMemory, int parts) {
+        if (!isLargeFileMode()) {
+            return;
+        }
+
+        long budget = properties.getLargeFile().getMemoryBudget().toBytes();
+        long required = requiredMemory * parts;
+        if (required > budget) {
+            throw new ValidationException(
+                    String.format("Number N is too large: %d-th number in %d part(s) needs %d MB of memory, "
+                                    + "per-request budget: %d MB",
+                            n, parts, required / (1024 * 1024), budget / (1024 * 1024))
+            );
+        }
+    }
+
+    /**
+     * Валидация памяти скетчей приближенного поиска в режиме больших файлов.
+     * Размер скетча задается допустимой ошибкой ранга, поэтому при нехватке памяти дело не в N, а в ошибке.
+     *
+     * @param sketchMemory память одного скетча
+     * @param parts количество частей просмотра, каждая со своим скетчем
+     * @throws ValidationException если скетчи всех частей не помещаются в бюджет
+     */
+    public void validateSketchBudget(long sketchMemory, int parts) {
+        if (!isLargeFileMode()) {
+            return;
+        }
+
+        long budget = properties.getLargeFile().getMemoryBudget().toBytes();
+        long required = sketchMemory * parts;
+        if (required > budget) {
+            throw new ValidationException(
+                    String.format("Rank error is too small: sketches of %d part(s) need %d MB of memory, "
+                                    + "per-request budget: %d MB",
+                            parts, required / (1024 * 1024), budget / (1024 * 1024))
+            );
+        }
+    }
+
+    private boolean isLargeFileMode() {
+        return properties.getLargeFile().isEnabled();
+    }
+
     /**
      * Получение расширения файла
      */
@@ -119,4 +376,10 @@ public class FileValidator {
         }
         return filePath.substring(lastDotIndex);
     }
+
+    /**
+     * Успешно проверенная версия файла и время проверки по {@link System#nanoTime()}
+     */
+    private record ValidatedFile(long lastModified, long size, long validatedAt) {
+    }
 }
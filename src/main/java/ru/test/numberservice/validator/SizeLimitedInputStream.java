@@ -0,0 +1,62 @@
+package ru.test.numberservice.validator;
+
+import ru.test.numberservice.exception.ValidationException;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Поток, который считает прочитанные байты и прерывает чтение ошибкой валидации после заданного размера.
+ * Нужен для тела запроса без заголовка Content-Length: размер становится известен только при чтении.
+ */
+class SizeLimitedInputStream extends FilterInputStream {
+
+    private final long maxSize;
+    private long bytesRead;
+
+    SizeLimitedInputStream(InputStream in, long maxSize) {
+        super(in);
+        this.maxSize = maxSize;
+    }
+
+    @Override
+    public int read() throws IOException {
+        int value = super.read();
+        if (value >= 0) {
+            count(1);
+        }
+        return value;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+        int read = super.read(buffer, offset, length);
+        if (read > 0) {
+            count(read);
+        }
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = super.skip(n);
+        count(skipped);
+        return skipped;
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    private void count(long bytes) {
+        bytesRead += bytes;
+        if (bytesRead > maxSize) {
+            throw new ValidationException(
+                    String.format("File too large. Maximum size: %d MB, actual: more than %d MB",
+                            maxSize / (1024 * 1024), maxSize / (1024 * 1024))
+            );
+        }
+    }
+}
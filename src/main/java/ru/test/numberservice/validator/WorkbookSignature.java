@@ -0,0 +1,113 @@
+package ru.test.numberservice.validator;
+
+import ru.test.numberservice.exception.ValidationException;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Быстрая проверка содержимого .xlsx без разбора книги: сигнатура ZIP в начале файла
+ * и запись листа {@code xl/worksheets/...} в центральном каталоге архива.
+ * Читаются только первые байты, конец файла и центральный каталог, поэтому поврежденный файл
+ * отклоняется до открытия книги.
+ */
+final class WorkbookSignature {
+
+    private static final int LOCAL_FILE_HEADER = 0x04034b50;
+    private static final int CENTRAL_FILE_HEADER = 0x02014b50;
+    private static final int END_OF_CENTRAL_DIRECTORY = 0x06054b50;
+    private static final int END_OF_CENTRAL_DIRECTORY_SIZE = 22;
+    private static final int CENTRAL_FILE_HEADER_SIZE = 46;
+    private static final int MAX_COMMENT_SIZE = 0xFFFF;
+    private static final long ZIP64_MARKER = 0xFFFFFFFFL;
+    private static final long MAX_CENTRAL_DIRECTORY_SIZE = 1 << 20;
+    private static final byte[] SHEET_ENTRY_PREFIX = "xl/worksheets/".getBytes(StandardCharsets.US_ASCII);
+
+    private WorkbookSignature() {
+    }
+
+    /**
+     * Проверка, что файл - ZIP архив с листом книги
+     *
+     * @param channel открытый файл
+     * @param size размер файла
+     * @throws ValidationException если файл не похож на книгу .xlsx
+     */
+    static void check(FileChannel channel, long size, String filePath) throws IOException {
+        if (size < 4 + END_OF_CENTRAL_DIRECTORY_SIZE || read(channel, 0, 4).getInt(0) != LOCAL_FILE_HEADER) {
+            throw invalid(filePath, "not a ZIP archive");
+        }
+
+        int tailSize = (int) Math.min(size, END_OF_CENTRAL_DIRECTORY_SIZE + MAX_COMMENT_SIZE);
+        ByteBuffer tail = read(channel, size - tailSize, tailSize);
+        int end = tailSize - END_OF_CENTRAL_DIRECTORY_SIZE;
+        while (end >= 0 && tail.getInt(end) != END_OF_CENTRAL_DIRECTORY) {
+            end--;
+        }
+        if (end < 0) {
+            throw invalid(filePath, "ZIP central directory not found");
+        }
+
+        long directorySize = tail.getInt(end + 12) & 0xFFFFFFFFL;
+        long directoryOffset = tail.getInt(end + 16) & 0xFFFFFFFFL;
+        if (directorySize == ZIP64_MARKER || directoryOffset == ZIP64_MARKER
+                || directorySize > MAX_CENTRAL_DIRECTORY_SIZE) {
+            // ZIP64 или очень большой каталог: записи проверит чтение книги
+            return;
+        }
+        if (directoryOffset + directorySize > size) {
+            throw invalid(filePath, "ZIP central directory is truncated");
+        }
+
+        ByteBuffer directory = read(channel, directoryOffset, (int) directorySize);
+        int entry = 0;
+        while (entry + CENTRAL_FILE_HEADER_SIZE <= directorySize) {
+            if (directory.getInt(entry) != CENTRAL_FILE_HEADER) {
+                throw invalid(filePath, "ZIP central directory is corrupt");
+            }
+            int nameLength = directory.getShort(entry + 28) & 0xFFFF;
+            int extraLength = directory.getShort(entry + 30) & 0xFFFF;
+            int commentLength = directory.getShort(entry + 32) & 0xFFFF;
+            int name = entry + CENTRAL_FILE_HEADER_SIZE;
+            if (name + nameLength > directorySize) {
+                throw invalid(filePath, "ZIP central directory is corrupt");
+            }
+            if (startsWith(directory, name, nameLength, SHEET_ENTRY_PREFIX)) {
+                return;
+            }
+            entry = name + nameLength + extraLength + commentLength;
+        }
+        throw invalid(filePath, "no worksheets in the archive");
+    }
+
+    private static boolean startsWith(ByteBuffer buffer, int from, int length, byte[] prefix) {
+        if (length < prefix.length) {
+            return false;
+        }
+        for (int i = 0; i < prefix.length; i++) {
+            if (buffer.get(from + i) != prefix[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of file");
+            }
+        }
+        return buffer;
+    }
+
+    private static ValidationException invalid(String filePath, String reason) {
+        return new ValidationException(
+                String.format("File is not a valid Excel workbook (%s): %s", reason, filePath));
+    }
+}
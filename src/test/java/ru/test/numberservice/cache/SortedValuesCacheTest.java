@@ -0,0 +1,83 @@
+package ru.test.numberservice.cache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.util.unit.DataSize;
+import ru.test.numberservice.config.NumberServiceProperties;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для SortedValuesCache.
+ * Проверяют попадания, смену версии файла и вытеснение по объему.
+ */
+class SortedValuesCacheTest {
+
+    private SortedValuesCache cache;
+
+    @BeforeEach
+    void setUp() {
+        NumberServiceProperties properties = new NumberServiceProperties();
+        properties.getCache().setMaxSize(DataSize.ofBytes(100));
+        cache = new SortedValuesCache(properties);
+    }
+
+    @Test
+    void get_AfterPut_ReturnsSameArrayAndCountsHit() {
+        FileKey key = new FileKey("/data/a.xlsx", 1L, 10L);
+        int[] values = {1, 2, 3};
+
+        assertNull(cache.get(key));
+        cache.put(key, values);
+
+        assertSame(values, cache.get(key));
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.hits());
+        assertEquals(1, stats.misses());
+        assertEquals(1, stats.entries());
+        assertEquals(16 + 3 * Integer.BYTES, stats.residentBytes());
+    }
+
+    @Test
+    void put_NewVersionOfFile_ReplacesOldVersion() {
+        FileKey oldKey = new FileKey("/data/a.xlsx", 1L, 10L);
+        FileKey newKey = new FileKey("/data/a.xlsx", 2L, 10L);
+
+        cache.put(oldKey, new int[]{1});
+        cache.put(newKey, new int[]{2});
+
+        assertNull(cache.get(oldKey));
+        assertArrayEquals(new int[]{2}, cache.get(newKey));
+        assertEquals(1, cache.stats().entries());
+        assertEquals(0, cache.stats().evictions());
+    }
+
+    @Test
+    void put_OverCapacity_EvictsLeastRecentlyUsed() {
+        FileKey first = new FileKey("/data/a.xlsx", 1L, 10L);
+        FileKey second = new FileKey("/data/b.xlsx", 1L, 10L);
+        FileKey third = new FileKey("/data/c.xlsx", 1L, 10L);
+
+        cache.put(first, new int[5]);
+        cache.put(second, new int[5]);
+        cache.get(first);
+        cache.put(third, new int[5]);
+
+        assertNotNull(cache.get(first));
+        assertNull(cache.get(second));
+        assertNotNull(cache.get(third));
+        assertEquals(1, cache.stats().evictions());
+        assertTrue(cache.stats().residentBytes() <= 100);
+    }
+
+    @Test
+    void put_ArrayLargerThanCapacity_IsNotCached() {
+        FileKey key = new FileKey("/data/big.xlsx", 1L, 10L);
+
+        cache.put(key, new int[100]);
+
+        assertNull(cache.get(key));
+        assertFalse(cache.fits(100));
+        assertTrue(cache.fits(5));
+    }
+}
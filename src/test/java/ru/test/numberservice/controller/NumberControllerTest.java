@@ -1,15 +1,34 @@
 package ru.test.numberservice.controller;
 
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import ru.test.numberservice.dto.NthApproximateResponse;
+import ru.test.numberservice.dto.NthMinBatchResponse;
+import ru.test.numberservice.dto.NthMinResult;
+import ru.test.numberservice.exception.ScanQueueFullException;
+import ru.test.numberservice.exception.ServiceOverloadedException;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.SelectionOrder;
 import ru.test.numberservice.service.NumberService;
+import ru.test.numberservice.service.ScanExecutor;
 
+import java.io.InputStream;
+import java.time.Duration;
+import java.util.List;
+import java.util.function.Supplier;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.lenient;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -28,6 +47,14 @@ class NumberControllerTest {
     @MockBean
     private NumberService numberService;
 
+    @MockBean
+    private ScanExecutor scanExecutor;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(scanExecutor.execute(any())).thenAnswer(invocation -> invocation.<Supplier<?>>getArgument(0).get());
+    }
+
     @Test
     void findNthMinNumber_ValidRequest_ReturnsNumber() throws Exception {
         String filePath = "C:/test/numbers.xlsx";
@@ -145,4 +172,134 @@ class NumberControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(content().string(String.valueOf(expectedResult)));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findNthMinNumbers_ValidBatch_ReturnsAllResults() throws Exception {
+        String filePath = "C:/test/numbers.xlsx";
+        List<Integer> ns = List.of(1, 3);
+
+        when(numberService.findNthMinNumbers(filePath, ns, null, null))
+                .thenReturn(new NthMinBatchResponse(filePath, List.of(new NthMinResult(1, 1), new NthMinResult(3, 11))));
+
+        mockMvc.perform(post("/api/find-nth-min/batch")
+                        .content("{\"filePath\": \"C:/test/numbers.xlsx\", \"n\": [1, 3]}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.results[0].n").value(1))
+                .andExpect(jsonPath("$.results[0].value").value(1))
+                .andExpect(jsonPath("$.results[1].n").value(3))
+                .andExpect(jsonPath("$.results[1].value").value(11));
+    }
+
+    @Test
+    void findNthMinNumbers_EmptyN_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/find-nth-min/batch")
+                        .content("{\"filePath\": \"C:/test/numbers.xlsx\", \"n\": []}")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findNthMinNumber_AllSheets_PassesSheetsToService() throws Exception {
+        String filePath = "C:/test/numbers.xlsx";
+        int n = 3;
+
+        when(numberService.findNthMinNumber(filePath, n, List.of("*"), null))
+                .thenReturn(7);
+
+        mockMvc.perform(post("/api/find-nth-min")
+                        .param("filePath", filePath)
+                        .param("n", String.valueOf(n))
+                        .param("sheets", "*")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(content().string("7"));
+    }
+
+    @Test
+    void findNthMinNumber_DoubleMaxDistinct_ReturnsDecimal() throws Exception {
+        String filePath = "C:/test/numbers.xlsx";
+
+        when(numberService.findNthNumber(filePath, 2, NumberMode.DOUBLE, SelectionOrder.MAX, true, null, null))
+                .thenReturn(1234.56);
+
+        mockMvc.perform(post("/api/find-nth-min")
+                        .param("filePath", filePath)
+                        .param("n", "2")
+                        .param("mode", "DOUBLE")
+                        .param("order", "MAX")
+                        .param("distinct", "true")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(content().string("1234.56"));
+    }
+
+    @Test
+    void findNthMinNumber_UnknownMode_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(post("/api/find-nth-min")
+                        .param("filePath", "C:/test/numbers.xlsx")
+                        .param("n", "2")
+                        .param("mode", "DECIMAL")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    void findNthNumberApproximately_ValidRequest_ReturnsValueWithRankRange() throws Exception {
+        String filePath = "C:/test/numbers.xlsx";
+
+        when(numberService.findNthNumberApproximately(filePath, 1000, NumberMode.INT, SelectionOrder.MAX, null, null))
+                .thenReturn(new NthApproximateResponse(1000, SelectionOrder.MAX, 48213, 980, 1020, 100000));
+
+        mockMvc.perform(post("/api/find-nth-min/approx")
+                        .param("filePath", filePath)
+                        .param("n", "1000")
+                        .param("order", "MAX")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.value").value(48213))
+                .andExpect(jsonPath("$.minRank").value(980))
+                .andExpect(jsonPath("$.maxRank").value(1020));
+    }
+
+    @Test
+    void findNthMinNumberInUpload_OctetStream_ReturnsNumber() throws Exception {
+        when(numberService.findNthMinNumber(any(InputStream.class), anyLong(), eq(3)))
+                .thenReturn(11);
+
+        mockMvc.perform(post("/api/find-nth-min/upload")
+                        .param("n", "3")
+                        .content(new byte[]{1, 2, 3})
+                        .contentType(MediaType.APPLICATION_OCTET_STREAM))
+                .andExpect(status().isOk())
+                .andExpect(content().string("11"));
+    }
+
+    @Test
+    void findNthMinNumber_Overloaded_ReturnsServiceUnavailable() throws Exception {
+        when(numberService.findNthMinNumber("C:/test/numbers.xlsx", 3))
+                .thenThrow(new ServiceOverloadedException("Too many files are being processed, try again later"));
+
+        mockMvc.perform(post("/api/find-nth-min")
+                        .param("filePath", "C:/test/numbers.xlsx")
+                        .param("n", "3")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.reason").value("Service overloaded"));
+    }
+
+    @Test
+    void findNthMinNumber_QueueFull_ReturnsTooManyRequestsWithRetryAfter() throws Exception {
+        when(numberService.findNthMinNumber("C:/test/numbers.xlsx", 3))
+                .thenThrow(new ScanQueueFullException("Too many files are being processed, try again later",
+                        Duration.ofSeconds(2)));
+
+        mockMvc.perform(post("/api/find-nth-min")
+                        .param("filePath", "C:/test/numbers.xlsx")
+                        .param("n", "3")
+                        .contentType(MediaType.APPLICATION_FORM_URLENCODED))
+                .andExpect(status().isTooManyRequests())
+                .andExpect(header().string(HttpHeaders.RETRY_AFTER, "2"))
+                .andExpect(jsonPath("$.reason").value("Too many requests"));
+    }
+}
@@ -0,0 +1,126 @@
+package ru.test.numberservice.index;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.test.numberservice.cache.FileKey;
+import ru.test.numberservice.config.NumberServiceProperties;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.IntBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для SidecarIndex.
+ * Проверяют запись и чтение индекса и его проверку по размеру, времени изменения и хэшу исходного файла.
+ */
+class SidecarIndexTest {
+
+    @TempDir
+    Path tempDir;
+
+    private NumberServiceProperties properties;
+    private SidecarIndex sidecarIndex;
+    private File source;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new NumberServiceProperties();
+        properties.getIndex().setEnabled(true);
+        sidecarIndex = new SidecarIndex(properties);
+        source = Files.write(tempDir.resolve("numbers.xlsx"), new byte[]{1, 2, 3, 4}).toFile();
+    }
+
+    @Test
+    void find_AfterWrite_ReturnsSortedValues() throws IOException {
+        FileKey key = FileKey.of(source);
+        int[] values = {-5, 1, 1, 7, Integer.MAX_VALUE};
+
+        sidecarIndex.write(source, key, sidecarIndex.sourceHash(source), values);
+
+        assertTrue(Files.isRegularFile(tempDir.resolve("numbers.xlsx" + SidecarIndex.EXTENSION)));
+        assertArrayEquals(values, toArray(sidecarIndex.find(source, key)));
+    }
+
+    @Test
+    void find_NoIndex_ReturnsNull() throws IOException {
+        assertNull(sidecarIndex.find(source, FileKey.of(source)));
+    }
+
+    @Test
+    void find_SourceSizeChanged_ReturnsNull() throws IOException {
+        sidecarIndex.write(source, FileKey.of(source), sidecarIndex.sourceHash(source), new int[]{1, 2});
+
+        Files.write(source.toPath(), new byte[]{1, 2, 3, 4, 5});
+
+        assertNull(sidecarIndex.find(source, FileKey.of(source)));
+    }
+
+    @Test
+    void find_SourceTouchedWithSameContent_RevalidatesByHash() throws IOException {
+        sidecarIndex.write(source, FileKey.of(source), sidecarIndex.sourceHash(source), new int[]{1, 2});
+
+        Files.setLastModifiedTime(source.toPath(), FileTime.fromMillis(source.lastModified() + 60_000));
+        FileKey touched = FileKey.of(source);
+
+        assertArrayEquals(new int[]{1, 2}, toArray(sidecarIndex.find(source, touched)));
+        assertArrayEquals(new int[]{1, 2}, toArray(sidecarIndex.find(source, touched)));
+    }
+
+    @Test
+    void find_SourceContentChangedWithSameSize_ReturnsNull() throws IOException {
+        sidecarIndex.write(source, FileKey.of(source), sidecarIndex.sourceHash(source), new int[]{1, 2});
+
+        Files.write(source.toPath(), new byte[]{4, 3, 2, 1});
+        Files.setLastModifiedTime(source.toPath(), FileTime.fromMillis(source.lastModified() + 60_000));
+
+        assertNull(sidecarIndex.find(source, FileKey.of(source)));
+    }
+
+    @Test
+    void write_WithIndexDirectory_WritesIntoDirectory() throws IOException {
+        Path indexDir = tempDir.resolve("index");
+        properties.getIndex().setDirectory(indexDir.toString());
+        FileKey key = FileKey.of(source);
+
+        sidecarIndex.write(source, key, sidecarIndex.sourceHash(source), new int[]{3});
+
+        Path indexPath = sidecarIndex.indexPath(key);
+        assertEquals(indexDir, indexPath.getParent());
+        assertTrue(Files.isRegularFile(indexPath));
+        assertArrayEquals(new int[]{3}, toArray(sidecarIndex.find(source, key)));
+    }
+
+    @Test
+    void write_SourceChangedDuringScan_SkipsIndex() throws IOException {
+        FileKey key = FileKey.of(source);
+        long sourceHash = sidecarIndex.sourceHash(source);
+
+        Files.write(source.toPath(), new byte[]{4, 3, 2, 1});
+        Files.setLastModifiedTime(source.toPath(), FileTime.fromMillis(key.lastModified() + 60_000));
+        sidecarIndex.write(source, key, sourceHash, new int[]{1, 2});
+
+        assertFalse(Files.exists(sidecarIndex.indexPath(key)));
+        assertNull(sidecarIndex.find(source, FileKey.of(source)));
+    }
+
+    @Test
+    void canBuild_RespectsMaxBuildSize() {
+        long maxInts = properties.getIndex().getMaxBuildSize().toBytes() / Integer.BYTES;
+
+        assertTrue(sidecarIndex.canBuild(maxInts));
+        assertFalse(sidecarIndex.canBuild(maxInts + 1));
+    }
+
+    private static int[] toArray(IntBuffer buffer) {
+        assertNotNull(buffer);
+        int[] values = new int[buffer.limit()];
+        buffer.get(0, values);
+        return values;
+    }
+}
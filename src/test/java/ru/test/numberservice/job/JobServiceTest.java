@@ -0,0 +1,121 @@
+package ru.test.numberservice.job;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.dto.NthMinResult;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.JobStateException;
+import ru.test.numberservice.exception.NotFoundException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.reader.ScanProgress;
+import ru.test.numberservice.service.NumberService;
+import ru.test.numberservice.validator.FileValidator;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * Тесты для JobService.
+ * Проверяют выполнение, ошибки и отмену асинхронных задач.
+ */
+class JobServiceTest {
+
+    private static final String FILE_PATH = "/data/numbers.xlsx";
+
+    private NumberService numberService;
+    private JobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        numberService = mock(NumberService.class);
+        jobService = new JobService(numberService, mock(FileValidator.class), new NumberServiceProperties());
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void submit_CompletedJob_ReturnsResult() throws InterruptedException {
+        when(numberService.findNthMinNumber(eq(FILE_PATH), eq(3), any(ScanProgress.class))).thenReturn(11);
+
+        JobStatus submitted = jobService.submit(FILE_PATH, 3);
+        JobStatus finished = awaitFinished(submitted.id());
+
+        assertEquals(JobState.COMPLETED, finished.state());
+        assertEquals(11, finished.result());
+        assertEquals(new NthMinResult(3, 11), jobService.getResult(submitted.id()));
+    }
+
+    @Test
+    void submit_FailedJob_ReportsError() throws InterruptedException {
+        when(numberService.findNthMinNumber(eq(FILE_PATH), eq(3), any(ScanProgress.class)))
+                .thenThrow(new FileProcessingException("Excel file processing error"));
+
+        String id = jobService.submit(FILE_PATH, 3).id();
+        JobStatus finished = awaitFinished(id);
+
+        assertEquals(JobState.FAILED, finished.state());
+        assertEquals("Excel file processing error", finished.error());
+        assertThrows(JobStateException.class, () -> jobService.getResult(id));
+    }
+
+    @Test
+    void cancel_RunningJob_StopsScan() throws InterruptedException {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch stopped = new CountDownLatch(1);
+        when(numberService.findNthMinNumber(eq(FILE_PATH), eq(3), any(ScanProgress.class))).thenAnswer(invocation -> {
+            ScanProgress progress = invocation.getArgument(2);
+            started.countDown();
+            while (!progress.isCancelled()) {
+                Thread.onSpinWait();
+            }
+            stopped.countDown();
+            throw new ScanCancelledException("Sheet scan cancelled");
+        });
+
+        String id = jobService.submit(FILE_PATH, 3).id();
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        assertThrows(JobStateException.class, () -> jobService.getResult(id));
+
+        assertEquals(JobState.CANCELLED, jobService.cancel(id).state());
+        assertTrue(stopped.await(5, TimeUnit.SECONDS));
+        assertEquals(JobState.CANCELLED, jobService.getStatus(id).state());
+    }
+
+    @Test
+    void cancel_FinishedJob_RemovesJob() throws InterruptedException {
+        when(numberService.findNthMinNumber(eq(FILE_PATH), eq(3), any(ScanProgress.class))).thenReturn(11);
+        String id = jobService.submit(FILE_PATH, 3).id();
+        awaitFinished(id);
+
+        jobService.cancel(id);
+
+        assertThrows(NotFoundException.class, () -> jobService.getStatus(id));
+    }
+
+    @Test
+    void getStatus_UnknownJob_ThrowsNotFound() {
+        assertThrows(NotFoundException.class, () -> jobService.getStatus("missing"));
+    }
+
+    private JobStatus awaitFinished(String id) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        JobStatus status = jobService.getStatus(id);
+        while (!status.state().isFinished()) {
+            assertTrue(System.nanoTime() < deadline, "Job did not finish in time");
+            Thread.sleep(5);
+            status = jobService.getStatus(id);
+        }
+        return status;
+    }
+}
@@ -0,0 +1,59 @@
+package ru.test.numberservice.metrics;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ScanMetrics.
+ * Проверяют теги таймеров этапов и максимальный размер структуры выбора.
+ */
+class ScanMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private ScanMetrics scanMetrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        scanMetrics = new ScanMetrics(registry);
+    }
+
+    @Test
+    void recordPhase_TagsByPhaseFileSizeAndN() {
+        scanMetrics.recordPhase(ScanMetrics.PHASE_SCAN, TimeUnit.MILLISECONDS.toNanos(5), 5L * 1024 * 1024, 500);
+
+        Timer timer = registry.get("numberservice.phase")
+                .tag("phase", "scan")
+                .tag("file.size", "1-10MB")
+                .tag("n", "101-1K")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(5, timer.totalTime(TimeUnit.MILLISECONDS), 0.001);
+    }
+
+    @Test
+    void recordSelectionSize_KeepsHighWaterMark() {
+        scanMetrics.recordSelectionSize(100, 10, 100);
+        scanMetrics.recordSelectionSize(50, 10, 50);
+
+        assertEquals(100, registry.get("numberservice.selection.size.high.water").gauge().value());
+        assertEquals(2, registry.get("numberservice.selection.size").summaries().stream()
+                .mapToLong(summary -> summary.count()).sum());
+    }
+
+    @Test
+    void buckets_CoverBoundaries() {
+        assertEquals("unknown", ScanMetrics.fileSizeBucket(-1));
+        assertEquals("<1MB", ScanMetrics.fileSizeBucket(1023));
+        assertEquals(">1GB", ScanMetrics.fileSizeBucket(2L * 1024 * 1024 * 1024));
+        assertEquals("1-10", ScanMetrics.nBucket(10));
+        assertEquals("11-100", ScanMetrics.nBucket(11));
+        assertEquals(">100K", ScanMetrics.nBucket(1_000_000));
+    }
+}
@@ -0,0 +1,58 @@
+package ru.test.numberservice.reader;
+
+import org.junit.jupiter.api.Test;
+import ru.test.numberservice.exception.ValidationException;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для CellRange и выбора листов по номеру.
+ * Проверяют разбор диапазонов в стиле A1.
+ */
+class CellRangeTest {
+
+    @Test
+    void parse_Rectangle_ReturnsColumnsAndRows() {
+        assertEquals(new CellRange(2, 4, 2, 100), CellRange.parse("B2:D100"));
+        assertEquals(new CellRange(2, 4, 2, 100), CellRange.parse("$b$2:$d$100"));
+    }
+
+    @Test
+    void parse_ColumnsOnly_ReturnsAllRows() {
+        assertEquals(new CellRange(2, 2, 1, Integer.MAX_VALUE), CellRange.parse("B"));
+        assertEquals(new CellRange(27, 28, 1, Integer.MAX_VALUE), CellRange.parse("AA:AB"));
+    }
+
+    @Test
+    void parse_RowsOnly_ReturnsAllColumns() {
+        assertEquals(new CellRange(1, Integer.MAX_VALUE, 5, 100), CellRange.parse("5:100"));
+    }
+
+    @Test
+    void parse_Empty_ReturnsWholeSheet() {
+        assertTrue(CellRange.parse(null).isAll());
+        assertTrue(CellRange.parse(" ").isAll());
+    }
+
+    @Test
+    void parse_InvalidRange_ThrowsValidationException() {
+        assertThrows(ValidationException.class, () -> CellRange.parse("B2:D"));
+        assertThrows(ValidationException.class, () -> CellRange.parse("D1:B1"));
+        assertThrows(ValidationException.class, () -> CellRange.parse("A0"));
+        assertThrows(ValidationException.class, () -> CellRange.parse("Sheet1!A1"));
+    }
+
+    @Test
+    void sheetSelector_ByNumber_MatchesSheetIndex() {
+        SheetSelector selector = SheetSelector.of(List.of("#2", "Data"));
+
+        assertFalse(selector.isFirstSheetOnly());
+        assertFalse(selector.matches(0, "First"));
+        assertTrue(selector.matches(1, "Second"));
+        assertTrue(selector.matches(5, "Data"));
+        assertThrows(ValidationException.class, () -> SheetSelector.of(List.of("#0")));
+        assertThrows(ValidationException.class, () -> SheetSelector.of(List.of("#x")));
+    }
+}
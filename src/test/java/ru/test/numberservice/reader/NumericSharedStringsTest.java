@@ -0,0 +1,59 @@
+package ru.test.numberservice.reader;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для NumericSharedStrings.
+ * Проверяют однократный разбор таблицы общих строк в числа.
+ */
+class NumericSharedStringsTest {
+
+    @Test
+    void read_MixedStrings_ParsesNumbersOnce() throws Exception {
+        String xml = """
+                <?xml version="1.0" encoding="UTF-8"?>
+                <sst xmlns="http://schemas.openxmlformats.org/spreadsheetml/2006/main" count="6" uniqueCount="6">
+                  <si><t>42</t></si>
+                  <si><t xml:space="preserve"> -7 </t></si>
+                  <si><t>text</t></si>
+                  <si><r><t>1 2</t></r><r><t>34</t></r></si>
+                  <si><t>15</t><rPh sb="0" eb="1"><t>99</t></rPh></si>
+                  <si><t xml:space="preserve">  </t></si>
+                </sst>
+                """;
+
+        NumericSharedStrings sharedStrings = NumericSharedStrings.read(
+                new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(6, sharedStrings.size());
+        assertTrue(sharedStrings.isNumeric(0));
+        assertEquals(42, sharedStrings.value(0));
+        assertEquals(-7, sharedStrings.value(1));
+        assertFalse(sharedStrings.isNumeric(2));
+        assertFalse(sharedStrings.isBlank(2));
+        assertEquals(1234, sharedStrings.value(3));
+        assertEquals(15, sharedStrings.value(4));
+        assertFalse(sharedStrings.isNumeric(5));
+        assertTrue(sharedStrings.isBlank(5));
+    }
+
+    @Test
+    void read_MoreStringsThanInitialCapacity_GrowsArray() throws Exception {
+        StringBuilder xml = new StringBuilder("<sst xmlns=\"http://schemas.openxmlformats.org/spreadsheetml/2006/main\">");
+        for (int i = 0; i < 5000; i++) {
+            xml.append("<si><t>").append(i).append("</t></si>");
+        }
+        xml.append("</sst>");
+
+        NumericSharedStrings sharedStrings = NumericSharedStrings.read(
+                new ByteArrayInputStream(xml.toString().getBytes(StandardCharsets.UTF_8)));
+
+        assertEquals(5000, sharedStrings.size());
+        assertEquals(4999, sharedStrings.value(4999));
+    }
+}
@@ -0,0 +1,168 @@
+package ru.test.numberservice.reader;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.NumberSelection;
+import ru.test.numberservice.selection.SelectionOrder;
+
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для TextNumberReader.
+ * Проверяют разбор CSV, TSV и TXT, диапазоны ячеек и параллельное чтение частей файла.
+ */
+class TextNumberReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final NumberServiceProperties properties = new NumberServiceProperties();
+
+    private final TextNumberReader reader = new TextNumberReader(properties);
+
+    @Test
+    void supports_TextExtensions() {
+        assertTrue(reader.supports("/data/numbers.csv"));
+        assertTrue(reader.supports("NUMBERS.TSV"));
+        assertTrue(reader.supports("numbers.txt"));
+        assertFalse(reader.supports("numbers.xlsx"));
+    }
+
+    @Test
+    void read_CsvWithHeaderAndQuotes_ReturnsNumericFields() throws IOException {
+        File file = write("numbers.csv", "\uFEFFname,amount,comment\r\n"
+                + "a,12,\"x, y\"\r\n"
+                + "b,\" -7 \",\r\n"
+                + "c,\"1 234\",n/a\r\n"
+                + "d,,5");
+
+        List<Integer> numbers = new ArrayList<>();
+        ScanStats stats = reader.read(file, CellRange.ALL, numbers::add, new ScanProgress());
+
+        assertEquals(List.of(12, -7, 1234, 5), numbers);
+        assertEquals(4, stats.getNumbersProcessed());
+        assertEquals(9, stats.getNonNumericSkipped());
+    }
+
+    @Test
+    void read_SemicolonCsvAndTsv_DetectsDelimiter() throws IOException {
+        File csv = write("semicolon.csv", "1;2\n3;4\n");
+        File tsv = write("tabs.tsv", "1\t2\n3\t4\n");
+
+        List<Integer> csvNumbers = new ArrayList<>();
+        List<Integer> tsvNumbers = new ArrayList<>();
+        reader.read(csv, CellRange.parse("B:B"), csvNumbers::add, new ScanProgress());
+        reader.read(tsv, CellRange.parse("B:B"), tsvNumbers::add, new ScanProgress());
+
+        assertEquals(List.of(2, 4), csvNumbers);
+        assertEquals(List.of(2, 4), tsvNumbers);
+    }
+
+    @Test
+    void read_RowRange_StopsAfterLastRow() throws IOException {
+        File file = write("lines.txt", "1\n2\n3\n4\n5\n");
+
+        List<Integer> numbers = new ArrayList<>();
+        ScanProgress progress = new ScanProgress();
+        reader.read(file, CellRange.parse("2:3"), numbers::add, progress);
+
+        assertEquals(List.of(2, 3), numbers);
+        assertEquals(3, progress.getRowsScanned());
+    }
+
+    @Test
+    void read_DoubleMode_ParsesDecimalFields() throws IOException {
+        File file = write("decimals.csv", "amount;rate\n\"-1 234,5\";1.5e3\n0,25;9000000000\n");
+
+        NumberSelection selection = new NumberSelection(NumberMode.DOUBLE, SelectionOrder.MAX, false, 2);
+        reader.read(file, CellRange.ALL, selection, new ScanProgress());
+
+        assertEquals(4, selection.count());
+        assertEquals(1500.0, selection.result());
+    }
+
+    @Test
+    void read_SameTextInEachMode_UsesOneDecimalSeparatorRule() throws IOException {
+        File file = write("locale.txt", "1 234,00\n1,5\n1,234\n");
+
+        List<Integer> ints = new ArrayList<>();
+        reader.read(file, CellRange.ALL, ints::add, new ScanProgress());
+        NumberSelection longs = new NumberSelection(NumberMode.LONG, SelectionOrder.MIN, false, 1);
+        reader.read(file, CellRange.ALL, longs, new ScanProgress());
+        NumberSelection doubles = new NumberSelection(NumberMode.DOUBLE, SelectionOrder.MIN, false, 3);
+        reader.read(file, CellRange.ALL, doubles, new ScanProgress());
+
+        assertEquals(List.of(1234), ints);
+        assertEquals(1, longs.count());
+        assertEquals(1234L, longs.result());
+        assertEquals(3, doubles.count());
+        assertEquals(1234.0, doubles.result());
+    }
+
+    @Test
+    void readParts_LargeFile_ScansPartsInParallel() throws IOException {
+        properties.getScan().setParallelism(3);
+        Path path = tempDir.resolve("large.txt");
+        int lines = 2_000_000;
+        long expectedSum = 0;
+        try (BufferedWriter writer = Files.newBufferedWriter(path, StandardCharsets.ISO_8859_1)) {
+            for (int i = 0; i < lines; i++) {
+                int value = i * 7 - 1_000_000;
+                expectedSum += value;
+                writer.write(Integer.toString(value));
+                writer.write('\n');
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ScanProgress progress = new ScanProgress();
+            List<SheetScanResult<SumConsumer>> parts = reader.readParts(
+                    path.toFile(), Files.size(path), CellRange.ALL, partCount -> new SumConsumer(), executor, progress);
+
+            assertEquals(3, parts.size());
+            long count = 0;
+            long sum = 0;
+            for (SheetScanResult<SumConsumer> part : parts) {
+                count += part.stats().getNumbersProcessed();
+                sum += part.consumer().sum.get();
+            }
+            assertEquals(lines, count);
+            assertEquals(expectedSum, sum);
+            assertEquals(lines, progress.getRowsScanned());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private File write(String name, String content) throws IOException {
+        Path path = tempDir.resolve(name);
+        Files.writeString(path, content, StandardCharsets.UTF_8);
+        return path.toFile();
+    }
+
+    private static final class SumConsumer implements IntConsumer {
+
+        private final AtomicLong sum = new AtomicLong();
+
+        @Override
+        public void accept(int value) {
+            sum.addAndGet(value);
+        }
+    }
+}
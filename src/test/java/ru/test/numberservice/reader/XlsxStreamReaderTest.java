@@ -0,0 +1,423 @@
+package ru.test.numberservice.reader;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ScanCancelledException;
+import ru.test.numberservice.exception.ValidationException;
+import ru.test.numberservice.selection.NumberMode;
+import ru.test.numberservice.selection.NumberSink;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.IntConsumer;
+import java.util.function.IntFunction;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для XlsxStreamReader.
+ * Проверяют, что потоковое чтение дает те же числа, что и объектная модель POI.
+ */
+class XlsxStreamReaderTest {
+
+    @TempDir
+    Path tempDir;
+
+    private final XlsxStreamReader reader = new XlsxStreamReader();
+
+    @Test
+    void readFirstSheet_MixedCells_ReturnsOnlyIntegers() throws IOException {
+        File file = tempDir.resolve("mixed.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            sheet.createRow(0).createCell(0).setCellValue(12);
+            sheet.createRow(1).createCell(0).setCellValue(" 7 ");
+            sheet.createRow(2).createCell(0).setCellValue(3.5);
+            sheet.createRow(3).createCell(0).setCellValue("text");
+            Row row = sheet.createRow(4);
+            row.createCell(0).setCellValue(-4);
+            row.createCell(1).setCellFormula("A1+1");
+            row.createCell(2).setCellValue(true);
+
+            workbook.createSheet("Other").createRow(0).createCell(0).setCellValue(100);
+            write(workbook, file);
+        }
+
+        List<Integer> numbers = new ArrayList<>();
+        ScanStats stats = reader.readFirstSheet(file, numbers::add);
+
+        assertEquals(List.of(12, 7, -4), numbers);
+        assertEquals(3, stats.getNumbersProcessed());
+        assertEquals(1, stats.getNonIntegerSkipped());
+        assertEquals(1, stats.getNonNumericSkipped());
+    }
+
+    @Test
+    void readFirstSheet_IntegersOutsideIntRange_SkipsInsteadOfClamping() throws IOException {
+        File file = tempDir.resolve("out-of-range.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            sheet.createRow(0).createCell(0).setCellValue(3_000_000_000.0);
+            sheet.createRow(1).createCell(0).setCellValue(1e12);
+            sheet.createRow(2).createCell(0).setCellValue(-3_000_000_000.0);
+            sheet.createRow(3).createCell(0).setCellValue(Integer.MAX_VALUE);
+            sheet.createRow(4).createCell(0).setCellValue(7);
+            write(workbook, file);
+        }
+
+        List<Integer> numbers = new ArrayList<>();
+        ScanStats stats = reader.readFirstSheet(file, numbers::add);
+
+        assertEquals(List.of(Integer.MAX_VALUE, 7), numbers);
+        assertEquals(2, stats.getNumbersProcessed());
+        assertEquals(3, stats.getNonIntegerSkipped());
+    }
+
+    @Test
+    void readFirstSheet_EmptySheet_ReturnsNothing() throws IOException {
+        File file = tempDir.resolve("empty.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("Empty");
+            write(workbook, file);
+        }
+
+        List<Integer> numbers = new ArrayList<>();
+        ScanStats stats = reader.readFirstSheet(file, numbers::add);
+
+        assertTrue(numbers.isEmpty());
+        assertEquals(0, stats.getNumbersProcessed());
+    }
+
+    @Test
+    void readSheets_AllSheets_ScansEverySheetInParallel() throws IOException {
+        File file = tempDir.resolve("sheets.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            workbook.createSheet("First").createRow(0).createCell(0).setCellValue(1);
+            Sheet second = workbook.createSheet("Second");
+            second.createRow(0).createCell(0).setCellValue(2);
+            second.createRow(1).createCell(0).setCellValue(3);
+            workbook.createSheet("Third").createRow(0).createCell(0).setCellValue(4);
+            write(workbook, file);
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            List<SheetScanResult<IntCollector>> all = reader.readSheets(
+                    file, SheetSelector.of(List.of("*")), parts -> new IntCollector(), executor);
+            List<Integer> partCounts = new ArrayList<>();
+            List<SheetScanResult<IntCollector>> named = reader.readSheets(
+                    file, SheetSelector.of(List.of("Third", "Second")), parts -> {
+                        partCounts.add(parts);
+                        return new IntCollector();
+                    }, executor);
+
+            assertEquals(List.of("First", "Second", "Third"), all.stream().map(SheetScanResult::sheetName).toList());
+            assertEquals(List.of(2, 3), all.get(1).consumer().numbers);
+            assertEquals(2, all.get(1).stats().getNumbersProcessed());
+            assertEquals(List.of("Second", "Third"), named.stream().map(SheetScanResult::sheetName).toList());
+            assertEquals(List.of(2, 2), partCounts);
+            assertThrows(ValidationException.class, () -> reader.readSheets(
+                    file, SheetSelector.of(List.of("Missing")), parts -> new IntCollector(), executor));
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void readParts_LargeSheet_ScansRowChunksInParallel() throws IOException {
+        File file = numbersFile("chunks.xlsx", 5_000);
+        NumberServiceProperties properties = new NumberServiceProperties();
+        properties.getScan().setParallelism(3);
+        properties.getScan().setChunkedSheetThreshold(DataSize.ofBytes(0));
+        properties.getScan().setChunkSize(DataSize.ofKilobytes(4));
+        XlsxStreamReader chunkedReader = new XlsxStreamReader(properties);
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            ScanProgress progress = new ScanProgress();
+            List<Integer> partCounts = new ArrayList<>();
+            List<SheetScanResult<IntCollector>> parts = chunkedReader.readParts(
+                    file, file.length(), CellRange.ALL, partCount -> {
+                        partCounts.add(partCount);
+                        return new IntCollector();
+                    }, executor, progress);
+
+            assertEquals(3, parts.size());
+            assertEquals(List.of(3, 3, 3), partCounts);
+            List<Integer> numbers = new ArrayList<>();
+            parts.forEach(part -> numbers.addAll(part.consumer().numbers));
+            numbers.sort(null);
+            assertEquals(5_000, numbers.size());
+            assertEquals(1, numbers.get(0));
+            assertEquals(5_000, numbers.get(4_999));
+            assertEquals(5_000, progress.getRowsScanned());
+            assertEquals(5_000, progress.getTotalRows());
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    void readParts_MediumSheet_ScansThroughPipeline() throws IOException {
+        File file = numbersFile("pipeline.xlsx", 10_000);
+        NumberServiceProperties properties = new NumberServiceProperties();
+        properties.getScan().setPipelineThreshold(DataSize.ofBytes(0));
+        XlsxStreamReader pipelinedReader = new XlsxStreamReader(properties);
+
+        ScanProgress progress = new ScanProgress();
+        List<SheetScanResult<IntCollector>> parts = pipelinedReader.readParts(
+                file, file.length(), CellRange.parse("1:9000"), partCount -> new IntCollector(), null, progress);
+
+        assertEquals(1, parts.size());
+        List<Integer> numbers = parts.get(0).consumer().numbers;
+        assertEquals(9_000, numbers.size());
+        assertEquals(1, numbers.get(0));
+        assertEquals(9_000, numbers.get(8_999));
+        assertEquals(9_000, parts.get(0).stats().getNumbersProcessed());
+    }
+
+    @Test
+    void readParts_WholeMediumSheet_SelectsOnPipelineThread() throws IOException {
+        File file = numbersFile("pipeline-all.xlsx", 1_000);
+        NumberServiceProperties properties = new NumberServiceProperties();
+        properties.getScan().setPipelineThreshold(DataSize.ofBytes(0));
+        XlsxStreamReader pipelinedReader = new XlsxStreamReader(properties);
+        Set<String> threads = ConcurrentHashMap.newKeySet();
+        IntFunction<IntConsumer> consumerFactory = parts -> value -> threads.add(Thread.currentThread().getName());
+
+        List<SheetScanResult<IntConsumer>> parts = pipelinedReader.readParts(
+                file, file.length(), CellRange.ALL, consumerFactory, null, new ScanProgress());
+
+        assertEquals(1, parts.size());
+        assertEquals(1_000, parts.get(0).stats().getNumbersProcessed());
+        assertEquals(Set.of("sheet-select"), threads);
+    }
+
+    @Test
+    void readFirstSheet_StreamWithSheetBeforeSharedStrings_ResolvesStringsAfterSheet() throws IOException {
+        ByteArrayOutputStream workbookBytes = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            sheet.createRow(0).createCell(0).setCellValue(5);
+            sheet.createRow(1).createCell(0).setCellValue("8");
+            sheet.createRow(2).createCell(0).setCellValue("abc");
+            workbook.createSheet("Other").createRow(0).createCell(0).setCellValue(100);
+            workbook.write(workbookBytes);
+        }
+
+        List<Integer> numbers = new ArrayList<>();
+        ScanStats stats = reader.readFirstSheet(
+                new ByteArrayInputStream(moveToEnd(workbookBytes.toByteArray(), "xl/sharedStrings.xml")),
+                numbers::add);
+
+        assertEquals(List.of(5, 8), numbers);
+        assertEquals(2, stats.getNumbersProcessed());
+        assertEquals(1, stats.getNonNumericSkipped());
+    }
+
+    @Test
+    void readFirstSheet_TooManyPendingSharedStrings_ThrowsException() throws IOException {
+        ByteArrayOutputStream workbookBytes = new ByteArrayOutputStream();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            sheet.createRow(0).createCell(0).setCellValue("1");
+            sheet.createRow(1).createCell(0).setCellValue("2");
+            sheet.createRow(2).createCell(0).setCellValue("3");
+            workbook.write(workbookBytes);
+        }
+        NumberServiceProperties properties = new NumberServiceProperties();
+        properties.getScan().setMaxPendingSharedStrings(DataSize.ofBytes(2 * Integer.BYTES));
+        XlsxStreamReader limitedReader = new XlsxStreamReader(properties);
+
+        FileProcessingException e = assertThrows(FileProcessingException.class, () -> limitedReader.readFirstSheet(
+                new ByteArrayInputStream(moveToEnd(workbookBytes.toByteArray(), "xl/sharedStrings.xml")),
+                value -> { }));
+
+        assertTrue(e.getMessage().contains("more than 2 string cells are pending"));
+    }
+
+    /**
+     * Пересборка архива с переносом записи в конец, как это делает Excel для таблицы общих строк
+     */
+    private byte[] moveToEnd(byte[] archive, String entryName) throws IOException {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        byte[] movedEntry = null;
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(archive));
+             ZipOutputStream out = new ZipOutputStream(result)) {
+            ZipEntry entry;
+            while ((entry = in.getNextEntry()) != null) {
+                byte[] content = in.readAllBytes();
+                if (entry.getName().equals(entryName)) {
+                    movedEntry = content;
+                    continue;
+                }
+                out.putNextEntry(new ZipEntry(entry.getName()));
+                out.write(content);
+                out.closeEntry();
+            }
+            assertNotNull(movedEntry);
+            out.putNextEntry(new ZipEntry(entryName));
+            out.write(movedEntry);
+            out.closeEntry();
+        }
+        return result.toByteArray();
+    }
+
+    @Test
+    void readFirstSheet_WithProgress_CountsRowsAndReadsDimension() throws IOException {
+        File file = numbersFile("progress.xlsx", 10);
+
+        ScanProgress progress = new ScanProgress();
+        ScanStats stats = reader.readFirstSheet(file, value -> { }, progress);
+
+        assertEquals(10, stats.getNumbersProcessed());
+        assertEquals(10, progress.getRowsScanned());
+        assertEquals(10, progress.getTotalRows());
+    }
+
+    @Test
+    void readFirstSheet_CancelledMidSheet_StopsAtRowBoundary() throws IOException {
+        File file = numbersFile("cancel.xlsx", 10);
+
+        ScanProgress progress = new ScanProgress();
+        List<Integer> numbers = new ArrayList<>();
+        assertThrows(ScanCancelledException.class, () -> reader.readFirstSheet(file, value -> {
+            numbers.add(value);
+            if (value == 5) {
+                progress.cancel();
+            }
+        }, progress));
+
+        assertEquals(List.of(1, 2, 3, 4, 5), numbers);
+        assertEquals(5, progress.getRowsScanned());
+    }
+
+    @Test
+    void readFirstSheet_WithRange_ReadsOnlyTargetCellsAndStopsAfterLastRow() throws IOException {
+        File file = tempDir.resolve("wide.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Wide");
+            for (int i = 0; i < 10; i++) {
+                Row row = sheet.createRow(i);
+                row.createCell(0).setCellValue("label " + i);
+                row.createCell(1).setCellValue(i + 1);
+                row.createCell(2).setCellValue(100 + i);
+            }
+            write(workbook, file);
+        }
+
+        ScanProgress progress = new ScanProgress();
+        List<Integer> numbers = new ArrayList<>();
+        ScanStats stats = reader.readFirstSheet(file, CellRange.parse("B3:B5"), numbers::add, progress);
+
+        assertEquals(List.of(3, 4, 5), numbers);
+        assertEquals(0, stats.getNonNumericSkipped());
+        assertEquals(5, progress.getRowsScanned());
+    }
+
+    @Test
+    void readFirstSheet_LongAndDoubleModes_KeepLargeAndDecimalNumbers() throws IOException {
+        File file = tempDir.resolve("wide-numbers.xlsx").toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            sheet.createRow(0).createCell(0).setCellValue(12);
+            sheet.createRow(1).createCell(0).setCellValue("9 000 000 000");
+            sheet.createRow(2).createCell(0).setCellValue(3.5);
+            sheet.createRow(3).createCell(0).setCellValue("1 234,5");
+            sheet.createRow(4).createCell(0).setCellValue(5e10);
+            write(workbook, file);
+        }
+
+        NumberCollector longs = new NumberCollector(NumberMode.LONG);
+        ScanStats longStats = reader.readFirstSheet(file, CellRange.ALL, longs, new ScanProgress());
+        NumberCollector doubles = new NumberCollector(NumberMode.DOUBLE);
+        ScanStats doubleStats = reader.readFirstSheet(file, CellRange.ALL, doubles, new ScanProgress());
+
+        assertEquals(List.of(12L, 9_000_000_000L, 50_000_000_000L), longs.numbers);
+        assertEquals(1, longStats.getNonIntegerSkipped());
+        assertEquals(1, longStats.getNonNumericSkipped());
+        assertEquals(List.of(12.0, 9e9, 3.5, 1234.5, 5e10), doubles.numbers);
+        assertEquals(5, doubleStats.getNumbersProcessed());
+    }
+
+    @Test
+    void rowCount_ParsesDimensionRef() {
+        assertEquals(1000, SheetXmlHandler.rowCount("A1:C1000"));
+        assertEquals(1, SheetXmlHandler.rowCount("A1"));
+        assertEquals(91, SheetXmlHandler.rowCount("B10:B100"));
+        assertEquals(-1, SheetXmlHandler.rowCount(null));
+    }
+
+    private File numbersFile(String name, int rows) throws IOException {
+        File file = tempDir.resolve(name).toFile();
+        try (Workbook workbook = new XSSFWorkbook()) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            for (int i = 0; i < rows; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(i + 1);
+            }
+            write(workbook, file);
+        }
+        return file;
+    }
+
+    private void write(Workbook workbook, File file) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            workbook.write(out);
+        }
+    }
+
+    private static class NumberCollector implements NumberSink {
+
+        private final NumberMode mode;
+        private final List<Number> numbers = new ArrayList<>();
+
+        NumberCollector(NumberMode mode) {
+            this.mode = mode;
+        }
+
+        @Override
+        public NumberMode mode() {
+            return mode;
+        }
+
+        @Override
+        public void acceptLong(long value) {
+            numbers.add(value);
+        }
+
+        @Override
+        public void acceptDouble(double value) {
+            numbers.add(value);
+        }
+    }
+
+    private static class IntCollector implements IntConsumer {
+
+        private final List<Integer> numbers = new ArrayList<>();
+
+        @Override
+        public void accept(int value) {
+            numbers.add(value);
+        }
+    }
+}
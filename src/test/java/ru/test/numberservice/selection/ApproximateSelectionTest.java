@@ -0,0 +1,106 @@
+package ru.test.numberservice.selection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ApproximateSelection.
+ * Найденное число должно стоять в отсортированном эталоне на одной из позиций гарантированного диапазона рангов.
+ */
+class ApproximateSelectionTest {
+
+    @Test
+    void fewNumbers_ExactResult() {
+        ApproximateSelection selection = new ApproximateSelection(NumberMode.INT, 0.01);
+        for (int number : new int[]{5, -3, 11, 7, 0}) {
+            selection.accept(number);
+        }
+
+        ApproximateSelection.Estimate min = selection.estimate(2, SelectionOrder.MIN);
+        ApproximateSelection.Estimate max = selection.estimate(2, SelectionOrder.MAX);
+
+        assertEquals(0, min.value());
+        assertEquals(7, max.value());
+        assertEquals(0, min.rankError());
+        assertEquals(2, min.minRank());
+        assertEquals(2, min.maxRank());
+    }
+
+    @Test
+    void mergedParts_ValueWithinGuaranteedRankRange() {
+        Random random = new Random(42);
+        int[] numbers = new int[400_000];
+        ApproximateSelection[] parts = new ApproximateSelection[4];
+        for (int p = 0; p < parts.length; p++) {
+            parts[p] = new ApproximateSelection(NumberMode.INT, 0.01);
+        }
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(1_000_000) - 500_000;
+            parts[i % parts.length].accept(numbers[i]);
+        }
+        ApproximateSelection selection = parts[0];
+        for (int p = 1; p < parts.length; p++) {
+            selection.merge(parts[p]);
+        }
+        int[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+
+        assertEquals(numbers.length, selection.count());
+        assertTrue(selection.size() < numbers.length / 10, "sketch size: " + selection.size());
+        for (int n : new int[]{1, 1_000, 200_000, 399_999}) {
+            ApproximateSelection.Estimate min = selection.estimate(n, SelectionOrder.MIN);
+            ApproximateSelection.Estimate max = selection.estimate(n, SelectionOrder.MAX);
+
+            assertTrue(min.rankError() <= numbers.length / 100, "rank error: " + min.rankError());
+            assertWithinRanks(sorted, (int) min.value(), min.minRank(), min.maxRank());
+            assertWithinRanks(reversed(sorted), (int) max.value(), max.minRank(), max.maxRank());
+        }
+    }
+
+    @Test
+    void doubleMode_NaNSkippedAndOrderKept() {
+        ApproximateSelection selection = new ApproximateSelection(NumberMode.DOUBLE, 0.05);
+        for (double number : new double[]{2.5, Double.NaN, -1e300, -0.5, 1e-9}) {
+            selection.acceptDouble(number);
+        }
+
+        assertEquals(4, selection.count());
+        assertEquals(-0.5, selection.estimate(2, SelectionOrder.MIN).value());
+        assertEquals(2.5, selection.estimate(1, SelectionOrder.MAX).value());
+    }
+
+    @Test
+    void invalidRankError_Throws() {
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateSelection(NumberMode.INT, 0));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateSelection(NumberMode.INT, 1.5));
+        assertThrows(IllegalArgumentException.class, () -> new ApproximateSelection(NumberMode.INT, 1e-9));
+    }
+
+    @Test
+    void requiredMemory_SmallestRankError_StaysBounded() {
+        assertEquals(30L * 3_000 * Long.BYTES, ApproximateSelection.requiredMemory(0.01));
+        assertEquals(30L * 300_000 * Long.BYTES,
+                ApproximateSelection.requiredMemory(ApproximateSelection.MIN_RANK_ERROR));
+    }
+
+    private static void assertWithinRanks(int[] ordered, int value, long minRank, long maxRank) {
+        for (long rank = minRank; rank <= maxRank; rank++) {
+            if (ordered[(int) rank - 1] == value) {
+                return;
+            }
+        }
+        fail(String.format("%d is not within ranks [%d, %d]", value, minRank, maxRank));
+    }
+
+    private static int[] reversed(int[] sorted) {
+        int[] reversed = new int[sorted.length];
+        for (int i = 0; i < sorted.length; i++) {
+            reversed[i] = sorted[sorted.length - 1 - i];
+        }
+        return reversed;
+    }
+}
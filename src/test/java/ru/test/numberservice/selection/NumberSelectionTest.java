@@ -0,0 +1,96 @@
+package ru.test.numberservice.selection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для NumberSelection.
+ * Результаты сравниваются с эталоном, полученным полной сортировкой.
+ */
+class NumberSelectionTest {
+
+    @Test
+    void longMode_MinMaxAndDistinct_MatchSortedReference() {
+        Random random = new Random(42);
+        long[] numbers = new long[20_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = (random.nextInt(5_000) - 2_500) * 10_000_000_000L;
+        }
+        long[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+        long[] distinct = Arrays.stream(sorted).distinct().toArray();
+
+        for (int n : new int[]{1, 7, 1_000, distinct.length}) {
+            NumberSelection min = new NumberSelection(NumberMode.LONG, SelectionOrder.MIN, false, n);
+            NumberSelection max = new NumberSelection(NumberMode.LONG, SelectionOrder.MAX, false, n);
+            NumberSelection distinctMin = new NumberSelection(NumberMode.LONG, SelectionOrder.MIN, true, n);
+            NumberSelection distinctMax = new NumberSelection(NumberMode.LONG, SelectionOrder.MAX, true, n);
+            for (long number : numbers) {
+                min.acceptLong(number);
+                max.acceptLong(number);
+                distinctMin.acceptLong(number);
+                distinctMax.acceptLong(number);
+            }
+
+            assertEquals(sorted[n - 1], min.result(), "min, n=" + n);
+            assertEquals(sorted[sorted.length - n], max.result(), "max, n=" + n);
+            assertEquals(distinct[n - 1], distinctMin.result(), "distinct min, n=" + n);
+            assertEquals(distinct[distinct.length - n], distinctMax.result(), "distinct max, n=" + n);
+        }
+    }
+
+    @Test
+    void longMode_ExtremeValues_NoOverflow() {
+        NumberSelection max = new NumberSelection(NumberMode.LONG, SelectionOrder.MAX, false, 2);
+        for (long number : new long[]{Long.MIN_VALUE, Long.MAX_VALUE, 0, -1}) {
+            max.acceptLong(number);
+        }
+
+        assertEquals(0L, max.result());
+    }
+
+    @Test
+    void doubleMode_NegativeZeroAndNaN_OrderedLikeNumbers() {
+        NumberSelection selection = new NumberSelection(NumberMode.DOUBLE, SelectionOrder.MIN, true, 4);
+        for (double number : new double[]{2.5, -0.0, Double.NaN, -1e300, 0.0, -3.75, 2.5, Double.MIN_VALUE}) {
+            selection.acceptDouble(number);
+        }
+
+        assertEquals(4, selection.size());
+        assertEquals(Double.MIN_VALUE, selection.result());
+    }
+
+    @Test
+    void doubleKey_PreservesOrder() {
+        double[] ordered = {Double.NEGATIVE_INFINITY, -Double.MAX_VALUE, -1.5, -Double.MIN_VALUE, 0.0,
+                Double.MIN_VALUE, 1.0, 1.0000000000000002, Double.MAX_VALUE, Double.POSITIVE_INFINITY};
+        for (int i = 1; i < ordered.length; i++) {
+            assertTrue(NumberSelection.doubleKey(ordered[i - 1]) < NumberSelection.doubleKey(ordered[i]));
+        }
+        for (double number : ordered) {
+            assertEquals(number, NumberSelection.keyToDouble(NumberSelection.doubleKey(number)));
+        }
+    }
+
+    @Test
+    void merge_DistinctParts_CountsSharedNumbersOnce() {
+        NumberSelection first = new NumberSelection(NumberMode.INT, SelectionOrder.MAX, true, 3);
+        NumberSelection second = new NumberSelection(NumberMode.INT, SelectionOrder.MAX, true, 3);
+        for (int number : new int[]{9, 9, 8, 1}) {
+            first.acceptLong(number);
+        }
+        for (int number : new int[]{9, 8, 7, 7}) {
+            second.acceptLong(number);
+        }
+
+        NumberSelection merged = new NumberSelection(NumberMode.INT, SelectionOrder.MAX, true, 3);
+        merged.merge(first);
+        merged.merge(second);
+
+        assertEquals(7, merged.result());
+    }
+}
@@ -0,0 +1,265 @@
+package ru.test.numberservice.selection;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для стратегий выбора N-го минимального числа.
+ * Результаты сравниваются с эталоном, полученным полной сортировкой.
+ */
+class SelectionStrategiesTest {
+
+    @Test
+    void heapSelection_SmallInput_ReturnsNthMin() {
+        HeapSelection selection = new HeapSelection(3);
+        for (int number : new int[]{10, 5, 8, 3, 1, 9, 2, 7, 4, 6}) {
+            selection.accept(number);
+        }
+
+        assertEquals(10, selection.count());
+        assertEquals(3, selection.result());
+    }
+
+    @Test
+    void heapAndQuickSelect_RandomInput_MatchSortedReference() {
+        Random random = new Random(42);
+        int[] numbers = new int[50_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(2_000) - 1_000;
+        }
+        int[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+
+        for (int n : new int[]{1, 2, 100, 4_096, 30_000, numbers.length}) {
+            HeapSelection heap = new HeapSelection(n);
+            QuickSelectSelection quickSelect = new QuickSelectSelection(n, 16);
+            for (int number : numbers) {
+                heap.accept(number);
+                quickSelect.accept(number);
+            }
+
+            assertEquals(sorted[n - 1], heap.result(), "heap, n=" + n);
+            assertEquals(sorted[n - 1], quickSelect.result(), "quickselect, n=" + n);
+        }
+    }
+
+    @Test
+    void nthSmallest_SeveralK_ReturnsAllOrderStatistics() {
+        HeapSelection heap = new HeapSelection(5);
+        QuickSelectSelection quickSelect = new QuickSelectSelection(5, 10);
+        for (int number : new int[]{10, 5, 8, 3, 1, 9, 2, 7, 4, 6}) {
+            heap.accept(number);
+            quickSelect.accept(number);
+        }
+
+        for (int k = 1; k <= 5; k++) {
+            assertEquals(k, heap.nthSmallest(k));
+            assertEquals(k, quickSelect.nthSmallest(k));
+        }
+        assertArrayEquals(new int[]{1, 2, 3, 4, 5}, heap.sortedSmallest());
+    }
+
+    @Test
+    void quickSelect_MoreNumbersThanBudget_FallsBackToHeap() {
+        int n = 5_000;
+        long budget = 12_000L * Integer.BYTES;
+        SelectionStrategy selection = SelectionStrategies.comparisonStrategy(n, 6_000, budget);
+        QuickSelectSelection quickSelect = assertInstanceOf(QuickSelectSelection.class, selection);
+        for (int i = 0; i < 20_000; i++) {
+            selection.accept(20_000 - i);
+        }
+
+        assertTrue(quickSelect.isFallback());
+        assertEquals(n, selection.size());
+        assertEquals(20_000, selection.count());
+        assertEquals(n, selection.result());
+        assertEquals(1, selection.nthSmallest(1));
+        assertInstanceOf(HeapSelection.class, SelectionStrategies.comparisonStrategy(n, 8_000, budget));
+    }
+
+    @Test
+    void heapSelection_NotEnoughNumbers_ThrowsException() {
+        HeapSelection selection = new HeapSelection(5);
+        selection.accept(1);
+
+        assertThrows(IllegalStateException.class, selection::result);
+    }
+
+    @Test
+    void forRequest_ChoosesStrategyByNAndEstimate() {
+        assertInstanceOf(HeapSelection.class, SelectionStrategies.forRequest(3, 1_000_000));
+        assertInstanceOf(HistogramSelection.class, SelectionStrategies.forRequest(10_000, 1_000_000));
+        assertInstanceOf(HistogramSelection.class, SelectionStrategies.forRequest(100, 1_000_000));
+        assertInstanceOf(HeapSelection.class, SelectionStrategies.forRequest(10_000, 1_000_000, 512));
+        assertInstanceOf(HeapSelection.class, SelectionStrategies.comparisonStrategy(10_000, 1_000_000, Long.MAX_VALUE));
+        assertInstanceOf(QuickSelectSelection.class,
+                SelectionStrategies.comparisonStrategy(500_000, 1_000_000, Long.MAX_VALUE));
+    }
+
+    @Test
+    void histogramSelection_NarrowRange_MatchesSortedReference() {
+        Random random = new Random(42);
+        int[] numbers = new int[50_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(5_000) - 100_000;
+        }
+        int[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+
+        for (int n : new int[]{1, 100, 30_000, numbers.length}) {
+            HistogramSelection histogram = new HistogramSelection(n, 16, () -> new HeapSelection(n));
+            for (int number : numbers) {
+                histogram.accept(number);
+            }
+
+            assertEquals(sorted[n - 1], histogram.result(), "histogram, n=" + n);
+            assertEquals(1, histogram.pageCount());
+            assertEquals(numbers.length, histogram.size());
+        }
+        HistogramSelection histogram = new HistogramSelection(1_000, 16, () -> new HeapSelection(1_000));
+        for (int number : numbers) {
+            histogram.accept(number);
+        }
+        assertArrayEquals(Arrays.copyOf(sorted, 1_000), histogram.sortedSmallest());
+    }
+
+    @Test
+    void forRequest_RangeWiderThanN_CountsWithMemoryByRange() {
+        int n = 300;
+        int[] numbers = new int[200_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = (int) ((i * 7_919L) % 1_000_000);
+        }
+        int[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+
+        SelectionStrategy selection = SelectionStrategies.forRequest(n, numbers.length);
+        for (int number : numbers) {
+            selection.accept(number);
+        }
+
+        HistogramSelection histogram = assertInstanceOf(HistogramSelection.class, selection);
+        assertTrue(histogram.pageCount() > 0 && histogram.pageCount() <= 16, "pages: " + histogram.pageCount());
+        assertEquals(numbers.length, selection.count());
+        assertEquals(sorted[n - 1], selection.result());
+        assertArrayEquals(Arrays.copyOf(sorted, n), selection.sortedSmallest());
+    }
+
+    @Test
+    void histogramSelection_PagesExhausted_DropsBucketsAboveRank() {
+        int n = 1_000;
+        HistogramSelection histogram = new HistogramSelection(n, 2, () -> new HeapSelection(n));
+        for (int i = 0; i < 5_000; i++) {
+            histogram.accept(i % 2_000);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            histogram.accept(100_000 + i * 1_000);
+        }
+        assertEquals(1, histogram.pageCount());
+        histogram.accept(-1);
+
+        assertEquals(2, histogram.pageCount());
+        assertEquals(10_001, histogram.count());
+        assertEquals(-1, histogram.nthSmallest(1));
+        assertEquals(332, histogram.result());
+    }
+
+    @Test
+    void histogramSelection_RangeExceedsWindow_FallsBackWithSameResult() {
+        Random random = new Random(7);
+        int[] numbers = new int[20_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = i < 10_000 ? random.nextInt(100) : random.nextInt();
+        }
+        numbers[10_000] = Integer.MIN_VALUE;
+        numbers[10_001] = Integer.MAX_VALUE;
+        int[] sorted = numbers.clone();
+        Arrays.sort(sorted);
+
+        for (int n : new int[]{1, 500, 15_000}) {
+            HistogramSelection histogram = new HistogramSelection(n, 2, () -> new HeapSelection(n));
+            for (int number : numbers) {
+                histogram.accept(number);
+            }
+
+            assertEquals(numbers.length, histogram.count());
+            assertEquals(sorted[n - 1], histogram.result(), "n=" + n);
+            assertEquals(sorted[0], histogram.nthSmallest(1));
+        }
+    }
+
+    @Test
+    void heapSort_SortsRange() {
+        int[] numbers = {9, 4, 7, 1, 8, 2, 2, 0};
+        IntArrays.heapSort(numbers, 1, 7);
+
+        assertArrayEquals(new int[]{9, 1, 2, 2, 4, 7, 8, 0}, numbers);
+    }
+
+    @Test
+    void radixSort_MixedSigns_SortsAscending() {
+        Random random = new Random(7);
+        int[] numbers = new int[10_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt();
+        }
+        numbers[0] = Integer.MIN_VALUE;
+        numbers[1] = Integer.MAX_VALUE;
+        int[] expected = numbers.clone();
+        Arrays.sort(expected);
+
+        IntArrays.radixSort(numbers, numbers.length);
+
+        assertArrayEquals(expected, numbers);
+    }
+
+    @Test
+    void radixSort_NarrowRangeWithDuplicates_SortsPrefixOnly() {
+        Random random = new Random(11);
+        int[] numbers = new int[5_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = random.nextInt(300) - 150;
+        }
+        int[] expected = Arrays.copyOf(numbers, 4_000);
+        Arrays.sort(expected);
+        int[] tail = Arrays.copyOfRange(numbers, 4_000, 5_000);
+
+        IntArrays.radixSort(numbers, 4_000);
+
+        assertArrayEquals(expected, Arrays.copyOf(numbers, 4_000));
+        assertArrayEquals(tail, Arrays.copyOfRange(numbers, 4_000, 5_000));
+    }
+
+    @Test
+    void boundedIntBuffer_LimitExhausted_AllPartsSwitchToSelection() {
+        BoundedIntBuffer.Limit limit = new BoundedIntBuffer.Limit(3_000);
+        BoundedIntBuffer first = new BoundedIntBuffer(limit, () -> new HeapSelection(3));
+        BoundedIntBuffer second = new BoundedIntBuffer(limit, () -> new HeapSelection(3));
+        for (int i = 0; i < 1_000; i++) {
+            first.accept(1_000 + i);
+        }
+        for (int i = 0; i < 5_000; i++) {
+            second.accept(5_000 - i);
+        }
+
+        assertTrue(limit.isExhausted());
+        assertEquals(1_000, first.size());
+        assertEquals(0, second.size());
+        assertEquals(1_000, first.toSelection().count());
+        assertArrayEquals(new int[]{1, 2, 3}, second.toSelection().sortedSmallest());
+        assertEquals(1_002, first.toSelection().result());
+    }
+
+    @Test
+    void mergeSmallest_SeveralParts_ReturnsGlobalSmallest() {
+        List<int[]> parts = List.of(new int[]{1, 4, 9}, new int[]{}, new int[]{2, 3, 10}, new int[]{0});
+
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4}, SortedMerge.mergeSmallest(parts, 5));
+        assertArrayEquals(new int[]{0, 1, 2, 3, 4, 9, 10}, SortedMerge.mergeSmallest(parts, 100));
+    }
+}
@@ -1,16 +1,48 @@
 package ru.test.numberservice.service;
 
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.unit.DataSize;
+import ru.test.numberservice.cache.SortedValuesCache;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.dto.NthMinBatchResponse;
+import ru.test.numberservice.dto.NthMinDirectoryResponse;
+import ru.test.numberservice.dto.NthMinResult;
 import ru.test.numberservice.exception.FileProcessingException;
+import ru.test.numberservice.exception.ValidationException;
+import ru.test.numberservice.index.SidecarIndex;
+import ru.test.numberservice.metrics.ScanMetrics;
+import ru.test.numberservice.reader.NumberFileReaders;
+import ru.test.numberservice.reader.TextNumberReader;
+import ru.test.numberservice.reader.XlsxStreamReader;
+import ru.test.numberservice.util.NumberUtils;
 import ru.test.numberservice.validator.FileValidator;
 
-import java.lang.reflect.Method;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.PriorityQueue;
 import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -22,12 +54,42 @@ import static org.mockito.Mockito.*;
 @ExtendWith(MockitoExtension.class)
 class NumberServiceTest {
 
+    @Spy
+    private FileValidator fileValidator = new FileValidator(new NumberServiceProperties());
+
+    @Spy
+    private XlsxStreamReader xlsxStreamReader;
+
+    @Spy
+    private NumberFileReaders numberFileReaders = new NumberFileReaders(
+            List.of(new XlsxStreamReader(), new TextNumberReader(new NumberServiceProperties())));
+
+    @Mock
+    private SortedValuesCache sortedValuesCache;
+
     @Mock
-    private FileValidator fileValidator;
+    private SidecarIndex sidecarIndex;
+
+    @Spy
+    private NumberServiceProperties properties = new NumberServiceProperties();
+
+    @Mock
+    private ScanMetrics scanMetrics;
+
+    @Spy
+    private ScanExecutor scanExecutor = new ScanExecutor(new NumberServiceProperties(), new SimpleMeterRegistry());
 
     @InjectMocks
     private NumberService numberService;
 
+    @TempDir
+    Path tempDir;
+
+    @AfterEach
+    void shutdownScanExecutor() {
+        scanExecutor.shutdown();
+    }
+
     @Test
     void testProcessNumberAlgorithm() {
         PriorityQueue<Integer> maxHeap = new PriorityQueue<>(3, Collections.reverseOrder());
@@ -50,24 +112,267 @@ class NumberServiceTest {
     }
 
     @Test
-    void findNthMinNumber_FileProcessingError_ThrowsException() {
+    void findNthMinNumber_FileProcessingError_ThrowsException() throws IOException {
         String filePath = "test.xlsx";
         int n = 3;
+        Path validated = Files.createFile(tempDir.resolve("validated.xlsx"));
 
-        doNothing().when(fileValidator).validateInput(filePath, n);
+        doReturn(Files.readAttributes(validated, BasicFileAttributes.class))
+                .when(fileValidator).validateInput(filePath, n);
 
         assertThrows(FileProcessingException.class,
                 () -> numberService.findNthMinNumber(filePath, n));
     }
 
     @Test
-    void testIsInteger() throws Exception {
-        Method isIntegerMethod = NumberService.class.getDeclaredMethod("isInteger", double.class);
-        isIntegerMethod.setAccessible(true);
-
-        assertTrue((Boolean) isIntegerMethod.invoke(numberService, 5.0));
-        assertTrue((Boolean) isIntegerMethod.invoke(numberService, 0.0));
-        assertFalse((Boolean) isIntegerMethod.invoke(numberService, 5.5));
-        assertFalse((Boolean) isIntegerMethod.invoke(numberService, Double.POSITIVE_INFINITY));
+    void findNthMinNumberInDirectory_SeveralFiles_MergesPerFileResults() throws IOException {
+        writeNumbers(tempDir.resolve("2025-01.xlsx"), 10, 4, 7);
+        writeNumbers(tempDir.resolve("2025-02.xlsx"), 1, 9, 4);
+        writeNumbers(tempDir.resolve("2024-12.xlsx"), -100);
+        Files.writeString(tempDir.resolve("2025-notes.txt"), "0");
+        properties.getAggregation().setMaxConcurrentFiles(1);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            NumberService service = new NumberService(fileValidator, xlsxStreamReader, numberFileReaders,
+                    sortedValuesCache, sidecarIndex, executor, scanExecutor, properties, scanMetrics);
+
+            NthMinDirectoryResponse response =
+                    service.findNthMinNumberInDirectory(tempDir.toString(), "2025-*.xlsx", 3);
+
+            assertEquals(2, response.filesScanned());
+            assertEquals(6, response.numbersProcessed());
+            assertEquals(4, response.value());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findNthMinNumber_CsvFile_ReadsNumbersFromText() throws IOException {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "id;value\n1;12\n2;-3\n3;\"7\"\n4;n/a\n");
+
+        assertEquals(2, numberService.findNthMinNumber(file.toString(), 3));
+        assertEquals(12, numberService.findNthMinNumber(file.toString(), 3, null, "B:B"));
+    }
+
+    @Test
+    void findNthMinNumber_ConcurrentRequests_ShareOneScan() throws Exception {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "12\n-3\n7\n5\n");
+        String filePath = file.toString();
+        CountDownLatch scanStarted = new CountDownLatch(1);
+        CountDownLatch joined = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanStarted.countDown();
+            joined.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(numberFileReaders).forFile(filePath);
+        doAnswer(invocation -> {
+            joined.countDown();
+            return null;
+        }).when(scanMetrics).recordCoalescedRequest();
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Integer> first = executor.submit(() -> numberService.findNthMinNumber(filePath, 3));
+            assertTrue(scanStarted.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> numberService.findNthMinNumber(filePath, 2));
+
+            assertEquals(7, first.get(5, TimeUnit.SECONDS));
+            assertEquals(5, second.get(5, TimeUnit.SECONDS));
+            verify(numberFileReaders, times(1)).forFile(filePath);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findNthMinNumber_JoinedRequests_DoNotTakeScanSlots() throws Exception {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "12\n-3\n7\n5\n");
+        String filePath = file.toString();
+        NumberServiceProperties admission = new NumberServiceProperties();
+        admission.getAdmission().setMaxConcurrentScans(1);
+        admission.getAdmission().setQueueCapacity(1);
+        ScanExecutor singleSlot = new ScanExecutor(admission, new SimpleMeterRegistry());
+        CountDownLatch scanStarted = new CountDownLatch(1);
+        CountDownLatch joined = new CountDownLatch(3);
+        doAnswer(invocation -> {
+            scanStarted.countDown();
+            joined.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(numberFileReaders).forFile(filePath);
+        doAnswer(invocation -> {
+            joined.countDown();
+            return null;
+        }).when(scanMetrics).recordCoalescedRequest();
+
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            NumberService service = new NumberService(fileValidator, xlsxStreamReader, numberFileReaders,
+                    sortedValuesCache, sidecarIndex, executor, singleSlot, properties, scanMetrics);
+            Future<Integer> first = executor.submit(() -> service.findNthMinNumber(filePath, 4));
+            assertTrue(scanStarted.await(5, TimeUnit.SECONDS));
+            List<Future<Integer>> joinedRequests = List.of(
+                    executor.submit(() -> service.findNthMinNumber(filePath, 1)),
+                    executor.submit(() -> service.findNthMinNumber(filePath, 2)),
+                    executor.submit(() -> service.findNthMinNumber(filePath, 3)));
+
+            assertEquals(12, first.get(5, TimeUnit.SECONDS));
+            assertEquals(-3, joinedRequests.get(0).get(5, TimeUnit.SECONDS));
+            assertEquals(5, joinedRequests.get(1).get(5, TimeUnit.SECONDS));
+            assertEquals(7, joinedRequests.get(2).get(5, TimeUnit.SECONDS));
+            verify(numberFileReaders, times(1)).forFile(filePath);
+        } finally {
+            executor.shutdownNow();
+            singleSlot.shutdown();
+        }
+    }
+
+    @Test
+    void findNthMinNumber_ConcurrentRequestsWithLargerN_ShareOneWideningScan() throws Exception {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "12\n-3\n7\n5\n");
+        String filePath = file.toString();
+        CountDownLatch scanStarted = new CountDownLatch(1);
+        CountDownLatch joined = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            scanStarted.countDown();
+            joined.await(5, TimeUnit.SECONDS);
+            return invocation.callRealMethod();
+        }).when(numberFileReaders).forFile(filePath);
+        doAnswer(invocation -> {
+            joined.countDown();
+            return null;
+        }).when(scanMetrics).recordCoalescedRequest();
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            Future<Integer> first = executor.submit(() -> numberService.findNthMinNumber(filePath, 1));
+            assertTrue(scanStarted.await(5, TimeUnit.SECONDS));
+            Future<Integer> second = executor.submit(() -> numberService.findNthMinNumber(filePath, 4));
+            Future<Integer> third = executor.submit(() -> numberService.findNthMinNumber(filePath, 3));
+
+            assertEquals(-3, first.get(5, TimeUnit.SECONDS));
+            assertEquals(12, second.get(5, TimeUnit.SECONDS));
+            assertEquals(7, third.get(5, TimeUnit.SECONDS));
+            verify(numberFileReaders, times(2)).forFile(filePath);
+            verify(scanMetrics).recordScan(any(), anyLong(), eq(1));
+            verify(scanMetrics).recordScan(any(), anyLong(), eq(4));
+            verify(scanMetrics, never()).recordScan(any(), anyLong(), eq(3));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findNthMinNumber_CacheEnabledLargeSheet_FillsCacheFromRowChunks() throws IOException {
+        Path file = tempDir.resolve("chunks.xlsx");
+        int[] numbers = new int[5_000];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = numbers.length - i;
+        }
+        writeNumbers(file, numbers);
+        NumberServiceProperties chunked = new NumberServiceProperties();
+        chunked.getScan().setParallelism(3);
+        chunked.getScan().setChunkedSheetThreshold(DataSize.ofBytes(0));
+        chunked.getScan().setChunkSize(DataSize.ofKilobytes(4));
+        SortedValuesCache cache = new SortedValuesCache(chunked);
+        NumberFileReaders readers = new NumberFileReaders(List.of(new XlsxStreamReader(chunked)));
+
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            NumberService service = new NumberService(fileValidator, xlsxStreamReader, readers,
+                    cache, sidecarIndex, executor, scanExecutor, chunked, scanMetrics);
+
+            assertEquals(10, service.findNthMinNumber(file.toString(), 10));
+            assertEquals(4_990, service.findNthMinNumber(file.toString(), 4_990));
+
+            verify(scanMetrics, times(3)).recordScan(any(), anyLong(), eq(10));
+            verify(scanMetrics, never()).recordScan(any(), anyLong(), eq(4_990));
+            assertEquals(1, cache.stats().entries());
+            assertEquals(1, cache.stats().hits());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findNthMinNumbers_MediumSheet_ReadsPartsWithAndWithoutCache() throws IOException {
+        Path file = tempDir.resolve("pipeline.xlsx");
+        writeNumbers(file, 10, 4, 7, 1, 9);
+        NumberServiceProperties pipelined = new NumberServiceProperties();
+        pipelined.getScan().setPipelineThreshold(DataSize.ofBytes(0));
+        XlsxStreamReader reader = spy(new XlsxStreamReader(pipelined));
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            NumberService service = new NumberService(fileValidator, xlsxStreamReader,
+                    new NumberFileReaders(List.of(reader)), new SortedValuesCache(pipelined), sidecarIndex,
+                    executor, scanExecutor, pipelined, scanMetrics);
+
+            assertEquals(4, service.findNthMinNumber(file.toString(), 2));
+            pipelined.getCache().setEnabled(false);
+            NthMinBatchResponse response = service.findNthMinNumbers(file.toString(), List.of(1, 3), null, null);
+
+            assertEquals(List.of(1, 7), response.results().stream().map(NthMinResult::value).toList());
+            verify(reader, times(2)).readParts(any(), anyLong(), any(), any(), any(), any());
+            verify(reader, never()).read(any(File.class), any(), any(IntConsumer.class), any());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findNthMinNumber_MoreNumbersThanCacheHolds_AnswersWithoutCaching() throws IOException {
+        Path file = tempDir.resolve("digits.txt");
+        StringBuilder content = new StringBuilder();
+        for (int i = 0; i < 10_000; i++) {
+            content.append(9 - i % 10).append('\n');
+        }
+        Files.writeString(file, content);
+        properties.getCache().setMaxSize(DataSize.ofKilobytes(24));
+        SortedValuesCache cache = new SortedValuesCache(properties);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            NumberService service = new NumberService(fileValidator, xlsxStreamReader, numberFileReaders,
+                    cache, sidecarIndex, executor, scanExecutor, properties, scanMetrics);
+
+            assertEquals(0, service.findNthMinNumber(file.toString(), 1_000));
+            assertEquals(1, service.findNthMinNumber(file.toString(), 1_001));
+            assertEquals(0, cache.stats().entries());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void findNthMinNumber_SheetsOfCsvFile_ThrowsException() throws IOException {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "1\n2\n3\n");
+
+        assertThrows(ValidationException.class,
+                () -> numberService.findNthMinNumber(file.toString(), 1, List.of("*")));
+    }
+
+    @Test
+    void testIsInteger() {
+        assertTrue(NumberUtils.isInteger(5.0));
+        assertTrue(NumberUtils.isInteger(0.0));
+        assertFalse(NumberUtils.isInteger(5.5));
+        assertFalse(NumberUtils.isInteger(Double.POSITIVE_INFINITY));
+    }
+
+    private void writeNumbers(Path path, int... numbers) throws IOException {
+        try (Workbook workbook = new XSSFWorkbook(); FileOutputStream out = new FileOutputStream(path.toFile())) {
+            Sheet sheet = workbook.createSheet("Numbers");
+            for (int i = 0; i < numbers.length; i++) {
+                sheet.createRow(i).createCell(0).setCellValue(numbers[i]);
+            }
+            workbook.write(out);
+        }
     }
 }
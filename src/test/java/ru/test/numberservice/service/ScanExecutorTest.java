@@ -0,0 +1,157 @@
+package ru.test.numberservice.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.exception.ScanQueueFullException;
+import ru.test.numberservice.exception.ServiceOverloadedException;
+import ru.test.numberservice.exception.ValidationException;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для ScanExecutor.
+ * Проверяют выполнение разбора в пуле и отклонение запросов при перегрузке.
+ */
+class ScanExecutorTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+    private ScanExecutor scanExecutor;
+
+    @AfterEach
+    void tearDown() {
+        scanExecutor.shutdown();
+    }
+
+    @Test
+    void execute_ReturnsTaskResult() {
+        scanExecutor = newExecutor(Duration.ofSeconds(30));
+
+        assertEquals(42, scanExecutor.execute(() -> 42));
+    }
+
+    @Test
+    void execute_NestedScan_RunsInCallingSlot() {
+        scanExecutor = newExecutor(Duration.ofSeconds(30));
+
+        assertEquals(42, scanExecutor.execute(() -> scanExecutor.execute(() -> 42)));
+    }
+
+    @Test
+    void execute_TaskThrows_RethrowsSameException() {
+        scanExecutor = newExecutor(Duration.ofSeconds(30));
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> scanExecutor.execute(() -> {
+                    throw new ValidationException("Number N should be positive");
+                }));
+        assertEquals("Number N should be positive", exception.getMessage());
+    }
+
+    @Test
+    void execute_QueueFull_ThrowsServiceOverloadedException() throws Exception {
+        scanExecutor = newExecutor(Duration.ofSeconds(30));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> scanExecutor.execute(() -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> scanExecutor.execute(() -> 2));
+        waitUntilQueued(1);
+
+        ScanQueueFullException exception = assertThrows(ScanQueueFullException.class,
+                () -> scanExecutor.execute(() -> 3));
+        assertEquals(Duration.ofSeconds(1), exception.getRetryAfter());
+        assertEquals(1, registry.get("numberservice.admission.rejected").tag("reason", "queue_full").counter().count());
+
+        release.countDown();
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertEquals(2, queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void execute_WaitedTooLongInQueue_ThrowsServiceOverloadedException() throws Exception {
+        scanExecutor = newExecutor(Duration.ofMillis(10));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> scanExecutor.execute(() -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Integer> queued = CompletableFuture.supplyAsync(() -> scanExecutor.execute(() -> 2));
+        waitUntilQueued(1);
+        Thread.sleep(50);
+        release.countDown();
+
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        Exception exception = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(ServiceOverloadedException.class, exception.getCause());
+        assertEquals(1, registry.get("numberservice.admission.rejected").tag("reason", "queue_timeout").counter().count());
+    }
+
+    @Test
+    void execute_WaitedTooLongInQueue_FailsWithoutWaitingForRunningScan() throws Exception {
+        scanExecutor = newExecutor(Duration.ofMillis(50));
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicBoolean queuedRan = new AtomicBoolean();
+
+        CompletableFuture<Integer> running = CompletableFuture.supplyAsync(() -> scanExecutor.execute(() -> {
+            started.countDown();
+            await(release);
+            return 1;
+        }));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        long waitStart = System.nanoTime();
+        assertThrows(ServiceOverloadedException.class, () -> scanExecutor.execute(() -> {
+            queuedRan.set(true);
+            return 2;
+        }));
+        assertTrue(System.nanoTime() - waitStart < TimeUnit.SECONDS.toNanos(4));
+        assertFalse(running.isDone());
+
+        release.countDown();
+        assertEquals(1, running.get(5, TimeUnit.SECONDS));
+        assertEquals(3, scanExecutor.execute(() -> 3));
+        assertFalse(queuedRan.get());
+    }
+
+    private ScanExecutor newExecutor(Duration queueTimeout) {
+        NumberServiceProperties properties = new NumberServiceProperties();
+        properties.getAdmission().setMaxConcurrentScans(1);
+        properties.getAdmission().setQueueCapacity(1);
+        properties.getAdmission().setQueueTimeout(queueTimeout);
+        return new ScanExecutor(properties, registry);
+    }
+
+    private void waitUntilQueued(int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (registry.get("executor.queued").tag("name", "scan").gauge().value() < expected) {
+            assertTrue(System.nanoTime() < deadline, "Task was not queued in time");
+            Thread.sleep(5);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package ru.test.numberservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для FastDecimalParser.
+ * Проверяют дробную часть, экспоненту, разделители разрядов и совпадение с Double.parseDouble.
+ */
+class FastDecimalParserTest {
+
+    private final FastDecimalParser parser = FastDecimalParser.DEFAULT;
+
+    @Test
+    void parse_DecimalNumbers() {
+        assertEquals(42.0, parser.parse("42"));
+        assertEquals(-1.5, parser.parse("-1.5"));
+        assertEquals(0.25, parser.parse(",25"));
+        assertEquals(5.0, parser.parse("5."));
+        assertEquals(-1234.56, parser.parse("\u22121 234,56"));
+        assertEquals(1234567.5, parser.parse(" 1'234'567.5 "));
+        assertEquals(1500.0, parser.parse("1.5e3"));
+        assertEquals(0.0015, parser.parse("1.5E-3"));
+    }
+
+    @Test
+    void parse_MatchesDoubleParseDouble() {
+        String[] texts = {"0.1", "0.3", "123456.789", "9007199254740993", "1.2345678901234567E-5",
+                "12345678901234567890.5", "1e300", "4.9e-324", "0.000000000000000000000000123"};
+        for (String text : texts) {
+            assertEquals(Double.parseDouble(text), parser.parse(text), text);
+        }
+    }
+
+    @Test
+    void parse_NonNumericText_ReturnsNaN() {
+        assertTrue(Double.isNaN(parser.parse("")));
+        assertTrue(Double.isNaN(parser.parse(" ")));
+        assertTrue(Double.isNaN(parser.parse(".")));
+        assertTrue(Double.isNaN(parser.parse("-")));
+        assertTrue(Double.isNaN(parser.parse("1.5.5")));
+        assertTrue(Double.isNaN(parser.parse("1e")));
+        assertTrue(Double.isNaN(parser.parse("12 34,5")));
+        assertTrue(Double.isNaN(parser.parse("NaN")));
+        assertTrue(Double.isNaN(parser.parse("Infinity")));
+        assertTrue(Double.isNaN(parser.parse("1e400")));
+    }
+}
@@ -0,0 +1,108 @@
+package ru.test.numberservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static ru.test.numberservice.util.FastIntParser.NOT_A_NUMBER;
+
+/**
+ * Тесты для FastIntParser.
+ * Проверяют знак, пробелы, разделители разрядов, переполнение и нечисловой текст.
+ */
+class FastIntParserTest {
+
+    private final FastIntParser parser = FastIntParser.DEFAULT;
+
+    @Test
+    void parse_PlainIntegers() {
+        assertEquals(0, parser.parse("0"));
+        assertEquals(42, parser.parse("42"));
+        assertEquals(-42, parser.parse("-42"));
+        assertEquals(42, parser.parse("+42"));
+        assertEquals(-7, parser.parse("\u22127"));
+        assertEquals(7, parser.parse("007"));
+    }
+
+    @Test
+    void parse_SurroundingWhitespace_IsIgnored() {
+        assertEquals(7, parser.parse(" 7 "));
+        assertEquals(7, parser.parse("\t7\n"));
+        assertEquals(7, parser.parse("\u00A07\u00A0"));
+    }
+
+    @Test
+    void parse_GroupingSeparators() {
+        assertEquals(1234567, parser.parse("1 234 567"));
+        assertEquals(1234567, parser.parse("1\u00A0234\u00A0567"));
+        assertEquals(-1234567, parser.parse("-1\u202F234\u202F567"));
+        assertEquals(1234567, parser.parse("1'234'567"));
+        assertEquals(NOT_A_NUMBER, parser.parse("12 34"));
+        assertEquals(NOT_A_NUMBER, parser.parse("1234 567"));
+        assertEquals(NOT_A_NUMBER, parser.parse("1 2345"));
+        assertEquals(NOT_A_NUMBER, parser.parse("1  234"));
+        assertEquals(NOT_A_NUMBER, new FastIntParser("").parse("1 234"));
+    }
+
+    @Test
+    void parse_IntRangeBoundaries() {
+        assertEquals(Integer.MAX_VALUE, parser.parse("2147483647"));
+        assertEquals(Integer.MIN_VALUE, parser.parse("-2147483648"));
+        assertEquals(NOT_A_NUMBER, parser.parse("2147483648"));
+        assertEquals(NOT_A_NUMBER, parser.parse("-2147483649"));
+        assertEquals(NOT_A_NUMBER, parser.parse("99999999999999999999999"));
+    }
+
+    @Test
+    void parseLong_LongRangeBoundaries() {
+        assertEquals(9_000_000_000L, parser.parseLong("9 000 000 000"));
+        assertEquals(Long.MAX_VALUE, parser.parseLong("9223372036854775807"));
+        assertEquals(-Long.MAX_VALUE, parser.parseLong("-9223372036854775807"));
+        assertEquals(NOT_A_NUMBER, parser.parseLong("9223372036854775808"));
+        assertEquals(NOT_A_NUMBER, parser.parseLong("-9223372036854775809"));
+        assertEquals(NOT_A_NUMBER, parser.parseLong("1.5"));
+    }
+
+    @Test
+    void parse_NonNumericText_ReturnsSentinel() {
+        assertEquals(NOT_A_NUMBER, parser.parse(""));
+        assertEquals(NOT_A_NUMBER, parser.parse("  "));
+        assertEquals(NOT_A_NUMBER, parser.parse("-"));
+        assertEquals(NOT_A_NUMBER, parser.parse("text"));
+        assertEquals(NOT_A_NUMBER, parser.parse("12a"));
+        assertEquals(NOT_A_NUMBER, parser.parse("1.5"));
+        assertEquals(NOT_A_NUMBER, parser.parse("--1"));
+    }
+
+    @Test
+    void parse_DecimalSeparators_FollowDecimalParserRule() {
+        FastDecimalParser decimalParser = FastDecimalParser.DEFAULT;
+        String[] integral = {"1 234,00", "1'234.0", "5.", ",0", "-7,000"};
+        for (String text : integral) {
+            assertEquals((long) decimalParser.parse(text), parser.parse(text), text);
+        }
+        String[] fractional = {"1,234", "1,5", "1 234,5", "0.001"};
+        for (String text : fractional) {
+            assertEquals(NOT_A_NUMBER, parser.parse(text), text);
+            double decimal = decimalParser.parse(text);
+            assertTrue(decimal != Math.rint(decimal), text);
+        }
+        assertEquals(NOT_A_NUMBER, parser.parse(","));
+        assertEquals(NOT_A_NUMBER, parser.parse("1 23,0"));
+        assertThrows(IllegalArgumentException.class, () -> new FastIntParser(","));
+        assertThrows(IllegalArgumentException.class, () -> new FastDecimalParser(" ."));
+    }
+
+    @Test
+    void parse_CharRange_ParsesOnlyRange() {
+        StringBuilder buffer = new StringBuilder("xx123yy");
+
+        assertEquals(123, parser.parse(buffer, 2, 5));
+    }
+
+    @Test
+    void isBlank_DetectsWhitespaceOnlyText() {
+        assertTrue(FastIntParser.isBlank(""));
+        assertTrue(FastIntParser.isBlank(" \u00A0\t"));
+        assertFalse(FastIntParser.isBlank(" 1 "));
+    }
+}
@@ -0,0 +1,98 @@
+package ru.test.numberservice.util;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.SplittableRandom;
+
+/**
+ * Генератор воспроизводимых тестовых книг для бенчмарков и нагрузочных тестов.
+ * Книга пишется потоково (SXSSF), поэтому можно генерировать листы из миллионов ячеек.
+ * Одинаковые параметры дают одинаковое содержимое.
+ */
+@Slf4j
+public final class WorkbookGenerator {
+
+    private static final int MAX_ROWS_PER_SHEET = 1_048_576;
+    private static final int ROW_WINDOW = 1000;
+    private static final String NON_NUMERIC_TEXT = "n/a";
+
+    private WorkbookGenerator() {
+    }
+
+    /**
+     * Получение книги из каталога фикстур, с генерацией при первом обращении
+     *
+     * @param directory каталог фикстур
+     * @param spec параметры книги
+     * @return путь к файлу книги
+     */
+    public static Path getOrCreate(Path directory, WorkbookSpec spec) throws IOException {
+        Path target = directory.resolve(spec.fileName());
+        if (Files.exists(target)) {
+            return target;
+        }
+
+        Files.createDirectories(directory);
+        Path temp = Files.createTempFile(directory, "workbook", ".tmp");
+        try {
+            generate(temp, spec);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+        log.info("Generated workbook {} ({} bytes)", target, Files.size(target));
+        return target;
+    }
+
+    /**
+     * Генерация книги по параметрам
+     */
+    public static void generate(Path target, WorkbookSpec spec) throws IOException {
+        long rows = (spec.getCells() + spec.getColumns() - 1) / spec.getColumns();
+        if (rows > MAX_ROWS_PER_SHEET) {
+            throw new IllegalArgumentException(String.format(
+                    "%d cells in %d columns exceed %d rows per sheet", spec.getCells(), spec.getColumns(),
+                    MAX_ROWS_PER_SHEET));
+        }
+
+        SplittableRandom random = new SplittableRandom(spec.getSeed());
+        SXSSFWorkbook workbook = new SXSSFWorkbook(null, ROW_WINDOW, true, spec.isSharedStrings());
+        try (OutputStream out = Files.newOutputStream(target)) {
+            for (int s = 0; s < spec.getSheets(); s++) {
+                fillSheet(workbook.createSheet("Sheet" + (s + 1)), spec, random);
+            }
+            workbook.write(out);
+        } finally {
+            workbook.dispose();
+            workbook.close();
+        }
+    }
+
+    private static void fillSheet(Sheet sheet, WorkbookSpec spec, SplittableRandom random) {
+        Row row = null;
+        for (long cell = 0; cell < spec.getCells(); cell++) {
+            int column = (int) (cell % spec.getColumns());
+            if (column == 0) {
+                row = sheet.createRow((int) (cell / spec.getColumns()));
+            }
+
+            double kind = random.nextDouble();
+            int value = random.nextInt(spec.getMinValue(), spec.getMaxValue() + 1);
+            if (kind < spec.getNonNumericRatio()) {
+                row.createCell(column).setCellValue(NON_NUMERIC_TEXT);
+            } else if (kind < spec.getNonNumericRatio() + spec.getTextRatio()) {
+                row.createCell(column).setCellValue(Integer.toString(value));
+            } else {
+                row.createCell(column).setCellValue(value);
+            }
+        }
+    }
+}
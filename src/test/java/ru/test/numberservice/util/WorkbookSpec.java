@@ -0,0 +1,72 @@
+package ru.test.numberservice.util;
+
+import lombok.Builder;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.Locale;
+
+/**
+ * Параметры генерируемой тестовой книги.
+ */
+@Getter
+@Builder
+@ToString
+public class WorkbookSpec {
+
+    /**
+     * Количество ячеек с данными на каждом листе
+     */
+    private final long cells;
+
+    /**
+     * Количество столбцов, по которым распределяются ячейки
+     */
+    @Builder.Default
+    private final int columns = 1;
+
+    /**
+     * Количество листов
+     */
+    @Builder.Default
+    private final int sheets = 1;
+
+    /**
+     * Начальное значение генератора случайных чисел; одинаковое значение дает одинаковые файлы
+     */
+    @Builder.Default
+    private final long seed = 42;
+
+    @Builder.Default
+    private final int minValue = -1_000_000;
+
+    @Builder.Default
+    private final int maxValue = 1_000_000;
+
+    /**
+     * Доля ячеек, в которых число записано текстом
+     */
+    @Builder.Default
+    private final double textRatio = 0.0;
+
+    /**
+     * Доля ячеек с нечисловым текстом
+     */
+    @Builder.Default
+    private final double nonNumericRatio = 0.0;
+
+    /**
+     * Хранить текст в таблице общих строк (как Excel) вместо строк внутри ячеек
+     */
+    @Builder.Default
+    private final boolean sharedStrings = false;
+
+    /**
+     * Имя файла, однозначно определяемое параметрами книги
+     */
+    public String fileName() {
+        return String.format(Locale.ROOT, "wb_c%d_col%d_s%d_seed%d_v%d_%d_t%.2f_nn%.2f%s.xlsx",
+                cells, columns, sheets, seed, minValue, maxValue, textRatio, nonNumericRatio,
+                sharedStrings ? "_sst" : "");
+    }
+}
@@ -0,0 +1,207 @@
+package ru.test.numberservice.validator;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+import ru.test.numberservice.config.NumberServiceProperties;
+import ru.test.numberservice.exception.ValidationException;
+import ru.test.numberservice.selection.ApproximateSelection;
+import ru.test.numberservice.selection.NumberSelection;
+import ru.test.numberservice.selection.SelectionStrategies;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.util.zip.CRC32;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Тесты для FileValidator.
+ * Проверяют ограничение размера файла, бюджет памяти в режиме больших файлов,
+ * проверку содержимого книги и повторное использование успешных проверок.
+ */
+class FileValidatorTest {
+
+    @TempDir
+    Path tempDir;
+
+    private NumberServiceProperties properties;
+    private FileValidator fileValidator;
+    private String largeFilePath;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        properties = new NumberServiceProperties();
+        fileValidator = new FileValidator(properties);
+
+        largeFilePath = tempDir.resolve("large.xlsx").toString();
+        writeWorkbook(Path.of(largeFilePath), (int) DataSize.ofMegabytes(20).toBytes());
+    }
+
+    @Test
+    void validateInput_LargeFileInDefaultMode_ThrowsException() {
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> fileValidator.validateInput(largeFilePath, 3));
+
+        assertTrue(e.getMessage().startsWith("File too large"));
+    }
+
+    @Test
+    void validateInput_LargeFileInLargeFileMode_Passes() {
+        properties.getLargeFile().setEnabled(true);
+
+        assertDoesNotThrow(() -> fileValidator.validateInput(largeFilePath, 3));
+    }
+
+    @Test
+    void validateInput_NOverMemoryBudget_ThrowsException() {
+        properties.getLargeFile().setEnabled(true);
+        properties.getLargeFile().setMemoryBudget(DataSize.ofMegabytes(1));
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> fileValidator.validateInput(largeFilePath, 1_000_000));
+
+        assertTrue(e.getMessage().startsWith("Number N is too large"));
+    }
+
+    @Test
+    void validateMemoryBudget_PartsAndWideNumbers_CountEveryStructure() {
+        properties.getLargeFile().setEnabled(true);
+        properties.getLargeFile().setMemoryBudget(DataSize.ofMegabytes(1));
+        int n = 100_000;
+
+        assertDoesNotThrow(() -> fileValidator.validateInput(largeFilePath, n));
+        assertDoesNotThrow(() -> fileValidator.validateMemoryBudget(n, SelectionStrategies.requiredMemory(n), 2));
+        assertThrows(ValidationException.class,
+                () -> fileValidator.validateMemoryBudget(n, SelectionStrategies.requiredMemory(n), 3));
+        assertDoesNotThrow(
+                () -> fileValidator.validateInput(largeFilePath, n, NumberSelection.requiredMemory(n, false)));
+        assertThrows(ValidationException.class,
+                () -> fileValidator.validateInput(largeFilePath, n, NumberSelection.requiredMemory(n, true)));
+    }
+
+    @Test
+    void limitUpload_BodyWithoutLength_StopsAfterMaxSize() throws IOException {
+        byte[] body = new byte[(int) DataSize.ofMegabytes(11).toBytes()];
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> fileValidator.limitUpload(new ByteArrayInputStream(body)).readAllBytes());
+        assertTrue(e.getMessage().startsWith("File too large"));
+
+        properties.getLargeFile().setEnabled(true);
+        assertEquals(body.length, fileValidator.limitUpload(new ByteArrayInputStream(body)).readAllBytes().length);
+    }
+
+    @Test
+    void validateInput_WrongExtension_ThrowsException() {
+        assertThrows(ValidationException.class,
+                () -> fileValidator.validateInput(tempDir.resolve("numbers.pdf").toString(), 3));
+    }
+
+    @Test
+    void validateInput_NotZipWorkbook_ThrowsException() throws IOException {
+        Path file = tempDir.resolve("numbers.xlsx");
+        Files.writeString(file, "1;2;3\n");
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> fileValidator.validateInput(file.toString(), 3));
+
+        assertTrue(e.getMessage().startsWith("File is not a valid Excel workbook"));
+    }
+
+    @Test
+    void validateInput_ArchiveWithoutSheets_ThrowsException() throws IOException {
+        Path file = tempDir.resolve("numbers.xlsx");
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(file))) {
+            zip.putNextEntry(new ZipEntry("docProps/app.xml"));
+            zip.write("<Properties/>".getBytes(StandardCharsets.UTF_8));
+        }
+
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> fileValidator.validateInput(file.toString(), 3));
+
+        assertTrue(e.getMessage().contains("no worksheets"));
+    }
+
+    @Test
+    void validateInput_TextFile_SkipsWorkbookCheck() throws IOException {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "1;2;3\n");
+
+        assertDoesNotThrow(() -> fileValidator.validateInput(file.toString(), 3));
+    }
+
+    @Test
+    void validateInput_UnchangedFile_ReusesValidation() throws IOException {
+        Path file = tempDir.resolve("numbers.xlsx");
+        writeWorkbook(file, 0);
+        FileTime lastModified = Files.getLastModifiedTime(file);
+        fileValidator.validateInput(file.toString(), 3);
+
+        byte[] corrupt = new byte[(int) Files.size(file)];
+        Files.write(file, corrupt);
+        Files.setLastModifiedTime(file, lastModified);
+        assertDoesNotThrow(() -> fileValidator.validateInput(file.toString(), 3));
+
+        Files.setLastModifiedTime(file, FileTime.fromMillis(lastModified.toMillis() + 2_000));
+        assertThrows(ValidationException.class, () -> fileValidator.validateInput(file.toString(), 3));
+    }
+
+    @Test
+    void validateSketchBudget_LargeFileMode_CountsSketchesOfAllParts() {
+        properties.getLargeFile().setEnabled(true);
+        properties.getLargeFile().setMemoryBudget(DataSize.ofMegabytes(8));
+        long sketchMemory = ApproximateSelection.requiredMemory(0.001);
+
+        assertDoesNotThrow(() -> fileValidator.validateApproximateInput(largeFilePath, 3, sketchMemory));
+        assertDoesNotThrow(() -> fileValidator.validateSketchBudget(sketchMemory, 1));
+        ValidationException e = assertThrows(ValidationException.class,
+                () -> fileValidator.validateSketchBudget(sketchMemory, 2));
+        assertTrue(e.getMessage().startsWith("Rank error is too small"));
+    }
+
+    @Test
+    void validateInput_ValidFile_ReturnsReadAttributes() throws IOException {
+        Path file = tempDir.resolve("numbers.csv");
+        Files.writeString(file, "1;2;3\n");
+
+        BasicFileAttributes attributes = fileValidator.validateInput(file.toString(), 3);
+
+        assertEquals(Files.size(file), attributes.size());
+        assertEquals(Files.getLastModifiedTime(file), attributes.lastModifiedTime());
+    }
+
+    /**
+     * Минимальная книга: архив с листом и, при необходимости, несжатой записью заданного размера
+     */
+    private static void writeWorkbook(Path path, int paddingSize) throws IOException {
+        try (OutputStream out = Files.newOutputStream(path);
+             ZipOutputStream zip = new ZipOutputStream(out)) {
+            zip.putNextEntry(new ZipEntry("xl/worksheets/sheet1.xml"));
+            zip.write("<worksheet/>".getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+            if (paddingSize > 0) {
+                byte[] padding = new byte[paddingSize];
+                CRC32 crc = new CRC32();
+                crc.update(padding);
+                ZipEntry entry = new ZipEntry("xl/media/image1.bin");
+                entry.setMethod(ZipEntry.STORED);
+                entry.setSize(paddingSize);
+                entry.setCompressedSize(paddingSize);
+                entry.setCrc(crc.getValue());
+                zip.putNextEntry(entry);
+                zip.write(padding);
+                zip.closeEntry();
+            }
+        }
+    }
+}